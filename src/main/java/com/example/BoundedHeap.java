@@ -0,0 +1,70 @@
+package com.example;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.PriorityQueue;
+
+/**
+ * Keeps the k first items by a given order out of any number offered, in O(log k) per item.
+ * Internally a max-heap of the kept items, so the current worst kept item is replaced
+ * whenever a better one arrives.
+ */
+class BoundedHeap<T> {
+    private final int k;
+    private final Comparator<? super T> order;
+    private final PriorityQueue<T> heap;
+
+    /**
+     * @param k Number of items to keep (must be >= 0).
+     * @param order Order in which items are ranked; the first k by this order are kept.
+     */
+    BoundedHeap(int k, Comparator<? super T> order) {
+        requireValidK(k);
+        this.k = k;
+        this.order = order;
+        this.heap = new PriorityQueue<>(Math.max(1, k), order.reversed());
+    }
+
+    //Offers an item; it is kept only if it ranks among the first k seen so far
+    void offer(T item) {
+        if (heap.size() < k) {
+            heap.add(item);
+        } else if (k > 0 && order.compare(item, heap.peek()) < 0) {
+            heap.poll();
+            heap.add(item);
+        }
+    }
+
+    //Returns the kept items, best first
+    List<T> toSortedList() {
+        List<T> result = new ArrayList<>(heap);
+        result.sort(order);
+        return result;
+    }
+
+    /**
+     * Merges two lists that are each sorted by the order, keeping the first k items.
+     * @return New sorted list of at most k items.
+     */
+    static <T> List<T> merge(List<T> a, List<T> b, int k, Comparator<? super T> order) {
+        List<T> result = new ArrayList<>(Math.min(k, a.size() + b.size()));
+        int i = 0;
+        int j = 0;
+        while (result.size() < k && (i < a.size() || j < b.size())) {
+            if (j == b.size() || (i < a.size() && order.compare(a.get(i), b.get(j)) <= 0)) {
+                result.add(a.get(i++));
+            } else {
+                result.add(b.get(j++));
+            }
+        }
+        return result;
+    }
+
+    //Validates a requested result size
+    static void requireValidK(int k) {
+        if (k < 0) {
+            throw new IllegalArgumentException("k cannot be negative.");
+        }
+    }
+}
@@ -0,0 +1,194 @@
+package com.example;
+
+import java.io.IOException;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.UUID;
+import java.util.function.Consumer;
+
+/**
+ * Bounded read-through cache in front of another store, typically a {@link FileProductStore}.
+ * Uses W-TinyLFU: new entries enter a small LRU window (1% of the size); an entry leaving the
+ * window only enters the main area if a {@link FrequencySketch} says it is accessed more often
+ * than the entry it would evict. The main area is a segmented LRU, where entries hit again
+ * move from probation to a protected segment (80% of the main area). One-off scans thus cannot
+ * flush frequently used products, while a burst of new hot products still gets in through the
+ * window.
+ * <p>
+ * Writes go straight to the backing store; cached copies are updated or dropped, never left
+ * stale. Thread-safe; all operations synchronize on the cache.
+ */
+public final class CachingProductStore implements ProductStore {
+    private final ProductStore backing;
+    private final int windowCapacity;
+    private final int mainCapacity;
+    private final int protectedCapacity;
+    private final FrequencySketch sketch;
+    //Segments in LRU order, least recently used first
+    private final LinkedHashMap<UUID, Product> window = new LinkedHashMap<>(16, 0.75f, true);
+    private final LinkedHashMap<UUID, Product> probation = new LinkedHashMap<>(16, 0.75f, true);
+    private final LinkedHashMap<UUID, Product> protectedSegment = new LinkedHashMap<>(16, 0.75f, true);
+    private long hits;
+    private long misses;
+    private long evictions;
+
+    /**
+     * @param backing Store to read through to.
+     * @param maximumSize Maximum number of cached products (must be >= 1).
+     * @throws IllegalArgumentException if backing is null or maximumSize is less than 1.
+     */
+    public CachingProductStore(ProductStore backing, int maximumSize) {
+        if (backing == null) {
+            throw new IllegalArgumentException("Backing store cannot be null.");
+        }
+        if (maximumSize < 1) {
+            throw new IllegalArgumentException("Cache size must be at least 1.");
+        }
+        this.backing = backing;
+        this.windowCapacity = Math.max(1, maximumSize / 100);
+        this.mainCapacity = maximumSize - windowCapacity;
+        this.protectedCapacity = mainCapacity * 4 / 5;
+        this.sketch = new FrequencySketch(maximumSize);
+    }
+
+    @Override
+    public synchronized boolean add(Product product) {
+        return backing.add(product);
+    }
+
+    //Returns the cached product, or loads it from the backing store and offers it to the cache
+    @Override
+    public synchronized Product get(UUID id) {
+        sketch.increment(hash(id));
+        Product product = window.get(id);
+        if (product == null) {
+            product = protectedSegment.get(id);
+        }
+        if (product == null) {
+            product = probation.remove(id);
+            if (product != null) {
+                promote(id, product);
+            }
+        }
+        if (product != null) {
+            hits++;
+            return product;
+        }
+        misses++;
+        product = backing.get(id);
+        if (product != null) {
+            admit(id, product);
+        }
+        return product;
+    }
+
+    //Answered from the cache or the backing store's index; not counted as a lookup
+    @Override
+    public synchronized boolean contains(UUID id) {
+        return window.containsKey(id) || probation.containsKey(id) || protectedSegment.containsKey(id)
+                || backing.contains(id);
+    }
+
+    @Override
+    public synchronized Product remove(UUID id) {
+        invalidate(id);
+        return backing.remove(id);
+    }
+
+    @Override
+    public synchronized boolean update(Product product) {
+        UUID id = product.uuid();
+        boolean stored = backing.update(product);
+        //Replace a cached copy in place so the entry keeps its segment
+        window.replace(id, product);
+        probation.replace(id, product);
+        protectedSegment.replace(id, product);
+        if (!stored) {
+            invalidate(id);
+        }
+        return stored;
+    }
+
+    @Override
+    public synchronized int size() {
+        return backing.size();
+    }
+
+    @Override
+    public synchronized void clear() {
+        window.clear();
+        probation.clear();
+        protectedSegment.clear();
+        backing.clear();
+    }
+
+    @Override
+    public synchronized void forEach(Consumer<? super Product> action) {
+        backing.forEach(action);
+    }
+
+    @Override
+    public synchronized boolean compact(double maxOverhead) {
+        return backing.compact(maxOverhead);
+    }
+
+    @Override
+    public synchronized void close() throws IOException {
+        backing.close();
+    }
+
+    //Drops any cached copy of the product with the given id
+    public synchronized void invalidate(UUID id) {
+        if (window.remove(id) == null && probation.remove(id) == null) {
+            protectedSegment.remove(id);
+        }
+    }
+
+    //Number of lookups served from memory
+    public synchronized long getHitCount() { return hits; }
+    //Number of lookups that went to the backing store
+    public synchronized long getMissCount() { return misses; }
+    //Number of entries evicted or refused admission
+    public synchronized long getEvictionCount() { return evictions; }
+    //Number of products currently held in memory
+    public synchronized int getCachedCount() { return window.size() + probation.size() + protectedSegment.size(); }
+
+    //Fraction of lookups served from memory, 0 before the first lookup
+    public synchronized double getHitRatio() {
+        long lookups = hits + misses;
+        return lookups == 0 ? 0 : (double) hits / lookups;
+    }
+
+    //Moves an entry hit in probation to the protected segment, demoting its LRU entry if full
+    private void promote(UUID id, Product product) {
+        protectedSegment.put(id, product);
+        if (protectedSegment.size() > protectedCapacity) {
+            Map.Entry<UUID, Product> demoted = protectedSegment.pollFirstEntry();
+            probation.put(demoted.getKey(), demoted.getValue());
+        }
+    }
+
+    //Adds a loaded product to the window; the entry pushed out of the window competes for the main area
+    private void admit(UUID id, Product product) {
+        window.put(id, product);
+        if (window.size() <= windowCapacity) {
+            return;
+        }
+        Map.Entry<UUID, Product> candidate = window.pollFirstEntry();
+        if (probation.size() + protectedSegment.size() < mainCapacity) {
+            probation.put(candidate.getKey(), candidate.getValue());
+            return;
+        }
+        LinkedHashMap<UUID, Product> victimSegment = probation.isEmpty() ? protectedSegment : probation;
+        Map.Entry<UUID, Product> victim = victimSegment.firstEntry();
+        evictions++;
+        if (victim != null && sketch.frequency(hash(candidate.getKey())) > sketch.frequency(hash(victim.getKey()))) {
+            victimSegment.pollFirstEntry();
+            probation.put(candidate.getKey(), candidate.getValue());
+        }
+    }
+
+    private static long hash(UUID id) {
+        return id.getMostSignificantBits() * 0x9E3779B97F4A7C15L ^ id.getLeastSignificantBits();
+    }
+}
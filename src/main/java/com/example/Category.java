@@ -1,13 +1,13 @@
 package com.example;
 
 import java.util.Arrays;
-import java.util.HashMap;
 import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.stream.Collectors;
 
 public final class Category {
-    // Cache for reusing Category instances with the same name
-    private static final Map<String, Category> CACHE = new HashMap<>();
+    // Cache for reusing Category instances with the same name (concurrent, since importers create categories in parallel)
+    private static final Map<String, Category> CACHE = new ConcurrentHashMap<>();
     //Formatted name of the category (e.g "Dairy", "Electronics")
     private final String name;
 
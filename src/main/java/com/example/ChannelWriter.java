@@ -0,0 +1,194 @@
+package com.example;
+
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.nio.ByteBuffer;
+import java.nio.channels.WritableByteChannel;
+import java.time.LocalDate;
+import java.util.UUID;
+
+/**
+ * Text writer that encodes straight into a reusable direct buffer and drains it to a channel
+ * whenever it fills up. Numbers, dates and ids are formatted digit by digit and strings are
+ * encoded as UTF-8 in place, so writing a row allocates nothing for the common cases.
+ * Not thread-safe.
+ */
+class ChannelWriter {
+    private static final byte[] HEX = "0123456789abcdef".getBytes();
+
+    private final ByteBuffer buffer;
+    private WritableByteChannel channel;
+    //Digits of the number being written, least significant first
+    private final byte[] digits = new byte[20];
+    private long bytesWritten;
+
+    ChannelWriter(int bufferSize) {
+        this.buffer = ByteBuffer.allocateDirect(bufferSize);
+    }
+
+    //Starts writing to a new channel, reusing the buffer
+    ChannelWriter open(WritableByteChannel channel) {
+        this.channel = channel;
+        this.buffer.clear();
+        this.bytesWritten = 0;
+        return this;
+    }
+
+    long bytesWritten() {
+        return bytesWritten + buffer.position();
+    }
+
+    ChannelWriter write(char c) throws IOException {
+        if (c < 0x80) {
+            ensure(1);
+            buffer.put((byte) c);
+        } else if (c < 0x800) {
+            ensure(2);
+            buffer.put((byte) (0xC0 | c >> 6)).put((byte) (0x80 | c & 0x3F));
+        } else {
+            ensure(3);
+            buffer.put((byte) (0xE0 | c >> 12)).put((byte) (0x80 | c >> 6 & 0x3F)).put((byte) (0x80 | c & 0x3F));
+        }
+        return this;
+    }
+
+    //Writes a string as UTF-8
+    ChannelWriter write(String s) throws IOException {
+        for (int i = 0; i < s.length(); i++) {
+            char c = s.charAt(i);
+            if (Character.isHighSurrogate(c) && i + 1 < s.length() && Character.isLowSurrogate(s.charAt(i + 1))) {
+                int cp = Character.toCodePoint(c, s.charAt(++i));
+                ensure(4);
+                buffer.put((byte) (0xF0 | cp >> 18)).put((byte) (0x80 | cp >> 12 & 0x3F))
+                        .put((byte) (0x80 | cp >> 6 & 0x3F)).put((byte) (0x80 | cp & 0x3F));
+            } else if (Character.isSurrogate(c)) {
+                write('?');
+            } else {
+                write(c);
+            }
+        }
+        return this;
+    }
+
+    ChannelWriter write(long value) throws IOException {
+        if (value == Long.MIN_VALUE) {
+            return write(Long.toString(value));
+        }
+        if (value < 0) {
+            write('-');
+            value = -value;
+        }
+        int n = 0;
+        do {
+            digits[n++] = (byte) ('0' + value % 10);
+            value /= 10;
+        } while (value != 0);
+        ensure(n);
+        while (n > 0) {
+            buffer.put(digits[--n]);
+        }
+        return this;
+    }
+
+    //Writes a decimal in plain notation, e.g. 1E+3 as 1000
+    ChannelWriter write(BigDecimal value) throws IOException {
+        BigInteger unscaled = value.unscaledValue();
+        int scale = value.scale();
+        if (unscaled.bitLength() >= 63 || scale < 0 || scale >= digits.length - 1) {
+            return write(value.toPlainString());
+        }
+        long v = unscaled.longValue();
+        if (v < 0) {
+            write('-');
+            v = -v;
+        }
+        int n = 0;
+        do {
+            digits[n++] = (byte) ('0' + v % 10);
+            v /= 10;
+        } while (v != 0);
+        //Pad with zeros so there is at least one digit before the point
+        while (n <= scale) {
+            digits[n++] = '0';
+        }
+        ensure(n + 1);
+        while (n > 0) {
+            if (n == scale) buffer.put((byte) '.');
+            buffer.put(digits[--n]);
+        }
+        return this;
+    }
+
+    ChannelWriter write(double value) throws IOException {
+        return write(Double.toString(value));
+    }
+
+    //Writes an ISO date (yyyy-MM-dd)
+    ChannelWriter write(LocalDate date) throws IOException {
+        if (date.getYear() < 0 || date.getYear() > 9999) {
+            return write(date.toString());
+        }
+        ensure(10);
+        put4(date.getYear());
+        buffer.put((byte) '-');
+        put2(date.getMonthValue());
+        buffer.put((byte) '-');
+        put2(date.getDayOfMonth());
+        return this;
+    }
+
+    //Writes a UUID in its canonical 36-character form
+    ChannelWriter write(UUID id) throws IOException {
+        ensure(36);
+        putHex(id.getMostSignificantBits() >>> 32, 8);
+        buffer.put((byte) '-');
+        putHex(id.getMostSignificantBits() >>> 16, 4);
+        buffer.put((byte) '-');
+        putHex(id.getMostSignificantBits(), 4);
+        buffer.put((byte) '-');
+        putHex(id.getLeastSignificantBits() >>> 48, 4);
+        buffer.put((byte) '-');
+        putHex(id.getLeastSignificantBits(), 12);
+        return this;
+    }
+
+    //Writes a control character as a JSON \\u escape
+    ChannelWriter writeUnicodeEscape(char c) throws IOException {
+        ensure(6);
+        buffer.put((byte) '\\').put((byte) 'u');
+        putHex(c, 4);
+        return this;
+    }
+
+    //Drains the buffer to the channel
+    void flush() throws IOException {
+        buffer.flip();
+        while (buffer.hasRemaining()) {
+            bytesWritten += channel.write(buffer);
+        }
+        buffer.clear();
+    }
+
+    private void ensure(int bytes) throws IOException {
+        if (buffer.remaining() < bytes) {
+            flush();
+        }
+    }
+
+    private void put2(int value) {
+        buffer.put((byte) ('0' + value / 10)).put((byte) ('0' + value % 10));
+    }
+
+    private void put4(int value) {
+        put2(value / 100);
+        put2(value % 100);
+    }
+
+    //Writes the low count hex digits of a value
+    private void putHex(long value, int count) {
+        for (int shift = (count - 1) * 4; shift >= 0; shift -= 4) {
+            buffer.put(HEX[(int) (value >>> shift) & 0xF]);
+        }
+    }
+}
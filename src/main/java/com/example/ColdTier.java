@@ -0,0 +1,237 @@
+package com.example;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.ZoneId;
+import java.util.*;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Optional cold tier that offloads expired and idle products out of a warehouse's hot shards
+ * into a compact {@link ProductStore}, typically a {@link FileProductStore} (about 35 bytes per
+ * product on disk), optionally behind a {@link CachingProductStore}.
+ * <p>
+ * An offload pass moves every expired perishable, and every product not added, repriced or
+ * looked up by id for the idle time, to the store. Offloaded products leave the hot indexes,
+ * so queries and analyzer scans skip them; {@link Warehouse#getProducts(boolean)} includes
+ * them on request. A price update transparently moves a product back, and so does a lookup by
+ * id unless the tier was attached to serve lookups from the store: then {@link ProductStore#get}
+ * answers them and the product stays cold, so a {@link CachingProductStore} in front of the
+ * file keeps frequently read cold products in memory. Listeners see an offload as a removal
+ * and a rehydration as an add.
+ * <p>
+ * Each offload pass ends by letting the store compact itself once superseded copies (products
+ * that went cold and back) take more than {@link #MAX_STORE_OVERHEAD} times the live size, so a
+ * periodically running tier keeps its file bounded.
+ * <p>
+ * The store is owned by the caller; closing the tier detaches it from the warehouse but
+ * leaves offloaded products in the store.
+ */
+public final class ColdTier implements AutoCloseable {
+    //Store size tolerated after an offload pass, as a multiple of the live size
+    static final double MAX_STORE_OVERHEAD = 2.0;
+
+    private final Warehouse warehouse;
+    private final ProductStore store;
+    private final Duration idleAfter;
+    //Whether a lookup by id moves the product back, or only reads it from the store
+    private final boolean rehydrateOnLookup;
+    private long offloadedCount;
+    private long rehydratedCount;
+    private long servedCount;
+    private long compactionCount;
+    //Background ticker, or null when offloading is triggered manually
+    private ScheduledExecutorService ticker;
+
+    private ColdTier(Warehouse warehouse, ProductStore store, Duration idleAfter, boolean rehydrateOnLookup) {
+        this.warehouse = warehouse;
+        this.store = store;
+        this.idleAfter = idleAfter;
+        this.rehydrateOnLookup = rehydrateOnLookup;
+    }
+
+    /**
+     * Attaches a cold tier to a warehouse without a background thread; call {@link #offload()} to run it.
+     * @param warehouse Warehouse to tier.
+     * @param store Thread-safe store receiving offloaded products.
+     * @param idleAfter How long a product may go untouched before it is offloaded.
+     * @return Attached tier; close it to detach.
+     * @throws IllegalArgumentException if an argument is null or idleAfter is negative.
+     * @throws IllegalStateException if the warehouse already has a cold tier.
+     */
+    public static ColdTier attach(Warehouse warehouse, ProductStore store, Duration idleAfter) {
+        return attach(warehouse, store, idleAfter, true);
+    }
+
+    /**
+     * Attaches a cold tier without a background thread, choosing what a lookup by id of an offloaded product does.
+     * @param rehydrateOnLookup true to move the product back into the warehouse, false to read it
+     *                          through {@link ProductStore#get} and leave it cold.
+     * @see #attach(Warehouse, ProductStore, Duration)
+     */
+    public static ColdTier attach(Warehouse warehouse, ProductStore store, Duration idleAfter,
+                                  boolean rehydrateOnLookup) {
+        if (warehouse == null || store == null || idleAfter == null) {
+            throw new IllegalArgumentException("Warehouse, store and idle time cannot be null.");
+        }
+        if (idleAfter.isNegative()) {
+            throw new IllegalArgumentException("Idle time cannot be negative.");
+        }
+        ColdTier tier = new ColdTier(warehouse, store, idleAfter, rehydrateOnLookup);
+        warehouse.attachColdTier(tier);
+        return tier;
+    }
+
+    /**
+     * Attaches a cold tier that offloads on a background daemon thread at a fixed interval.
+     * @param interval Time between offload passes.
+     * @throws IllegalArgumentException if an argument is null or the interval is not positive.
+     * @see #attach(Warehouse, ProductStore, Duration)
+     */
+    public static ColdTier start(Warehouse warehouse, ProductStore store, Duration idleAfter, Duration interval) {
+        if (interval == null || interval.isNegative() || interval.isZero()) {
+            throw new IllegalArgumentException("Interval must be positive.");
+        }
+        ColdTier tier = attach(warehouse, store, idleAfter);
+        tier.ticker = Executors.newSingleThreadScheduledExecutor(
+                Thread.ofPlatform().daemon().name("cold-tier-" + warehouse.getName()).factory());
+        tier.ticker.scheduleWithFixedDelay(tier::tick, interval.toNanos(), interval.toNanos(), TimeUnit.NANOSECONDS);
+        return tier;
+    }
+
+    //Offloads every product that is expired or idle as of now; returns how many were moved.
+    public int offload() {
+        return offloadAt(Instant.now());
+    }
+
+    /**
+     * Offloads every product that is expired or idle as of the given time.
+     * @param now Time to evaluate expiration and idleness at.
+     * @return Number of products moved to the store.
+     */
+    int offloadAt(Instant now) {
+        LocalDate today = LocalDate.ofInstant(now, ZoneId.systemDefault());
+        Map<UUID, Product> candidates = new LinkedHashMap<>();
+        warehouse.find(ProductQuery.where().expiringBetween(null, today.minusDays(1)))
+                .forEach(p -> candidates.put(p.uuid(), p));
+        warehouse.untouchedSince(now.minus(idleAfter).toEpochMilli())
+                .forEach(p -> candidates.putIfAbsent(p.uuid(), p));
+        int moved = 0;
+        for (Product product : candidates.values()) {
+            synchronized (this) {
+                //Write the cold copy first so the product is never missing from both tiers
+                if (!store.add(product)) continue;
+                if (!warehouse.remove(product)) {
+                    //Removed or replaced meanwhile
+                    store.remove(product.uuid());
+                    continue;
+                }
+                offloadedCount++;
+            }
+            moved++;
+        }
+        synchronized (this) {
+            if (store.compact(MAX_STORE_OVERHEAD)) {
+                compactionCount++;
+            }
+        }
+        return moved;
+    }
+
+    /**
+     * Moves an offloaded product back into the warehouse.
+     * @return The product, or null if it is not offloaded or is already hot again.
+     */
+    synchronized Product rehydrate(UUID id) {
+        Product product = store.remove(id);
+        if (product == null || !warehouse.restore(product)) {
+            return null;
+        }
+        rehydratedCount++;
+        return product;
+    }
+
+    /**
+     * Answers a lookup by id of a product that is not hot.
+     * @return The product, or null if it is not offloaded.
+     */
+    Product lookup(UUID id) {
+        if (rehydrateOnLookup) {
+            return rehydrate(id);
+        }
+        synchronized (this) {
+            Product product = store.get(id);
+            if (product != null) {
+                servedCount++;
+            }
+            return product;
+        }
+    }
+
+    synchronized boolean contains(UUID id) {
+        return store.contains(id);
+    }
+
+    synchronized void remove(UUID id) {
+        store.remove(id);
+    }
+
+    synchronized void clear() {
+        store.clear();
+    }
+
+    //Returns the offloaded products, loading each from the store.
+    public synchronized List<Product> getColdProducts() {
+        List<Product> products = new ArrayList<>(store.size());
+        store.forEach(products::add);
+        return products;
+    }
+
+    //Returns the number of offloaded products.
+    public synchronized int getColdCount() {
+        return store.size();
+    }
+
+    //Returns the number of products offloaded so far.
+    public synchronized long getOffloadedCount() {
+        return offloadedCount;
+    }
+
+    //Returns the number of products brought back by lookups so far.
+    public synchronized long getRehydratedCount() {
+        return rehydratedCount;
+    }
+
+    //Returns the number of lookups answered from the store without moving the product back.
+    public synchronized long getServedCount() {
+        return servedCount;
+    }
+
+    //Returns the number of times an offload pass compacted the store.
+    public synchronized long getCompactionCount() {
+        return compactionCount;
+    }
+
+    //Stops the background thread, if any, and detaches from the warehouse.
+    @Override
+    public void close() throws IOException {
+        warehouse.detachColdTier(this);
+        if (ticker != null) {
+            ticker.shutdownNow();
+        }
+    }
+
+    //One background pass; failures are reported without cancelling later passes
+    private void tick() {
+        try {
+            offload();
+        } catch (RuntimeException e) {
+            Thread current = Thread.currentThread();
+            current.getUncaughtExceptionHandler().uncaughtException(current, e);
+        }
+    }
+}
@@ -0,0 +1,63 @@
+package com.example;
+
+import java.math.BigDecimal;
+
+/**
+ * Packs small decimals into a single long: the unscaled value shifted left by 4 bits and the
+ * scale (0-15) in the low 4 bits. Every price and weight with at most 17 digits and 15 decimals
+ * fits, so the common case needs no BigDecimal object per product. Packing is lossless:
+ * unpacking returns a decimal equal in value and scale to the original, e.g. 10.50 stays 10.50.
+ */
+final class CompactDecimal {
+    //Marks a value that does not fit (or is null) and is kept as a BigDecimal by the caller
+    static final long NOT_PACKED = Long.MIN_VALUE;
+
+    private static final int MAX_SCALE = 15;
+    private static final int MAX_PRECISION = 17;
+    //Largest magnitude a double holds exactly
+    private static final long MAX_EXACT_DOUBLE = 1L << 53;
+    private static final double[] POWERS_OF_TEN = new double[MAX_SCALE + 1];
+
+    static {
+        POWERS_OF_TEN[0] = 1;
+        for (int i = 1; i <= MAX_SCALE; i++) {
+            POWERS_OF_TEN[i] = POWERS_OF_TEN[i - 1] * 10;
+        }
+    }
+
+    private CompactDecimal() {}
+
+    //Packs a decimal, or returns NOT_PACKED if it is null or too large or precise to fit
+    static long pack(BigDecimal value) {
+        if (value == null || value.scale() < 0 || value.scale() > MAX_SCALE || value.precision() > MAX_PRECISION) {
+            return NOT_PACKED;
+        }
+        //precision <= 17 bounds the unscaled value by 10^17, well within 59 bits
+        return value.unscaledValue().longValueExact() << 4 | value.scale();
+    }
+
+    static BigDecimal unpack(long packed) {
+        return BigDecimal.valueOf(packed >> 4, (int) (packed & 0xF));
+    }
+
+    /**
+     * Converts a packed value to the nearest double, like {@link BigDecimal#doubleValue()}.
+     * Both operands of the division are exact doubles, so the correctly rounded quotient is the
+     * same value BigDecimal would produce, without creating one.
+     */
+    static double toDouble(long packed) {
+        long unscaled = packed >> 4;
+        if (Math.abs(unscaled) > MAX_EXACT_DOUBLE) {
+            return unpack(packed).doubleValue();
+        }
+        return unscaled / POWERS_OF_TEN[(int) (packed & 0xF)];
+    }
+
+    //Compares two packed values numerically; equal scales compare without unpacking
+    static int compare(long a, long b) {
+        if ((a & 0xF) == (b & 0xF)) {
+            return Long.compare(a >> 4, b >> 4);
+        }
+        return unpack(a).compareTo(unpack(b));
+    }
+}
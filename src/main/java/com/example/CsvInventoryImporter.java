@@ -0,0 +1,448 @@
+package com.example;
+
+import java.io.IOException;
+import java.lang.foreign.Arena;
+import java.lang.foreign.MemorySegment;
+import java.lang.foreign.ValueLayout;
+import java.math.BigDecimal;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.DateTimeException;
+import java.time.LocalDate;
+import java.util.*;
+
+/**
+ * Streaming importer for supplier CSV inventory files of any size.
+ * The file is memory-mapped and cut into chunks at line boundaries; chunks are parsed in
+ * parallel straight from the mapping and fed to the warehouse in batches, so heap use is
+ * bounded by (parallelism x batch size) rather than by the file size. Numbers, ids and dates
+ * are parsed in place; only names and first occurrences of categories become strings.
+ * <p>
+ * Expected columns, with an optional header row starting with {@code type}:
+ * <pre>
+ * type,id,name,category,price,weight,expiration,warranty
+ * food,3f2c...,Milk,Dairy,12.50,1.000,2026-10-20,
+ * electronics,9a41...,"Laptop, 14""",Electronics,999.99,2.2,,24
+ * </pre>
+ * Fields may be quoted (with {@code ""} for a quote) but may not span lines. Rows that cannot
+ * be parsed or whose id already exists are skipped and reported in the {@link ImportReport}.
+ */
+public final class CsvInventoryImporter {
+    public static final int DEFAULT_BATCH_SIZE = 1_024;
+    public static final long DEFAULT_CHUNK_SIZE = 16L << 20;
+
+    private static final String[] COLUMNS = {"type", "id", "name", "category", "price", "weight", "expiration", "warranty"};
+    private static final int TYPE = 0, ID = 1, NAME = 2, CATEGORY = 3, PRICE = 4, WEIGHT = 5, EXPIRATION = 6, WARRANTY = 7;
+    private static final byte[] FOOD = "food".getBytes(StandardCharsets.US_ASCII);
+    private static final byte[] ELECTRONICS = "electronics".getBytes(StandardCharsets.US_ASCII);
+    private static final byte[] HEADER = "type,".getBytes(StandardCharsets.US_ASCII);
+
+    private final Warehouse warehouse;
+    private final int batchSize;
+    private final long chunkSize;
+
+    //Importer with the default batch and chunk sizes
+    public CsvInventoryImporter(Warehouse warehouse) {
+        this(warehouse, DEFAULT_BATCH_SIZE, DEFAULT_CHUNK_SIZE);
+    }
+
+    /**
+     * @param warehouse Warehouse to add the products to.
+     * @param batchSize Products handed to the warehouse per call (must be >= 1).
+     * @param chunkSize Approximate bytes per parallel parsing task (must be >= 1).
+     * @throws IllegalArgumentException if an argument is invalid.
+     */
+    public CsvInventoryImporter(Warehouse warehouse, int batchSize, long chunkSize) {
+        if (warehouse == null) {
+            throw new IllegalArgumentException("Warehouse cannot be null.");
+        }
+        if (batchSize < 1 || chunkSize < 1) {
+            throw new IllegalArgumentException("Batch size and chunk size must be at least 1.");
+        }
+        this.warehouse = warehouse;
+        this.batchSize = batchSize;
+        this.chunkSize = chunkSize;
+    }
+
+    /**
+     * Imports every row of the file into the warehouse.
+     * @param file CSV file to import.
+     * @return Counts of imported and malformed rows, with samples of the malformed ones.
+     * @throws IOException if the file cannot be read.
+     */
+    public ImportReport importFile(Path file) throws IOException {
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ);
+             Arena arena = Arena.ofShared()) {
+            long size = channel.size();
+            if (size == 0) {
+                return new ImportReport(0, 0, List.of());
+            }
+            MemorySegment data = channel.map(FileChannel.MapMode.READ_ONLY, 0, size, arena);
+            return chunks(data).parallelStream()
+                    .map(chunk -> new ChunkParser(data, chunk[0], chunk[1]).run())
+                    .reduce(ImportReport::merge)
+                    .orElseThrow();
+        }
+    }
+
+    //Cuts the data into [start, end) ranges of about chunkSize bytes, each ending after a newline
+    private List<long[]> chunks(MemorySegment data) {
+        long size = data.byteSize();
+        List<long[]> chunks = new ArrayList<>();
+        long start = 0;
+        while (start < size) {
+            long end = Math.min(size, start + chunkSize);
+            while (end < size && data.get(ValueLayout.JAVA_BYTE, end - 1) != '\n') {
+                end++;
+            }
+            chunks.add(new long[]{start, end});
+            start = end;
+        }
+        return chunks;
+    }
+
+    //Rejection of a single row; carries no stack trace since it is part of normal control flow
+    private static final class MalformedRowException extends RuntimeException {
+        MalformedRowException(String message) {
+            super(message, null, false, false);
+        }
+    }
+
+    /**
+     * Parses one chunk. All per-row state is reused from row to row, so parsing a valid row
+     * allocates little more than the product itself.
+     */
+    private final class ChunkParser {
+        private final MemorySegment data;
+        private final long end;
+        private long position;
+        //Field boundaries of the current row; quoted fields exclude their quotes
+        private final long[] fieldStart = new long[COLUMNS.length];
+        private final long[] fieldEnd = new long[COLUMNS.length];
+        private final boolean[] fieldQuoted = new boolean[COLUMNS.length];
+        private byte[] scratch = new byte[128];
+        //Categories seen in this chunk, keyed by their raw bytes
+        private final Map<ByteKey, Category> categories = new HashMap<>();
+        private final ByteKey probe = new ByteKey();
+        private final List<Product> batch = new ArrayList<>(batchSize);
+        private final long[] batchOffsets = new long[batchSize];
+        private long imported;
+        private long malformed;
+        private final List<ImportReport.MalformedRow> samples = new ArrayList<>();
+
+        ChunkParser(MemorySegment data, long start, long end) {
+            this.data = data;
+            this.position = start;
+            this.end = end;
+        }
+
+        ImportReport run() {
+            while (position < end) {
+                long lineStart = position;
+                long lineEnd = lineStart;
+                while (lineEnd < end && at(lineEnd) != '\n') {
+                    lineEnd++;
+                }
+                position = lineEnd + 1;
+                if (lineEnd > lineStart && at(lineEnd - 1) == '\r') {
+                    lineEnd--;
+                }
+                if (lineEnd == lineStart || (lineStart == 0 && startsWith(lineStart, lineEnd, HEADER))) {
+                    continue;
+                }
+                try {
+                    batchOffsets[batch.size()] = lineStart;
+                    batch.add(parseRow(lineStart, lineEnd));
+                    if (batch.size() == batchSize) {
+                        flush();
+                    }
+                } catch (MalformedRowException | IllegalArgumentException | DateTimeException e) {
+                    reject(lineStart, e.getMessage());
+                }
+            }
+            flush();
+            samples.sort(Comparator.comparingLong(ImportReport.MalformedRow::offset));
+            return new ImportReport(imported, malformed, samples.subList(0, Math.min(ImportReport.MAX_SAMPLES, samples.size())));
+        }
+
+        //Hands the batch to the warehouse and reports ids that already existed
+        private void flush() {
+            if (batch.isEmpty()) return;
+            List<Product> rejected = warehouse.addProducts(batch);
+            imported += batch.size() - rejected.size();
+            if (!rejected.isEmpty()) {
+                Set<Product> duplicates = Collections.newSetFromMap(new IdentityHashMap<>());
+                duplicates.addAll(rejected);
+                for (int i = 0; i < batch.size(); i++) {
+                    if (duplicates.contains(batch.get(i))) {
+                        reject(batchOffsets[i], "Duplicate product id " + batch.get(i).uuid() + ".");
+                    }
+                }
+            }
+            batch.clear();
+        }
+
+        private void reject(long offset, String reason) {
+            malformed++;
+            //Keep the earliest rows; trimming in bulk keeps this cheap for very broken files
+            samples.add(new ImportReport.MalformedRow(offset, reason));
+            if (samples.size() >= 2 * ImportReport.MAX_SAMPLES) {
+                samples.sort(Comparator.comparingLong(ImportReport.MalformedRow::offset));
+                samples.subList(ImportReport.MAX_SAMPLES, samples.size()).clear();
+            }
+        }
+
+        private Product parseRow(long from, long to) {
+            splitFields(from, to);
+            boolean food = fieldEquals(TYPE, FOOD);
+            if (!food && !fieldEquals(TYPE, ELECTRONICS)) {
+                throw new MalformedRowException("Unknown product type.");
+            }
+            UUID id = uuid(ID);
+            if (fieldEnd[NAME] == fieldStart[NAME]) {
+                throw new MalformedRowException("Missing name.");
+            }
+            String name = string(NAME);
+            Category category = category(CATEGORY);
+            BigDecimal price = decimal(PRICE);
+            BigDecimal weight = decimal(WEIGHT);
+            if (food) {
+                return new FoodProduct(id, name, category, price, date(EXPIRATION), weight);
+            }
+            return new ElectronicsProduct(id, name, category, price, integer(WARRANTY), weight);
+        }
+
+        //Finds the field boundaries of a row, honouring quotes
+        private void splitFields(long from, long to) {
+            int field = 0;
+            long p = from;
+            while (true) {
+                if (field == COLUMNS.length) {
+                    throw new MalformedRowException("Too many fields, expected " + COLUMNS.length + ".");
+                }
+                if (p < to && at(p) == '"') {
+                    long q = p + 1;
+                    while (true) {
+                        if (q >= to) throw new MalformedRowException("Unterminated quoted field.");
+                        if (at(q) == '"') {
+                            if (q + 1 < to && at(q + 1) == '"') {
+                                q += 2;
+                                continue;
+                            }
+                            break;
+                        }
+                        q++;
+                    }
+                    fieldStart[field] = p + 1;
+                    fieldEnd[field] = q;
+                    fieldQuoted[field] = true;
+                    p = q + 1;
+                    if (p < to && at(p) != ',') {
+                        throw new MalformedRowException("Unexpected character after quoted field.");
+                    }
+                } else {
+                    long q = p;
+                    while (q < to && at(q) != ',') {
+                        q++;
+                    }
+                    fieldStart[field] = p;
+                    fieldEnd[field] = q;
+                    fieldQuoted[field] = false;
+                    p = q;
+                }
+                field++;
+                if (p >= to) break;
+                //Skip the comma; a trailing comma ends the row with an empty field
+                p++;
+                if (p == to) {
+                    if (field == COLUMNS.length) {
+                        throw new MalformedRowException("Too many fields, expected " + COLUMNS.length + ".");
+                    }
+                    fieldStart[field] = to;
+                    fieldEnd[field] = to;
+                    fieldQuoted[field] = false;
+                    field++;
+                    break;
+                }
+            }
+            if (field != COLUMNS.length) {
+                throw new MalformedRowException("Expected " + COLUMNS.length + " fields, found " + field + ".");
+            }
+        }
+
+        //Decodes a field as UTF-8, resolving doubled quotes in quoted fields
+        private String string(int field) {
+            int length = copyToScratch(field);
+            return new String(scratch, 0, length, StandardCharsets.UTF_8);
+        }
+
+        private int copyToScratch(int field) {
+            long length = fieldEnd[field] - fieldStart[field];
+            if (scratch.length < length) {
+                scratch = new byte[(int) Math.max(length, 2L * scratch.length)];
+            }
+            int n = 0;
+            for (long p = fieldStart[field]; p < fieldEnd[field]; p++) {
+                byte b = at(p);
+                scratch[n++] = b;
+                if (b == '"' && fieldQuoted[field]) p++;
+            }
+            return n;
+        }
+
+        //Resolves a category by its raw bytes, creating it only on first sight in this chunk
+        private Category category(int field) {
+            int length = copyToScratch(field);
+            probe.set(scratch, length);
+            Category category = categories.get(probe);
+            if (category == null) {
+                category = Category.of(new String(scratch, 0, length, StandardCharsets.UTF_8));
+                categories.put(new ByteKey().set(Arrays.copyOf(scratch, length), length), category);
+            }
+            return category;
+        }
+
+        private BigDecimal decimal(int field) {
+            long p = fieldStart[field];
+            long to = fieldEnd[field];
+            if (p == to) throw missing(field);
+            boolean negative = at(p) == '-';
+            if (negative || at(p) == '+') p++;
+            long unscaled = 0;
+            int scale = -1;
+            int digits = 0;
+            for (; p < to; p++) {
+                byte b = at(p);
+                if (b == '.' && scale < 0) {
+                    scale = 0;
+                    continue;
+                }
+                if (b < '0' || b > '9') throw invalid(field);
+                if (digits == 18) {
+                    //Too long for a long; let BigDecimal handle it
+                    try {
+                        return new BigDecimal(string(field));
+                    } catch (NumberFormatException e) {
+                        throw invalid(field);
+                    }
+                }
+                unscaled = unscaled * 10 + (b - '0');
+                digits++;
+                if (scale >= 0) scale++;
+            }
+            if (digits == 0) throw invalid(field);
+            return BigDecimal.valueOf(negative ? -unscaled : unscaled, Math.max(scale, 0));
+        }
+
+        private int integer(int field) {
+            long p = fieldStart[field];
+            long to = fieldEnd[field];
+            if (p == to) throw missing(field);
+            if (to - p > 9) throw invalid(field);
+            int value = 0;
+            for (; p < to; p++) {
+                byte b = at(p);
+                if (b < '0' || b > '9') throw invalid(field);
+                value = value * 10 + (b - '0');
+            }
+            return value;
+        }
+
+        //Parses an ISO date (yyyy-MM-dd)
+        private LocalDate date(int field) {
+            long p = fieldStart[field];
+            if (p == fieldEnd[field]) throw missing(field);
+            if (fieldEnd[field] - p != 10 || at(p + 4) != '-' || at(p + 7) != '-') throw invalid(field);
+            return LocalDate.of(digits(field, p, 4), digits(field, p + 5, 2), digits(field, p + 8, 2));
+        }
+
+        private int digits(int field, long from, int count) {
+            int value = 0;
+            for (long p = from; p < from + count; p++) {
+                byte b = at(p);
+                if (b < '0' || b > '9') throw invalid(field);
+                value = value * 10 + (b - '0');
+            }
+            return value;
+        }
+
+        //Parses the canonical 36-character UUID form without creating a string
+        private UUID uuid(int field) {
+            long p = fieldStart[field];
+            if (fieldEnd[field] - p != 36) throw invalid(field);
+            long most = 0;
+            long least = 0;
+            for (int i = 0; i < 36; i++) {
+                byte b = at(p + i);
+                if (i == 8 || i == 13 || i == 18 || i == 23) {
+                    if (b != '-') throw invalid(field);
+                    continue;
+                }
+                int nibble = Character.digit(b, 16);
+                if (nibble < 0) throw invalid(field);
+                if (i < 18) {
+                    most = most << 4 | nibble;
+                } else {
+                    least = least << 4 | nibble;
+                }
+            }
+            return new UUID(most, least);
+        }
+
+        private boolean fieldEquals(int field, byte[] expected) {
+            return fieldEnd[field] - fieldStart[field] == expected.length
+                    && startsWith(fieldStart[field], fieldEnd[field], expected);
+        }
+
+        private boolean startsWith(long from, long to, byte[] prefix) {
+            if (to - from < prefix.length) return false;
+            for (int i = 0; i < prefix.length; i++) {
+                if (at(from + i) != prefix[i]) return false;
+            }
+            return true;
+        }
+
+        private byte at(long offset) {
+            return data.get(ValueLayout.JAVA_BYTE, offset);
+        }
+
+        private MalformedRowException missing(int field) {
+            return new MalformedRowException("Missing " + COLUMNS[field] + ".");
+        }
+
+        private MalformedRowException invalid(int field) {
+            return new MalformedRowException("Invalid " + COLUMNS[field] + ".");
+        }
+    }
+
+    //Byte-array map key; one mutable instance is reused for lookups
+    private static final class ByteKey {
+        private byte[] bytes;
+        private int length;
+        private int hash;
+
+        ByteKey set(byte[] bytes, int length) {
+            this.bytes = bytes;
+            this.length = length;
+            int h = 1;
+            for (int i = 0; i < length; i++) {
+                h = 31 * h + bytes[i];
+            }
+            this.hash = h;
+            return this;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            return o instanceof ByteKey other
+                    && Arrays.equals(bytes, 0, length, other.bytes, 0, other.length);
+        }
+
+        @Override
+        public int hashCode() {
+            return hash;
+        }
+    }
+}
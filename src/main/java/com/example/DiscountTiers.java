@@ -0,0 +1,99 @@
+package com.example;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.util.*;
+
+/**
+ * Immutable table of expiration-based discount tiers.
+ * Each tier applies a price multiplier to perishables expiring within a number of days; a product
+ * falls into the first tier whose day limit it does not exceed. Products that expire later, or
+ * have already expired, keep their price. Multipliers are looked up by day in O(1).
+ * <p>
+ * Example: {@code DiscountTiers.none().withTier(0, new BigDecimal("0.50")).withTier(3, new BigDecimal("0.85"))}
+ * halves the price of products expiring today and takes 15% off those expiring in 1 to 3 days.
+ */
+public final class DiscountTiers {
+    private static final DiscountTiers NONE = new DiscountTiers(new TreeMap<>());
+    private static final DiscountTiers STANDARD = NONE
+            .withTier(0, new BigDecimal("0.50"))
+            .withTier(1, new BigDecimal("0.70"))
+            .withTier(3, new BigDecimal("0.85"));
+
+    //Multiplier per tier, keyed by the last day (inclusive) the tier applies to
+    private final NavigableMap<Integer, BigDecimal> tiers;
+    //Multiplier for each number of days until expiration, or null for no discount
+    private final BigDecimal[] multiplierByDay;
+
+    private DiscountTiers(NavigableMap<Integer, BigDecimal> tiers) {
+        this.tiers = Collections.unmodifiableNavigableMap(tiers);
+        this.multiplierByDay = new BigDecimal[tiers.isEmpty() ? 0 : tiers.lastKey() + 1];
+        for (int day = 0; day < multiplierByDay.length; day++) {
+            multiplierByDay[day] = tiers.ceilingEntry(day).getValue();
+        }
+    }
+
+    //Table without any discounts
+    public static DiscountTiers none() {
+        return NONE;
+    }
+
+    //Default tiers: 50% off on the expiration day, 30% off the day before, 15% off within 3 days
+    public static DiscountTiers standard() {
+        return STANDARD;
+    }
+
+    /**
+     * Returns a copy of this table with a tier added or replaced.
+     * @param maxDaysUntilExpiration Last day (inclusive, 0 = expires today) the tier applies to.
+     * @param multiplier Factor applied to the price, between 0 and 1.
+     * @return New table including the tier.
+     * @throws IllegalArgumentException if the day is negative, the multiplier is outside [0, 1]
+     * or the day limit is unreasonably large.
+     */
+    public DiscountTiers withTier(int maxDaysUntilExpiration, BigDecimal multiplier) {
+        if (maxDaysUntilExpiration < 0 || maxDaysUntilExpiration > 3650) {
+            throw new IllegalArgumentException("Tier day limit must be between 0 and 3650.");
+        }
+        if (multiplier == null || multiplier.signum() < 0 || multiplier.compareTo(BigDecimal.ONE) > 0) {
+            throw new IllegalArgumentException("Discount multiplier must be between 0 and 1.");
+        }
+        NavigableMap<Integer, BigDecimal> copy = new TreeMap<>(tiers);
+        copy.put(maxDaysUntilExpiration, multiplier);
+        return new DiscountTiers(copy);
+    }
+
+    //Returns the tiers keyed by their last day, in day order
+    public NavigableMap<Integer, BigDecimal> getTiers() {
+        return tiers;
+    }
+
+    /**
+     * Applies the matching tier to a price.
+     * @param price Regular price.
+     * @param daysUntilExpiration Days from the pricing day to the expiration date.
+     * @return Discounted price, rounded to 2 decimals like all discounted prices.
+     */
+    BigDecimal apply(BigDecimal price, long daysUntilExpiration) {
+        BigDecimal multiplier = daysUntilExpiration >= 0 && daysUntilExpiration < multiplierByDay.length
+                ? multiplierByDay[(int) daysUntilExpiration]
+                : null;
+        BigDecimal discounted = multiplier == null ? price : price.multiply(multiplier);
+        return discounted.setScale(2, RoundingMode.HALF_UP);
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        return o instanceof DiscountTiers other && tiers.equals(other.tiers);
+    }
+
+    @Override
+    public int hashCode() {
+        return tiers.hashCode();
+    }
+
+    @Override
+    public String toString() {
+        return "DiscountTiers" + tiers;
+    }
+}
@@ -10,9 +10,11 @@ import java.util.UUID;
  */
 
 public class ElectronicsProduct extends Product implements Shippable {
-    //Warranty period in months and weight in kg
+    //Warranty period in months
     private final int warrantyMonths;
-    private final BigDecimal weight;
+    //Weight in kg packed by CompactDecimal, or NOT_PACKED when it is held in bigWeight
+    private final long packedWeight;
+    private final BigDecimal bigWeight;
     //Shipping cost constants
     private static final BigDecimal BASE_SHIPPING_COST = new BigDecimal("79");
     private static final BigDecimal EXTRA_SHIPPING_COST = new BigDecimal("49");
@@ -39,15 +41,20 @@ public class ElectronicsProduct extends Product implements Shippable {
         }
         //Assign fields
         this.warrantyMonths = warrantyMonths;
-        this.weight = weight;
+        this.packedWeight = CompactDecimal.pack(weight);
+        this.bigWeight = packedWeight == CompactDecimal.NOT_PACKED ? weight : null;
 
     }
     //Returns the weight of the product as a double (for Shippable interface)
     @Override
     public double weight(){
-        return weight.doubleValue();
+        return packedWeight != CompactDecimal.NOT_PACKED ? CompactDecimal.toDouble(packedWeight) : bigWeight.doubleValue();
     }
 
+    //Returns the exact weight as given, for lossless serialization
+    BigDecimal exactWeight(){
+        return packedWeight != CompactDecimal.NOT_PACKED ? CompactDecimal.unpack(packedWeight) : bigWeight;
+    }
     /**
      * Calculates shipping cost based on weight
      * @return Base cost (79) plus extra cost (49) if weight > 5.0 kg
@@ -56,7 +63,7 @@ public class ElectronicsProduct extends Product implements Shippable {
     public BigDecimal calculateShippingCost(){
         //Shipping rule: base 79, add 49 if weight > 5.0 kg.
         BigDecimal totalCost = BASE_SHIPPING_COST;
-        if (weight.compareTo(WEIGHT_THRESHOLD) > 0) {
+        if (exactWeight().compareTo(WEIGHT_THRESHOLD) > 0) {
             totalCost = totalCost.add(EXTRA_SHIPPING_COST);
         }
         return totalCost.setScale(2, RoundingMode.HALF_UP); //Round to 2 decimal places
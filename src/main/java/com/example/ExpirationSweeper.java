@@ -0,0 +1,207 @@
+package com.example;
+
+import java.math.BigDecimal;
+import java.time.Duration;
+import java.time.LocalDate;
+import java.util.*;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
+
+/**
+ * Optional sweeper that takes perishables out of a warehouse's live stock once they expire.
+ * Perishables are filed in a {@link TimingWheel} by expiration day as they are added, so each
+ * sweep only touches the products that expire (O(items expiring), not O(inventory)).
+ * A swept product is removed from the warehouse, which keeps its indexes and other aggregates
+ * up to date, and is then either kept in the sweeper's expired partition or purged.
+ * Every swept product is reported to the listener.
+ * <p>
+ * A product counts as expired from the day after its expiration date, like {@link Perishable#isExpired()}.
+ */
+public final class ExpirationSweeper implements AutoCloseable {
+
+    //What happens to a product once it has expired
+    public enum Mode {
+        //Remove it from live stock and keep it in the sweeper's expired partition
+        MOVE_TO_EXPIRED,
+        //Remove it from live stock and forget it
+        PURGE
+    }
+
+    /**
+     * Emitted once for every product the sweeper takes out of live stock.
+     * @param product Expired product.
+     * @param sweptOn Day the sweep ran for.
+     * @param mode What was done with the product.
+     */
+    public record ExpirationEvent(Product product, LocalDate sweptOn, Mode mode) {}
+
+    private final Warehouse warehouse;
+    private final Mode mode;
+    private final Consumer<ExpirationEvent> listener;
+    //Perishables by the day they become expired (the day after their expiration date)
+    private final TimingWheel<Product> wheel;
+    //Products that were already expired when scheduled; taken by the next sweep
+    private final Set<Product> overdue = new LinkedHashSet<>();
+    //Expired partition, in sweep order (MOVE_TO_EXPIRED only)
+    private final Map<UUID, Product> expired = new LinkedHashMap<>();
+    private long sweptCount;
+    private BigDecimal sweptValue = BigDecimal.ZERO;
+    //Background ticker, or null when sweeps are triggered manually
+    private ScheduledExecutorService ticker;
+
+    //Keeps the wheel in step with the warehouse
+    private final ProductListener productListener = new ProductListener() {
+        @Override
+        public void productAdded(Product product) {
+            schedule(product);
+        }
+
+        @Override
+        public void productRemoved(Product product) {
+            synchronized (ExpirationSweeper.this) {
+                wheel.cancel(product);
+                overdue.remove(product);
+            }
+        }
+
+        @Override
+        public void productsCleared() {
+            synchronized (ExpirationSweeper.this) {
+                wheel.clear();
+                overdue.clear();
+            }
+        }
+    };
+
+    private ExpirationSweeper(Warehouse warehouse, Mode mode, Consumer<ExpirationEvent> listener) {
+        this.warehouse = warehouse;
+        this.mode = mode;
+        this.listener = listener;
+        this.wheel = new TimingWheel<>(LocalDate.now().toEpochDay());
+    }
+
+    /**
+     * Attaches a sweeper to a warehouse without a background thread; call {@link #sweep()} to run it.
+     * Products already in the warehouse are scheduled right away.
+     * @param warehouse Warehouse to sweep.
+     * @param mode What to do with expired products.
+     * @param listener Receives an event per swept product; called on the sweeping thread.
+     * @return Attached sweeper; close it to detach.
+     * @throws IllegalArgumentException if any argument is null.
+     */
+    public static ExpirationSweeper attach(Warehouse warehouse, Mode mode, Consumer<ExpirationEvent> listener) {
+        if (warehouse == null || mode == null || listener == null) {
+            throw new IllegalArgumentException("Warehouse, mode and listener cannot be null.");
+        }
+        ExpirationSweeper sweeper = new ExpirationSweeper(warehouse, mode, listener);
+        //Listen first so no product added meanwhile is missed; stale entries are skipped when swept
+        warehouse.addListener(sweeper.productListener);
+        warehouse.getProducts().forEach(sweeper::schedule);
+        return sweeper;
+    }
+
+    /**
+     * Attaches a sweeper that sweeps on a background daemon thread at a fixed interval,
+     * starting immediately. Sweeps are cheap when nothing expires, so a short interval only
+     * shortens how long after midnight expired products remain in stock.
+     * @param tickInterval Time between sweeps.
+     * @throws IllegalArgumentException if an argument is null or the interval is not positive.
+     * @see #attach(Warehouse, Mode, Consumer)
+     */
+    public static ExpirationSweeper start(Warehouse warehouse, Mode mode, Duration tickInterval,
+                                          Consumer<ExpirationEvent> listener) {
+        if (tickInterval == null || tickInterval.isNegative() || tickInterval.isZero()) {
+            throw new IllegalArgumentException("Tick interval must be positive.");
+        }
+        ExpirationSweeper sweeper = attach(warehouse, mode, listener);
+        sweeper.ticker = Executors.newSingleThreadScheduledExecutor(
+                Thread.ofPlatform().daemon().name("expiration-sweeper-" + warehouse.getName()).factory());
+        sweeper.ticker.scheduleWithFixedDelay(sweeper::tick, 0, tickInterval.toNanos(), TimeUnit.NANOSECONDS);
+        return sweeper;
+    }
+
+    //Sweeps everything that has expired as of today.
+    public int sweep() {
+        return sweepUpTo(LocalDate.now());
+    }
+
+    /**
+     * Sweeps everything that has expired as of the given day.
+     * @param today Day to sweep for; days before the last sweep are ignored.
+     * @return Number of products taken out of live stock.
+     */
+    int sweepUpTo(LocalDate today) {
+        List<Product> due = new ArrayList<>();
+        synchronized (this) {
+            due.addAll(overdue);
+            overdue.clear();
+            wheel.advanceTo(today.toEpochDay(), due::add);
+        }
+        int swept = 0;
+        for (Product product : due) {
+            //Skip products removed or replaced since they were scheduled
+            if (!warehouse.remove(product)) continue;
+            synchronized (this) {
+                if (mode == Mode.MOVE_TO_EXPIRED) {
+                    expired.put(product.uuid(), product);
+                }
+                sweptCount++;
+                sweptValue = sweptValue.add(product.price());
+            }
+            swept++;
+            listener.accept(new ExpirationEvent(product, today, mode));
+        }
+        return swept;
+    }
+
+    //Returns the expired partition: products swept in MOVE_TO_EXPIRED mode, in sweep order.
+    public synchronized List<Product> getExpiredProducts() {
+        return List.copyOf(expired.values());
+    }
+
+    //Returns the number of products swept so far.
+    public synchronized long getSweptCount() {
+        return sweptCount;
+    }
+
+    //Returns the total price of the products swept so far.
+    public synchronized BigDecimal getSweptValue() {
+        return sweptValue;
+    }
+
+    //Returns the number of perishables waiting to expire.
+    public synchronized int getScheduledCount() {
+        return wheel.size() + overdue.size();
+    }
+
+    //Stops the background thread, if any, and detaches from the warehouse.
+    @Override
+    public void close() {
+        warehouse.removeListener(productListener);
+        if (ticker != null) {
+            ticker.shutdownNow();
+        }
+    }
+
+    //Files a perishable under the day it becomes expired
+    private synchronized void schedule(Product product) {
+        if (product instanceof Perishable perishable) {
+            long expiresOn = perishable.expirationDate().toEpochDay() + 1;
+            if (!wheel.schedule(product, expiresOn)) {
+                overdue.add(product);
+            }
+        }
+    }
+
+    //One background sweep; failures are reported without cancelling later sweeps
+    private void tick() {
+        try {
+            sweep();
+        } catch (RuntimeException e) {
+            Thread current = Thread.currentThread();
+            current.getUncaughtExceptionHandler().uncaughtException(current, e);
+        }
+    }
+}
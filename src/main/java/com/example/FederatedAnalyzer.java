@@ -0,0 +1,217 @@
+package com.example;
+
+import java.math.BigDecimal;
+import java.time.Duration;
+import java.util.*;
+import java.util.function.BinaryOperator;
+import java.util.function.Function;
+
+/**
+ * Runs WarehouseAnalyzer queries over several named warehouses in parallel and merges the results.
+ * Partial results are merged before finishing, so averages combine weighted sums and outliers
+ * are judged against the pooled mean and variance of all warehouses.
+ */
+class FederatedAnalyzer {
+    //Analyzer per warehouse name, in the order the warehouses were given
+    private final Map<String, WarehouseAnalyzer> analyzers = new LinkedHashMap<>();
+
+    /**
+     * Creates a federated analyzer over the given warehouses.
+     * @param warehouses Warehouses to query; must not be empty.
+     * @throws IllegalArgumentException if no warehouses are given.
+     */
+    public FederatedAnalyzer(Collection<Warehouse> warehouses) {
+        if (warehouses.isEmpty()) {
+            throw new IllegalArgumentException("At least one warehouse is required.");
+        }
+        for (Warehouse warehouse : warehouses) {
+            analyzers.put(warehouse.getName(), new WarehouseAnalyzer(warehouse));
+        }
+    }
+
+    /**
+     * Creates a federated analyzer over the named warehouses.
+     * @param names Warehouse names, resolved with Warehouse.getInstance(name).
+     * @return Federated analyzer.
+     */
+    public static FederatedAnalyzer of(String... names) {
+        return new FederatedAnalyzer(Arrays.stream(names).map(Warehouse::getInstance).toList());
+    }
+
+    /**
+     * Creates a federated analyzer over every warehouse instance that exists right now.
+     * @return Federated analyzer.
+     */
+    public static FederatedAnalyzer ofAllWarehouses() {
+        return of(Warehouse.getInstanceNames().stream().sorted().toArray(String[]::new));
+    }
+
+    /**
+     * Runs a partial query on every warehouse in parallel, timing each one, and merges the
+     * partials in warehouse order.
+     *
+     * @param partial computes the partial result for one warehouse
+     * @param merge combines two partial results; must be associative
+     * @return merged result with per-warehouse timings
+     */
+    private <T> FederatedResult<T> federate(Function<WarehouseAnalyzer, T> partial, BinaryOperator<T> merge) {
+        List<String> names = List.copyOf(analyzers.keySet());
+        List<Timed<T>> parts = names.parallelStream()
+                .map(name -> {
+                    long start = System.nanoTime();
+                    T value = partial.apply(analyzers.get(name));
+                    return new Timed<>(value, Duration.ofNanos(System.nanoTime() - start));
+                })
+                .toList();
+        Map<String, Duration> timings = new LinkedHashMap<>();
+        for (int i = 0; i < names.size(); i++) {
+            timings.put(names.get(i), parts.get(i).elapsed());
+        }
+        T merged = parts.stream().map(Timed::value).reduce(merge).orElseThrow();
+        return new FederatedResult<>(merged, timings);
+    }
+
+    //A partial result and the time it took to compute
+    private record Timed<T>(T value, Duration elapsed) {}
+
+    //Concatenates two partial lists
+    private static <T> List<T> concat(List<T> a, List<T> b) {
+        List<T> result = new ArrayList<>(a);
+        result.addAll(b);
+        return result;
+    }
+
+    // Search and Filter Methods
+    /**
+     * Finds products with minPrice <= price <= maxPrice in all warehouses.
+     * @see WarehouseAnalyzer#findProductsInPriceRange(BigDecimal, BigDecimal)
+     */
+    public FederatedResult<List<Product>> findProductsInPriceRange(BigDecimal minPrice, BigDecimal maxPrice) {
+        return federate(a -> a.findProductsInPriceRange(minPrice, maxPrice), FederatedAnalyzer::concat);
+    }
+
+    /**
+     * Finds perishables expiring within the given number of days in all warehouses.
+     * @see WarehouseAnalyzer#findProductsExpiringWithinDays(int)
+     */
+    public FederatedResult<List<Perishable>> findProductsExpiringWithinDays(int days) {
+        return federate(a -> a.findProductsExpiringWithinDays(days), FederatedAnalyzer::concat);
+    }
+
+    /**
+     * Case-insensitive partial name search in all warehouses.
+     * @see WarehouseAnalyzer#searchProductsByName(String)
+     */
+    public FederatedResult<List<Product>> searchProductsByName(String searchTerm) {
+        return federate(a -> a.searchProductsByName(searchTerm), FederatedAnalyzer::concat);
+    }
+
+    /**
+     * Finds products priced strictly above the threshold in all warehouses.
+     * @see WarehouseAnalyzer#findProductsAbovePrice(BigDecimal)
+     */
+    public FederatedResult<List<Product>> findProductsAbovePrice(BigDecimal price) {
+        return federate(a -> a.findProductsAbovePrice(price), FederatedAnalyzer::concat);
+    }
+
+    // Analytics Methods
+    /**
+     * Company-wide weighted average price per category.
+     * Weighted sums and weights are added up across warehouses before dividing.
+     * @see WarehouseAnalyzer#calculateWeightedAveragePriceByCategory()
+     */
+    public FederatedResult<Map<Category, BigDecimal>> calculateWeightedAveragePriceByCategory() {
+        FederatedResult<Map<Category, CategoryPriceSums>> sums =
+                federate(WarehouseAnalyzer::categoryPriceSums, CategoryPriceSums::mergeAll);
+        Map<Category, BigDecimal> result = new HashMap<>();
+        sums.getValue().forEach((cat, s) -> result.put(cat, s.average()));
+        return new FederatedResult<>(result, sums.getTimings());
+    }
+
+    /**
+     * Finds price outliers against the pooled mean and population standard deviation of all
+     * warehouses. Timings include both the statistics pass and the filtering pass.
+     * @see WarehouseAnalyzer#findPriceOutliers(double)
+     */
+    public FederatedResult<List<Product>> findPriceOutliers(double standardDeviations) {
+        FederatedResult<PriceMoments> moments = federate(WarehouseAnalyzer::priceMoments, PriceMoments::merge);
+        PriceMoments pooled = moments.getValue();
+        if (pooled.count() == 0) {
+            return new FederatedResult<>(List.of(), moments.getTimings());
+        }
+        double threshold = standardDeviations * pooled.populationStdDev();
+        FederatedResult<List<Product>> outliers =
+                federate(a -> a.findPricesDeviatingFrom(pooled.mean(), threshold), FederatedAnalyzer::concat);
+        Map<String, Duration> timings = new LinkedHashMap<>(moments.getTimings());
+        outliers.getTimings().forEach((name, time) -> timings.merge(name, time, Duration::plus));
+        return new FederatedResult<>(outliers.getValue(), timings);
+    }
+
+    // Business Rules Methods
+    /**
+     * Expiration-based discounted prices for the products of all warehouses.
+     * @see WarehouseAnalyzer#calculateExpirationBasedDiscounts()
+     */
+    public FederatedResult<Map<Product, BigDecimal>> calculateExpirationBasedDiscounts() {
+        return federate(WarehouseAnalyzer::calculateExpirationBasedDiscounts, (a, b) -> {
+            Map<Product, BigDecimal> result = new HashMap<>(a);
+            result.putAll(b);
+            return result;
+        });
+    }
+
+    /**
+     * Company-wide inventory validation; categories are counted once across warehouses.
+     * @see WarehouseAnalyzer#validateInventoryConstraints()
+     */
+    public FederatedResult<InventoryValidation> validateInventoryConstraints() {
+        FederatedResult<ValidationCounts> counts = federate(WarehouseAnalyzer::validationCounts, ValidationCounts::merge);
+        return new FederatedResult<>(counts.getValue().toValidation(), counts.getTimings());
+    }
+
+    /**
+     * Company-wide inventory statistics.
+     * @see WarehouseAnalyzer#getInventoryStatistics()
+     */
+    public FederatedResult<InventoryStatistics> getInventoryStatistics() {
+        FederatedResult<StatisticsTotals> totals = federate(WarehouseAnalyzer::statisticsTotals, StatisticsTotals::merge);
+        return new FederatedResult<>(totals.getValue().toStatistics(), totals.getTimings());
+    }
+
+    // Approximate Analytics Methods
+
+    /**
+     * Company-wide approximate inventory validation; category sketches are merged, so
+     * categories present in several warehouses are counted once.
+     * @see WarehouseAnalyzer#estimateInventoryConstraints()
+     */
+    public FederatedResult<InventoryValidation> estimateInventoryConstraints() {
+        FederatedResult<InventorySketch> sketch = federate(WarehouseAnalyzer::sketch, InventorySketch::merge);
+        return new FederatedResult<>(sketch.getValue().toValidation(), sketch.getTimings());
+    }
+
+    /**
+     * Company-wide price quantile estimated from the merged price sketches.
+     * @see WarehouseAnalyzer#estimatePriceQuantile(double)
+     */
+    public FederatedResult<Optional<BigDecimal>> estimatePriceQuantile(double q) {
+        FederatedResult<InventorySketch> sketch = federate(WarehouseAnalyzer::sketch, InventorySketch::merge);
+        return new FederatedResult<>(WarehouseAnalyzer.quantile(sketch.getValue(), q), sketch.getTimings());
+    }
+}
+
+/**
+ * Result of a federated query together with the time spent in each warehouse
+ */
+class FederatedResult<T> {
+    private final T value;
+    private final Map<String, Duration> timings;
+
+    public FederatedResult(T value, Map<String, Duration> timings) {
+        this.value = value;
+        this.timings = Collections.unmodifiableMap(new LinkedHashMap<>(timings));
+    }
+
+    public T getValue() { return value; }
+    public Map<String, Duration> getTimings() { return timings; }
+}
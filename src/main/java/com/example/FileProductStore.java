@@ -0,0 +1,331 @@
+package com.example;
+
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+import java.util.List;
+import java.util.UUID;
+import java.util.function.Consumer;
+
+/**
+ * Product store in a local append-only file, for inventories larger than the heap.
+ * Only a primitive index from id to file position stays in memory (about 50 bytes per product);
+ * every lookup reads and decodes one record, so put a {@link CachingProductStore} in front for
+ * hot products. Each record is
+ * <pre>
+ *  length   int      payload length in bytes
+ *  op       byte     1 = put, 2 = remove
+ *  payload           put: a one-product {@link ProductCodec} stream; remove: the id as 2 longs
+ * </pre>
+ * Updates and removals append records, so superseded records pile up until {@link #compact(double)}
+ * rewrites the file with live records only, e.g. after each {@link ColdTier} offload pass.
+ * Reopening a file replays it to rebuild the index; a record cut off by a crash is dropped.
+ * I/O errors are thrown as {@link UncheckedIOException}. Thread-safe; all operations
+ * synchronize on the store.
+ */
+public final class FileProductStore implements ProductStore {
+    private static final byte PUT = 1;
+    private static final byte REMOVE = 2;
+    private static final int HEADER_BYTES = Integer.BYTES + 1;
+    //Offset of the id within a put payload: stream header (3 bytes) and the record's tag
+    private static final int ID_OFFSET = 4;
+
+    private final Path file;
+    private FileChannel channel;
+    //Index from id to slot; a slot holds the file position and length of the product's payload
+    private final UuidIndex slots = new UuidIndex();
+    private long[] positions = new long[16];
+    //Payload length per slot, 0 for a free slot
+    private int[] lengths = new int[16];
+    private int slotCount;
+    //Free slots available for reuse
+    private int[] freeSlots = new int[16];
+    private int freeCount;
+    //File position the next record is appended at
+    private long end;
+    //Bytes taken by the records of stored products, headers included
+    private long liveBytes;
+
+    private FileProductStore(Path file, FileChannel channel) {
+        this.file = file;
+        this.channel = channel;
+    }
+
+    /**
+     * Opens a store, creating the file if needed and replaying an existing one.
+     * @param file File holding the products.
+     * @return The open store; close it to release the file.
+     * @throws IOException if the file cannot be opened or read.
+     */
+    public static FileProductStore open(Path file) throws IOException {
+        FileChannel channel = FileChannel.open(file, StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE);
+        FileProductStore store = new FileProductStore(file, channel);
+        try {
+            store.replay();
+        } catch (IOException | RuntimeException e) {
+            channel.close();
+            throw e;
+        }
+        return store;
+    }
+
+    @Override
+    public synchronized boolean add(Product product) {
+        if (slots.get(product.uuid()) != UuidIndex.ABSENT) {
+            return false;
+        }
+        ByteBuffer payload = ProductCodec.encode(List.of(product));
+        long position = append(PUT, payload);
+        int slot = allocateSlot();
+        slots.put(product.uuid(), slot);
+        positions[slot] = position;
+        lengths[slot] = payload.limit();
+        liveBytes += HEADER_BYTES + payload.limit();
+        return true;
+    }
+
+    @Override
+    public synchronized Product get(UUID id) {
+        int slot = slots.get(id);
+        return slot == UuidIndex.ABSENT ? null : read(slot);
+    }
+
+    @Override
+    public synchronized boolean contains(UUID id) {
+        return slots.get(id) != UuidIndex.ABSENT;
+    }
+
+    @Override
+    public synchronized Product remove(UUID id) {
+        int slot = slots.get(id);
+        if (slot == UuidIndex.ABSENT) {
+            return null;
+        }
+        Product removed = read(slot);
+        append(REMOVE, ByteBuffer.allocate(2 * Long.BYTES)
+                .putLong(id.getMostSignificantBits()).putLong(id.getLeastSignificantBits()).flip());
+        slots.remove(id);
+        liveBytes -= HEADER_BYTES + lengths[slot];
+        freeSlot(slot);
+        return removed;
+    }
+
+    @Override
+    public synchronized boolean update(Product product) {
+        int slot = slots.get(product.uuid());
+        if (slot == UuidIndex.ABSENT) {
+            return false;
+        }
+        ByteBuffer payload = ProductCodec.encode(List.of(product));
+        positions[slot] = append(PUT, payload);
+        liveBytes += payload.limit() - lengths[slot];
+        lengths[slot] = payload.limit();
+        return true;
+    }
+
+    @Override
+    public synchronized int size() {
+        return slots.size();
+    }
+
+    @Override
+    public synchronized void clear() {
+        try {
+            channel.truncate(0);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        slots.clear();
+        Arrays.fill(lengths, 0);
+        slotCount = 0;
+        freeCount = 0;
+        end = 0;
+        liveBytes = 0;
+    }
+
+    @Override
+    public synchronized void forEach(Consumer<? super Product> action) {
+        for (int slot = 0; slot < slotCount; slot++) {
+            if (lengths[slot] > 0) {
+                action.accept(read(slot));
+            }
+        }
+    }
+
+    //Size of the file in bytes, including records superseded by updates and removals
+    public synchronized long getFileSize() {
+        return end;
+    }
+
+    //Bytes the file would take with superseded records dropped
+    public synchronized long getLiveBytes() {
+        return liveBytes;
+    }
+
+    /**
+     * Rewrites the file with live records only if it has grown past the given multiple of the live bytes.
+     * The records are written to a sibling file that then atomically replaces this one, so a crash
+     * leaves either the old or the new file intact.
+     * @param maxOverhead File size tolerated, as a multiple of the live bytes (at least 1).
+     * @return true if the file was rewritten.
+     * @throws IllegalArgumentException if maxOverhead is less than 1.
+     */
+    @Override
+    public synchronized boolean compact(double maxOverhead) {
+        if (!(maxOverhead >= 1)) {
+            throw new IllegalArgumentException("Overhead factor must be at least 1.");
+        }
+        if (end <= liveBytes * maxOverhead) {
+            return false;
+        }
+        Path temp = file.resolveSibling(file.getFileName() + ".compact");
+        long[] moved = new long[slotCount];
+        long at = 0;
+        try {
+            try (FileChannel target = FileChannel.open(temp, StandardOpenOption.CREATE,
+                    StandardOpenOption.TRUNCATE_EXISTING, StandardOpenOption.WRITE)) {
+                for (int slot = 0; slot < slotCount; slot++) {
+                    if (lengths[slot] == 0) continue;
+                    ByteBuffer payload = ByteBuffer.allocate(lengths[slot]);
+                    readFully(payload, positions[slot]);
+                    moved[slot] = write(target, at, PUT, payload.flip());
+                    at = moved[slot] + lengths[slot];
+                }
+                target.force(true);
+            }
+            Files.move(temp, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+            channel.close();
+            channel = FileChannel.open(file, StandardOpenOption.READ, StandardOpenOption.WRITE);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        for (int slot = 0; slot < slotCount; slot++) {
+            if (lengths[slot] > 0) {
+                positions[slot] = moved[slot];
+            }
+        }
+        end = at;
+        return true;
+    }
+
+    @Override
+    public synchronized void close() throws IOException {
+        channel.close();
+    }
+
+    //Rebuilds the index from the file, dropping a trailing partial record
+    private void replay() throws IOException {
+        long fileSize = channel.size();
+        ByteBuffer header = ByteBuffer.allocate(HEADER_BYTES);
+        ByteBuffer id = ByteBuffer.allocate(2 * Long.BYTES);
+        long position = 0;
+        while (position + HEADER_BYTES <= fileSize) {
+            readFully(header.clear(), position);
+            int length = header.flip().getInt();
+            byte op = header.get();
+            long payloadPosition = position + HEADER_BYTES;
+            if (length <= 0 || payloadPosition + length > fileSize) {
+                break;
+            }
+            readFully(id.clear(), op == PUT ? payloadPosition + ID_OFFSET : payloadPosition);
+            UUID key = new UUID(id.flip().getLong(), id.getLong());
+            int slot = slots.get(key);
+            if (op == PUT) {
+                if (slot == UuidIndex.ABSENT) {
+                    slot = allocateSlot();
+                    slots.put(key, slot);
+                }
+                positions[slot] = payloadPosition;
+                lengths[slot] = length;
+            } else if (op == REMOVE) {
+                if (slot != UuidIndex.ABSENT) {
+                    slots.remove(key);
+                    freeSlot(slot);
+                }
+            } else {
+                throw new IOException("Corrupt product store record at " + position);
+            }
+            position = payloadPosition + length;
+        }
+        end = position;
+        for (int slot = 0; slot < slotCount; slot++) {
+            if (lengths[slot] > 0) {
+                liveBytes += HEADER_BYTES + lengths[slot];
+            }
+        }
+        if (end < fileSize) {
+            channel.truncate(end);
+        }
+    }
+
+    private Product read(int slot) {
+        ByteBuffer payload = ByteBuffer.allocate(lengths[slot]);
+        try {
+            readFully(payload, positions[slot]);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        return ProductCodec.decoder(payload.flip()).read();
+    }
+
+    //Appends a record and returns the file position of its payload
+    private long append(byte op, ByteBuffer payload) {
+        try {
+            long position = write(channel, end, op, payload);
+            end = position + payload.limit();
+            payload.rewind();
+            return position;
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    //Writes a record at the given file position and returns the position of its payload
+    private static long write(FileChannel target, long position, byte op, ByteBuffer payload) throws IOException {
+        ByteBuffer header = ByteBuffer.allocate(HEADER_BYTES).putInt(payload.remaining()).put(op).flip();
+        long at = position;
+        while (header.hasRemaining()) {
+            at += target.write(header, at);
+        }
+        while (payload.hasRemaining()) {
+            at += target.write(payload, at);
+        }
+        return position + HEADER_BYTES;
+    }
+
+    private void readFully(ByteBuffer target, long position) throws IOException {
+        while (target.hasRemaining()) {
+            int read = channel.read(target, position);
+            if (read < 0) {
+                throw new EOFException("Unexpected end of product store.");
+            }
+            position += read;
+        }
+    }
+
+    private int allocateSlot() {
+        if (freeCount > 0) {
+            return freeSlots[--freeCount];
+        }
+        if (slotCount == positions.length) {
+            positions = Arrays.copyOf(positions, slotCount * 2);
+            lengths = Arrays.copyOf(lengths, slotCount * 2);
+        }
+        return slotCount++;
+    }
+
+    private void freeSlot(int slot) {
+        lengths[slot] = 0;
+        if (freeCount == freeSlots.length) {
+            freeSlots = Arrays.copyOf(freeSlots, freeCount * 2);
+        }
+        freeSlots[freeCount++] = slot;
+    }
+}
@@ -0,0 +1,79 @@
+package com.example;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * First-fit decreasing bin packing over a primitive weight array sorted heaviest first.
+ * Bins are kept in a segment tree of their loads, where each node holds the smallest load
+ * below it, so the first bin an item fits in is found in O(log n) instead of by scanning every
+ * bin. Floating-point addition is monotonic, so "smallest load + weight &lt;= limit" is exactly
+ * "some bin below fits", and results match a linear first-fit scan item for item. The array is
+ * only read, so one packer serves many limits in parallel.
+ */
+class FirstFitPacker {
+    private final double[] weights;
+
+    /**
+     * @param weights Item weights, heaviest first; not copied and must not change.
+     */
+    FirstFitPacker(double[] weights) {
+        this.weights = weights;
+    }
+
+    /**
+     * Packs all items for one weight limit. An item heavier than the limit opens a bin of its own.
+     * @param maxWeight Maximum total weight per bin (inclusive).
+     * @return Bin of every item, bins numbered in the order they were opened.
+     */
+    Packing pack(double maxWeight) {
+        int n = weights.length;
+        int leaves = Integer.highestOneBit(Math.max(1, n - 1)) << 1;
+        //Loads of bins not opened yet are infinite, so they never fit
+        double[] tree = new double[2 * leaves];
+        Arrays.fill(tree, Double.POSITIVE_INFINITY);
+        int[] binOf = new int[n];
+        int binCount = 0;
+        for (int i = 0; i < n; i++) {
+            double weight = weights[i];
+            int bin;
+            if (tree[1] + weight <= maxWeight) {
+                //Descend to the leftmost bin with room
+                int node = 1;
+                while (node < leaves) {
+                    node = tree[2 * node] + weight <= maxWeight ? 2 * node : 2 * node + 1;
+                }
+                bin = node - leaves;
+                tree[node] += weight;
+            } else {
+                bin = binCount++;
+                tree[leaves + bin] = weight;
+            }
+            binOf[i] = bin;
+            for (int node = (leaves + bin) >>> 1; node >= 1; node >>>= 1) {
+                tree[node] = Math.min(tree[2 * node], tree[2 * node + 1]);
+            }
+        }
+        return new Packing(binOf, binCount);
+    }
+
+    /**
+     * Result of one packing run.
+     * @param binOf Bin of every item, in item order.
+     * @param binCount Number of bins opened.
+     */
+    record Packing(int[] binOf, int binCount) {
+        //Groups the items by bin, bins in opening order and items in packing order
+        <T> List<List<T>> bins(List<T> items) {
+            List<List<T>> bins = new ArrayList<>(binCount);
+            for (int bin = 0; bin < binCount; bin++) {
+                bins.add(new ArrayList<>());
+            }
+            for (int i = 0; i < binOf.length; i++) {
+                bins.get(binOf[i]).add(items.get(i));
+            }
+            return bins;
+        }
+    }
+}
@@ -10,11 +10,19 @@ import java.util.UUID;
  * Inherits from Product and implements Perishable and Shippable interface
  */
 public class FoodProduct extends Product implements Perishable, Shippable{
-    //Expiration date of the food product and the weight in kg
+    //Expiration date of the food product, shared with all products expiring the same day
     private final LocalDate expirationDate;
-    private final BigDecimal weight;
+    //Weight in kg packed by CompactDecimal, or NOT_PACKED when it is held in bigWeight
+    private final long packedWeight;
+    private final BigDecimal bigWeight;
 
     private static final BigDecimal SHIPPING_RATE_PER_KG = new BigDecimal("50");
+    //Slots of the shared date cache, about eleven years of consecutive days
+    static final int DATE_SLOTS = 4096;
+    //Shared date instances, one slot per epoch day modulo DATE_SLOTS; a newer date replaces an
+    //older one in its slot, so the cache stays bounded. LocalDate is immutable, so racy slot
+    //writes are harmless: at worst two products keep equal but distinct instances.
+    private static final LocalDate[] DATES = new LocalDate[DATE_SLOTS];
 
     /**
      * Creates a FoodProduct with the given attributes.
@@ -41,8 +49,9 @@ public class FoodProduct extends Product implements Perishable, Shippable{
         }
 
         //Assign fields
-        this.expirationDate = expirationDate;
-        this.weight = weight;
+        this.expirationDate = expirationDate == null ? null : shared(expirationDate);
+        this.packedWeight = CompactDecimal.pack(weight);
+        this.bigWeight = packedWeight == CompactDecimal.NOT_PACKED ? weight : null;
     }
 
     //Returns product details as a formatted string including expiration date
@@ -51,6 +60,17 @@ public class FoodProduct extends Product implements Perishable, Shippable{
         return String.format("Food: %s, Expires: %s", name(), expirationDate);
     }
 
+    //Returns the cached instance equal to the date, caching the date if its slot holds another
+    private static LocalDate shared(LocalDate date) {
+        int slot = (int) Math.floorMod(date.toEpochDay(), (long) DATE_SLOTS);
+        LocalDate cached = DATES[slot];
+        if (date.equals(cached)) {
+            return cached;
+        }
+        DATES[slot] = date;
+        return date;
+    }
+
     //Getter for expiration date (Perishable interface)
     public LocalDate expirationDate(){
         return expirationDate;
@@ -58,12 +78,16 @@ public class FoodProduct extends Product implements Perishable, Shippable{
     //Returns weight as a double (Shippable interface)
     @Override
     public double weight(){
-        return weight.doubleValue();
+        return packedWeight != CompactDecimal.NOT_PACKED ? CompactDecimal.toDouble(packedWeight) : bigWeight.doubleValue();
+    }
+    //Returns the exact weight as given, for lossless serialization
+    BigDecimal exactWeight(){
+        return packedWeight != CompactDecimal.NOT_PACKED ? CompactDecimal.unpack(packedWeight) : bigWeight;
     }
     //Calculates shipping cost based on the shipping rule: weight * 50
     @Override
     public BigDecimal calculateShippingCost(){
-        return weight.multiply(SHIPPING_RATE_PER_KG)
+        return exactWeight().multiply(SHIPPING_RATE_PER_KG)
                 .setScale(2, RoundingMode.HALF_UP); //Round to 2 decimal places
     }
 
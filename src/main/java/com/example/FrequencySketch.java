@@ -0,0 +1,75 @@
+package com.example;
+
+/**
+ * Approximate access counter for cache admission (the TinyLFU part of W-TinyLFU).
+ * A count-min sketch of 4-bit counters, 16 per long, with four hash functions; an item's
+ * frequency is the smallest of its four counters, so estimates only err upwards. After a sample
+ * of 10 accesses per cached entry all counters are halved, so old popularity fades.
+ */
+class FrequencySketch {
+    private static final long[] SEEDS = {0xc3a5c85c97cb3127L, 0xb492b66fbe98f273L, 0x9ae16a3b2f90404fL, 0xcbf29ce484222325L};
+    private static final long HALVE_MASK = 0x7777777777777777L;
+    private static final int MAX_COUNT = 15;
+
+    private final long[] table;
+    private final int mask;
+    private final int sampleSize;
+    private int additions;
+
+    //Sizes the sketch for a cache holding up to maximumSize entries
+    FrequencySketch(int maximumSize) {
+        int length = Integer.highestOneBit(Math.max(16, Math.min(maximumSize, 1 << 26)) - 1) << 1;
+        this.table = new long[length];
+        this.mask = length - 1;
+        this.sampleSize = 10 * Math.max(1, maximumSize);
+    }
+
+    //Estimated number of recent accesses to the item with the given hash, 0-15
+    int frequency(long hash) {
+        int frequency = MAX_COUNT;
+        for (int i = 0; i < SEEDS.length; i++) {
+            long h = rehash(hash, i);
+            frequency = Math.min(frequency, (int) (table[index(h)] >>> shift(h)) & MAX_COUNT);
+        }
+        return frequency;
+    }
+
+    //Records an access to the item with the given hash
+    void increment(long hash) {
+        boolean incremented = false;
+        for (int i = 0; i < SEEDS.length; i++) {
+            long h = rehash(hash, i);
+            int index = index(h);
+            int shift = shift(h);
+            if (((table[index] >>> shift) & MAX_COUNT) < MAX_COUNT) {
+                table[index] += 1L << shift;
+                incremented = true;
+            }
+        }
+        if (incremented && ++additions >= sampleSize) {
+            halve();
+        }
+    }
+
+    //Halves every counter, aging out past popularity
+    private void halve() {
+        for (int i = 0; i < table.length; i++) {
+            table[i] = (table[i] >>> 1) & HALVE_MASK;
+        }
+        additions /= 2;
+    }
+
+    private int index(long h) {
+        return (int) (h >>> 32) & mask;
+    }
+
+    //Bit offset of the counter within its long
+    private static int shift(long h) {
+        return ((int) h & 15) << 2;
+    }
+
+    private static long rehash(long hash, int depth) {
+        long h = (hash + SEEDS[depth]) * 0x9E3779B97F4A7C15L;
+        return h ^ (h >>> 29);
+    }
+}
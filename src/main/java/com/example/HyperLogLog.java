@@ -0,0 +1,98 @@
+package com.example;
+
+import java.util.Arrays;
+
+/**
+ * HyperLogLog sketch for counting distinct values in fixed memory.
+ * With 2^p registers the relative standard error is about 1.04 / sqrt(2^p); the default
+ * p = 12 uses 4 KiB and gives about 1.6%. Small cardinalities switch to linear counting,
+ * which is near exact for counts well below the register count (e.g. category names).
+ * Sketches with the same precision merge losslessly by taking register-wise maxima.
+ */
+class HyperLogLog {
+    static final int DEFAULT_PRECISION = 12;
+
+    private final int precision;
+    private final byte[] registers;
+
+    HyperLogLog() {
+        this(DEFAULT_PRECISION);
+    }
+
+    HyperLogLog(int precision) {
+        if (precision < 4 || precision > 18) {
+            throw new IllegalArgumentException("Precision must be between 4 and 18.");
+        }
+        this.precision = precision;
+        this.registers = new byte[1 << precision];
+    }
+
+    //Adds a string value (hashed with 64-bit FNV-1a plus a final mix)
+    void add(String value) {
+        long hash = 0xcbf29ce484222325L;
+        for (int i = 0; i < value.length(); i++) {
+            hash ^= value.charAt(i);
+            hash *= 0x100000001b3L;
+        }
+        addHash(mix(hash));
+    }
+
+    //Adds an already well-mixed 64-bit hash
+    void addHash(long hash) {
+        int index = (int) (hash >>> (64 - precision));
+        //Rank = position of the first 1-bit in the remaining bits (1-based)
+        long rest = hash << precision;
+        int rank = rest == 0 ? 64 - precision + 1 : Long.numberOfLeadingZeros(rest) + 1;
+        if (rank > registers[index]) {
+            registers[index] = (byte) rank;
+        }
+    }
+
+    //Estimated number of distinct values added
+    long estimate() {
+        int m = registers.length;
+        double sum = 0;
+        int zeros = 0;
+        for (byte r : registers) {
+            sum += 1.0 / (1L << r);
+            if (r == 0) zeros++;
+        }
+        double alpha = 0.7213 / (1 + 1.079 / m);
+        double raw = alpha * m * m / sum;
+        if (raw <= 2.5 * m && zeros > 0) {
+            //Linear counting for small cardinalities
+            return Math.round(m * Math.log((double) m / zeros));
+        }
+        return Math.round(raw);
+    }
+
+    //Merges another sketch of the same precision into this one
+    void merge(HyperLogLog other) {
+        if (other.precision != precision) {
+            throw new IllegalArgumentException("Cannot merge sketches with different precision.");
+        }
+        for (int i = 0; i < registers.length; i++) {
+            registers[i] = (byte) Math.max(registers[i], other.registers[i]);
+        }
+    }
+
+    HyperLogLog copy() {
+        HyperLogLog copy = new HyperLogLog(precision);
+        System.arraycopy(registers, 0, copy.registers, 0, registers.length);
+        return copy;
+    }
+
+    void clear() {
+        Arrays.fill(registers, (byte) 0);
+    }
+
+    //MurmurHash3 fmix64 finalizer
+    static long mix(long h) {
+        h ^= h >>> 33;
+        h *= 0xff51afd7ed558ccdL;
+        h ^= h >>> 33;
+        h *= 0xc4ceb9fe1a85ec53L;
+        h ^= h >>> 33;
+        return h;
+    }
+}
@@ -0,0 +1,50 @@
+package com.example;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+
+/**
+ * Outcome of an inventory import: how many rows were imported and which rows were rejected.
+ * Only the first {@value #MAX_SAMPLES} malformed rows (by position in the file) are kept in
+ * detail, so the report stays small however broken the input is.
+ */
+public final class ImportReport {
+    static final int MAX_SAMPLES = 100;
+
+    private final long importedRows;
+    private final long malformedRows;
+    private final List<MalformedRow> samples;
+
+    /**
+     * A rejected row.
+     * @param offset Byte offset of the row's first character in the file.
+     * @param reason Why the row was rejected.
+     */
+    public record MalformedRow(long offset, String reason) {}
+
+    ImportReport(long importedRows, long malformedRows, List<MalformedRow> samples) {
+        this.importedRows = importedRows;
+        this.malformedRows = malformedRows;
+        this.samples = List.copyOf(samples);
+    }
+
+    public long getImportedRows() { return importedRows; }
+    public long getMalformedRows() { return malformedRows; }
+    //Returns the first rejected rows in file order, at most MAX_SAMPLES of them
+    public List<MalformedRow> getMalformedSamples() { return samples; }
+
+    //Combines the reports of two parts of the same file
+    ImportReport merge(ImportReport other) {
+        List<MalformedRow> merged = new ArrayList<>(samples);
+        merged.addAll(other.samples);
+        merged.sort(Comparator.comparingLong(MalformedRow::offset));
+        return new ImportReport(importedRows + other.importedRows, malformedRows + other.malformedRows,
+                merged.subList(0, Math.min(MAX_SAMPLES, merged.size())));
+    }
+
+    @Override
+    public String toString() {
+        return "ImportReport[imported=" + importedRows + ", malformed=" + malformedRows + "]";
+    }
+}
@@ -0,0 +1,152 @@
+package com.example;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.UUID;
+import java.util.function.Consumer;
+
+/**
+ * Default heap store backing warehouse shards: a product list plus a {@link UuidIndex} from id to
+ * row. A removal moves the last product into the freed row, so every operation is O(1).
+ * The store also records when each product was last added or looked up by id, so idle
+ * products can be found for offloading (see {@link ColdTier}), and keeps every price as a
+ * double in a column aligned with the rows, for vectorized scans (see {@link PriceFilter}).
+ * These fast paths are exposed to shards through {@link ProductRows}.
+ * Not thread-safe; a shard guards its store with its own lock.
+ */
+public final class InMemoryProductStore implements ProductStore, ProductRows {
+    //Products in no particular order; a removal moves the last product into the freed row
+    private final ArrayList<Product> products = new ArrayList<>();
+    //Index from product id to its row in products
+    private final UuidIndex byId = new UuidIndex();
+    //Read-only view of products
+    private final List<Product> view = Collections.unmodifiableList(products);
+    //Time of the last add or lookup per row, in seconds since the store was created
+    private int[] touched = new int[16];
+    //Price per row as the nearest double
+    private double[] prices = new double[16];
+    private final long createdMillis = System.currentTimeMillis();
+
+    @Override
+    public boolean add(Product product) {
+        if (byId.putIfAbsent(product.uuid(), products.size()) != UuidIndex.ABSENT) {
+            return false;
+        }
+        products.add(product);
+        if (products.size() > touched.length) {
+            touched = Arrays.copyOf(touched, touched.length * 2);
+            prices = Arrays.copyOf(prices, prices.length * 2);
+        }
+        touch(products.size() - 1);
+        prices[products.size() - 1] = product.priceAsDouble();
+        return true;
+    }
+
+    @Override
+    public Product get(UUID id) {
+        return touchAndGet(byId.get(id));
+    }
+
+    @Override
+    public boolean contains(UUID id) {
+        return byId.get(id) != UuidIndex.ABSENT;
+    }
+
+    @Override
+    public Product peek(UUID id) {
+        int row = byId.get(id);
+        return row == UuidIndex.ABSENT ? null : products.get(row);
+    }
+
+    @Override
+    public Product get(long msb, long lsb) {
+        return touchAndGet(byId.get(msb, lsb));
+    }
+
+    @Override
+    public Product remove(UUID id) {
+        int row = byId.remove(id);
+        if (row == UuidIndex.ABSENT) {
+            return null;
+        }
+        Product removed = products.get(row);
+        //Fill the hole with the last product so removal is O(1)
+        Product last = products.removeLast();
+        if (last != removed) {
+            products.set(row, last);
+            touched[row] = touched[products.size()];
+            prices[row] = prices[products.size()];
+            byId.put(last.uuid(), row);
+        }
+        return removed;
+    }
+
+    //Products are stored by reference, so only the price column needs the new state
+    @Override
+    public boolean update(Product product) {
+        int row = byId.get(product.uuid());
+        if (row == UuidIndex.ABSENT) {
+            return false;
+        }
+        prices[row] = product.priceAsDouble();
+        return true;
+    }
+
+    @Override
+    public int size() {
+        return products.size();
+    }
+
+    @Override
+    public void clear() {
+        products.clear();
+        byId.clear();
+    }
+
+    @Override
+    public void forEach(Consumer<? super Product> action) {
+        products.forEach(action);
+    }
+
+    @Override
+    public List<Product> untouchedSince(long cutoffMillis) {
+        long cutoff = Math.floorDiv(cutoffMillis - createdMillis, 1000);
+        List<Product> idle = new ArrayList<>();
+        for (int row = 0; row < products.size(); row++) {
+            if (touched[row] < cutoff) {
+                idle.add(products.get(row));
+            }
+        }
+        return idle;
+    }
+
+    //Records a lookup; readers may race on the same slot, which at worst loses one of two equal times
+    private Product touchAndGet(int row) {
+        if (row == UuidIndex.ABSENT) {
+            return null;
+        }
+        touch(row);
+        return products.get(row);
+    }
+
+    private void touch(int row) {
+        touched[row] = (int) ((System.currentTimeMillis() - createdMillis) / 1000);
+    }
+
+    @Override
+    public double[] priceColumn() {
+        return prices;
+    }
+
+    @Override
+    public List<Product> asList() {
+        return view;
+    }
+
+    @Override
+    public void trimToSize() {
+        products.trimToSize();
+    }
+}
@@ -0,0 +1,35 @@
+package com.example;
+
+import java.math.BigDecimal;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Combined result of a dashboard refresh (see {@link WarehouseAnalyzer#getDashboard(java.time.Duration)}).
+ * Every part was computed against the same warehouse version, so the parts agree with each other.
+ *
+ * @param version warehouse version all parts were computed at
+ * @param statistics counts, totals and price extremes
+ * @param validation high-value share and category diversity
+ * @param weightedAveragePrices weighted average price per category
+ * @param expiringSoon perishables expiring within {@link #EXPIRING_WITHIN_DAYS} days
+ * @param expirationDiscounts discounted price per product, by expiration
+ * @param priceOutliers products more than {@link #OUTLIER_DEVIATIONS} standard deviations from the mean price
+ * @param mostExpensive the {@link #TOP_PRODUCTS} most expensive products, most expensive first
+ */
+record InventoryDashboard(long version,
+                          InventoryStatistics statistics,
+                          InventoryValidation validation,
+                          Map<Category, BigDecimal> weightedAveragePrices,
+                          List<Perishable> expiringSoon,
+                          Map<Product, BigDecimal> expirationDiscounts,
+                          List<Product> priceOutliers,
+                          List<Product> mostExpensive) {
+
+    //Window for the expiring-soon list, in days
+    static final int EXPIRING_WITHIN_DAYS = 7;
+    //Threshold for the price outlier list, in standard deviations
+    static final double OUTLIER_DEVIATIONS = 2.0;
+    //Length of the most expensive list
+    static final int TOP_PRODUCTS = 10;
+}
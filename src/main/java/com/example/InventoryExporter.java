@@ -0,0 +1,319 @@
+package com.example;
+
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.nio.channels.FileChannel;
+import java.nio.channels.WritableByteChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.List;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.stream.Stream;
+
+/**
+ * Streaming exporter for the inventory and analyzer results, as CSV or JSON Lines.
+ * Products are read page by page and every row is encoded straight into one reusable direct
+ * buffer that is drained to the channel when full, so memory stays constant however many
+ * products are exported. Product exports use the column layout {@link CsvInventoryImporter}
+ * reads, so a CSV export can be imported again.
+ * <p>
+ * An exporter reuses its buffer between exports and is not thread-safe; use one per thread.
+ */
+public final class InventoryExporter {
+    static final int BUFFER_SIZE = 64 * 1024;
+
+    //Output formats
+    public enum Format {
+        //Comma-separated values with a header row
+        CSV,
+        //One JSON object per line
+        JSON_LINES
+    }
+
+    private static final String[] PRODUCT_COLUMNS = {"type", "id", "name", "category", "price", "weight", "expiration", "warranty"};
+    private static final String[] DISCOUNT_COLUMNS = {"id", "name", "price", "discountedPrice"};
+    private static final String[] STATISTICS_COLUMNS = {"totalProducts", "totalValue", "averagePrice", "expiredCount",
+            "categoryCount", "mostExpensiveId", "cheapestId"};
+    private static final String[] SHIPPING_COLUMNS = {"group", "id", "name", "weight", "groupWeight", "groupShippingCost"};
+
+    private final Warehouse warehouse;
+    private final WarehouseAnalyzer analyzer;
+    private final Format format;
+    private final ChannelWriter out = new ChannelWriter(BUFFER_SIZE);
+    //Columns of the row being written and the index of the next one
+    private String[] columns;
+    private int column;
+
+    /**
+     * @param warehouse Warehouse to export.
+     * @param format Output format.
+     * @throws IllegalArgumentException if an argument is null.
+     */
+    public InventoryExporter(Warehouse warehouse, Format format) {
+        if (warehouse == null || format == null) {
+            throw new IllegalArgumentException("Warehouse and format cannot be null.");
+        }
+        this.warehouse = warehouse;
+        this.analyzer = new WarehouseAnalyzer(warehouse);
+        this.format = format;
+    }
+
+    //Exports every product to a file, replacing it; returns the number of rows written.
+    public long exportProducts(Path file) throws IOException {
+        try (FileChannel channel = create(file)) {
+            return exportProducts(channel);
+        }
+    }
+
+    /**
+     * Exports every product in (price, id) order.
+     * @param channel Channel to write to; it is not closed.
+     * @return Number of rows written.
+     */
+    public long exportProducts(WritableByteChannel channel) throws IOException {
+        begin(channel, PRODUCT_COLUMNS);
+        long rows = 0;
+        try (Stream<Product> products = warehouse.stream(ProductQuery.where())) {
+            for (Product p : (Iterable<Product>) products::iterator) {
+                startRow();
+                switch (p) {
+                    case FoodProduct food -> {
+                        text("food").uuid(p.uuid()).text(p.name()).text(p.category().getName())
+                                .decimal(p.price()).decimal(food.exactWeight()).date(food).empty();
+                    }
+                    case ElectronicsProduct electronics -> {
+                        text("electronics").uuid(p.uuid()).text(p.name()).text(p.category().getName())
+                                .decimal(p.price()).decimal(electronics.exactWeight()).empty()
+                                .number(electronics.getWarrantyMonths());
+                    }
+                    default -> text("product").uuid(p.uuid()).text(p.name()).text(p.category().getName())
+                            .decimal(p.price()).empty().empty().empty();
+                }
+                endRow();
+                rows++;
+            }
+        }
+        out.flush();
+        return rows;
+    }
+
+    //Exports today's discounted price of every product to a file; returns the number of rows written.
+    public long exportDiscounts(Path file) throws IOException {
+        try (FileChannel channel = create(file)) {
+            return exportDiscounts(channel);
+        }
+    }
+
+    /**
+     * Exports the regular and discounted price of every product, read from the daily price book.
+     * @see WarehouseAnalyzer#calculateExpirationBasedDiscounts()
+     */
+    public long exportDiscounts(WritableByteChannel channel) throws IOException {
+        begin(channel, DISCOUNT_COLUMNS);
+        long rows = 0;
+        try (Stream<Product> products = warehouse.stream(ProductQuery.where())) {
+            for (Product p : (Iterable<Product>) products::iterator) {
+                Optional<BigDecimal> discounted = warehouse.getDiscountedPrice(p.uuid());
+                //Skip products removed while exporting
+                if (discounted.isEmpty()) continue;
+                startRow();
+                uuid(p.uuid()).text(p.name()).decimal(p.price()).decimal(discounted.get());
+                endRow();
+                rows++;
+            }
+        }
+        out.flush();
+        return rows;
+    }
+
+    //Exports the inventory statistics to a file as a single row.
+    public void exportStatistics(Path file) throws IOException {
+        try (FileChannel channel = create(file)) {
+            exportStatistics(channel);
+        }
+    }
+
+    /**
+     * Exports the inventory statistics as a single row; extremes are given by product id.
+     * @see WarehouseAnalyzer#getInventoryStatistics()
+     */
+    public void exportStatistics(WritableByteChannel channel) throws IOException {
+        InventoryStatistics s = analyzer.getInventoryStatistics();
+        begin(channel, STATISTICS_COLUMNS);
+        startRow();
+        number(s.getTotalProducts()).decimal(s.getTotalValue()).decimal(s.getAveragePrice())
+                .number(s.getExpiredCount()).number(s.getCategoryCount());
+        if (s.getMostExpensiveProduct() != null) {
+            uuid(s.getMostExpensiveProduct().uuid()).uuid(s.getCheapestProduct().uuid());
+        } else {
+            empty().empty();
+        }
+        endRow();
+        out.flush();
+    }
+
+    //Exports shipping groups to a file; returns the number of rows written.
+    public long exportShippingGroups(Path file, BigDecimal maxWeightPerGroup) throws IOException {
+        try (FileChannel channel = create(file)) {
+            return exportShippingGroups(channel, maxWeightPerGroup);
+        }
+    }
+
+    /**
+     * Exports shipping groups with one row per product, carrying its group's number and totals.
+     * @see WarehouseAnalyzer#optimizeShippingGroups(BigDecimal)
+     */
+    public long exportShippingGroups(WritableByteChannel channel, BigDecimal maxWeightPerGroup) throws IOException {
+        List<ShippingGroup> groups = analyzer.optimizeShippingGroups(maxWeightPerGroup);
+        begin(channel, SHIPPING_COLUMNS);
+        long rows = 0;
+        for (int g = 0; g < groups.size(); g++) {
+            ShippingGroup group = groups.get(g);
+            for (Shippable item : group.getProducts()) {
+                Product p = (Product) item;
+                startRow();
+                number(g).uuid(p.uuid()).text(p.name()).real(item.weight())
+                        .real(group.getTotalWeight()).decimal(group.getTotalShippingCost());
+                endRow();
+                rows++;
+            }
+        }
+        out.flush();
+        return rows;
+    }
+
+    private static FileChannel create(Path file) throws IOException {
+        return FileChannel.open(file, StandardOpenOption.CREATE, StandardOpenOption.TRUNCATE_EXISTING,
+                StandardOpenOption.WRITE);
+    }
+
+    //Starts an export; CSV gets a header row
+    private void begin(WritableByteChannel channel, String[] columns) throws IOException {
+        out.open(channel);
+        this.columns = columns;
+        if (format == Format.CSV) {
+            for (int i = 0; i < columns.length; i++) {
+                if (i > 0) out.write(',');
+                out.write(columns[i]);
+            }
+            out.write('\n');
+        }
+    }
+
+    private void startRow() throws IOException {
+        column = 0;
+        if (format == Format.JSON_LINES) out.write('{');
+    }
+
+    private void endRow() throws IOException {
+        out.write(format == Format.JSON_LINES ? '}' : '\n');
+        if (format == Format.JSON_LINES) out.write('\n');
+    }
+
+    //Writes the separator and, for JSON, the member name of the next column
+    private void nextColumn() throws IOException {
+        if (column > 0) out.write(',');
+        if (format == Format.JSON_LINES) {
+            out.write('"').write(columns[column]).write('"').write(':');
+        }
+        column++;
+    }
+
+    private InventoryExporter text(String value) throws IOException {
+        nextColumn();
+        if (format == Format.JSON_LINES) {
+            jsonString(value);
+        } else {
+            csvField(value);
+        }
+        return this;
+    }
+
+    private InventoryExporter decimal(BigDecimal value) throws IOException {
+        nextColumn();
+        out.write(value);
+        return this;
+    }
+
+    private InventoryExporter number(long value) throws IOException {
+        nextColumn();
+        out.write(value);
+        return this;
+    }
+
+    private InventoryExporter real(double value) throws IOException {
+        nextColumn();
+        out.write(value);
+        return this;
+    }
+
+    private InventoryExporter uuid(UUID id) throws IOException {
+        nextColumn();
+        if (format == Format.JSON_LINES) out.write('"');
+        out.write(id);
+        if (format == Format.JSON_LINES) out.write('"');
+        return this;
+    }
+
+    private InventoryExporter date(Perishable perishable) throws IOException {
+        nextColumn();
+        if (format == Format.JSON_LINES) out.write('"');
+        out.write(perishable.expirationDate());
+        if (format == Format.JSON_LINES) out.write('"');
+        return this;
+    }
+
+    //An absent value: an empty CSV field, or a skipped JSON member
+    private InventoryExporter empty() throws IOException {
+        if (format == Format.CSV) {
+            nextColumn();
+        } else {
+            column++;
+        }
+        return this;
+    }
+
+    //Quotes a CSV field only when it contains a separator, quote or line break
+    private void csvField(String value) throws IOException {
+        boolean quote = false;
+        for (int i = 0; i < value.length() && !quote; i++) {
+            char c = value.charAt(i);
+            quote = c == ',' || c == '"' || c == '\n' || c == '\r';
+        }
+        if (!quote) {
+            out.write(value);
+            return;
+        }
+        out.write('"');
+        for (int i = 0; i < value.length(); i++) {
+            char c = value.charAt(i);
+            if (c == '"') out.write('"');
+            out.write(c);
+        }
+        out.write('"');
+    }
+
+    //Writes a quoted JSON string, escaping like JsonWriter
+    private void jsonString(String value) throws IOException {
+        out.write('"');
+        int plainFrom = 0;
+        for (int i = 0; i < value.length(); i++) {
+            char c = value.charAt(i);
+            if (c == '"' || c == '\\' || c < 0x20) {
+                out.write(value.substring(plainFrom, i));
+                plainFrom = i + 1;
+                switch (c) {
+                    case '"' -> out.write('\\').write('"');
+                    case '\\' -> out.write('\\').write('\\');
+                    case '\n' -> out.write('\\').write('n');
+                    case '\r' -> out.write('\\').write('r');
+                    case '\t' -> out.write('\\').write('t');
+                    default -> out.writeUnicodeEscape(c);
+                }
+            }
+        }
+        out.write(plainFrom == 0 ? value : value.substring(plainFrom));
+        out.write('"');
+    }
+}
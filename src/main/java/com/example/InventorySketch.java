@@ -0,0 +1,73 @@
+package com.example;
+
+import java.math.BigDecimal;
+
+/**
+ * Approximate summary of a set of products: a {@link HyperLogLog} over category names and a
+ * {@link KllSketch} over prices. Each shard keeps one that is updated on insert, and summaries
+ * of shards and warehouses merge into one, so approximate analytics never touch the products.
+ * <p>
+ * Sketches only grow: removals are not subtracted and a price update records the new price
+ * without forgetting the old one. {@link Warehouse#rebuildSketches()} rebuilds them exactly
+ * from the current products.
+ */
+class InventorySketch {
+    private final HyperLogLog categories = new HyperLogLog();
+    private final KllSketch prices = new KllSketch();
+
+    //Records a newly inserted product
+    void add(Product product) {
+        categories.add(product.category().getName());
+        prices.update(product.price().doubleValue());
+    }
+
+    //Records a new price of an existing product
+    void addPrice(BigDecimal price) {
+        prices.update(price.doubleValue());
+    }
+
+    //Estimated number of distinct categories
+    long distinctCategories() {
+        return categories.estimate();
+    }
+
+    //Number of prices recorded
+    long count() {
+        return prices.count();
+    }
+
+    //Estimated price at the quantile q in [0, 1], or NaN when empty
+    double priceQuantile(double q) {
+        return prices.quantile(q);
+    }
+
+    //Estimated fraction of recorded prices at or above the threshold, 0 when empty
+    double fractionAtLeast(BigDecimal threshold) {
+        long count = prices.count();
+        if (count == 0) return 0.0;
+        return 1.0 - (double) prices.rank(threshold.doubleValue(), false) / count;
+    }
+
+    //Approximate counterpart of ValidationCounts.toValidation()
+    InventoryValidation toValidation() {
+        if (count() == 0) return new InventoryValidation(0.0, 0);
+        double percentage = fractionAtLeast(ValidationCounts.HIGH_VALUE_THRESHOLD) * 100.0;
+        return new InventoryValidation(percentage, (int) distinctCategories());
+    }
+
+    //Merges another summary into this one and returns this one, for use in reductions
+    InventorySketch merge(InventorySketch other) {
+        categories.merge(other.categories);
+        prices.merge(other.prices);
+        return this;
+    }
+
+    InventorySketch copy() {
+        return new InventorySketch().merge(this);
+    }
+
+    void clear() {
+        categories.clear();
+        prices.clear();
+    }
+}
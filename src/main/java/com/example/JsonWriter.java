@@ -0,0 +1,142 @@
+package com.example;
+
+import java.io.IOException;
+import java.io.Writer;
+import java.math.BigDecimal;
+import java.util.ArrayDeque;
+import java.util.Deque;
+
+/**
+ * Minimal streaming JSON writer.
+ * Values are written straight to the underlying Writer, so large documents are never
+ * built up in memory. Commas between elements are inserted automatically.
+ */
+class JsonWriter {
+    private final Writer out;
+    //One entry per open object/array: true while no element has been written yet
+    private final Deque<Boolean> first = new ArrayDeque<>();
+    //True right after a member name, when the next value must not be preceded by a comma
+    private boolean afterName;
+
+    JsonWriter(Writer out) {
+        this.out = out;
+    }
+
+    JsonWriter beginObject() throws IOException {
+        beforeValue();
+        out.write('{');
+        first.push(true);
+        return this;
+    }
+
+    JsonWriter endObject() throws IOException {
+        first.pop();
+        out.write('}');
+        return this;
+    }
+
+    JsonWriter beginArray() throws IOException {
+        beforeValue();
+        out.write('[');
+        first.push(true);
+        return this;
+    }
+
+    JsonWriter endArray() throws IOException {
+        first.pop();
+        out.write(']');
+        return this;
+    }
+
+    //Writes a member name; must be followed by exactly one value
+    JsonWriter name(String name) throws IOException {
+        beforeValue();
+        writeString(name);
+        out.write(':');
+        afterName = true;
+        return this;
+    }
+
+    JsonWriter value(String value) throws IOException {
+        if (value == null) return nullValue();
+        beforeValue();
+        writeString(value);
+        return this;
+    }
+
+    //Writes a decimal as a JSON number without exponent notation
+    JsonWriter value(BigDecimal value) throws IOException {
+        if (value == null) return nullValue();
+        beforeValue();
+        out.write(value.toPlainString());
+        return this;
+    }
+
+    JsonWriter value(long value) throws IOException {
+        beforeValue();
+        out.write(Long.toString(value));
+        return this;
+    }
+
+    JsonWriter value(double value) throws IOException {
+        beforeValue();
+        out.write(Double.isFinite(value) ? Double.toString(value) : "null");
+        return this;
+    }
+
+    JsonWriter value(boolean value) throws IOException {
+        beforeValue();
+        out.write(value ? "true" : "false");
+        return this;
+    }
+
+    JsonWriter nullValue() throws IOException {
+        beforeValue();
+        out.write("null");
+        return this;
+    }
+
+    JsonWriter flush() throws IOException {
+        out.flush();
+        return this;
+    }
+
+    //Writes the separating comma unless this is the first element or follows a name
+    private void beforeValue() throws IOException {
+        if (afterName) {
+            afterName = false;
+            return;
+        }
+        if (!first.isEmpty()) {
+            if (!first.peek()) {
+                out.write(',');
+            } else {
+                first.pop();
+                first.push(false);
+            }
+        }
+    }
+
+    //Writes a quoted string, escaping quotes, backslashes and control characters
+    private void writeString(String s) throws IOException {
+        out.write('"');
+        for (int i = 0; i < s.length(); i++) {
+            char c = s.charAt(i);
+            switch (c) {
+                case '"' -> out.write("\\\"");
+                case '\\' -> out.write("\\\\");
+                case '\n' -> out.write("\\n");
+                case '\r' -> out.write("\\r");
+                case '\t' -> out.write("\\t");
+                default -> {
+                    if (c < 0x20) {
+                        out.write(String.format("\\u%04x", (int) c));
+                    } else {
+                        out.write(c);
+                    }
+                }
+            }
+        }
+        out.write('"');
+    }
+}
@@ -0,0 +1,308 @@
+package com.example;
+
+import java.math.BigDecimal;
+import java.time.Duration;
+import java.util.*;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Keeps a live shipping plan for a warehouse, as an online alternative to
+ * {@link WarehouseAnalyzer#optimizeShippingGroups(BigDecimal)}. Every shippable product is
+ * placed the moment it is added, best fit: into the fullest open group it still fits in, found
+ * with one lookup in a tree of groups ordered by load, so a placement costs O(log groups).
+ * A removed product frees its capacity right away; groups left empty are closed. Each group
+ * keeps running totals of its weight and shipping cost; a removal re-adds the remaining weights
+ * rather than subtracting, so repeated removals cannot drift the load off the batch call's sums.
+ * <p>
+ * Listeners run after the shard lock is released, so events for one id can arrive out of order
+ * (a removal before its add). Each event therefore only names the id: the planner looks the id up
+ * in the warehouse and places or drops it to match, so the last event seen always leaves the
+ * plan in step with the warehouse.
+ * <p>
+ * Placing items as they come packs less tightly than sorting them first, so
+ * {@link #compact()} repacks all items heaviest first; run it from time to time, or let
+ * {@link #start} run it periodically. A product heavier than the limit gets a group of its
+ * own, like in the batch call.
+ */
+public final class OnlineShippingPlanner implements AutoCloseable {
+    private final Warehouse warehouse;
+    private final BigDecimal maxWeightPerGroup;
+    private final double maxWeight;
+    //Open groups by load, then age; a best-fit search is a floor lookup
+    private final TreeSet<Bin> byLoad = new TreeSet<>(
+            Comparator.comparingDouble((Bin bin) -> bin.weight).thenComparingLong(bin -> bin.id));
+    //Group of every placed product
+    private final Map<UUID, Bin> placements = new HashMap<>();
+    private long nextBinId;
+    private BigDecimal totalShippingCost = BigDecimal.ZERO;
+    private long compactionCount;
+    //Background ticker, or null when compaction is triggered manually
+    private ScheduledExecutorService ticker;
+
+    //One open group; weight and cost are running totals of its items
+    private static final class Bin {
+        final long id;
+        final Map<UUID, Shippable> items = new LinkedHashMap<>();
+        double weight;
+        BigDecimal cost = BigDecimal.ZERO;
+
+        Bin(long id) {
+            this.id = id;
+        }
+
+        ShippingGroup toGroup() {
+            return new ShippingGroup(List.copyOf(items.values()), weight, cost);
+        }
+    }
+
+    //Keeps the plan in step with the warehouse
+    private final ProductListener productListener = new ProductListener() {
+        @Override
+        public void productAdded(Product product) {
+            if (product instanceof Shippable) {
+                synchronized (OnlineShippingPlanner.this) {
+                    reconcile(product.uuid());
+                }
+            }
+        }
+
+        @Override
+        public void productRemoved(Product product) {
+            synchronized (OnlineShippingPlanner.this) {
+                reconcile(product.uuid());
+            }
+        }
+
+        @Override
+        public void productsCleared() {
+            synchronized (OnlineShippingPlanner.this) {
+                //Products added after the clear may already be placed, so only drop the gone ones
+                dropRemoved();
+            }
+        }
+    };
+
+    private OnlineShippingPlanner(Warehouse warehouse, BigDecimal maxWeightPerGroup) {
+        this.warehouse = warehouse;
+        this.maxWeightPerGroup = maxWeightPerGroup;
+        this.maxWeight = maxWeightPerGroup.doubleValue();
+    }
+
+    /**
+     * Attaches a planner to a warehouse without a background thread; call {@link #compact()} to repack.
+     * Shippable products already in the warehouse are packed right away, heaviest first.
+     * @param warehouse Warehouse to plan for.
+     * @param maxWeightPerGroup Maximum total weight per group (inclusive).
+     * @return Attached planner; close it to detach.
+     * @throws IllegalArgumentException if an argument is null or the maximum weight is not positive.
+     */
+    public static OnlineShippingPlanner attach(Warehouse warehouse, BigDecimal maxWeightPerGroup) {
+        if (warehouse == null || maxWeightPerGroup == null) {
+            throw new IllegalArgumentException("Warehouse and maximum weight cannot be null.");
+        }
+        if (maxWeightPerGroup.signum() <= 0) {
+            throw new IllegalArgumentException("Maximum weight must be positive.");
+        }
+        OnlineShippingPlanner planner = new OnlineShippingPlanner(warehouse, maxWeightPerGroup);
+        //Listen first so no product added meanwhile is missed
+        warehouse.addListener(planner.productListener);
+        List<Shippable> existing = warehouse.shippableProducts();
+        synchronized (planner) {
+            for (Shippable item : heaviestFirst(existing)) {
+                UUID id = ((Product) item).uuid();
+                //Skip products removed since listing; a removal after this check waits for the lock
+                if (warehouse.peekProduct(id) == item) {
+                    planner.place(id, item);
+                }
+            }
+        }
+        return planner;
+    }
+
+    /**
+     * Attaches a planner that compacts on a background daemon thread at a fixed interval.
+     * @param compactionInterval Time between compactions.
+     * @throws IllegalArgumentException if an argument is null or the interval is not positive.
+     * @see #attach(Warehouse, BigDecimal)
+     */
+    public static OnlineShippingPlanner start(Warehouse warehouse, BigDecimal maxWeightPerGroup,
+                                              Duration compactionInterval) {
+        if (compactionInterval == null || compactionInterval.isNegative() || compactionInterval.isZero()) {
+            throw new IllegalArgumentException("Compaction interval must be positive.");
+        }
+        OnlineShippingPlanner planner = attach(warehouse, maxWeightPerGroup);
+        planner.ticker = Executors.newSingleThreadScheduledExecutor(
+                Thread.ofPlatform().daemon().name("shipping-planner-" + warehouse.getName()).factory());
+        long nanos = compactionInterval.toNanos();
+        planner.ticker.scheduleWithFixedDelay(planner::tick, nanos, nanos, TimeUnit.NANOSECONDS);
+        return planner;
+    }
+
+    /**
+     * Repacks all placed products, heaviest first, each into the fullest group it fits in.
+     * Placements of products no longer in the warehouse are dropped first.
+     * @return Number of groups saved by the repack; negative in the rare case it needs more.
+     */
+    public synchronized int compact() {
+        dropRemoved();
+        int before = byLoad.size();
+        List<Map.Entry<UUID, Shippable>> items = new ArrayList<>(placements.size());
+        for (Bin bin : byLoad) {
+            items.addAll(bin.items.entrySet());
+        }
+        items.sort(Comparator.comparingDouble((Map.Entry<UUID, Shippable> e) -> e.getValue().weight()).reversed()
+                .thenComparing(Map.Entry::getKey));
+        byLoad.clear();
+        placements.clear();
+        totalShippingCost = BigDecimal.ZERO;
+        for (Map.Entry<UUID, Shippable> item : items) {
+            place(item.getKey(), item.getValue());
+        }
+        compactionCount++;
+        return before - byLoad.size();
+    }
+
+    //Returns the open groups, fullest first.
+    public synchronized List<ShippingGroup> getGroups() {
+        List<ShippingGroup> groups = new ArrayList<>(byLoad.size());
+        for (Bin bin : byLoad.descendingSet()) {
+            groups.add(bin.toGroup());
+        }
+        return groups;
+    }
+
+    //Returns the group the product with the given id is placed in, if any.
+    public synchronized Optional<ShippingGroup> getGroupOf(UUID id) {
+        Bin bin = placements.get(id);
+        return bin == null ? Optional.empty() : Optional.of(bin.toGroup());
+    }
+
+    //Returns the number of open groups.
+    public synchronized int getGroupCount() {
+        return byLoad.size();
+    }
+
+    //Returns the shipping cost of all placed products.
+    public synchronized BigDecimal getTotalShippingCost() {
+        return totalShippingCost;
+    }
+
+    //Returns the number of compactions run so far.
+    public synchronized long getCompactionCount() {
+        return compactionCount;
+    }
+
+    //Returns the weight limit per group.
+    public BigDecimal getMaxWeightPerGroup() {
+        return maxWeightPerGroup;
+    }
+
+    //Stops the background thread, if any, and detaches from the warehouse.
+    @Override
+    public void close() {
+        warehouse.removeListener(productListener);
+        if (ticker != null) {
+            ticker.shutdownNow();
+        }
+    }
+
+    //Places an item into the fullest group with room, or a new group; ignores ids already placed
+    private void place(UUID id, Shippable item) {
+        if (placements.containsKey(id)) {
+            return;
+        }
+        double weight = item.weight();
+        Bin bin = bestFit(weight);
+        if (bin == null) {
+            bin = new Bin(nextBinId++);
+        } else {
+            //Take the group out of the index while its load changes
+            byLoad.remove(bin);
+        }
+        BigDecimal cost = item.calculateShippingCost();
+        bin.items.put(id, item);
+        bin.weight += weight;
+        bin.cost = bin.cost.add(cost);
+        totalShippingCost = totalShippingCost.add(cost);
+        byLoad.add(bin);
+        placements.put(id, bin);
+    }
+
+    //Takes a placed item out of its group, closing the group if it is left empty
+    private boolean unplace(UUID id) {
+        Bin bin = placements.remove(id);
+        if (bin == null) {
+            return false;
+        }
+        byLoad.remove(bin);
+        Shippable item = bin.items.remove(id);
+        BigDecimal cost = item.calculateShippingCost();
+        //Sum the remaining weights in placement order; subtracting would leave rounding residue
+        double weight = 0.0;
+        for (Shippable remaining : bin.items.values()) {
+            weight += remaining.weight();
+        }
+        bin.weight = weight;
+        bin.cost = bin.cost.subtract(cost);
+        totalShippingCost = totalShippingCost.subtract(cost);
+        if (!bin.items.isEmpty()) {
+            byLoad.add(bin);
+        }
+        return true;
+    }
+
+    //Places or drops the id so the plan matches the warehouse's current product for it
+    private void reconcile(UUID id) {
+        Product current = warehouse.peekProduct(id);
+        Bin bin = placements.get(id);
+        if (bin != null && bin.items.get(id) == current) {
+            return;
+        }
+        unplace(id);
+        if (current instanceof Shippable shippable) {
+            place(id, shippable);
+        }
+    }
+
+    //Drops the placements of products that are no longer in the warehouse
+    private void dropRemoved() {
+        List<UUID> gone = new ArrayList<>();
+        placements.forEach((id, bin) -> {
+            if (warehouse.peekProduct(id) != bin.items.get(id)) {
+                gone.add(id);
+            }
+        });
+        gone.forEach(this::unplace);
+    }
+
+    //Fullest group whose load plus the weight stays within the limit, or null if none
+    private Bin bestFit(double weight) {
+        Bin probe = new Bin(Long.MAX_VALUE);
+        probe.weight = maxWeight - weight;
+        //The subtraction may round up, so confirm with the same sum the batch call checks
+        for (Bin bin = byLoad.floor(probe); bin != null; bin = byLoad.lower(bin)) {
+            if (bin.weight + weight <= maxWeight) {
+                return bin;
+            }
+        }
+        return null;
+    }
+
+    private static List<Shippable> heaviestFirst(List<Shippable> items) {
+        List<Shippable> sorted = new ArrayList<>(items);
+        sorted.sort(Comparator.comparingDouble(Shippable::weight).reversed());
+        return sorted;
+    }
+
+    //One background compaction; failures are reported without cancelling later runs
+    private void tick() {
+        try {
+            compact();
+        } catch (RuntimeException e) {
+            Thread current = Thread.currentThread();
+            current.getUncaughtExceptionHandler().uncaughtException(current, e);
+        }
+    }
+}
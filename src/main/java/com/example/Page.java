@@ -0,0 +1,56 @@
+package com.example;
+
+import java.math.BigDecimal;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+import java.util.UUID;
+import java.util.function.Function;
+
+/**
+ * One page of a keyset-paginated query.
+ * Results are ordered by price, then by product id; pass {@link #getNext()} back to get the
+ * following page. Pages are consistent on their own, but products changed between two calls
+ * may be skipped or seen twice, as with any keyset pagination.
+ */
+public final class Page<T> {
+    //Order every paginated query follows
+    static final Comparator<Product> KEYSET_ORDER =
+            ((Comparator<Product>) Product::comparePrice).thenComparing(Product::uuid);
+
+    private final List<T> items;
+    private final Cursor next;
+
+    Page(List<T> items, Cursor next) {
+        this.items = Collections.unmodifiableList(items);
+        this.next = next;
+    }
+
+    public List<T> getItems() { return items; }
+    //Returns the cursor for the next page, or null if this is the last page
+    public Cursor getNext() { return next; }
+    public boolean hasNext() { return next != null; }
+
+    //Returns a page with the same cursor and every item converted
+    <R> Page<R> map(Function<T, R> mapper) {
+        return new Page<>(items.stream().map(mapper).toList(), next);
+    }
+
+    /**
+     * Position in the (price, id) order; the next page starts strictly after it.
+     * @param price Price of the last product seen.
+     * @param id Id of the last product seen.
+     */
+    public record Cursor(BigDecimal price, UUID id) {
+        //Cursor positioned right after the given product
+        public static Cursor after(Product product) {
+            return new Cursor(product.price(), product.uuid());
+        }
+
+        //Checks whether the product comes strictly after this position
+        boolean isBefore(Product product) {
+            int byPrice = product.price().compareTo(price);
+            return byPrice > 0 || byPrice == 0 && product.uuid().compareTo(id) > 0;
+        }
+    }
+}
@@ -0,0 +1,150 @@
+package com.example;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+import java.util.concurrent.RecursiveTask;
+import java.util.function.BinaryOperator;
+import java.util.function.Function;
+
+/**
+ * Splittable reductions on a fork-join pool. Work is cut into parts, the parts run as a tree
+ * of fork-join tasks, and partial results are always merged left before right, so an
+ * associative merge gives the same result as one sequential pass no matter how many threads
+ * ran. Inputs no larger than the sequential threshold are reduced in the calling thread.
+ * <p>
+ * A caller already running on the pool (e.g. a federated query fanning out per warehouse)
+ * also reduces sequentially: the pool is busy anyway, and joining there could make the
+ * caller run unrelated tasks while it holds shard locks.
+ */
+class ParallelScan {
+    //Largest number of items one task reduces by default
+    static final int DEFAULT_THRESHOLD = 8_192;
+
+    private final ForkJoinPool pool;
+    private final int threshold;
+
+    /**
+     * @param pool Pool to run parts on.
+     * @param threshold Largest number of items one task reduces (must be >= 1).
+     * @throws IllegalArgumentException if pool is null or threshold is less than 1.
+     */
+    ParallelScan(ForkJoinPool pool, int threshold) {
+        if (pool == null) {
+            throw new IllegalArgumentException("Pool cannot be null.");
+        }
+        if (threshold < 1) {
+            throw new IllegalArgumentException("Threshold must be at least 1.");
+        }
+        this.pool = pool;
+        this.threshold = threshold;
+    }
+
+    //Default scan: the common pool with the default threshold
+    static ParallelScan common() {
+        return new ParallelScan(ForkJoinPool.commonPool(), DEFAULT_THRESHOLD);
+    }
+
+    /**
+     * Reduces several lists as if they were concatenated, cutting them into ranges of at most
+     * the threshold. The lists must not change during the call, e.g. because the caller holds
+     * their locks.
+     * @param lists Lists to reduce, in order; at least one.
+     * @param partial Computes the partial result for one range (a subList view); may be given an empty list.
+     * @param merge Combines two partial results; must be associative.
+     * @return The merged result.
+     */
+    <E, T> T reduce(List<? extends List<E>> lists, Function<List<E>, T> partial, BinaryOperator<T> merge) {
+        int[] sizes = lists.stream().mapToInt(List::size).toArray();
+        return reduceRows(sizes, (part, from, to) -> partial.apply(lists.get(part).subList(from, to)), merge);
+    }
+
+    /**
+     * Like reduce, for inputs addressed by row number, e.g. shard columns: part i has rows
+     * 0 to sizes[i], and the partial gets a part and a row range within it.
+     * @param sizes Number of rows per part; at least one part.
+     * @param partial Computes the partial result for rows from (inclusive) to to (exclusive) of a part.
+     * @param merge Combines two partial results; must be associative.
+     * @return The merged result.
+     */
+    <T> T reduceRows(int[] sizes, RowRange<T> partial, BinaryOperator<T> merge) {
+        long total = 0;
+        for (int size : sizes) {
+            total += size;
+        }
+        List<int[]> ranges = new ArrayList<>();
+        if (total <= threshold || ForkJoinTask.getPool() == pool) {
+            for (int part = 0; part < sizes.length; part++) {
+                ranges.add(new int[]{part, 0, sizes[part]});
+            }
+            return reduceEachSequentially(ranges, range -> partial.apply(range[0], range[1], range[2]), merge);
+        }
+        for (int part = 0; part < sizes.length; part++) {
+            for (int from = 0; from < sizes[part]; from += threshold) {
+                ranges.add(new int[]{part, from, Math.min(sizes[part], from + threshold)});
+            }
+        }
+        return pool.invoke(new Parts<>(ranges, 0, ranges.size(),
+                range -> partial.apply(range[0], range[1], range[2]), merge));
+    }
+
+    //Computes a partial result for a row range of one part
+    @FunctionalInterface
+    interface RowRange<T> {
+        T apply(int part, int from, int to);
+    }
+
+    /**
+     * Reduces coarse items, e.g. shards, with one task per item; the partial does its own locking.
+     * @param items Items to reduce, in order; at least one.
+     * @param partial Computes the partial result for one item.
+     * @param merge Combines two partial results; must be associative.
+     * @return The merged result.
+     */
+    <E, T> T reduceEach(List<E> items, Function<E, T> partial, BinaryOperator<T> merge) {
+        if (items.size() == 1 || ForkJoinTask.getPool() == pool) {
+            return reduceEachSequentially(items, partial, merge);
+        }
+        return pool.invoke(new Parts<>(items, 0, items.size(), partial, merge));
+    }
+
+    private static <E, T> T reduceEachSequentially(List<? extends E> items, Function<? super E, T> partial,
+                                                   BinaryOperator<T> merge) {
+        T result = partial.apply(items.getFirst());
+        for (int i = 1; i < items.size(); i++) {
+            result = merge.apply(result, partial.apply(items.get(i)));
+        }
+        return result;
+    }
+
+    //Parts from..to of the input; halves until a single part is left
+    private static final class Parts<E, T> extends RecursiveTask<T> {
+        private final List<? extends E> parts;
+        private final int from;
+        private final int to;
+        private final Function<? super E, T> partial;
+        private final BinaryOperator<T> merge;
+
+        Parts(List<? extends E> parts, int from, int to, Function<? super E, T> partial, BinaryOperator<T> merge) {
+            this.parts = parts;
+            this.from = from;
+            this.to = to;
+            this.partial = partial;
+            this.merge = merge;
+        }
+
+        @Override
+        protected T compute() {
+            if (to - from == 1) {
+                return partial.apply(parts.get(from));
+            }
+            int mid = (from + to) >>> 1;
+            Parts<E, T> left = new Parts<>(parts, from, mid, partial, merge);
+            Parts<E, T> right = new Parts<>(parts, mid, to, partial, merge);
+            left.fork();
+            T rightResult = right.compute();
+            return merge.apply(left.join(), rightResult);
+        }
+    }
+}
@@ -0,0 +1,59 @@
+package com.example;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.UUID;
+
+/**
+ * Discounted prices of one shard's perishables, computed for a single day.
+ * Entries are kept up to date as perishables are added, repriced or removed; at the start of a
+ * new day the owning shard swaps in a freshly built book.
+ * Not thread-safe on its own; the owning shard guards it with its lock.
+ */
+class PriceBook {
+    private final LocalDate day;
+    private final DiscountTiers tiers;
+    //Discounted price per perishable product id
+    private final Map<UUID, BigDecimal> prices = new HashMap<>();
+
+    PriceBook(LocalDate day, DiscountTiers tiers) {
+        this.day = day;
+        this.tiers = tiers;
+    }
+
+    //Builds the book for the given day from a shard's products
+    static PriceBook build(Collection<Product> products, LocalDate day, DiscountTiers tiers) {
+        PriceBook book = new PriceBook(day, tiers);
+        products.forEach(book::put);
+        return book;
+    }
+
+    LocalDate day() {
+        return day;
+    }
+
+    //Records (or refreshes) the discounted price of a product; non-perishables are ignored
+    void put(Product p) {
+        if (p instanceof Perishable per) {
+            long days = per.expirationDate().toEpochDay() - day.toEpochDay();
+            prices.put(p.uuid(), tiers.apply(p.price(), days));
+        }
+    }
+
+    void remove(UUID id) {
+        prices.remove(id);
+    }
+
+    void clear() {
+        prices.clear();
+    }
+
+    //Discounted price of a product; non-perishables keep their regular price
+    BigDecimal priceOf(Product p) {
+        BigDecimal discounted = prices.get(p.uuid());
+        return discounted != null ? discounted : p.price();
+    }
+}
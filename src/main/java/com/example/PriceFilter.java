@@ -0,0 +1,89 @@
+package com.example;
+
+/**
+ * Threshold tests over a column of prices stored as doubles, producing selection bitmaps:
+ * bit i (word i / 64, bit i % 64) stands for row from + i. {@link #INSTANCE} is the vectorized
+ * filter when the jdk.incubator.vector module is present and the CPU has SIMD lanes to use,
+ * otherwise the scalar loop; both mark exactly the same rows.
+ * <p>
+ * Rounding a decimal to the nearest double keeps its order (x &lt; y implies
+ * double(x) &lt;= double(y)), so a price whose double is strictly inside a double interval is
+ * strictly inside the decimal interval too. Only prices whose double equals a bound need an
+ * exact check, which {@link #select} reports separately.
+ */
+interface PriceFilter {
+    //Filter used by the analyzer; set -Dwarehouse.scalarScans=true to force the scalar loop
+    PriceFilter INSTANCE = choose();
+
+    /**
+     * Marks the rows whose price lies in [lo, hi]. Rows with a NaN price are never marked.
+     * @param prices Price column.
+     * @param from First row (inclusive).
+     * @param to Last row (exclusive).
+     * @param lo Lower bound; use Double.NEGATIVE_INFINITY for none.
+     * @param hi Upper bound; use Double.POSITIVE_INFINITY for none.
+     * @param inside Receives rows with lo &lt; price &lt; hi, sized by {@link #bitmap(int)}.
+     * @param onBound Receives rows with price equal to lo or hi.
+     */
+    void select(double[] prices, int from, int to, double lo, double hi, long[] inside, long[] onBound);
+
+    /**
+     * Marks the rows whose price differs from the mean by more than the threshold, evaluated
+     * as |price - mean| &gt; threshold in doubles.
+     * @param selected Receives the matching rows, sized by {@link #bitmap(int)}.
+     */
+    void selectDeviating(double[] prices, int from, int to, double mean, double threshold, long[] selected);
+
+    //Short description for logs and benchmarks, e.g. "vector x4"
+    String describe();
+
+    //Returns an empty bitmap for the given number of rows
+    static long[] bitmap(int rows) {
+        return new long[(rows + 63) >>> 6];
+    }
+
+    private static PriceFilter choose() {
+        if (Boolean.getBoolean("warehouse.scalarScans")
+                || ModuleLayer.boot().findModule("jdk.incubator.vector").isEmpty()) {
+            return new Scalar();
+        }
+        try {
+            VectorPriceFilter vector = new VectorPriceFilter();
+            //One lane means no SIMD support, where the Vector API is slower than plain loops
+            return vector.lanes() > 1 ? vector : new Scalar();
+        } catch (LinkageError e) {
+            return new Scalar();
+        }
+    }
+
+    //Plain loop over the column; the fallback and the reference for the vectorized filter
+    final class Scalar implements PriceFilter {
+        @Override
+        public void select(double[] prices, int from, int to, double lo, double hi, long[] inside, long[] onBound) {
+            for (int row = from; row < to; row++) {
+                double price = prices[row];
+                int i = row - from;
+                if (price > lo && price < hi) {
+                    inside[i >>> 6] |= 1L << i;
+                } else if (price == lo || price == hi) {
+                    onBound[i >>> 6] |= 1L << i;
+                }
+            }
+        }
+
+        @Override
+        public void selectDeviating(double[] prices, int from, int to, double mean, double threshold, long[] selected) {
+            for (int row = from; row < to; row++) {
+                if (Math.abs(prices[row] - mean) > threshold) {
+                    int i = row - from;
+                    selected[i >>> 6] |= 1L << i;
+                }
+            }
+        }
+
+        @Override
+        public String describe() {
+            return "scalar";
+        }
+    }
+}
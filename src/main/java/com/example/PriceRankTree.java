@@ -0,0 +1,213 @@
+package com.example;
+
+import java.math.BigDecimal;
+import java.util.AbstractList;
+import java.util.List;
+import java.util.SplittableRandom;
+
+/**
+ * Order-statistic tree of products in (price, id) order.
+ * A treap whose nodes also store their subtree size, so besides insert and delete it answers
+ * "how many products come before this price" (rank) and "which product is at this position"
+ * (select) in expected O(log n).
+ * Like the other indexes, a product must be removed before its price changes and re-added after.
+ * Not thread-safe on its own; the owning shard guards it with its lock.
+ */
+class PriceRankTree {
+    private final SplittableRandom random = new SplittableRandom();
+    private Node root;
+
+    private static final class Node {
+        private final Product product;
+        private final long priority;
+        private int size = 1;
+        private Node left;
+        private Node right;
+
+        Node(Product product, long priority) {
+            this.product = product;
+            this.priority = priority;
+        }
+    }
+
+    void add(Product p) {
+        Node[] parts = split(root, p);
+        root = merge(merge(parts[0], new Node(p, random.nextLong())), parts[1]);
+    }
+
+    void remove(Product p) {
+        root = remove(root, p);
+    }
+
+    int size() {
+        return size(root);
+    }
+
+    boolean isEmpty() {
+        return root == null;
+    }
+
+    void clear() {
+        root = null;
+    }
+
+    //Read-only live view in (price, id) order; each get costs O(log n)
+    List<Product> asList() {
+        return new AbstractList<>() {
+            @Override
+            public Product get(int index) {
+                return select(index);
+            }
+
+            @Override
+            public int size() {
+                return PriceRankTree.this.size();
+            }
+        };
+    }
+
+    /**
+     * Returns the product at the given position in (price, id) order.
+     * @param index zero-based position, must be in [0, size())
+     * @return product at that position
+     */
+    Product select(int index) {
+        if (index < 0 || index >= size()) {
+            throw new IndexOutOfBoundsException("Index " + index + " out of bounds for size " + size());
+        }
+        Node node = root;
+        while (true) {
+            int leftSize = size(node.left);
+            if (index < leftSize) {
+                node = node.left;
+            } else if (index == leftSize) {
+                return node.product;
+            } else {
+                index -= leftSize + 1;
+                node = node.right;
+            }
+        }
+    }
+
+    //Number of products priced strictly below the given price
+    int countBelow(BigDecimal price) {
+        int count = 0;
+        for (Node node = root; node != null; ) {
+            if (node.product.price().compareTo(price) >= 0) {
+                node = node.left;
+            } else {
+                count += size(node.left) + 1;
+                node = node.right;
+            }
+        }
+        return count;
+    }
+
+    //Number of products strictly before the given one in (price, id) order
+    int countBefore(Product p) {
+        int count = 0;
+        for (Node node = root; node != null; ) {
+            if (Page.KEYSET_ORDER.compare(node.product, p) >= 0) {
+                node = node.left;
+            } else {
+                count += size(node.left) + 1;
+                node = node.right;
+            }
+        }
+        return count;
+    }
+
+    /**
+     * Returns the product at the given position in the (price, id) order of several trees
+     * combined, without merging them. Each round takes the middle of the largest remaining
+     * window as pivot and ranks it in every tree, which at least halves that window; for
+     * s trees of n products this costs O(s^2 log^2 n).
+     * @param trees trees with disjoint products
+     * @param index zero-based position in the combined order, must be below the total size
+     * @return product at that position
+     */
+    static Product select(List<PriceRankTree> trees, long index) {
+        int count = trees.size();
+        //Window [lo, hi) of positions in each tree that may still hold the answer
+        int[] lo = new int[count];
+        int[] hi = new int[count];
+        for (int i = 0; i < count; i++) {
+            hi[i] = trees.get(i).size();
+        }
+        while (true) {
+            int widest = 0;
+            for (int i = 1; i < count; i++) {
+                if (hi[i] - lo[i] > hi[widest] - lo[widest]) widest = i;
+            }
+            if (hi[widest] == lo[widest]) {
+                throw new IndexOutOfBoundsException("Index " + index + " out of bounds for the combined trees");
+            }
+            int mid = (lo[widest] + hi[widest]) >>> 1;
+            Product pivot = trees.get(widest).select(mid);
+            int[] before = new int[count];
+            long rank = 0;
+            for (int i = 0; i < count; i++) {
+                before[i] = i == widest ? mid : trees.get(i).countBefore(pivot);
+                rank += before[i];
+            }
+            if (rank == index) return pivot;
+            for (int i = 0; i < count; i++) {
+                if (rank < index) {
+                    lo[i] = Math.max(lo[i], i == widest ? mid + 1 : before[i]);
+                } else {
+                    hi[i] = Math.min(hi[i], before[i]);
+                }
+            }
+        }
+    }
+
+    //Splits a subtree into the nodes before the key and the nodes at or after it
+    private static Node[] split(Node node, Product key) {
+        if (node == null) return new Node[]{null, null};
+        if (Page.KEYSET_ORDER.compare(node.product, key) < 0) {
+            Node[] parts = split(node.right, key);
+            node.right = parts[0];
+            update(node);
+            return new Node[]{node, parts[1]};
+        }
+        Node[] parts = split(node.left, key);
+        node.left = parts[1];
+        update(node);
+        return new Node[]{parts[0], node};
+    }
+
+    //Joins two subtrees where every node of the first comes before every node of the second
+    private static Node merge(Node a, Node b) {
+        if (a == null) return b;
+        if (b == null) return a;
+        if (a.priority > b.priority) {
+            a.right = merge(a.right, b);
+            update(a);
+            return a;
+        }
+        b.left = merge(a, b.left);
+        update(b);
+        return b;
+    }
+
+    private static Node remove(Node node, Product p) {
+        if (node == null) return null;
+        int cmp = Page.KEYSET_ORDER.compare(p, node.product);
+        if (cmp == 0) return merge(node.left, node.right);
+        if (cmp < 0) {
+            node.left = remove(node.left, p);
+        } else {
+            node.right = remove(node.right, p);
+        }
+        update(node);
+        return node;
+    }
+
+    private static int size(Node node) {
+        return node == null ? 0 : node.size;
+    }
+
+    private static void update(Node node) {
+        node.size = size(node.left) + size(node.right) + 1;
+    }
+}
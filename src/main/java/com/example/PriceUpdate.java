@@ -0,0 +1,34 @@
+package com.example;
+
+import java.math.BigDecimal;
+import java.util.UUID;
+
+/**
+ * A price change for one product, as passed to {@link Warehouse#updateProductPrices(java.util.List)}.
+ * @param id Id of the product to reprice.
+ * @param newPrice New price (must be >= 0).
+ */
+public record PriceUpdate(UUID id, BigDecimal newPrice) {
+
+    //What a batch did with each update
+    public enum Outcome {
+        //No product with the id exists
+        NOT_FOUND,
+        //The product already had a numerically equal price; nothing was written
+        UNCHANGED,
+        //The new price was applied
+        UPDATED
+    }
+
+    /**
+     * @throws IllegalArgumentException if an argument is null or the price is negative.
+     */
+    public PriceUpdate {
+        if (id == null || newPrice == null) {
+            throw new IllegalArgumentException("Id and price cannot be null.");
+        }
+        if (newPrice.signum() < 0) {
+            throw new IllegalArgumentException("Price cannot be negative.");
+        }
+    }
+}
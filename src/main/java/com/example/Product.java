@@ -9,12 +9,17 @@ import java.util.UUID;
 public abstract class Product{
     //Unique identifier for each product
     private final UUID id;
-    //Name of the product
+    //Name of the product, interned so repeated names share one String. The JVM's string table
+    //holds interned strings weakly, so a name is dropped once no product uses it; the cost is
+    //one table lookup per product created.
     private final String name;
     //Category of the product
     private final Category category;
-    //Price of the product (can be updated)
-    private BigDecimal price;
+    //Price packed by CompactDecimal, or NOT_PACKED when it is held in bigPrice (can be updated).
+    //Volatile so readers outside the shard lock never see half of an update.
+    private volatile long packedPrice;
+    //Price that does not fit a packed long; only read while packedPrice is NOT_PACKED
+    private volatile BigDecimal bigPrice;
 
     /**
      * Creates a Product with the given attributes.
@@ -25,9 +30,9 @@ public abstract class Product{
      */
     protected Product(UUID id, String name, Category category, BigDecimal price) {
         this.id = id;
-        this.name = name;
+        this.name = name == null ? null : name.intern();
         this.category = category;
-        this.price = price;
+        price(price);
     }
 
     //Getter for product ID
@@ -40,7 +45,8 @@ public abstract class Product{
     }
     //Getter for product price
     public BigDecimal price() {
-        return this.price;
+        long packed = packedPrice;
+        return packed != CompactDecimal.NOT_PACKED ? CompactDecimal.unpack(packed) : bigPrice;
     }
     //Getter for product category
     public Category category() {
@@ -48,7 +54,33 @@ public abstract class Product{
     }
     //Setter for product price
     public void price(BigDecimal price){
-        this.price = price;
+        long packed = CompactDecimal.pack(price);
+        if (packed == CompactDecimal.NOT_PACKED) {
+            //Publish the decimal before the marker that tells readers to use it
+            bigPrice = price;
+        }
+        //bigPrice is not cleared, as a reader may have just seen the old marker
+        packedPrice = packed;
+    }
+
+    //Compares prices with another product without creating decimals in the common case
+    int comparePrice(Product other){
+        long a = packedPrice;
+        long b = other.packedPrice;
+        if (a != CompactDecimal.NOT_PACKED && b != CompactDecimal.NOT_PACKED) {
+            return CompactDecimal.compare(a, b);
+        }
+        return price().compareTo(other.price());
+    }
+
+    //Returns the price as the nearest double, like price().doubleValue() but without creating a decimal; NaN if unset
+    double priceAsDouble(){
+        long packed = packedPrice;
+        if (packed != CompactDecimal.NOT_PACKED) {
+            return CompactDecimal.toDouble(packed);
+        }
+        BigDecimal price = bigPrice;
+        return price != null ? price.doubleValue() : Double.NaN;
     }
 
     //Abstract method to get product details as a string (to be implemented by subclasses)
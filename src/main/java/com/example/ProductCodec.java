@@ -0,0 +1,358 @@
+package com.example;
+
+import java.lang.foreign.MemorySegment;
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.nio.BufferOverflowException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
+import java.util.*;
+
+/**
+ * Compact, versioned binary format for moving products between processes.
+ * A stream starts with the magic bytes {@code "WP"} and a version byte, followed by one record
+ * per product:
+ * <pre>
+ *  tag         1 byte     1 = FoodProduct, 2 = ElectronicsProduct
+ *  id          2 longs    most and least significant bits
+ *  category    varint     dictionary reference
+ *  name        varint     dictionary reference
+ *  price       decimal
+ *  weight      decimal
+ *  expiration  varlong    zigzag epoch day (food only)
+ *  warranty    varint     months (electronics only)
+ * </pre>
+ * Varints are little-endian base 128. A decimal is a varint of {@code zigzag(scale) << 1 | big}
+ * followed by the unscaled value as a zigzag varlong, or, when {@code big} is set, as
+ * length-prefixed two's-complement bytes. Categories and names each have a dictionary per
+ * stream: reference 0 is followed by a new string (UTF-8 byte length, then the bytes), which
+ * becomes the next entry, and reference i repeats entry i - 1.
+ * <p>
+ * Records are written and read directly in the buffer; no intermediate byte arrays or strings
+ * are created, except when decoding the first occurrence of a string.
+ */
+public final class ProductCodec {
+    static final byte VERSION = 1;
+    private static final byte MAGIC_0 = 'W';
+    private static final byte MAGIC_1 = 'P';
+    private static final byte FOOD = 1;
+    private static final byte ELECTRONICS = 2;
+
+    private ProductCodec() {
+    }
+
+    /**
+     * Starts a stream in the buffer by writing the header.
+     * @param out Buffer to write to, from its current position.
+     * @return Encoder appending records to the buffer.
+     */
+    public static Encoder encoder(ByteBuffer out) {
+        return new Encoder(out);
+    }
+
+    /**
+     * Starts reading a stream from the buffer by checking the header.
+     * @param in Buffer positioned at the start of a stream; records are read up to its limit.
+     * @return Decoder reading records from the buffer.
+     * @throws IllegalArgumentException if the header is missing or has an unsupported version.
+     */
+    public static Decoder decoder(ByteBuffer in) {
+        return new Decoder(in);
+    }
+
+    //Encodes products into a new heap buffer, flipped for reading.
+    public static ByteBuffer encode(Collection<? extends Product> products) {
+        int capacity = 64 + products.size() * 48;
+        while (true) {
+            ByteBuffer out = ByteBuffer.allocate(capacity);
+            try {
+                Encoder encoder = encoder(out);
+                products.forEach(encoder::write);
+                return out.flip();
+            } catch (BufferOverflowException e) {
+                capacity *= 2;
+            }
+        }
+    }
+
+    /**
+     * Encodes products into a memory segment, e.g. off-heap or a mapped file.
+     * @return Number of bytes written from the start of the segment.
+     * @throws BufferOverflowException if the segment is too small.
+     */
+    public static long encode(Collection<? extends Product> products, MemorySegment target) {
+        ByteBuffer out = target.asByteBuffer();
+        Encoder encoder = encoder(out);
+        products.forEach(encoder::write);
+        return out.position();
+    }
+
+    //Decodes all products of a stream up to the buffer's limit.
+    public static List<Product> decode(ByteBuffer in) {
+        Decoder decoder = decoder(in);
+        List<Product> products = new ArrayList<>();
+        while (decoder.hasNext()) {
+            products.add(decoder.read());
+        }
+        return products;
+    }
+
+    //Decodes all products of a stream that fills the given segment.
+    public static List<Product> decode(MemorySegment source) {
+        return decode(source.asByteBuffer());
+    }
+
+    /**
+     * Writes product records to a buffer, keeping the stream's string dictionaries.
+     * Not thread-safe.
+     */
+    public static final class Encoder {
+        private final ByteBuffer out;
+        private final Map<String, Integer> categories = new HashMap<>();
+        private final Map<String, Integer> names = new HashMap<>();
+
+        private Encoder(ByteBuffer out) {
+            this.out = out;
+            out.put(MAGIC_0).put(MAGIC_1).put(VERSION);
+        }
+
+        /**
+         * Appends one product record.
+         * If the buffer runs full the record is rolled back completely, so the caller can drain
+         * the buffer (flip, write out, clear) and retry the same product on the same stream.
+         * @param product Product to write.
+         * @throws BufferOverflowException if the record does not fit in the remaining space.
+         * @throws IllegalArgumentException if the product type is not supported.
+         */
+        public void write(Product product) {
+            byte tag = switch (product) {
+                case FoodProduct _ -> FOOD;
+                case ElectronicsProduct _ -> ELECTRONICS;
+                default -> throw new IllegalArgumentException("Unsupported product type: " + product.getClass().getName());
+            };
+            int start = out.position();
+            String newCategory = null;
+            String newName = null;
+            try {
+                out.put(tag);
+                out.putLong(product.uuid().getMostSignificantBits());
+                out.putLong(product.uuid().getLeastSignificantBits());
+                newCategory = writeReference(categories, product.category().getName());
+                newName = writeReference(names, product.name());
+                writeDecimal(out, product.price());
+                switch (product) {
+                    case FoodProduct food -> {
+                        writeDecimal(out, food.exactWeight());
+                        writeVarlong(out, zigzag(food.expirationDate().toEpochDay()));
+                    }
+                    case ElectronicsProduct electronics -> {
+                        writeDecimal(out, electronics.exactWeight());
+                        writeVarlong(out, electronics.getWarrantyMonths());
+                    }
+                    default -> throw new IllegalStateException();
+                }
+            } catch (BufferOverflowException e) {
+                out.position(start);
+                if (newCategory != null) categories.remove(newCategory);
+                if (newName != null) names.remove(newName);
+                throw e;
+            }
+        }
+
+        //Writes a dictionary reference, adding the string first if new; returns it if it was added
+        private String writeReference(Map<String, Integer> dictionary, String value) {
+            Integer index = dictionary.get(value);
+            if (index != null) {
+                writeVarlong(out, index + 1);
+                return null;
+            }
+            writeVarlong(out, 0);
+            writeUtf8(out, value);
+            dictionary.put(value, dictionary.size());
+            return value;
+        }
+    }
+
+    /**
+     * Reads product records from a buffer, keeping the stream's string dictionaries.
+     * Not thread-safe.
+     */
+    public static final class Decoder {
+        private final ByteBuffer in;
+        private final List<Category> categories = new ArrayList<>();
+        private final List<String> names = new ArrayList<>();
+        //Reused for strings in buffers without an accessible array
+        private byte[] scratch = new byte[64];
+
+        private Decoder(ByteBuffer in) {
+            this.in = in;
+            if (in.remaining() < 3 || in.get() != MAGIC_0 || in.get() != MAGIC_1) {
+                throw new IllegalArgumentException("Not a product stream.");
+            }
+            byte version = in.get();
+            if (version != VERSION) {
+                throw new IllegalArgumentException("Unsupported product stream version: " + version);
+            }
+        }
+
+        //Returns true while there are records left before the buffer's limit.
+        public boolean hasNext() {
+            return in.hasRemaining();
+        }
+
+        /**
+         * Reads the next product.
+         * @return Decoded product.
+         * @throws IllegalArgumentException if the record is malformed.
+         * @throws java.nio.BufferUnderflowException if the record is truncated.
+         */
+        public Product read() {
+            byte tag = in.get();
+            UUID id = new UUID(in.getLong(), in.getLong());
+            int categoryRef = (int) readVarlong(in);
+            Category category = categoryRef == 0 ? add(categories, Category.of(readUtf8())) : entry(categories, categoryRef);
+            int nameRef = (int) readVarlong(in);
+            String name = nameRef == 0 ? add(names, readUtf8()) : entry(names, nameRef);
+            BigDecimal price = readDecimal(in);
+            BigDecimal weight = readDecimal(in);
+            return switch (tag) {
+                case FOOD -> new FoodProduct(id, name, category, price,
+                        LocalDate.ofEpochDay(unzigzag(readVarlong(in))), weight);
+                case ELECTRONICS -> new ElectronicsProduct(id, name, category, price, (int) readVarlong(in), weight);
+                default -> throw new IllegalArgumentException("Unknown product tag: " + tag);
+            };
+        }
+
+        private String readUtf8() {
+            int length = (int) readVarlong(in);
+            if (length < 0 || length > in.remaining()) {
+                throw new IllegalArgumentException("Invalid string length: " + length);
+            }
+            String value;
+            if (in.hasArray()) {
+                value = new String(in.array(), in.arrayOffset() + in.position(), length, StandardCharsets.UTF_8);
+                in.position(in.position() + length);
+            } else {
+                if (scratch.length < length) {
+                    scratch = new byte[Math.max(length, scratch.length * 2)];
+                }
+                in.get(scratch, 0, length);
+                value = new String(scratch, 0, length, StandardCharsets.UTF_8);
+            }
+            return value;
+        }
+
+        private static <T> T add(List<T> dictionary, T value) {
+            dictionary.add(value);
+            return value;
+        }
+
+        private static <T> T entry(List<T> dictionary, int reference) {
+            if (reference < 1 || reference > dictionary.size()) {
+                throw new IllegalArgumentException("Invalid dictionary reference: " + reference);
+            }
+            return dictionary.get(reference - 1);
+        }
+    }
+
+    private static void writeDecimal(ByteBuffer out, BigDecimal value) {
+        BigInteger unscaled = value.unscaledValue();
+        boolean big = unscaled.bitLength() > 63;
+        writeVarlong(out, zigzag(value.scale()) << 1 | (big ? 1 : 0));
+        if (big) {
+            byte[] bytes = unscaled.toByteArray();
+            writeVarlong(out, bytes.length);
+            out.put(bytes);
+        } else {
+            writeVarlong(out, zigzag(unscaled.longValue()));
+        }
+    }
+
+    private static BigDecimal readDecimal(ByteBuffer in) {
+        long header = readVarlong(in);
+        int scale = (int) unzigzag(header >>> 1);
+        if ((header & 1) == 0) {
+            return BigDecimal.valueOf(unzigzag(readVarlong(in)), scale);
+        }
+        int length = (int) readVarlong(in);
+        if (length < 1 || length > in.remaining()) {
+            throw new IllegalArgumentException("Invalid decimal length: " + length);
+        }
+        byte[] bytes = new byte[length];
+        in.get(bytes);
+        return new BigDecimal(new BigInteger(bytes), scale);
+    }
+
+    //Writes a string as its UTF-8 byte length followed by the bytes, encoding in place
+    private static void writeUtf8(ByteBuffer out, String value) {
+        writeVarlong(out, utf8Length(value));
+        for (int i = 0; i < value.length(); i++) {
+            char c = value.charAt(i);
+            if (c < 0x80) {
+                out.put((byte) c);
+            } else if (c < 0x800) {
+                out.put((byte) (0xC0 | c >> 6)).put((byte) (0x80 | c & 0x3F));
+            } else if (Character.isSurrogate(c)) {
+                if (Character.isHighSurrogate(c) && i + 1 < value.length() && Character.isLowSurrogate(value.charAt(i + 1))) {
+                    int cp = Character.toCodePoint(c, value.charAt(++i));
+                    out.put((byte) (0xF0 | cp >> 18)).put((byte) (0x80 | cp >> 12 & 0x3F))
+                            .put((byte) (0x80 | cp >> 6 & 0x3F)).put((byte) (0x80 | cp & 0x3F));
+                } else {
+                    //Unpaired surrogates become '?', as in String.getBytes
+                    out.put((byte) '?');
+                }
+            } else {
+                out.put((byte) (0xE0 | c >> 12)).put((byte) (0x80 | c >> 6 & 0x3F)).put((byte) (0x80 | c & 0x3F));
+            }
+        }
+    }
+
+    private static int utf8Length(String value) {
+        int length = 0;
+        for (int i = 0; i < value.length(); i++) {
+            char c = value.charAt(i);
+            if (c < 0x80) {
+                length += 1;
+            } else if (c < 0x800) {
+                length += 2;
+            } else if (Character.isSurrogate(c)) {
+                if (Character.isHighSurrogate(c) && i + 1 < value.length() && Character.isLowSurrogate(value.charAt(i + 1))) {
+                    length += 4;
+                    i++;
+                } else {
+                    length += 1;
+                }
+            } else {
+                length += 3;
+            }
+        }
+        return length;
+    }
+
+    private static void writeVarlong(ByteBuffer out, long value) {
+        while ((value & ~0x7FL) != 0) {
+            out.put((byte) ((value & 0x7F) | 0x80));
+            value >>>= 7;
+        }
+        out.put((byte) value);
+    }
+
+    private static long readVarlong(ByteBuffer in) {
+        long value = 0;
+        for (int shift = 0; shift < 64; shift += 7) {
+            byte b = in.get();
+            value |= (long) (b & 0x7F) << shift;
+            if (b >= 0) return value;
+        }
+        throw new IllegalArgumentException("Malformed varint.");
+    }
+
+    private static long zigzag(long value) {
+        return (value << 1) ^ (value >> 63);
+    }
+
+    private static long unzigzag(long value) {
+        return (value >>> 1) ^ -(value & 1);
+    }
+}
@@ -0,0 +1,308 @@
+package com.example;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.*;
+import java.util.function.Function;
+import java.util.stream.Stream;
+
+/**
+ * Secondary indexes over one shard's products: by category, by price, by shipping weight
+ * and by expiration date, plus price rank trees overall and per category.
+ * Not thread-safe on its own; the owning shard guards it with its lock.
+ */
+class ProductIndexes {
+    //Products per category, in insertion order
+    private final Map<Category, Set<Product>> byCategory = new HashMap<>();
+    //Products ordered by price, then by id within equal prices
+    private final NavigableMap<BigDecimal, NavigableMap<UUID, Product>> byPrice = new TreeMap<>();
+    //Shippable products ordered by weight, then by id within equal weights
+    private final NavigableMap<Double, NavigableMap<UUID, Product>> byWeight = new TreeMap<>();
+    //Perishable products ordered by expiration date
+    private final NavigableMap<LocalDate, Set<Product>> byExpiration = new TreeMap<>();
+    //Price ranks over all products and per category, for percentiles and histograms
+    private final PriceRankTree priceRanks = new PriceRankTree();
+    private final Map<Category, PriceRankTree> priceRanksByCategory = new HashMap<>();
+    //Shared empty tree returned for unknown categories; never modified
+    private static final PriceRankTree NO_RANKS = new PriceRankTree();
+    //Number of products in the weight and expiration indexes
+    private int shippableCount;
+    private int perishableCount;
+
+    void add(Product p) {
+        byCategory.computeIfAbsent(p.category(), _ -> new LinkedHashSet<>()).add(p);
+        addPrice(p);
+        if (p instanceof Shippable s) {
+            byWeight.computeIfAbsent(s.weight(), _ -> new TreeMap<>()).put(p.uuid(), p);
+            shippableCount++;
+        }
+        if (p instanceof Perishable per) {
+            byExpiration.computeIfAbsent(per.expirationDate(), _ -> new LinkedHashSet<>()).add(p);
+            perishableCount++;
+        }
+    }
+
+    void remove(Product p) {
+        removeFrom(byCategory, p.category(), p);
+        removePrice(p);
+        if (p instanceof Shippable s) {
+            NavigableMap<UUID, Product> bucket = byWeight.get(s.weight());
+            if (bucket != null && bucket.remove(p.uuid()) != null) {
+                shippableCount--;
+                if (bucket.isEmpty()) byWeight.remove(s.weight());
+            }
+        }
+        if (p instanceof Perishable per) {
+            Set<Product> bucket = byExpiration.get(per.expirationDate());
+            if (bucket != null && bucket.contains(p)) {
+                perishableCount--;
+            }
+            removeFrom(byExpiration, per.expirationDate(), p);
+        }
+    }
+
+    //Must be called before a product's price changes, while it is still filed under the old price
+    void removePrice(Product p) {
+        NavigableMap<UUID, Product> bucket = byPrice.get(p.price());
+        if (bucket != null) {
+            bucket.remove(p.uuid());
+            if (bucket.isEmpty()) byPrice.remove(p.price());
+        }
+        priceRanks.remove(p);
+        PriceRankTree categoryRanks = priceRanksByCategory.get(p.category());
+        if (categoryRanks != null) {
+            categoryRanks.remove(p);
+            if (categoryRanks.isEmpty()) priceRanksByCategory.remove(p.category());
+        }
+    }
+
+    //Files a product under its current price
+    void addPrice(Product p) {
+        byPrice.computeIfAbsent(p.price(), _ -> new TreeMap<>()).put(p.uuid(), p);
+        priceRanks.add(p);
+        priceRanksByCategory.computeIfAbsent(p.category(), _ -> new PriceRankTree()).add(p);
+    }
+
+    /**
+     * Returns the indexed instance of a product, e.g. for a copy loaded from a store that keeps
+     * copies. The copy must carry the indexed price, which holds while stores see every reprice.
+     * @param p Product or copy of one.
+     * @return The indexed product with the same id, or null if it is not indexed under that price.
+     */
+    Product get(Product p) {
+        NavigableMap<UUID, Product> bucket = byPrice.get(p.price());
+        return bucket == null ? null : bucket.get(p.uuid());
+    }
+
+    //Price ranks over all products
+    PriceRankTree priceRanks() {
+        return priceRanks;
+    }
+
+    //Price ranks over one category's products; empty for unknown categories
+    PriceRankTree priceRanks(Category category) {
+        return priceRanksByCategory.getOrDefault(category, NO_RANKS);
+    }
+
+    //Categories with at least one product
+    Set<Category> categories() {
+        return Collections.unmodifiableSet(byCategory.keySet());
+    }
+
+    void clear() {
+        byCategory.clear();
+        byPrice.clear();
+        byWeight.clear();
+        byExpiration.clear();
+        priceRanks.clear();
+        priceRanksByCategory.clear();
+        shippableCount = 0;
+        perishableCount = 0;
+    }
+
+    /**
+     * Estimates how many candidate rows each usable access path would produce for the query,
+     * summed over the indexes of all shards. Category counts are exact; a range count stops once
+     * its sum over all shards exceeds the cheapest alternative found so far, since the range index
+     * can then no longer win. The budget is shared by the shards rather than applied to each, so a
+     * truncated sum still exceeds the alternative it was cut at.
+     *
+     * @param shards indexes of every shard, read under their locks
+     * @param query query to estimate
+     * @return estimated rows per usable access path, always including FULL_SCAN
+     */
+    static Map<QueryPlan.AccessPath, Long> estimate(List<ProductIndexes> shards, ProductQuery query) {
+        Map<QueryPlan.AccessPath, Long> estimates = new EnumMap<>(QueryPlan.AccessPath.class);
+        long limit = 0;
+        for (ProductIndexes indexes : shards) {
+            limit += indexes.priceRanks.size();
+        }
+        estimates.put(QueryPlan.AccessPath.FULL_SCAN, limit);
+        if (query.hasCategory()) {
+            long categoryRows = 0;
+            for (ProductIndexes indexes : shards) {
+                categoryRows += indexes.byCategory.getOrDefault(query.category(), Set.of()).size();
+            }
+            estimates.put(QueryPlan.AccessPath.CATEGORY_INDEX, categoryRows);
+            limit = Math.min(limit, categoryRows);
+        }
+        if (query.hasPriceRange()) {
+            long priceRows = countUpTo(shards, ix -> ix.priceRange(query).values().stream().map(Map::size), limit);
+            estimates.put(QueryPlan.AccessPath.PRICE_INDEX, priceRows);
+            limit = Math.min(limit, priceRows);
+        }
+        if (query.hasExpirationWindow()) {
+            estimates.put(QueryPlan.AccessPath.EXPIRATION_INDEX,
+                    countUpTo(shards, ix -> ix.expirationRange(query).values().stream().map(Set::size), limit));
+        }
+        return estimates;
+    }
+
+    //Sums bucket sizes over all shards, stopping as soon as the total exceeds the limit
+    private static long countUpTo(List<ProductIndexes> shards, Function<ProductIndexes, Stream<Integer>> bucketSizes,
+                                  long limit) {
+        long total = 0;
+        for (int i = 0; i < shards.size() && total <= limit; i++) {
+            total += countUpTo(bucketSizes.apply(shards.get(i)), limit - total);
+        }
+        return total;
+    }
+
+    //Sums bucket sizes, stopping as soon as the total exceeds the limit
+    private static long countUpTo(Stream<Integer> bucketSizes, long limit) {
+        long total = 0;
+        for (Iterator<Integer> it = bucketSizes.iterator(); it.hasNext() && total <= limit; ) {
+            total += it.next();
+        }
+        return total;
+    }
+
+    /**
+     * Returns the candidate products the given index yields for the query.
+     * @param query query whose indexed condition selects the candidates
+     * @param path index to read; must not be FULL_SCAN
+     * @return candidates that still need every other condition applied
+     */
+    Stream<Product> candidates(ProductQuery query, QueryPlan.AccessPath path) {
+        return switch (path) {
+            case CATEGORY_INDEX -> byCategory.getOrDefault(query.category(), Set.of()).stream();
+            case PRICE_INDEX -> priceRange(query).values().stream().flatMap(bucket -> bucket.values().stream());
+            case EXPIRATION_INDEX -> expirationRange(query).values().stream().flatMap(Set::stream);
+            case FULL_SCAN -> throw new IllegalArgumentException("A full scan does not use an index.");
+        };
+    }
+
+    /**
+     * Picks the index a page of up to {@code limit} products in keyset order is read from.
+     * Walking the price index yields products in order but passes over non-matching ones: with
+     * m matches among the p products in the price range, a page reads about limit * p / m rows.
+     * Reading all d rows of a selective index (the category, the expiration window, or all
+     * perishable or shippable products for a matching type condition) costs d >= m plus a sort,
+     * and is the cheaper choice once d * d <= limit * p, as then d <= limit * p / d.
+     *
+     * @param query query being paged
+     * @param limit page size
+     * @return every candidate of the smallest selective index, unordered, or null to walk the price index
+     */
+    Stream<Product> pageCandidates(ProductQuery query, int limit) {
+        Stream<Product> best = null;
+        long bestRows = Long.MAX_VALUE;
+        if (query.hasCategory()) {
+            Set<Product> products = byCategory.getOrDefault(query.category(), Set.of());
+            best = products.stream();
+            bestRows = products.size();
+        }
+        if (query.hasExpirationWindow()) {
+            long rows = countUpTo(expirationRange(query).values().stream().map(Set::size), bestRows);
+            if (rows < bestRows) {
+                best = candidates(query, QueryPlan.AccessPath.EXPIRATION_INDEX);
+                bestRows = rows;
+            }
+        }
+        Class<?> type = query.type();
+        if (type != null && Perishable.class.isAssignableFrom(type) && perishableCount < bestRows) {
+            best = byExpiration.values().stream().flatMap(Set::stream);
+            bestRows = perishableCount;
+        }
+        if (type != null && Shippable.class.isAssignableFrom(type) && shippableCount < bestRows) {
+            best = byWeight.values().stream().flatMap(bucket -> bucket.values().stream());
+            bestRows = shippableCount;
+        }
+        if (best == null) {
+            return null;
+        }
+        long walked = query.hasPriceRange()
+                ? countUpTo(priceRange(query).values().stream().map(Map::size), bestRows * bestRows / limit)
+                : priceRanks.size();
+        return bestRows * bestRows <= limit * walked ? best : null;
+    }
+
+    /**
+     * Streams products in (price, id) order, restricted to the query's price range and
+     * starting strictly after the cursor. Other conditions are not applied.
+     * The stream is lazy, so reading the first k products costs O(log n + k).
+     *
+     * @param query query whose price range bounds the walk
+     * @param after cursor to continue after, or null to start at the beginning
+     * @return products in keyset order
+     */
+    Stream<Product> inPriceOrder(ProductQuery query, Page.Cursor after) {
+        BigDecimal from = query.minPrice();
+        if (after != null && (from == null || after.price().compareTo(from) >= 0)) {
+            from = after.price();
+        }
+        return range(byPrice, from, query.maxPrice()).entrySet().stream()
+                .flatMap(bucket -> {
+                    NavigableMap<UUID, Product> products = bucket.getValue();
+                    if (after != null && bucket.getKey().compareTo(after.price()) == 0) {
+                        products = products.tailMap(after.id(), false);
+                    }
+                    return products.values().stream();
+                });
+    }
+
+    //All products in (price, id) order, or the reverse of it
+    Stream<Product> byPrice(boolean descending) {
+        return ordered(byPrice, descending);
+    }
+
+    //Shippable products in (weight, id) order, or the reverse of it
+    Stream<Product> byWeight(boolean descending) {
+        return ordered(byWeight, descending);
+    }
+
+    //Flattens a bucketed ordered index into a lazy stream, optionally walking it backwards
+    private static <K> Stream<Product> ordered(NavigableMap<K, NavigableMap<UUID, Product>> index, boolean descending) {
+        return (descending ? index.descendingMap() : index).values().stream()
+                .flatMap(bucket -> (descending ? bucket.descendingMap() : bucket).values().stream());
+    }
+
+    //Price buckets within the query's inclusive price range
+    private NavigableMap<BigDecimal, NavigableMap<UUID, Product>> priceRange(ProductQuery query) {
+        return range(byPrice, query.minPrice(), query.maxPrice());
+    }
+
+    //Expiration buckets within the query's inclusive date window
+    private NavigableMap<LocalDate, Set<Product>> expirationRange(ProductQuery query) {
+        return range(byExpiration, query.expiresFrom(), query.expiresTo());
+    }
+
+    //Inclusive sub-map between two optional bounds; empty when the bounds are inverted
+    private static <K extends Comparable<? super K>, V> NavigableMap<K, V> range(NavigableMap<K, V> map, K from, K to) {
+        if (from != null && to != null) {
+            return from.compareTo(to) > 0 ? Collections.emptyNavigableMap() : map.subMap(from, true, to, true);
+        }
+        if (from != null) return map.tailMap(from, true);
+        if (to != null) return map.headMap(to, true);
+        return map;
+    }
+
+    //Removes a product from a bucketed index, dropping the bucket when it becomes empty
+    private static <K> void removeFrom(Map<K, Set<Product>> index, K key, Product p) {
+        Set<Product> bucket = index.get(key);
+        if (bucket != null) {
+            bucket.remove(p);
+            if (bucket.isEmpty()) index.remove(key);
+        }
+    }
+}
@@ -0,0 +1,20 @@
+package com.example;
+
+/**
+ * Callback for changes to a warehouse's products, used by components that maintain state
+ * derived from them (e.g. the expiration sweeper).
+ * Called after the change has been applied, outside of any shard lock, on the thread that made it.
+ */
+interface ProductListener {
+    //A product was added
+    default void productAdded(Product product) {}
+
+    //A product was removed
+    default void productRemoved(Product product) {}
+
+    //A product's price changed
+    default void productRepriced(Product product) {}
+
+    //All products were removed
+    default void productsCleared() {}
+}
@@ -0,0 +1,157 @@
+package com.example;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+
+/**
+ * Immutable, composable query over product fields.
+ * Start with {@link #where()} and chain conditions; every condition narrows the result
+ * (all conditions are combined with AND). Run it with {@link Warehouse#find(ProductQuery)}
+ * and inspect the chosen access path with {@link Warehouse#explain(ProductQuery)}.
+ *
+ * Example: Dairy items under 20 expiring within 2 days whose name contains "milk":
+ * <pre>
+ * ProductQuery.where().inCategory(Category.of("Dairy")).priceAtMost(new BigDecimal("20"))
+ *         .expiringWithinDays(2).nameContains("milk")
+ * </pre>
+ */
+public final class ProductQuery {
+    //Null fields mean "no condition"
+    private final Category category;
+    private final BigDecimal minPrice;
+    private final BigDecimal maxPrice;
+    private final String nameTerm;
+    private final LocalDate expiresFrom;
+    private final LocalDate expiresTo;
+    private final Class<?> type;
+
+    private ProductQuery(Category category, BigDecimal minPrice, BigDecimal maxPrice, String nameTerm,
+                         LocalDate expiresFrom, LocalDate expiresTo, Class<?> type) {
+        this.category = category;
+        this.minPrice = minPrice;
+        this.maxPrice = maxPrice;
+        this.nameTerm = nameTerm;
+        this.expiresFrom = expiresFrom;
+        this.expiresTo = expiresTo;
+        this.type = type;
+    }
+
+    /**
+     * Returns a query without conditions, matching every product.
+     * @return Empty query to add conditions to.
+     */
+    public static ProductQuery where() {
+        return new ProductQuery(null, null, null, null, null, null, null);
+    }
+
+    //Only products in the given category
+    public ProductQuery inCategory(Category category) {
+        return new ProductQuery(category, minPrice, maxPrice, nameTerm, expiresFrom, expiresTo, type);
+    }
+
+    //Only products with minPrice <= price <= maxPrice (inclusive)
+    public ProductQuery priceBetween(BigDecimal minPrice, BigDecimal maxPrice) {
+        return new ProductQuery(category, minPrice, maxPrice, nameTerm, expiresFrom, expiresTo, type);
+    }
+
+    //Only products with price >= minPrice
+    public ProductQuery priceAtLeast(BigDecimal minPrice) {
+        return priceBetween(minPrice, maxPrice);
+    }
+
+    //Only products with price <= maxPrice
+    public ProductQuery priceAtMost(BigDecimal maxPrice) {
+        return priceBetween(minPrice, maxPrice);
+    }
+
+    //Only products whose name contains the term, ignoring case
+    public ProductQuery nameContains(String term) {
+        return new ProductQuery(category, minPrice, maxPrice, term.toLowerCase(Locale.ROOT), expiresFrom, expiresTo, type);
+    }
+
+    //Only perishables expiring between the two dates (inclusive)
+    public ProductQuery expiringBetween(LocalDate from, LocalDate to) {
+        return new ProductQuery(category, minPrice, maxPrice, nameTerm, from, to, type);
+    }
+
+    //Only perishables expiring from today up to and including today + days
+    public ProductQuery expiringWithinDays(int days) {
+        LocalDate today = LocalDate.now();
+        return expiringBetween(today, today.plusDays(days));
+    }
+
+    //Only products that are instances of the given class or interface (e.g. FoodProduct, Shippable)
+    public ProductQuery ofType(Class<?> type) {
+        return new ProductQuery(category, minPrice, maxPrice, nameTerm, expiresFrom, expiresTo, type);
+    }
+
+    Category category() { return category; }
+    BigDecimal minPrice() { return minPrice; }
+    BigDecimal maxPrice() { return maxPrice; }
+    LocalDate expiresFrom() { return expiresFrom; }
+    LocalDate expiresTo() { return expiresTo; }
+    Class<?> type() { return type; }
+
+    boolean hasCategory() { return category != null; }
+    boolean hasPriceRange() { return minPrice != null || maxPrice != null; }
+    boolean hasExpirationWindow() { return expiresFrom != null || expiresTo != null; }
+
+    /**
+     * Checks a product against every condition of this query.
+     * @param p Product to test.
+     * @return true if all conditions hold.
+     */
+    public boolean matches(Product p) {
+        if (category != null && !category.equals(p.category())) return false;
+        if (minPrice != null && p.price().compareTo(minPrice) < 0) return false;
+        if (maxPrice != null && p.price().compareTo(maxPrice) > 0) return false;
+        if (type != null && !type.isInstance(p)) return false;
+        if (hasExpirationWindow()) {
+            if (!(p instanceof Perishable per)) return false;
+            LocalDate exp = per.expirationDate();
+            if (expiresFrom != null && exp.isBefore(expiresFrom)) return false;
+            if (expiresTo != null && exp.isAfter(expiresTo)) return false;
+        }
+        return nameTerm == null || p.name().toLowerCase(Locale.ROOT).contains(nameTerm);
+    }
+
+    //Human-readable conditions, leaving out the one served by the given access path
+    List<String> describeFilters(QueryPlan.AccessPath servedByIndex) {
+        List<String> filters = new ArrayList<>();
+        if (category != null && servedByIndex != QueryPlan.AccessPath.CATEGORY_INDEX) {
+            filters.add("category = " + category);
+        }
+        if (hasPriceRange() && servedByIndex != QueryPlan.AccessPath.PRICE_INDEX) {
+            filters.add(describePriceRange());
+        }
+        if (hasExpirationWindow() && servedByIndex != QueryPlan.AccessPath.EXPIRATION_INDEX) {
+            filters.add(describeExpirationWindow());
+        }
+        if (type != null) {
+            filters.add("type = " + type.getSimpleName());
+        }
+        if (nameTerm != null) {
+            filters.add("name contains '" + nameTerm + "'");
+        }
+        return filters;
+    }
+
+    String describePriceRange() {
+        return "price in [" + (minPrice == null ? "-inf" : minPrice.toPlainString()) + ", "
+                + (maxPrice == null ? "+inf" : maxPrice.toPlainString()) + "]";
+    }
+
+    String describeExpirationWindow() {
+        return "expires in [" + (expiresFrom == null ? "-inf" : expiresFrom) + ", "
+                + (expiresTo == null ? "+inf" : expiresTo) + "]";
+    }
+
+    @Override
+    public String toString() {
+        List<String> filters = describeFilters(QueryPlan.AccessPath.FULL_SCAN);
+        return filters.isEmpty() ? "all products" : String.join(" AND ", filters);
+    }
+}
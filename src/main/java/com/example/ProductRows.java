@@ -0,0 +1,36 @@
+package com.example;
+
+import java.util.List;
+import java.util.UUID;
+
+/**
+ * Optional capability of a {@link ProductStore} that keeps every product on the heap in numbered
+ * rows, as {@link InMemoryProductStore} does. Shards use it for their fast paths: scans read the
+ * rows directly, vectorized price filters read the aligned price column, and lookup times mark
+ * idle products for the {@link ColdTier}. Shards over other stores fall back to their indexes.
+ * Like the store itself, it is read and written under the owning shard's lock.
+ */
+interface ProductRows {
+
+    //Read-only live view of the stored products, in row order
+    List<Product> asList();
+
+    //Live price column aligned with the rows; entries from the row count on are unused
+    double[] priceColumn();
+
+    //Returns the product with the given id, or null if absent, without recording a lookup.
+    Product peek(UUID id);
+
+    //Returns the product whose id has the given halves, or null if absent; allocates no UUID.
+    Product get(long msb, long lsb);
+
+    /**
+     * Returns the products not added or looked up by id since the given time.
+     * @param cutoffMillis Epoch milliseconds; products last touched before this are returned.
+     * @return Idle products.
+     */
+    List<Product> untouchedSince(long cutoffMillis);
+
+    //Releases spare row capacity, e.g. after a bulk removal
+    void trimToSize();
+}
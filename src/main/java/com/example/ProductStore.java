@@ -0,0 +1,67 @@
+package com.example;
+
+import java.io.IOException;
+import java.util.UUID;
+import java.util.function.Consumer;
+
+/**
+ * Primary storage for products, keyed by id.
+ * Implementations decide where products live: {@link InMemoryProductStore} keeps them on the
+ * heap, {@link FileProductStore} in a local file, and {@link CachingProductStore} puts a bounded
+ * in-memory cache in front of another store. Stores that keep copies (e.g. on disk) return a
+ * new instance per load, so callers must not rely on identity across calls.
+ * Every warehouse shard keeps its products in one store, chosen when the warehouse is created
+ * (see {@link Warehouse#getInstance(String, int, java.util.function.Supplier)}).
+ */
+public interface ProductStore extends AutoCloseable {
+
+    /**
+     * Stores a product unless one with the same id is already stored.
+     * @param product Product to store.
+     * @return true if stored, false if the id already exists.
+     */
+    boolean add(Product product);
+
+    //Returns the product with the given id, or null if absent.
+    Product get(UUID id);
+
+    //Checks whether a product with the given id is stored; stores override this to avoid loading it.
+    default boolean contains(UUID id) {
+        return get(id) != null;
+    }
+
+    //Removes the product with the given id and returns it, or null if absent.
+    Product remove(UUID id);
+
+    /**
+     * Records that a stored product has changed (e.g. its price), so stores that keep copies
+     * write the new state. Does nothing if the id is not stored.
+     * @param product Changed product.
+     * @return true if the product is stored.
+     */
+    boolean update(Product product);
+
+    //Returns the number of stored products.
+    int size();
+
+    //Removes all products.
+    void clear();
+
+    //Passes every stored product to the action, in no particular order.
+    void forEach(Consumer<? super Product> action);
+
+    /**
+     * Reclaims space held by superseded copies once they make up too much of the store.
+     * Stores that overwrite in place hold none and do nothing.
+     * @param maxOverhead Space tolerated, as a multiple of the space live products need.
+     * @return true if space was reclaimed.
+     */
+    default boolean compact(double maxOverhead) {
+        return false;
+    }
+
+    //Releases resources held by the store; in-memory stores hold none.
+    @Override
+    default void close() throws IOException {
+    }
+}
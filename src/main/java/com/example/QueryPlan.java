@@ -0,0 +1,78 @@
+package com.example;
+
+import java.util.*;
+
+/**
+ * Access path chosen for a {@link ProductQuery}, with the row estimates that led to it.
+ * The planner picks the index expected to yield the fewest candidate rows and applies the
+ * remaining conditions as filters over those candidates; with no usable index it scans.
+ */
+public final class QueryPlan {
+
+    //Ways of producing candidate rows, in tie-break order
+    public enum AccessPath { CATEGORY_INDEX, PRICE_INDEX, EXPIRATION_INDEX, FULL_SCAN }
+
+    private final ProductQuery query;
+    private final AccessPath accessPath;
+    private final Map<AccessPath, Long> estimates;
+
+    private QueryPlan(ProductQuery query, AccessPath accessPath, Map<AccessPath, Long> estimates) {
+        this.query = query;
+        this.accessPath = accessPath;
+        this.estimates = Collections.unmodifiableMap(new EnumMap<>(estimates));
+    }
+
+    /**
+     * Picks the access path with the smallest estimated number of candidate rows.
+     * @param query Query being planned.
+     * @param estimates Estimated candidate rows per usable access path; must contain FULL_SCAN.
+     * @return The chosen plan.
+     */
+    static QueryPlan choose(ProductQuery query, Map<AccessPath, Long> estimates) {
+        AccessPath best = AccessPath.FULL_SCAN;
+        for (AccessPath path : AccessPath.values()) {
+            Long estimate = estimates.get(path);
+            if (estimate != null && estimate < estimates.get(best)) {
+                best = path;
+            }
+        }
+        return new QueryPlan(query, best, estimates);
+    }
+
+    public AccessPath getAccessPath() { return accessPath; }
+    public long getEstimatedRows() { return estimates.get(accessPath); }
+    public Map<AccessPath, Long> getEstimates() { return estimates; }
+
+    /**
+     * Describes the plan, e.g.
+     * <pre>
+     * CATEGORY_INDEX [category = Dairy] (est. 40 rows)
+     *   -> filter: price in [-inf, 20], name contains 'milk'
+     *   considered: CATEGORY_INDEX=40, PRICE_INDEX=41, FULL_SCAN=1000
+     * </pre>
+     * Range index estimates stop counting once they exceed a cheaper alternative.
+     * @return Multi-line plan description.
+     */
+    public String explain() {
+        StringBuilder sb = new StringBuilder(accessPath.name());
+        switch (accessPath) {
+            case CATEGORY_INDEX -> sb.append(" [category = ").append(query.category()).append(']');
+            case PRICE_INDEX -> sb.append(" [").append(query.describePriceRange()).append(']');
+            case EXPIRATION_INDEX -> sb.append(" [").append(query.describeExpirationWindow()).append(']');
+            case FULL_SCAN -> { }
+        }
+        sb.append(" (est. ").append(getEstimatedRows()).append(" rows)");
+        List<String> filters = query.describeFilters(accessPath);
+        if (!filters.isEmpty()) {
+            sb.append("\n  -> filter: ").append(String.join(", ", filters));
+        }
+        StringJoiner considered = new StringJoiner(", ", "\n  considered: ", "");
+        estimates.forEach((path, estimate) -> considered.add(path + "=" + estimate));
+        return sb.append(considered).toString();
+    }
+
+    @Override
+    public String toString() {
+        return explain();
+    }
+}
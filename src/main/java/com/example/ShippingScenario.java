@@ -0,0 +1,20 @@
+package com.example;
+
+import java.math.BigDecimal;
+import java.util.List;
+
+/**
+ * Outcome of packing all shippable products for one weight limit
+ * (see {@link WarehouseAnalyzer#compareShippingScenarios(List, boolean)}).
+ * Groups are the ones {@link WarehouseAnalyzer#optimizeShippingGroups(BigDecimal)} would return.
+ *
+ * @param maxWeightPerGroup maximum total weight per group (inclusive)
+ * @param groupCount number of groups needed
+ * @param totalShippingCost shipping cost summed over all groups
+ * @param groups the groups, or an empty list unless plans were requested
+ */
+record ShippingScenario(BigDecimal maxWeightPerGroup,
+                        int groupCount,
+                        BigDecimal totalShippingCost,
+                        List<ShippingGroup> groups) {
+}
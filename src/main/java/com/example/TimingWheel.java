@@ -0,0 +1,141 @@
+package com.example;
+
+import java.util.*;
+import java.util.function.Consumer;
+
+/**
+ * Hierarchical timing wheel over integer ticks.
+ * Level 0 has one slot per tick, and each higher level has slots 64 times as wide; an item is
+ * filed on the lowest level whose span covers its deadline. When the wheel reaches the start
+ * of a higher-level slot, that slot's items cascade down a level. Advancing one tick therefore
+ * costs O(items due + items cascaded), where every item cascades at most once per level,
+ * independently of how many items are scheduled in total.
+ * Not thread-safe; the owner must synchronize access.
+ */
+class TimingWheel<T> {
+    private static final int SLOT_BITS = 6;
+    private static final int SLOTS = 1 << SLOT_BITS;
+    //Four levels cover 64^4 ticks (about 46,000 years of days); later deadlines cascade repeatedly
+    private static final int LEVELS = 4;
+
+    @SuppressWarnings("unchecked")
+    private final Set<T>[][] wheels = new Set[LEVELS][SLOTS];
+    //Slot each scheduled item is currently filed in, for O(1) cancellation
+    private final Map<T, Set<T>> slotOf = new HashMap<>();
+    //Deadline of each item filed above level 0, needed to cascade it
+    private final Map<T, Long> deadlines = new HashMap<>();
+    //Last tick that has been processed
+    private long now;
+
+    TimingWheel(long now) {
+        this.now = now;
+    }
+
+    long now() {
+        return now;
+    }
+
+    int size() {
+        return slotOf.size();
+    }
+
+    /**
+     * Schedules an item, replacing any earlier schedule of the same item.
+     * @param item Item to schedule.
+     * @param deadline Tick at which the item becomes due.
+     * @return false if the deadline has already passed, in which case nothing is scheduled.
+     */
+    boolean schedule(T item, long deadline) {
+        cancel(item);
+        if (deadline <= now) {
+            return false;
+        }
+        file(item, deadline);
+        return true;
+    }
+
+    //Removes an item from the wheel; does nothing if it is not scheduled
+    void cancel(T item) {
+        Set<T> slot = slotOf.remove(item);
+        if (slot != null) {
+            slot.remove(item);
+            deadlines.remove(item);
+        }
+    }
+
+    void clear() {
+        for (Set<T>[] level : wheels) {
+            Arrays.fill(level, null);
+        }
+        slotOf.clear();
+        deadlines.clear();
+    }
+
+    /**
+     * Advances the wheel tick by tick up to the given tick, handing every item that becomes due
+     * to the consumer. Items are no longer scheduled once handed out.
+     * @param tick Tick to advance to; ticks at or before the current one are ignored.
+     * @param due Receives due items.
+     */
+    void advanceTo(long tick, Consumer<T> due) {
+        while (now < tick) {
+            now++;
+            //Cascade the higher-level slots that start at this tick, from the top down
+            for (int level = LEVELS - 1; level > 0; level--) {
+                if ((now & ((1L << (SLOT_BITS * level)) - 1)) == 0) {
+                    cascade(level, slotIndex(now, level), due);
+                }
+            }
+            Set<T> expiring = take(0, slotIndex(now, 0));
+            if (expiring != null) {
+                expiring.forEach(due);
+            }
+        }
+    }
+
+    //Re-files the items of a higher-level slot on the levels below
+    private void cascade(int level, int slot, Consumer<T> due) {
+        Set<T> items = take(level, slot);
+        if (items == null) return;
+        for (T item : items) {
+            long deadline = deadlines.remove(item);
+            if (deadline <= now) {
+                due.accept(item);
+            } else {
+                file(item, deadline);
+            }
+        }
+    }
+
+    private void file(T item, long deadline) {
+        long delta = deadline - now;
+        int level = 0;
+        while (level < LEVELS - 1 && delta >= 1L << (SLOT_BITS * (level + 1))) {
+            level++;
+        }
+        int slot = slotIndex(deadline, level);
+        Set<T> bucket = wheels[level][slot];
+        if (bucket == null) {
+            bucket = new LinkedHashSet<>();
+            wheels[level][slot] = bucket;
+        }
+        bucket.add(item);
+        slotOf.put(item, bucket);
+        if (level > 0) {
+            deadlines.put(item, deadline);
+        }
+    }
+
+    //Detaches a slot's items, removing them from the wheel
+    private Set<T> take(int level, int slot) {
+        Set<T> items = wheels[level][slot];
+        if (items == null || items.isEmpty()) return null;
+        wheels[level][slot] = null;
+        items.forEach(slotOf::remove);
+        return items;
+    }
+
+    private static int slotIndex(long tick, int level) {
+        return (int) ((tick >>> (SLOT_BITS * level)) & (SLOTS - 1));
+    }
+}
@@ -0,0 +1,162 @@
+package com.example;
+
+import java.util.Arrays;
+import java.util.UUID;
+
+/**
+ * Open-addressing hash map from a UUID, given as its two long halves, to an int row id.
+ * Keys and rows live in three parallel primitive arrays, so an entry costs 20 bytes of
+ * table space instead of a UUID object, a map node and a boxed value; lookups by
+ * (msb, lsb) allocate nothing. Uses linear probing with backward-shift deletion, so
+ * removals leave no tombstones and probe chains stay short. Not thread-safe.
+ */
+class UuidIndex {
+    //Returned by lookups for ids that are not present
+    static final int ABSENT = -1;
+
+    private static final int MIN_CAPACITY = 16;
+
+    private long[] msbs;
+    private long[] lsbs;
+    //Row id + 1 per slot; 0 marks an empty slot, so a fresh array needs no filling
+    private int[] rows;
+    private int mask;
+    private int size;
+
+    UuidIndex() {
+        allocate(MIN_CAPACITY);
+    }
+
+    int size() {
+        return size;
+    }
+
+    int get(UUID id) {
+        return get(id.getMostSignificantBits(), id.getLeastSignificantBits());
+    }
+
+    //Returns the row stored for the id, or ABSENT
+    int get(long msb, long lsb) {
+        for (int slot = slotFor(msb, lsb); ; slot = (slot + 1) & mask) {
+            int row = rows[slot];
+            if (row == 0) {
+                return ABSENT;
+            }
+            if (msbs[slot] == msb && lsbs[slot] == lsb) {
+                return row - 1;
+            }
+        }
+    }
+
+    /**
+     * Stores a row for the id unless the id is already present.
+     * @param id Product id.
+     * @param row Row id (must be >= 0).
+     * @return The row already stored for the id, or ABSENT if the new row was stored.
+     */
+    int putIfAbsent(UUID id, int row) {
+        long msb = id.getMostSignificantBits();
+        long lsb = id.getLeastSignificantBits();
+        int slot = find(msb, lsb);
+        if (rows[slot] != 0) {
+            return rows[slot] - 1;
+        }
+        insert(slot, msb, lsb, row);
+        return ABSENT;
+    }
+
+    //Stores a row for the id, replacing any existing one
+    void put(UUID id, int row) {
+        long msb = id.getMostSignificantBits();
+        long lsb = id.getLeastSignificantBits();
+        int slot = find(msb, lsb);
+        if (rows[slot] != 0) {
+            rows[slot] = row + 1;
+        } else {
+            insert(slot, msb, lsb, row);
+        }
+    }
+
+    //Removes the id and returns its row, or ABSENT if it was not present
+    int remove(UUID id) {
+        int slot = find(id.getMostSignificantBits(), id.getLeastSignificantBits());
+        int row = rows[slot];
+        if (row == 0) {
+            return ABSENT;
+        }
+        size--;
+        //Shift later entries of the probe chain back so no lookup stops early at the hole
+        int hole = slot;
+        for (int next = (hole + 1) & mask; rows[next] != 0; next = (next + 1) & mask) {
+            int home = slotFor(msbs[next], lsbs[next]);
+            //Move the entry unless its home lies cyclically in (hole, next]
+            if (((next - home) & mask) >= ((next - hole) & mask)) {
+                msbs[hole] = msbs[next];
+                lsbs[hole] = lsbs[next];
+                rows[hole] = rows[next];
+                hole = next;
+            }
+        }
+        rows[hole] = 0;
+        return row - 1;
+    }
+
+    void clear() {
+        if (rows.length > MIN_CAPACITY) {
+            allocate(MIN_CAPACITY);
+        } else {
+            Arrays.fill(rows, 0);
+        }
+        size = 0;
+    }
+
+    //Returns the slot holding the id, or the empty slot where it would be inserted
+    private int find(long msb, long lsb) {
+        int slot = slotFor(msb, lsb);
+        while (rows[slot] != 0 && (msbs[slot] != msb || lsbs[slot] != lsb)) {
+            slot = (slot + 1) & mask;
+        }
+        return slot;
+    }
+
+    private void insert(int slot, long msb, long lsb, int row) {
+        msbs[slot] = msb;
+        lsbs[slot] = lsb;
+        rows[slot] = row + 1;
+        //Keep the load factor at or below 3/4
+        if (++size > rows.length - (rows.length >>> 2)) {
+            resize(rows.length << 1);
+        }
+    }
+
+    private void resize(int capacity) {
+        long[] oldMsbs = msbs;
+        long[] oldLsbs = lsbs;
+        int[] oldRows = rows;
+        allocate(capacity);
+        for (int i = 0; i < oldRows.length; i++) {
+            if (oldRows[i] != 0) {
+                int slot = find(oldMsbs[i], oldLsbs[i]);
+                msbs[slot] = oldMsbs[i];
+                lsbs[slot] = oldLsbs[i];
+                rows[slot] = oldRows[i];
+            }
+        }
+    }
+
+    private void allocate(int capacity) {
+        msbs = new long[capacity];
+        lsbs = new long[capacity];
+        rows = new int[capacity];
+        mask = capacity - 1;
+    }
+
+    //Home slot of an id; the halves are mixed so ids that differ in few bits still spread out
+    private int slotFor(long msb, long lsb) {
+        long h = msb * 0x9E3779B97F4A7C15L ^ lsb;
+        h ^= h >>> 33;
+        h *= 0xff51afd7ed558ccdL;
+        h ^= h >>> 33;
+        return (int) h & mask;
+    }
+}
@@ -0,0 +1,64 @@
+package com.example;
+
+import jdk.incubator.vector.DoubleVector;
+import jdk.incubator.vector.VectorMask;
+import jdk.incubator.vector.VectorOperators;
+import jdk.incubator.vector.VectorSpecies;
+
+/**
+ * {@link PriceFilter} using the Vector API: each step loads one vector of prices, compares all
+ * lanes at once and stores the resulting mask as bits of the selection bitmap. The preferred
+ * species has a power-of-two lane count of at most 8 for doubles, and steps start at multiples
+ * of it, so a step's bits never straddle two bitmap words. The last partial step uses a lane mask.
+ * Only loaded when the jdk.incubator.vector module is present (see {@link PriceFilter#INSTANCE}).
+ */
+final class VectorPriceFilter implements PriceFilter {
+    private static final VectorSpecies<Double> SPECIES = DoubleVector.SPECIES_PREFERRED;
+
+    //Number of prices compared per step
+    int lanes() {
+        return SPECIES.length();
+    }
+
+    @Override
+    public void select(double[] prices, int from, int to, double lo, double hi, long[] inside, long[] onBound) {
+        int row = from;
+        for (int bound = from + SPECIES.loopBound(to - from); row < bound; row += SPECIES.length()) {
+            DoubleVector v = DoubleVector.fromArray(SPECIES, prices, row);
+            mark(v, SPECIES.maskAll(true), row - from, lo, hi, inside, onBound);
+        }
+        if (row < to) {
+            VectorMask<Double> tail = SPECIES.indexInRange(row, to);
+            mark(DoubleVector.fromArray(SPECIES, prices, row, tail), tail, row - from, lo, hi, inside, onBound);
+        }
+    }
+
+    private static void mark(DoubleVector v, VectorMask<Double> lanes, int offset, double lo, double hi,
+                             long[] inside, long[] onBound) {
+        VectorMask<Double> strict = v.compare(VectorOperators.GT, lo).and(v.compare(VectorOperators.LT, hi)).and(lanes);
+        VectorMask<Double> closed = v.compare(VectorOperators.GE, lo).and(v.compare(VectorOperators.LE, hi)).and(lanes);
+        inside[offset >>> 6] |= strict.toLong() << offset;
+        onBound[offset >>> 6] |= closed.andNot(strict).toLong() << offset;
+    }
+
+    @Override
+    public void selectDeviating(double[] prices, int from, int to, double mean, double threshold, long[] selected) {
+        int row = from;
+        for (int bound = from + SPECIES.loopBound(to - from); row < bound; row += SPECIES.length()) {
+            DoubleVector v = DoubleVector.fromArray(SPECIES, prices, row);
+            int offset = row - from;
+            selected[offset >>> 6] |= v.sub(mean).abs().compare(VectorOperators.GT, threshold).toLong() << offset;
+        }
+        if (row < to) {
+            VectorMask<Double> tail = SPECIES.indexInRange(row, to);
+            DoubleVector v = DoubleVector.fromArray(SPECIES, prices, row, tail);
+            int offset = row - from;
+            selected[offset >>> 6] |= v.sub(mean).abs().compare(VectorOperators.GT, threshold).and(tail).toLong() << offset;
+        }
+    }
+
+    @Override
+    public String describe() {
+        return "vector x" + SPECIES.length();
+    }
+}
@@ -1,30 +1,56 @@
 package com.example;
 
 import java.math.BigDecimal;
+import java.time.LocalDate;
 import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Supplier;
 import java.util.stream.Collectors;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
 
 /**
  * Singleton class for storing and managing products in a warehouse.
  * Uses named instances for multiple warehouses.
+ * Products are partitioned by UUID hash into one or more independently locked shards.
  */
 public class Warehouse{
+    //Page size used internally by the lazy stream variants
+    private static final int STREAM_PAGE_SIZE = 256;
     //Map to store warehouse objects by name (singleton pattern)
-    private static final Map<String, Warehouse> INSTANCES = new HashMap<>();
-    //List to store products in the warehouse
-    private final List<Product> products;
+    private static final Map<String, Warehouse> INSTANCES = new ConcurrentHashMap<>();
+    //Shards holding the products, selected by UUID hash
+    private final List<WarehouseShard> shards;
     //Set to track products with updated prices
-    private final Set<Product> changedProducts = new HashSet<>();
+    private final Set<Product> changedProducts = ConcurrentHashMap.newKeySet();
     //Name of the warehouse
     private final String name;
+    //Listeners notified after every change to the products
+    private final List<ProductListener> listeners = new CopyOnWriteArrayList<>();
+    //Discount tiers used to build the daily price books
+    private volatile DiscountTiers discountTiers = DiscountTiers.standard();
+    //Day the shards' price books were built for, or null before the first build
+    private volatile LocalDate priceBookDay;
+    //Tier holding offloaded products, or null when tiering is off
+    private volatile ColdTier coldTier;
+    //Incremented after every change to the products, so derived results can tell they are stale
+    private final AtomicLong version = new AtomicLong();
 
     /**
      * Private constructor for singleton pattern.
      * @param name Name of the warehouse.
+     * @param shardCount Number of shards to partition products into.
+     * @param stores Creates the primary store of each shard.
      */
-    private Warehouse(String name){
+    private Warehouse(String name, int shardCount, Supplier<? extends ProductStore> stores){
         this.name = name;
-        this.products = new ArrayList<>();
+        List<WarehouseShard> shardList = new ArrayList<>(shardCount);
+        for (int i = 0; i < shardCount; i++) {
+            shardList.add(new WarehouseShard(stores.get()));
+        }
+        this.shards = List.copyOf(shardList);
     }
 
     /**
@@ -33,7 +59,48 @@ public class Warehouse{
      * @return Warehouse instance.
      */
     public static Warehouse getInstance(String name){
-        return INSTANCES.computeIfAbsent(name, _ -> new Warehouse(name));
+        return INSTANCES.computeIfAbsent(name, _ -> new Warehouse(name, 1, InMemoryProductStore::new));
+    }
+
+    /**
+     * Returns the sharded warehouse instance for the given name, creating it if needed.
+     * @param name Name of the warehouse.
+     * @param shardCount Number of independently locked shards (must be >= 1).
+     * @return Warehouse instance.
+     * @throws IllegalArgumentException if shardCount is less than 1.
+     * @throws IllegalStateException if the warehouse already exists with a different shard count.
+     */
+    public static Warehouse getInstance(String name, int shardCount){
+        return getInstance(name, shardCount, InMemoryProductStore::new);
+    }
+
+    /**
+     * Returns the sharded warehouse instance for the given name, creating it over the given
+     * stores if needed. Each shard gets its own store as its primary storage; stores that keep
+     * copies (e.g. a {@link CachingProductStore} over a {@link FileProductStore}) serve lookups by
+     * id, while the shards' indexes keep referencing the products they index. Heap stores
+     * ({@link InMemoryProductStore}) also serve scans and idle tracking from their rows.
+     * @param name Name of the warehouse.
+     * @param shardCount Number of independently locked shards (must be >= 1).
+     * @param stores Called once per shard when the warehouse is created, for an empty thread-safe store;
+     *               unused if the warehouse already exists. The caller closes the stores.
+     * @return Warehouse instance.
+     * @throws IllegalArgumentException if shardCount is less than 1 or stores is null.
+     * @throws IllegalStateException if the warehouse already exists with a different shard count.
+     */
+    public static Warehouse getInstance(String name, int shardCount, Supplier<? extends ProductStore> stores){
+        if (shardCount < 1) {
+            throw new IllegalArgumentException("Shard count must be at least 1.");
+        }
+        if (stores == null) {
+            throw new IllegalArgumentException("Store supplier cannot be null.");
+        }
+        Warehouse warehouse = INSTANCES.computeIfAbsent(name, _ -> new Warehouse(name, shardCount, stores));
+        if (warehouse.getShardCount() != shardCount) {
+            throw new IllegalStateException("Warehouse " + name + " already exists with "
+                    + warehouse.getShardCount() + " shards.");
+        }
+        return warehouse;
     }
 
     /**
@@ -44,20 +111,88 @@ public class Warehouse{
         return getInstance("DefaultWarehouse");
     }
 
-    //Clears all products and changed products from the warehouse.
+    //Returns the names of all warehouse instances created so far.
+    public static Set<String> getInstanceNames(){
+        return Set.copyOf(INSTANCES.keySet());
+    }
+
+    //Returns the name of the warehouse.
+    public String getName(){
+        return name;
+    }
+
+    //Returns the number of shards products are partitioned into.
+    public int getShardCount(){
+        return shards.size();
+    }
+
+    //Returns the shards of this warehouse, for analyzers that fan out over them.
+    List<WarehouseShard> shards(){
+        return shards;
+    }
+
+    //Returns the shard responsible for the given product id.
+    private WarehouseShard shardFor(UUID id){
+        return shards.get(WarehouseShard.indexFor(id, shards.size()));
+    }
+
+    //Clears all products, including offloaded ones, and changed products from the warehouse.
     public void clearProducts(){
-        products.clear();
+        ColdTier tier = coldTier;
+        if (tier != null) {
+            tier.clear();
+        }
+        shards.forEach(WarehouseShard::clear);
         changedProducts.clear();
+        version.incrementAndGet();
+        listeners.forEach(ProductListener::productsCleared);
     }
 
     //Checks if the warehouse has no products.
     public boolean isEmpty(){
-        return products.isEmpty();
+        return shards.stream().allMatch(shard -> shard.size() == 0);
+    }
+
+    /**
+     * Returns the products in the warehouse, optionally including those offloaded to the cold tier.
+     * Reading the cold tier loads every offloaded product, so only ask for it when needed.
+     * @param includeCold Whether to include offloaded products.
+     * @return Unmodifiable list of products, in no particular order (see {@link #getProducts()}).
+     */
+    public List<Product> getProducts(boolean includeCold){
+        ColdTier tier = coldTier;
+        if (!includeCold || tier == null) {
+            return getProducts();
+        }
+        List<Product> all = new ArrayList<>(getProducts());
+        all.addAll(tier.getColdProducts());
+        return Collections.unmodifiableList(all);
     }
 
-    //Returns an unmodifiable list of all products in the warehouse.
+    /**
+     * Returns the mutation version, which changes after every add, removal, price update or
+     * clear made through the warehouse. Equal versions mean the products have not changed in
+     * between, so results derived from them can be reused. Changes made directly on a product
+     * (e.g. Product.price(BigDecimal)) bypass the warehouse and are not counted.
+     * @return Current version.
+     */
+    public long getVersion(){
+        return version.get();
+    }
+
+    /**
+     * Returns all products in the hot tier (all products unless tiering is on).
+     * The list is in no particular order: products come shard by shard, and a removal moves its
+     * shard's last product into the freed slot, so the order changes after removals, even with a
+     * single shard. Use {@link #stream(ProductQuery)} or {@link #findPage} for a stable order.
+     * @return Unmodifiable snapshot of the products.
+     */
     public List<Product> getProducts(){
-        return Collections.unmodifiableList(products);
+        List<Product> all = new ArrayList<>();
+        for (WarehouseShard shard : shards) {
+            shard.read(all::addAll);
+        }
+        return Collections.unmodifiableList(all);
     }
 
     /**
@@ -66,24 +201,146 @@ public class Warehouse{
      * @throws IllegalArgumentException if product is null or has a duplicate ID.
      */
     public void addProduct(Product product){
-        //Validate inputs and check for duplicates BEFORE modifying the list
+        //Validate inputs and check for duplicates BEFORE modifying the shard
         if (product == null) {
             throw new IllegalArgumentException("Product cannot be null.");
         }
 
-        //Check for duplicate ID
-        boolean duplicateIdExists = products.stream()
-                        .anyMatch(p->p.uuid().equals(product.uuid()));
-
-        if (duplicateIdExists) {
+        //The shard rejects duplicate IDs atomically; offloaded products count as present
+        if (isCold(product.uuid()) || !shardFor(product.uuid()).add(product)) {
             throw new IllegalArgumentException("Product with that id already exists, use updateProduct for updates.");
         }
-        products.add(product);
+        version.incrementAndGet();
+        listeners.forEach(listener -> listener.productAdded(product));
     }
 
-    //Removes a product from the warehouse by its UUID.
+    /**
+     * Adds many products at once, taking each shard's write lock once per call rather than once
+     * per product. Unlike addProduct, duplicates do not abort the call: products whose id already
+     * exists (in the warehouse or earlier in the batch) are skipped and returned.
+     * @param products Products to add.
+     * @return Products that were not added because their id already exists.
+     * @throws IllegalArgumentException if any product is null.
+     */
+    public List<Product> addProducts(Collection<? extends Product> products){
+        List<List<Product>> byShard = new ArrayList<>(shards.size());
+        for (int i = 0; i < shards.size(); i++) {
+            byShard.add(new ArrayList<>());
+        }
+        for (Product product : products) {
+            if (product == null) {
+                throw new IllegalArgumentException("Product cannot be null.");
+            }
+            byShard.get(WarehouseShard.indexFor(product.uuid(), shards.size())).add(product);
+        }
+        List<Product> rejected = new ArrayList<>();
+        if (coldTier != null) {
+            for (List<Product> batch : byShard) {
+                batch.removeIf(product -> isCold(product.uuid()) && rejected.add(product));
+            }
+        }
+        for (int i = 0; i < shards.size(); i++) {
+            List<Product> batch = byShard.get(i);
+            if (batch.isEmpty()) continue;
+            List<Product> added = shards.get(i).addAll(batch);
+            if (!added.isEmpty()) {
+                version.incrementAndGet();
+            }
+            if (added.size() != batch.size()) {
+                Set<Product> addedSet = Collections.newSetFromMap(new IdentityHashMap<>());
+                addedSet.addAll(added);
+                batch.stream().filter(p -> !addedSet.contains(p)).forEach(rejected::add);
+            }
+            for (Product product : added) {
+                listeners.forEach(listener -> listener.productAdded(product));
+            }
+        }
+        return rejected;
+    }
+
+    //Removes a product from the warehouse by its UUID, whether it is hot or offloaded.
     public void remove(UUID uuid){
-        products.removeIf(product->product.uuid().equals(uuid));
+        ColdTier tier = coldTier;
+        if (tier != null) {
+            tier.remove(uuid);
+        }
+        Product removed = shardFor(uuid).remove(uuid);
+        if (removed != null) {
+            version.incrementAndGet();
+            listeners.forEach(listener -> listener.productRemoved(removed));
+        }
+    }
+
+    /**
+     * Removes many products by id, taking each shard's write lock once per call.
+     * @param ids Ids to remove; unknown ids are ignored.
+     * @return The removed products.
+     * @throws IllegalArgumentException if any id is null.
+     */
+    public List<Product> removeProducts(Collection<UUID> ids){
+        List<List<UUID>> byShard = new ArrayList<>(shards.size());
+        for (int i = 0; i < shards.size(); i++) {
+            byShard.add(new ArrayList<>());
+        }
+        for (UUID id : ids) {
+            if (id == null) {
+                throw new IllegalArgumentException("Id cannot be null.");
+            }
+            byShard.get(WarehouseShard.indexFor(id, shards.size())).add(id);
+        }
+        ColdTier tier = coldTier;
+        if (tier != null) {
+            ids.forEach(tier::remove);
+        }
+        List<Product> removed = new ArrayList<>();
+        for (int i = 0; i < shards.size(); i++) {
+            if (!byShard.get(i).isEmpty()) {
+                removed.addAll(shards.get(i).removeAll(byShard.get(i)));
+            }
+        }
+        notifyRemoved(removed);
+        return removed;
+    }
+
+    /**
+     * Removes all products matching the query, e.g. every expired dairy product.
+     * Uses the same plan as find(query), so candidates come from the most selective index and
+     * the cost follows the number of candidates rather than the inventory size.
+     * Like every query, this only sees the hot tier; offloaded products are left alone.
+     * @param query Conditions to match.
+     * @return The removed products.
+     */
+    public List<Product> removeProducts(ProductQuery query){
+        QueryPlan.AccessPath path = explain(query).getAccessPath();
+        List<Product> removed = shards.parallelStream()
+                .map(shard -> shard.removeAll(query, path))
+                .flatMap(List::stream)
+                .collect(Collectors.toCollection(ArrayList::new));
+        notifyRemoved(removed);
+        return removed;
+    }
+
+    private void notifyRemoved(List<Product> removed){
+        if (!removed.isEmpty()) {
+            version.incrementAndGet();
+        }
+        for (Product product : removed) {
+            listeners.forEach(listener -> listener.productRemoved(product));
+        }
+    }
+
+    /**
+     * Removes exactly the given product, unless it has already been removed or replaced.
+     * @param product Product to remove.
+     * @return true if it was removed.
+     */
+    boolean remove(Product product){
+        if (!shardFor(product.uuid()).remove(product)) {
+            return false;
+        }
+        version.incrementAndGet();
+        listeners.forEach(listener -> listener.productRemoved(product));
+        return true;
     }
 
     /**
@@ -93,20 +350,84 @@ public class Warehouse{
      * @throws NoSuchElementException if product is not found.
      */
     public void updateProductPrice(UUID uuid, BigDecimal newPrice){
-        //Find the product by UUID
-        Optional<Product> productOptional = products.stream()
-                .filter(p->p.uuid().equals(uuid))
-                .findFirst();
+        //Update the price in the owning shard
+        Product repriced = shardFor(uuid).updatePrice(uuid, newPrice);
+        //Bring an offloaded product back and retry
+        if (repriced == null && rehydrate(uuid) != null) {
+            repriced = shardFor(uuid).updatePrice(uuid, newPrice);
+        }
+        Product product = repriced;
 
         //If the product doesn't exist, throw an exception
-        if(productOptional.isEmpty()){
+        if(product == null){
             throw new NoSuchElementException("Product not found with id: " + uuid);
         }
 
-        //Update the product's price and track it as changed
-        Product product = productOptional.get();
-        product.price(newPrice);
+        //Track it as changed
         changedProducts.add(product);
+        version.incrementAndGet();
+        listeners.forEach(listener -> listener.productRepriced(product));
+    }
+
+    /**
+     * Applies many price changes as one atomic step. The write locks of all affected shards are
+     * held together while the batch is applied, so readers see either none or all of it, and
+     * each lock is taken once per batch instead of once per update. Updates are applied in list
+     * order, so for repeated ids the last one wins.
+     * @param updates Price changes to apply.
+     * @return Outcome per update, in the same order.
+     * @throws IllegalArgumentException if any update is null; nothing is changed then.
+     */
+    public List<PriceUpdate.Outcome> updateProductPrices(List<PriceUpdate> updates){
+        List<List<Integer>> byShard = new ArrayList<>(shards.size());
+        for (int i = 0; i < shards.size(); i++) {
+            byShard.add(new ArrayList<>());
+        }
+        for (int position = 0; position < updates.size(); position++) {
+            PriceUpdate update = updates.get(position);
+            if (update == null) {
+                throw new IllegalArgumentException("Price update cannot be null.");
+            }
+            byShard.get(WarehouseShard.indexFor(update.id(), shards.size())).add(position);
+        }
+        if (coldTier != null) {
+            //Bring offloaded products back so they can be repriced
+            updates.forEach(update -> getProductById(update.id()));
+        }
+        List<WarehouseShard> affected = new ArrayList<>();
+        List<List<Integer>> affectedPositions = new ArrayList<>();
+        for (int i = 0; i < shards.size(); i++) {
+            if (!byShard.get(i).isEmpty()) {
+                affected.add(shards.get(i));
+                affectedPositions.add(byShard.get(i));
+            }
+        }
+        PriceUpdate.Outcome[] outcomes = new PriceUpdate.Outcome[updates.size()];
+        List<Product> repriced = new ArrayList<>();
+        WarehouseShard.writeAll(affected, () -> {
+            for (int i = 0; i < affected.size(); i++) {
+                affected.get(i).updatePrices(updates, affectedPositions.get(i), outcomes, repriced);
+            }
+            return null;
+        });
+        changedProducts.addAll(repriced);
+        if (!repriced.isEmpty()) {
+            version.incrementAndGet();
+        }
+        for (Product product : repriced) {
+            listeners.forEach(listener -> listener.productRepriced(product));
+        }
+        return List.of(outcomes);
+    }
+
+    //Registers a listener for product changes.
+    void addListener(ProductListener listener){
+        listeners.add(listener);
+    }
+
+    //Unregisters a listener for product changes.
+    void removeListener(ProductListener listener){
+        listeners.remove(listener);
     }
 
     //Returns an unmodifiable list of products with updated prices.
@@ -114,11 +435,265 @@ public class Warehouse{
         return List.copyOf(changedProducts);
     }
 
-    //Finds and returns a product by its UUID.
+    //Rebuilds the approximate-analytics sketches from the current products, dropping removed products and old prices.
+    public void rebuildSketches(){
+        shards.forEach(WarehouseShard::rebuildSketch);
+    }
+
+    /**
+     * Returns the price a product sells for today, after its expiration-based discount.
+     * Looks the price up in the daily price book, so the cost is O(1) regardless of the tiers.
+     * @param id Product id.
+     * @return Discounted price (regular price for non-perishables), or empty if not found.
+     */
+    public Optional<BigDecimal> getDiscountedPrice(UUID id){
+        ensurePriceBooks();
+        return Optional.ofNullable(shardFor(id).discountedPrice(id));
+    }
+
+    //Returns the discount tiers used for the daily price book.
+    public DiscountTiers getDiscountTiers(){
+        return discountTiers;
+    }
+
+    /**
+     * Replaces the discount tiers and rebuilds today's price book with them.
+     * @param tiers New discount tiers.
+     * @throws IllegalArgumentException if tiers is null.
+     */
+    public synchronized void setDiscountTiers(DiscountTiers tiers){
+        if (tiers == null) {
+            throw new IllegalArgumentException("Discount tiers cannot be null.");
+        }
+        discountTiers = tiers;
+        swapPriceBooks(LocalDate.now());
+    }
+
+    //Makes sure the price books are for today; the first call after midnight swaps in new ones
+    void ensurePriceBooks(){
+        LocalDate today = LocalDate.now();
+        if (!today.equals(priceBookDay)) {
+            synchronized (this) {
+                if (!today.equals(priceBookDay)) {
+                    swapPriceBooks(today);
+                }
+            }
+        }
+    }
+
+    /**
+     * Builds price books for the given day and swaps them in on all shards at once.
+     * Holds every shard's read lock while building, so no write is lost and readers see either
+     * the old books or the new ones. Callers hold this warehouse's monitor.
+     * @param day Day to price for.
+     */
+    void swapPriceBooks(LocalDate day){
+        DiscountTiers tiers = discountTiers;
+        WarehouseShard.readAll(shards, () -> {
+            shards.forEach(shard -> shard.swapPriceBook(day, tiers));
+            return null;
+        });
+        priceBookDay = day;
+    }
+
+    //Finds and returns a product by its UUID, asking the cold tier if it was offloaded.
     public Optional<Product> getProductById(UUID id){
-        return products.stream()
-                .filter(p->p.uuid().equals(id))
-                .findFirst();
+        Product product = shardFor(id).get(id);
+        return Optional.ofNullable(product != null ? product : lookupCold(id));
+    }
+
+    /**
+     * Finds a product by the two halves of its UUID, without creating a UUID object.
+     * Useful when ids arrive as raw longs, e.g. from a binary protocol.
+     * @param mostSigBits Most significant 64 bits of the id.
+     * @param leastSigBits Least significant 64 bits of the id.
+     * @return The product, or empty if not found.
+     */
+    public Optional<Product> getProductById(long mostSigBits, long leastSigBits){
+        WarehouseShard shard = shards.get(WarehouseShard.indexFor(mostSigBits, leastSigBits, shards.size()));
+        Product product = shard.get(mostSigBits, leastSigBits);
+        return Optional.ofNullable(product != null || coldTier == null ? product
+                : lookupCold(new UUID(mostSigBits, leastSigBits)));
+    }
+
+    //Reads an offloaded product through the cold tier; returns the hot product if another thread moved it back
+    private Product lookupCold(UUID id){
+        ColdTier tier = coldTier;
+        if (tier == null) {
+            return null;
+        }
+        Product product = tier.lookup(id);
+        return product != null ? product : shardFor(id).get(id);
+    }
+
+    //Moves an offloaded product back into its shard; returns it, or the hot product if another thread won
+    private Product rehydrate(UUID id){
+        ColdTier tier = coldTier;
+        if (tier == null) {
+            return null;
+        }
+        Product product = tier.rehydrate(id);
+        return product != null ? product : shardFor(id).get(id);
+    }
+
+    //Returns the hot product with the given id, or null; neither counts as a lookup nor asks the cold tier
+    Product peekProduct(UUID id){
+        return shardFor(id).peek(id);
+    }
+
+    //Checks whether the product with the given id is offloaded to the cold tier
+    private boolean isCold(UUID id){
+        ColdTier tier = coldTier;
+        return tier != null && tier.contains(id);
+    }
+
+    /**
+     * Puts a product coming back from the cold tier into its shard and reports it as added.
+     * @return false if a product with the same id is already hot.
+     */
+    boolean restore(Product product){
+        if (!shardFor(product.uuid()).add(product)) {
+            return false;
+        }
+        version.incrementAndGet();
+        listeners.forEach(listener -> listener.productAdded(product));
+        return true;
+    }
+
+    //Returns the products not added or looked up by id since the given epoch milliseconds.
+    List<Product> untouchedSince(long cutoffMillis){
+        List<Product> idle = new ArrayList<>();
+        for (WarehouseShard shard : shards) {
+            idle.addAll(shard.untouchedSince(cutoffMillis));
+        }
+        return idle;
+    }
+
+    //Connects a cold tier; a warehouse has at most one
+    synchronized void attachColdTier(ColdTier tier){
+        if (coldTier != null) {
+            throw new IllegalStateException("Warehouse " + name + " already has a cold tier.");
+        }
+        coldTier = tier;
+    }
+
+    //Disconnects the given cold tier, if it is the attached one
+    synchronized void detachColdTier(ColdTier tier){
+        if (coldTier == tier) {
+            coldTier = null;
+        }
+    }
+
+    /**
+     * Finds all products matching a composable query.
+     * The planner picks the most selective index (category, price or expiration) or a full scan,
+     * then applies the remaining conditions to the candidates.
+     * @param query Conditions to match.
+     * @return Matching products.
+     */
+    public List<Product> find(ProductQuery query){
+        QueryPlan.AccessPath path = explain(query).getAccessPath();
+        return shards.parallelStream()
+                .map(shard -> shard.find(query, path))
+                .flatMap(List::stream)
+                .collect(Collectors.toCollection(ArrayList::new));
+    }
+
+    /**
+     * Plans a query without running it.
+     * Row estimates are summed over all shards, read in one consistent state, and the same
+     * access path is used in every shard.
+     * @param query Conditions to match.
+     * @return The plan find(query) would use; see QueryPlan.explain().
+     */
+    public QueryPlan explain(ProductQuery query){
+        return QueryPlan.choose(query,
+                WarehouseShard.readAllIndexes(shards, indexes -> ProductIndexes.estimate(indexes, query)));
+    }
+
+    /**
+     * Returns one page of products matching the query, in (price, id) order.
+     * Each shard contributes at most {@code limit + 1} candidates. A shard walks its price index,
+     * which costs O(page size) while matches are common; when a category, expiration window or
+     * Perishable/Shippable type condition selects few products, it sorts those instead, so e.g.
+     * a page of few expired products does not walk the whole inventory.
+     * @param query Conditions to match.
+     * @param after Cursor from the previous page, or null for the first page.
+     * @param limit Maximum number of products on the page (must be >= 1).
+     * @return The page and the cursor to continue from.
+     * @throws IllegalArgumentException if limit is less than 1.
+     */
+    public Page<Product> findPage(ProductQuery query, Page.Cursor after, int limit){
+        if (limit < 1) {
+            throw new IllegalArgumentException("Page size must be at least 1.");
+        }
+        //One extra row per shard tells whether anything follows this page
+        List<Product> candidates = new ArrayList<>();
+        for (WarehouseShard shard : shards) {
+            candidates.addAll(shard.page(query, after, limit + 1));
+        }
+        candidates.sort(Page.KEYSET_ORDER);
+        if (candidates.size() <= limit) {
+            return new Page<>(candidates, null);
+        }
+        List<Product> items = new ArrayList<>(candidates.subList(0, limit));
+        return new Page<>(items, Page.Cursor.after(items.getLast()));
+    }
+
+    /**
+     * Lazily streams the products matching the query in (price, id) order.
+     * Products are fetched page by page on demand, so short-circuiting operations such as
+     * limit() or findFirst() only read what they consume, and memory stays bounded.
+     * @param query Conditions to match.
+     * @return Lazy stream of matching products.
+     */
+    public Stream<Product> stream(ProductQuery query){
+        Iterator<Product> iterator = new Iterator<>() {
+            private Page<Product> page = findPage(query, null, STREAM_PAGE_SIZE);
+            private int index;
+
+            @Override
+            public boolean hasNext() {
+                if (index == page.getItems().size() && page.hasNext()) {
+                    page = findPage(query, page.getNext(), STREAM_PAGE_SIZE);
+                    index = 0;
+                }
+                return index < page.getItems().size();
+            }
+
+            @Override
+            public Product next() {
+                if (!hasNext()) throw new NoSuchElementException();
+                return page.getItems().get(index++);
+            }
+        };
+        return StreamSupport.stream(Spliterators.spliteratorUnknownSize(iterator,
+                Spliterator.ORDERED | Spliterator.NONNULL), false);
+    }
+
+    //Query matching the perishables whose expiration date is before today
+    private static ProductQuery expiredQuery(){
+        return ProductQuery.where().expiringBetween(null, LocalDate.now().minusDays(1));
+    }
+
+    //Lazily streams expired perishable products in (price, id) order.
+    public Stream<Perishable> streamExpiredProducts(){
+        return stream(expiredQuery()).map(p -> (Perishable) p);
+    }
+
+    //Returns one page of expired perishable products; see findPage.
+    public Page<Perishable> expiredProducts(Page.Cursor after, int limit){
+        return findPage(expiredQuery(), after, limit).map(p -> (Perishable) p);
+    }
+
+    //Lazily streams shippable products in (price, id) order.
+    public Stream<Shippable> streamShippableProducts(){
+        return stream(ProductQuery.where().ofType(Shippable.class)).map(p -> (Shippable) p);
+    }
+
+    //Returns one page of shippable products; see findPage.
+    public Page<Shippable> shippableProducts(Page.Cursor after, int limit){
+        return findPage(ProductQuery.where().ofType(Shippable.class), after, limit).map(p -> (Shippable) p);
     }
 
     //Groups products by their categories and returns a map.
@@ -129,7 +704,7 @@ public class Warehouse{
 
     //Returns a list of expired, perishable products.
     public List<Perishable> expiredProducts(){
-       return products.stream()
+       return getProducts().stream()
                 .filter(p-> p instanceof Perishable)
                 .map(p -> (Perishable)p)
                 .filter(Perishable::isExpired)
@@ -138,7 +713,7 @@ public class Warehouse{
 
     //Returns a list of shippable products.
     public List<Shippable> shippableProducts(){
-        return products.stream()
+        return getProducts().stream()
                 .filter(p-> p instanceof Shippable)
                 .map(p ->(Shippable) p)
                 .collect(Collectors.toList());
@@ -3,9 +3,18 @@ package com.example;
 import java.math.BigDecimal;
 import java.math.MathContext;
 import java.math.RoundingMode;
+import java.time.Duration;
+import java.time.Instant;
 import java.time.LocalDate;
 import java.util.*;
-import java.util.stream.Collectors;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.StructuredTaskScope;
+import java.util.concurrent.StructuredTaskScope.Subtask;
+import java.util.function.BinaryOperator;
+import java.util.function.Function;
+import java.util.function.Predicate;
+import java.util.function.Supplier;
+import java.util.stream.Stream;
 import java.util.HashMap;
 import java.util.Map;
 
@@ -16,11 +25,198 @@ import java.util.Map;
  * Students must implement these methods for the advanced tests to pass.
  */
 class WarehouseAnalyzer {
+    //Ranking orders for top-K queries; ids break ties so results are deterministic
+    private static final Comparator<Product> PRICE_ORDER = Page.KEYSET_ORDER;
+    private static final Comparator<Product> WEIGHT_ORDER =
+            Comparator.comparingDouble((Product p) -> ((Shippable) p).weight()).thenComparing(Product::uuid);
+    private static final BigDecimal ONE_HUNDRED = BigDecimal.valueOf(100);
+
+    //Maximum number of aggregate results kept by the result cache
+    static final int MAX_CACHED_RESULTS = 64;
+    //Dashboard refreshes tried before giving up on a warehouse that keeps changing
+    static final int MAX_DASHBOARD_ATTEMPTS = 5;
+
     private final Warehouse warehouse;
+    //Pool and threshold for splitting scans
+    private final ParallelScan scan;
+    //Aggregate results by (method, arguments, version), least recently used first; guarded by itself
+    private final LinkedHashMap<ResultKey, Object> results = new LinkedHashMap<>(16, 0.75f, true) {
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<ResultKey, Object> eldest) {
+            return size() > MAX_CACHED_RESULTS;
+        }
+    };
+    //Warehouse version the cached results were computed at
+    private long resultsVersion = -1;
 
-    //Constructor
+    //Constructor; scans run on the common fork-join pool with the default sequential threshold
     public WarehouseAnalyzer(Warehouse warehouse) {
         this.warehouse = warehouse;
+        this.scan = ParallelScan.common();
+    }
+
+    /**
+     * Creates an analyzer whose scans run on the given pool. Shards are scanned in parallel, and
+     * a shard larger than the threshold is split into ranges scanned in parallel too. Partials
+     * are merged in storage order with exact arithmetic, so results do not depend on the pool's
+     * parallelism.
+     * @param warehouse Warehouse to analyze.
+     * @param pool Pool to run scans on.
+     * @param sequentialThreshold Largest number of products scanned by one task; Integer.MAX_VALUE never splits a shard.
+     * @throws IllegalArgumentException if pool is null or sequentialThreshold is less than 1.
+     */
+    public WarehouseAnalyzer(Warehouse warehouse, ForkJoinPool pool, int sequentialThreshold) {
+        this.warehouse = warehouse;
+        this.scan = new ParallelScan(pool, sequentialThreshold);
+    }
+
+    //Cache key: the aggregate method, its arguments and the warehouse version it was computed at
+    private record ResultKey(String method, List<Object> arguments, long version) {}
+
+    /**
+     * Returns a cached aggregate result, computing it on a miss. Results are reused until the
+     * warehouse version changes, so repeat calls between writes cost one map lookup. A newer
+     * version drops all cached results, and at most MAX_CACHED_RESULTS are kept, evicting the
+     * least recently used. Concurrent misses may compute the same result twice; both are correct.
+     *
+     * @param method name of the aggregate
+     * @param arguments values the result depends on besides the products
+     * @param compute computes the result; it must be immutable
+     * @return the cached or computed result
+     */
+    private <T> T cached(String method, List<Object> arguments, Supplier<T> compute) {
+        //Read the version before computing: a write during the computation then makes it a miss next time
+        return cachedAt(warehouse.getVersion(), method, arguments, compute);
+    }
+
+    /**
+     * Looks up or computes a result for the given warehouse version. The cache only moves
+     * forward: a caller that sampled a version older than the cached one, because another
+     * reader advanced the cache in between, computes its result without reading or replacing
+     * the newer entries.
+     *
+     * @param version warehouse version sampled before computing
+     * @param method name of the aggregate
+     * @param arguments values the result depends on besides the products
+     * @param compute computes the result; it must be immutable
+     * @return the cached or computed result
+     */
+    @SuppressWarnings("unchecked")
+    <T> T cachedAt(long version, String method, List<Object> arguments, Supplier<T> compute) {
+        ResultKey key = new ResultKey(method, arguments, version);
+        synchronized (results) {
+            if (version < resultsVersion) {
+                return compute.get();
+            }
+            if (version > resultsVersion) {
+                results.clear();
+                resultsVersion = version;
+            }
+            Object result = results.get(key);
+            if (result != null) {
+                return (T) result;
+            }
+        }
+        T result = compute.get();
+        synchronized (results) {
+            if (version == resultsVersion) {
+                results.put(key, result);
+            }
+        }
+        return result;
+    }
+
+    //Number of aggregate results currently cached
+    int cachedResultCount() {
+        synchronized (results) {
+            return results.size();
+        }
+    }
+
+    /**
+     * Computes partial results over the products and merges them in shard and storage order.
+     * All shards are read under their read locks at once, so the scan sees one consistent
+     * state. Above the sequential threshold the products are cut into ranges scanned in
+     * parallel on the analyzer's pool; below it the scan runs in the calling thread.
+     *
+     * @param partial computes the partial result for a range of one shard's products
+     * @param merge combines two partial results; must be associative
+     * @return the merged result over all shards
+     */
+    private <T> T fanOut(Function<List<Product>, T> partial, BinaryOperator<T> merge) {
+        return WarehouseShard.readAllProducts(warehouse.shards(), lists -> scan.reduce(lists, partial, merge));
+    }
+
+    //Like fanOut, but the partial gets the whole shard (e.g. to read its indexes)
+    private <T> T fanOutShards(Function<WarehouseShard, T> partial, BinaryOperator<T> merge) {
+        return scan.reduceEach(warehouse.shards(), partial, merge);
+    }
+
+    /**
+     * Like fanOut, but the partial scans the shards' price columns (see {@link PriceFilter}).
+     *
+     * @param partial computes the partial result for rows from..to of one shard, given its products and price column
+     * @param merge combines two partial results; must be associative
+     * @return the merged result over all shards
+     */
+    private <T> T fanOutPrices(PriceRows<T> partial, BinaryOperator<T> merge) {
+        List<WarehouseShard> shards = warehouse.shards();
+        return WarehouseShard.readAll(shards, () -> {
+            List<List<Product>> products = shards.stream().map(WarehouseShard::products).toList();
+            List<double[]> prices = shards.stream().map(WarehouseShard::priceColumn).toList();
+            return scan.reduceRows(products.stream().mapToInt(List::size).toArray(),
+                    (part, from, to) -> partial.apply(products.get(part), prices.get(part), from, to),
+                    merge);
+        });
+    }
+
+    //Partial result over rows from..to of one shard's products and price column
+    @FunctionalInterface
+    private interface PriceRows<T> {
+        T apply(List<Product> products, double[] prices, int from, int to);
+    }
+
+    //Collects the products of the given type that match the filter, across all shards
+    private <T> List<T> collectMatching(Class<T> type, Predicate<T> filter) {
+        return fanOut(products -> {
+            List<T> result = new ArrayList<>();
+            for (Product p : products) {
+                if (type.isInstance(p) && filter.test(type.cast(p))) {
+                    result.add(type.cast(p));
+                }
+            }
+            return result;
+        }, WarehouseAnalyzer::append);
+    }
+
+    /**
+     * Collects the products whose price lies in [lo, hi] in doubles, across all shards, with
+     * the vectorized price filter. Prices whose double equals a bound may differ from it as
+     * decimals, so those are kept only if their exact price passes the test.
+     */
+    private List<Product> collectByPrice(double lo, double hi, Predicate<BigDecimal> exact) {
+        return fanOutPrices((products, prices, from, to) -> {
+            long[] inside = PriceFilter.bitmap(to - from);
+            long[] onBound = PriceFilter.bitmap(to - from);
+            PriceFilter.INSTANCE.select(prices, from, to, lo, hi, inside, onBound);
+            List<Product> result = new ArrayList<>();
+            for (int word = 0; word < inside.length; word++) {
+                for (long bits = inside[word] | onBound[word]; bits != 0; bits &= bits - 1) {
+                    int bit = Long.numberOfTrailingZeros(bits);
+                    Product p = products.get(from + (word << 6 | bit));
+                    if ((inside[word] >>> bit & 1) != 0 || exact.test(p.price())) {
+                        result.add(p);
+                    }
+                }
+            }
+            return result;
+        }, WarehouseAnalyzer::append);
+    }
+
+    //Appends the right list to the left one and returns it
+    private static <T> List<T> append(List<T> left, List<T> right) {
+        left.addAll(right);
+        return left;
     }
 
     
@@ -31,17 +227,31 @@ class WarehouseAnalyzer {
      *
      * @param minPrice the lower bound (inclusive); must not be null
      * @param maxPrice the upper bound (inclusive); must not be null and should be >= minPrice
-     * @return a list of products with minPrice <= price <= maxPrice, in the warehouse's iteration order
+     * @return a list of products with minPrice <= price <= maxPrice, in no particular order
+     *         (see {@link Warehouse#getProducts()}; the stream and page variants are ordered by price)
      */
     public List<Product> findProductsInPriceRange(BigDecimal minPrice, BigDecimal maxPrice) {
-        List<Product> result = new ArrayList<>();
-        for (Product p : warehouse.getProducts()) {
-            BigDecimal price = p.price();
-            if (price.compareTo(minPrice) >= 0 && price.compareTo(maxPrice) <= 0) {
-                result.add(p);
-            }
-        }
-        return result;
+        return collectByPrice(minPrice.doubleValue(), maxPrice.doubleValue(),
+                price -> price.compareTo(minPrice) >= 0 && price.compareTo(maxPrice) <= 0);
+    }
+
+    /**
+     * Lazy variant of {@link #findProductsInPriceRange(BigDecimal, BigDecimal)}, ordered by price then id.
+     * Walks the price index page by page, so consuming the first k results costs O(k).
+     */
+    public Stream<Product> streamProductsInPriceRange(BigDecimal minPrice, BigDecimal maxPrice) {
+        return warehouse.stream(ProductQuery.where().priceBetween(minPrice, maxPrice));
+    }
+
+    /**
+     * Keyset-paginated variant of {@link #findProductsInPriceRange(BigDecimal, BigDecimal)}.
+     *
+     * @param after cursor from the previous page, or null for the first page
+     * @param limit maximum number of products on the page
+     * @return one page of products ordered by price then id
+     */
+    public Page<Product> findProductsInPriceRange(BigDecimal minPrice, BigDecimal maxPrice, Page.Cursor after, int limit) {
+        return warehouse.findPage(ProductQuery.where().priceBetween(minPrice, maxPrice), after, limit);
     }
     
     /**
@@ -55,16 +265,10 @@ class WarehouseAnalyzer {
     public List<Perishable> findProductsExpiringWithinDays(int days) {
         LocalDate today = LocalDate.now();
         LocalDate end = today.plusDays(days);
-        List<Perishable> result = new ArrayList<>();
-        for (Product p : warehouse.getProducts()) {
-            if (p instanceof Perishable per) {
-                LocalDate exp = per.expirationDate();
-                if (!exp.isBefore(today) && !exp.isAfter(end)) {
-                    result.add(per);
-                }
-            }
-        }
-        return result;
+        return collectMatching(Perishable.class, per -> {
+            LocalDate exp = per.expirationDate();
+            return !exp.isBefore(today) && !exp.isAfter(end);
+        });
     }
     
     /**
@@ -77,13 +281,17 @@ class WarehouseAnalyzer {
      */
     public List<Product> searchProductsByName(String searchTerm) {
         String term = searchTerm.toLowerCase(Locale.ROOT);
-        List<Product> result = new ArrayList<>();
-        for (Product p : warehouse.getProducts()) {
-            if (p.name().toLowerCase(Locale.ROOT).contains(term)) {
-                result.add(p);
-            }
-        }
-        return result;
+        return collectMatching(Product.class, p -> p.name().toLowerCase(Locale.ROOT).contains(term));
+    }
+
+    //Lazy variant of searchProductsByName(String), ordered by price then id
+    public Stream<Product> streamProductsByName(String searchTerm) {
+        return warehouse.stream(ProductQuery.where().nameContains(searchTerm));
+    }
+
+    //Keyset-paginated variant of searchProductsByName(String); pass null as cursor for the first page
+    public Page<Product> searchProductsByName(String searchTerm, Page.Cursor after, int limit) {
+        return warehouse.findPage(ProductQuery.where().nameContains(searchTerm), after, limit);
     }
     
     /**
@@ -94,13 +302,7 @@ class WarehouseAnalyzer {
      * @return list of products with price > threshold
      */
     public List<Product> findProductsAbovePrice(BigDecimal price) {
-        List<Product> result = new ArrayList<>();
-        for (Product p : warehouse.getProducts()) {
-            if (p.price().compareTo(price) > 0) {
-                result.add(p);
-            }
-        }
-        return result;
+        return collectByPrice(price.doubleValue(), Double.POSITIVE_INFINITY, value -> value.compareTo(price) > 0);
     }
     
     // Analytics Methods
@@ -113,34 +315,22 @@ class WarehouseAnalyzer {
      * @return a map from Category to weighted average price
      */
     public Map<Category, BigDecimal> calculateWeightedAveragePriceByCategory() {
-        Map<Category, List<Product>> byCat = warehouse.getProducts().stream()
-                .collect(Collectors.groupingBy(Product::category));
-        Map<Category, BigDecimal> result = new HashMap<>();
-        for (Map.Entry<Category, List<Product>> e : byCat.entrySet()) {
-            Category cat = e.getKey();
-            List<Product> items = e.getValue();
-            BigDecimal weightedSum = BigDecimal.ZERO;
-            double weightSum = 0.0;
-            for (Product p : items) {
-                if (p instanceof Shippable s) {
-                    double w = Optional.ofNullable(s.weight()).orElse(0.0);
-                    if (w > 0) {
-                        BigDecimal wBD = BigDecimal.valueOf(w);
-                        weightedSum = weightedSum.add(p.price().multiply(wBD));
-                        weightSum += w;
-                    }
-                }
-            }
-            BigDecimal avg;
-            if (weightSum > 0) {
-                avg = weightedSum.divide(BigDecimal.valueOf(weightSum), 2, RoundingMode.HALF_UP);
-            } else {
-                BigDecimal sum = items.stream().map(Product::price).reduce(BigDecimal.ZERO, BigDecimal::add);
-                avg = sum.divide(BigDecimal.valueOf(items.size()), 2, RoundingMode.HALF_UP);
+        return cached("weightedAveragePriceByCategory", List.of(), () -> {
+            Map<Category, BigDecimal> result = new HashMap<>();
+            categoryPriceSums().forEach((cat, sums) -> result.put(cat, sums.average()));
+            return Collections.unmodifiableMap(result);
+        });
+    }
+
+    //Per-category weighted and plain price sums, merged over all shards
+    Map<Category, CategoryPriceSums> categoryPriceSums() {
+        return fanOut(products -> {
+            Map<Category, CategoryPriceSums> sums = new HashMap<>();
+            for (Product p : products) {
+                sums.merge(p.category(), CategoryPriceSums.of(p), CategoryPriceSums::merge);
             }
-            result.put(cat, avg);
-        }
-        return result;
+            return sums;
+        }, CategoryPriceSums::mergeAll);
     }
     
     /**
@@ -152,23 +342,29 @@ class WarehouseAnalyzer {
      * @return list of products considered outliers
      */
     public List<Product> findPriceOutliers(double standardDeviations) {
-        List<Product> products = warehouse.getProducts();
-        int n = products.size();
-        if (n == 0) return List.of();
-        double sum = products.stream().map(Product::price).mapToDouble(bd -> bd.doubleValue()).sum();
-        double mean = sum / n;
-        double variance = products.stream()
-                .map(Product::price)
-                .mapToDouble(bd -> Math.pow(bd.doubleValue() - mean, 2))
-                .sum() / n;
-        double std = Math.sqrt(variance);
-        double threshold = standardDeviations * std;
-        List<Product> outliers = new ArrayList<>();
-        for (Product p : products) {
-            double diff = Math.abs(p.price().doubleValue() - mean);
-            if (diff > threshold) outliers.add(p);
-        }
-        return outliers;
+        PriceMoments moments = priceMoments();
+        if (moments.count() == 0) return List.of();
+        return findPricesDeviatingFrom(moments.mean(), standardDeviations * moments.populationStdDev());
+    }
+
+    //Products whose price differs from the given mean by more than the threshold
+    List<Product> findPricesDeviatingFrom(double mean, double threshold) {
+        return fanOutPrices((products, prices, from, to) -> {
+            long[] selected = PriceFilter.bitmap(to - from);
+            PriceFilter.INSTANCE.selectDeviating(prices, from, to, mean, threshold, selected);
+            List<Product> result = new ArrayList<>();
+            for (int word = 0; word < selected.length; word++) {
+                for (long bits = selected[word]; bits != 0; bits &= bits - 1) {
+                    result.add(products.get(from + (word << 6 | Long.numberOfTrailingZeros(bits))));
+                }
+            }
+            return result;
+        }, WarehouseAnalyzer::append);
+    }
+
+    //Count, sum and sum of squares of all prices, merged over all shards
+    PriceMoments priceMoments() {
+        return fanOut(PriceMoments::of, PriceMoments::merge);
     }
     
     /**
@@ -181,67 +377,286 @@ class WarehouseAnalyzer {
      * @return list of ShippingGroup objects covering all shippable products
      */
     public List<ShippingGroup> optimizeShippingGroups(BigDecimal maxWeightPerGroup) {
-        double maxW = maxWeightPerGroup.doubleValue();
+        List<Shippable> items = shippableHeaviestFirst();
+        return plan(items, new FirstFitPacker(weightsOf(items)).pack(maxWeightPerGroup.doubleValue()));
+    }
+
+    /**
+     * Packs all shippable products for several weight limits at once, e.g. to compare carriers.
+     * Products are fetched and sorted once into a shared primitive weight array, and the limits
+     * are packed in parallel on the analyzer's pool. Each scenario's groups are exactly those of
+     * {@link #optimizeShippingGroups(BigDecimal)} for its limit.
+     *
+     * @param maxWeightsPerGroup maximum total weight per group for each scenario (inclusive)
+     * @param includePlans whether to build the groups of each scenario, not just their count and cost
+     * @return one scenario per limit, in the given order
+     * @throws IllegalArgumentException if the list or any limit is null
+     */
+    public List<ShippingScenario> compareShippingScenarios(List<BigDecimal> maxWeightsPerGroup, boolean includePlans) {
+        if (maxWeightsPerGroup == null || maxWeightsPerGroup.stream().anyMatch(Objects::isNull)) {
+            throw new IllegalArgumentException("Weight limits cannot be null.");
+        }
+        if (maxWeightsPerGroup.isEmpty()) {
+            return List.of();
+        }
+        List<Shippable> items = shippableHeaviestFirst();
+        FirstFitPacker packer = new FirstFitPacker(weightsOf(items));
+        //Every product is shipped exactly once, so the total cost is the same for every limit
+        BigDecimal totalCost = items.stream()
+                .map(Shippable::calculateShippingCost)
+                .reduce(BigDecimal.ZERO, BigDecimal::add);
+        return scan.reduceEach(maxWeightsPerGroup, limit -> {
+            FirstFitPacker.Packing packing = packer.pack(limit.doubleValue());
+            List<ShippingGroup> groups = includePlans ? plan(items, packing) : List.of();
+            return List.of(new ShippingScenario(limit, packing.binCount(), totalCost, groups));
+        }, (left, right) -> {
+            List<ShippingScenario> merged = new ArrayList<>(left);
+            merged.addAll(right);
+            return merged;
+        });
+    }
+
+    //Shippable products sorted heaviest first; the sort is stable, so ties keep warehouse order
+    private List<Shippable> shippableHeaviestFirst() {
         List<Shippable> items = warehouse.shippableProducts();
-        // Sort by descending weight (First-Fit Decreasing)
-        items.sort((a, b) -> Double.compare(Objects.requireNonNullElse(b.weight(), 0.0), Objects.requireNonNullElse(a.weight(), 0.0)));
-        List<List<Shippable>> bins = new ArrayList<>();
-        for (Shippable item : items) {
-            double w = Objects.requireNonNullElse(item.weight(), 0.0);
-            boolean placed = false;
-            for (List<Shippable> bin : bins) {
-                double binWeight = bin.stream().map(Shippable::weight).reduce(0.0, Double::sum);
-                if (binWeight + w <= maxW) {
-                    bin.add(item);
-                    placed = true;
-                    break;
+        items.sort((a, b) -> Double.compare(b.weight(), a.weight()));
+        return items;
+    }
+
+    private static double[] weightsOf(List<Shippable> items) {
+        double[] weights = new double[items.size()];
+        for (int i = 0; i < weights.length; i++) {
+            weights[i] = items.get(i).weight();
+        }
+        return weights;
+    }
+
+    private static List<ShippingGroup> plan(List<Shippable> items, FirstFitPacker.Packing packing) {
+        List<ShippingGroup> groups = new ArrayList<>(packing.binCount());
+        for (List<Shippable> bin : packing.bins(items)) groups.add(new ShippingGroup(bin));
+        return groups;
+    }
+    
+    // Top-K Methods
+    /**
+     * Returns the k most expensive products, most expensive first (ties broken by id).
+     * Reads the first k entries of each shard's price index, so the cost is O(k log k) per shard
+     * regardless of inventory size. The index is maintained on every add, remove and price
+     * update, so results are always live.
+     *
+     * @param k number of products to return (must be >= 0)
+     * @return at most k products
+     */
+    public List<Product> findMostExpensiveProducts(int k) {
+        return firstInIndexOrder(k, PRICE_ORDER.reversed(), ix -> ix.byPrice(true));
+    }
+
+    //Returns the k cheapest products, cheapest first; see findMostExpensiveProducts(int)
+    public List<Product> findCheapestProducts(int k) {
+        return firstInIndexOrder(k, PRICE_ORDER, ix -> ix.byPrice(false));
+    }
+
+    //Returns the k heaviest shippable products, heaviest first, from the weight index
+    public List<Shippable> findHeaviestProducts(int k) {
+        return asShippable(firstInIndexOrder(k, WEIGHT_ORDER.reversed(), ix -> ix.byWeight(true)));
+    }
+
+    //Returns the k lightest shippable products, lightest first, from the weight index
+    public List<Shippable> findLightestProducts(int k) {
+        return asShippable(firstInIndexOrder(k, WEIGHT_ORDER, ix -> ix.byWeight(false)));
+    }
+
+    /**
+     * Returns the k most expensive products of every category, most expensive first.
+     * One pass with a bounded heap per category: O(n log k) time and O(categories * k) memory.
+     *
+     * @param k number of products per category (must be >= 0)
+     * @return map from category to at most k products
+     */
+    public Map<Category, List<Product>> findMostExpensiveProductsByCategory(int k) {
+        return firstByCategory(k, PRICE_ORDER.reversed(), _ -> true);
+    }
+
+    //Returns the k cheapest products of every category; see findMostExpensiveProductsByCategory(int)
+    public Map<Category, List<Product>> findCheapestProductsByCategory(int k) {
+        return firstByCategory(k, PRICE_ORDER, _ -> true);
+    }
+
+    //Returns the k heaviest shippable products of every category, heaviest first
+    public Map<Category, List<Shippable>> findHeaviestProductsByCategory(int k) {
+        Map<Category, List<Shippable>> result = new HashMap<>();
+        firstByCategory(k, WEIGHT_ORDER.reversed(), p -> p instanceof Shippable)
+                .forEach((cat, products) -> result.put(cat, asShippable(products)));
+        return result;
+    }
+
+    //Returns the k lightest shippable products of every category, lightest first
+    public Map<Category, List<Shippable>> findLightestProductsByCategory(int k) {
+        Map<Category, List<Shippable>> result = new HashMap<>();
+        firstByCategory(k, WEIGHT_ORDER, p -> p instanceof Shippable)
+                .forEach((cat, products) -> result.put(cat, asShippable(products)));
+        return result;
+    }
+
+    //Takes the first k products of each shard's ordered index and merges them
+    private List<Product> firstInIndexOrder(int k, Comparator<Product> order,
+                                            Function<ProductIndexes, Stream<Product>> walk) {
+        BoundedHeap.requireValidK(k);
+        return fanOutShards(shard -> shard.readIndexes(ix -> walk.apply(ix).limit(k).toList()),
+                (a, b) -> BoundedHeap.merge(a, b, k, order));
+    }
+
+    //Keeps the first k eligible products per category with one bounded heap per category
+    private Map<Category, List<Product>> firstByCategory(int k, Comparator<Product> order, Predicate<Product> eligible) {
+        BoundedHeap.requireValidK(k);
+        return fanOut(products -> {
+            Map<Category, BoundedHeap<Product>> heaps = new HashMap<>();
+            for (Product p : products) {
+                if (eligible.test(p)) {
+                    heaps.computeIfAbsent(p.category(), _ -> new BoundedHeap<>(k, order)).offer(p);
                 }
             }
-            if (!placed) {
-                List<Shippable> newBin = new ArrayList<>();
-                newBin.add(item);
-                bins.add(newBin);
+            Map<Category, List<Product>> result = new HashMap<>();
+            heaps.forEach((cat, heap) -> result.put(cat, heap.toSortedList()));
+            return result;
+        }, (a, b) -> {
+            b.forEach((cat, list) -> a.merge(cat, list, (x, y) -> BoundedHeap.merge(x, y, k, order)));
+            return a;
+        });
+    }
+
+    //Views a list of products known to be shippable as Shippables
+    private static List<Shippable> asShippable(List<Product> products) {
+        return products.stream().map(p -> (Shippable) p).toList();
+    }
+
+    // Percentile and Histogram Methods
+    /**
+     * Returns the exact price at the given percentile, using the nearest-rank method: the
+     * lowest price that at least {@code percentile}% of all products are priced at or below.
+     * Answered from the per-shard order-statistic trees in O(log n) per shard and round,
+     * without scanning products.
+     *
+     * @param percentile percentile in [0, 100], e.g. 50 for the median; 0 gives the cheapest price
+     * @return price at the percentile, or empty if the warehouse has no products
+     * @throws IllegalArgumentException if percentile is outside [0, 100]
+     */
+    public Optional<BigDecimal> findPricePercentile(double percentile) {
+        requireValidPercentile(percentile);
+        return WarehouseShard.readAllIndexes(warehouse.shards(),
+                indexes -> percentileOf(indexes.stream().map(ProductIndexes::priceRanks).toList(), percentile));
+    }
+
+    //Price at the given percentile within one category; see findPricePercentile(double)
+    public Optional<BigDecimal> findPricePercentile(Category category, double percentile) {
+        requireValidPercentile(percentile);
+        return WarehouseShard.readAllIndexes(warehouse.shards(),
+                indexes -> percentileOf(indexes.stream().map(ix -> ix.priceRanks(category)).toList(), percentile));
+    }
+
+    //Price at the given percentile for every category, from one consistent state of all shards
+    public Map<Category, BigDecimal> findPricePercentileByCategory(double percentile) {
+        requireValidPercentile(percentile);
+        return WarehouseShard.readAllIndexes(warehouse.shards(), indexes -> {
+            Set<Category> categories = new HashSet<>();
+            indexes.forEach(ix -> categories.addAll(ix.categories()));
+            Map<Category, BigDecimal> result = new HashMap<>();
+            for (Category category : categories) {
+                percentileOf(indexes.stream().map(ix -> ix.priceRanks(category)).toList(), percentile)
+                        .ifPresent(price -> result.put(category, price));
+            }
+            return result;
+        });
+    }
+
+    /**
+     * Counts products per price bucket. The boundaries b1 < b2 < ... < bm split prices into
+     * m + 1 buckets: below b1, [b1, b2), ..., [bm-1, bm) and bm or above. Each bucket costs
+     * two rank lookups per shard, so the histogram is independent of the number of products.
+     *
+     * @param boundaries strictly increasing bucket boundaries
+     * @return buckets in price order, including empty ones
+     * @throws IllegalArgumentException if the boundaries are not strictly increasing
+     */
+    public List<PriceBucket> getPriceHistogram(BigDecimal... boundaries) {
+        return histogram(ProductIndexes::priceRanks, boundaries);
+    }
+
+    //Price histogram of one category's products; see getPriceHistogram(BigDecimal...)
+    public List<PriceBucket> getPriceHistogram(Category category, BigDecimal... boundaries) {
+        return histogram(ix -> ix.priceRanks(category), boundaries);
+    }
+
+    //Sums per-shard bucket counts obtained by ranking each boundary
+    private List<PriceBucket> histogram(Function<ProductIndexes, PriceRankTree> ranks, BigDecimal[] boundaries) {
+        for (int i = 1; i < boundaries.length; i++) {
+            if (boundaries[i].compareTo(boundaries[i - 1]) <= 0) {
+                throw new IllegalArgumentException("Histogram boundaries must be strictly increasing.");
             }
         }
-        List<ShippingGroup> groups = new ArrayList<>();
-        for (List<Shippable> bin : bins) groups.add(new ShippingGroup(bin));
-        return groups;
+        long[] counts = fanOutShards(shard -> shard.readIndexes(ix -> {
+            PriceRankTree tree = ranks.apply(ix);
+            long[] partial = new long[boundaries.length + 1];
+            int below = 0;
+            for (int i = 0; i < boundaries.length; i++) {
+                int rank = tree.countBelow(boundaries[i]);
+                partial[i] = rank - below;
+                below = rank;
+            }
+            partial[boundaries.length] = tree.size() - below;
+            return partial;
+        }), (a, b) -> {
+            for (int i = 0; i < a.length; i++) a[i] += b[i];
+            return a;
+        });
+        List<PriceBucket> buckets = new ArrayList<>(counts.length);
+        for (int i = 0; i < counts.length; i++) {
+            buckets.add(new PriceBucket(i == 0 ? null : boundaries[i - 1],
+                    i == boundaries.length ? null : boundaries[i], counts[i]));
+        }
+        return buckets;
     }
-    
+
+    //Nearest-rank percentile over the combined trees
+    private static Optional<BigDecimal> percentileOf(List<PriceRankTree> trees, double percentile) {
+        long total = trees.stream().mapToLong(PriceRankTree::size).sum();
+        if (total == 0) return Optional.empty();
+        return Optional.of(PriceRankTree.select(trees, nearestRank(percentile, total) - 1).price());
+    }
+
+    //1-based nearest rank, ceil(percentile / 100 * total) computed exactly; 7.0 / 100 * 100 is not 7 in doubles
+    static long nearestRank(double percentile, long total) {
+        long rank = BigDecimal.valueOf(percentile).multiply(BigDecimal.valueOf(total))
+                .divide(ONE_HUNDRED, 0, RoundingMode.CEILING).longValueExact();
+        return Math.max(1, rank);
+    }
+
+    private static void requireValidPercentile(double percentile) {
+        if (!(percentile >= 0 && percentile <= 100)) {
+            throw new IllegalArgumentException("Percentile must be between 0 and 100.");
+        }
+    }
+
     // Business Rules Methods
     /**
      * Calculates discounted prices for perishable products based on proximity to expiration.
-     * Discount rules from tests:
+     * Discount rules from tests (the default {@link DiscountTiers#standard()} table):
      *  - Expires today: 50% discount (price * 0.50)
      *  - Expires tomorrow: 30% discount (price * 0.70)
      *  - Expires within 3 days: 15% discount (price * 0.85)
      *  - Otherwise (including >3 days ahead): no discount
      * Non-perishable products should retain their original price.
+     * Prices are read from the warehouse's daily price book instead of being recomputed;
+     * for a single product use {@link Warehouse#getDiscountedPrice(UUID)}.
      *
      * @return a map from Product to its discounted price
      */
     public Map<Product, BigDecimal> calculateExpirationBasedDiscounts() {
-        Map<Product, BigDecimal> result = new HashMap<>();
-        LocalDate today = LocalDate.now();
-        for (Product p : warehouse.getProducts()) {
-            BigDecimal discounted = p.price();
-            if (p instanceof Perishable per) {
-                LocalDate exp = per.expirationDate();
-                long daysBetween = java.time.temporal.ChronoUnit.DAYS.between(today, exp);
-                if (daysBetween == 0) {
-                    discounted = p.price().multiply(new BigDecimal("0.50"));
-                } else if (daysBetween == 1) {
-                    discounted = p.price().multiply(new BigDecimal("0.70"));
-                } else if (daysBetween > 1 && daysBetween <= 3) {
-                    discounted = p.price().multiply(new BigDecimal("0.85"));
-                } else {
-                    discounted = p.price();
-                }
-                discounted = discounted.setScale(2, RoundingMode.HALF_UP);
-            }
-            result.put(p, discounted);
-        }
-        return result;
+        warehouse.ensurePriceBooks();
+        return fanOutShards(WarehouseShard::discountedPrices, (a, b) -> {
+            a.putAll(b);
+            return a;
+        });
     }
     
     /**
@@ -259,13 +674,28 @@ class WarehouseAnalyzer {
      * @return InventoryValidation summary with computed metrics
      */
     public InventoryValidation validateInventoryConstraints() {
-        List<Product> items = warehouse.getProducts();
-        if (items.isEmpty()) return new InventoryValidation(0.0, 0);
-        BigDecimal highValueThreshold = new BigDecimal("1000");
-        long highValueCount = items.stream().filter(p -> p.price().compareTo(highValueThreshold) >= 0).count();
-        double percentage = (highValueCount * 100.0) / items.size();
-        int diversity = (int) items.stream().map(Product::category).distinct().count();
-        return new InventoryValidation(percentage, diversity);
+        return cached("validateInventoryConstraints", List.of(), () -> validationCounts().toValidation());
+    }
+
+    //High-value and category counts, merged over all shards
+    ValidationCounts validationCounts() {
+        BigDecimal threshold = ValidationCounts.HIGH_VALUE_THRESHOLD;
+        return fanOutPrices((products, prices, from, to) -> {
+            long[] above = PriceFilter.bitmap(to - from);
+            long[] onBound = PriceFilter.bitmap(to - from);
+            PriceFilter.INSTANCE.select(prices, from, to, threshold.doubleValue(), Double.POSITIVE_INFINITY, above, onBound);
+            long highValueCount = 0;
+            for (int word = 0; word < above.length; word++) {
+                highValueCount += Long.bitCount(above[word]);
+                for (long bits = onBound[word]; bits != 0; bits &= bits - 1) {
+                    int row = from + (word << 6 | Long.numberOfTrailingZeros(bits));
+                    if (products.get(row).price().compareTo(threshold) >= 0) {
+                        highValueCount++;
+                    }
+                }
+            }
+            return ValidationCounts.of(products.subList(from, to), highValueCount);
+        }, ValidationCounts::merge);
     }
     
     /**
@@ -281,20 +711,263 @@ class WarehouseAnalyzer {
      * @return InventoryStatistics snapshot containing aggregated metrics
      */
     public InventoryStatistics getInventoryStatistics() {
-        List<Product> items = warehouse.getProducts();
-        int totalProducts = items.size();
-        BigDecimal totalValue = items.stream().map(Product::price).reduce(BigDecimal.ZERO, BigDecimal::add);
-        BigDecimal averagePrice = totalProducts == 0 ? BigDecimal.ZERO : totalValue.divide(BigDecimal.valueOf(totalProducts), 2, RoundingMode.HALF_UP);
+        //The expired count depends on the day as well as the products
+        LocalDate today = LocalDate.now();
+        return cached("inventoryStatistics", List.of(today), () -> statisticsTotals(today).toStatistics());
+    }
+
+    //Counts, sums and price extremes, merged over all shards
+    StatisticsTotals statisticsTotals() {
+        return statisticsTotals(LocalDate.now());
+    }
+
+    private StatisticsTotals statisticsTotals(LocalDate today) {
+        return fanOut(products -> StatisticsTotals.of(products, today), StatisticsTotals::merge);
+    }
+
+    /**
+     * Refreshes the whole dashboard, running its seven analyses concurrently on virtual threads
+     * in one structured task scope. If any analysis fails, the others are cancelled and the call
+     * fails; the same happens when the timeout passes or the calling thread is interrupted.
+     * The result is consistent: if the warehouse changes while the analyses run, they are run
+     * again, up to MAX_DASHBOARD_ATTEMPTS times within the same timeout.
+     *
+     * @param timeout time allowed for the whole refresh
+     * @return the dashboard, computed at a single warehouse version
+     * @throws IllegalArgumentException if timeout is null or not positive
+     * @throws StructuredTaskScope.FailedException if an analysis fails (the cause is its exception)
+     * @throws StructuredTaskScope.TimeoutException if the timeout passes first
+     * @throws ConcurrentModificationException if the warehouse changed during every attempt
+     * @throws InterruptedException if the calling thread is interrupted; running analyses are cancelled
+     */
+    public InventoryDashboard getDashboard(Duration timeout) throws InterruptedException {
+        if (timeout == null || !timeout.isPositive()) {
+            throw new IllegalArgumentException("Timeout must be positive.");
+        }
+        Instant deadline = Instant.now().plus(timeout);
+        for (int attempt = 1; ; attempt++) {
+            long version = warehouse.getVersion();
+            //An already passed deadline still goes through the scope, which then times out
+            Duration remaining = Duration.between(Instant.now(), deadline);
+            InventoryDashboard dashboard = dashboardAt(version, remaining.isPositive() ? remaining : Duration.ofNanos(1));
+            if (warehouse.getVersion() == version) {
+                return dashboard;
+            }
+            if (attempt == MAX_DASHBOARD_ATTEMPTS) {
+                throw new ConcurrentModificationException(
+                        "Warehouse " + warehouse.getName() + " changed during every dashboard refresh.");
+            }
+        }
+    }
+
+    //Runs the dashboard analyses as sibling subtasks; any failure cancels the rest
+    private InventoryDashboard dashboardAt(long version, Duration timeout) throws InterruptedException {
+        try (var scope = StructuredTaskScope.open(StructuredTaskScope.Joiner.<Object>awaitAllSuccessfulOrThrow(),
+                config -> config.withName("dashboard-" + warehouse.getName()).withTimeout(timeout))) {
+            Subtask<InventoryStatistics> statistics = scope.fork(this::getInventoryStatistics);
+            Subtask<InventoryValidation> validation = scope.fork(this::validateInventoryConstraints);
+            Subtask<Map<Category, BigDecimal>> averages = scope.fork(this::calculateWeightedAveragePriceByCategory);
+            Subtask<List<Perishable>> expiring = scope.fork(
+                    () -> findProductsExpiringWithinDays(InventoryDashboard.EXPIRING_WITHIN_DAYS));
+            Subtask<Map<Product, BigDecimal>> discounts = scope.fork(this::calculateExpirationBasedDiscounts);
+            Subtask<List<Product>> outliers = scope.fork(
+                    () -> findPriceOutliers(InventoryDashboard.OUTLIER_DEVIATIONS));
+            Subtask<List<Product>> mostExpensive = scope.fork(
+                    () -> findMostExpensiveProducts(InventoryDashboard.TOP_PRODUCTS));
+            scope.join();
+            return new InventoryDashboard(version, statistics.get(), validation.get(), averages.get(),
+                    expiring.get(), discounts.get(), outliers.get(), mostExpensive.get());
+        }
+    }
+
+    // Approximate Analytics Methods
+    // Answered from per-shard sketches in time independent of the number of products.
+    // Sketches are insert-only; call Warehouse.rebuildSketches() after many removals or price updates.
+
+    /**
+     * Approximate counterpart of {@link #validateInventoryConstraints()}.
+     * The category count is within about 1.6% (near exact for small counts) and the
+     * high-value percentage within about 1.65 percentage points.
+     *
+     * @return InventoryValidation estimated from the sketches
+     */
+    public InventoryValidation estimateInventoryConstraints() {
+        return sketch().toValidation();
+    }
+
+    //Estimated number of distinct categories
+    public long estimateDistinctCategories() {
+        return sketch().distinctCategories();
+    }
+
+    /**
+     * Estimates a price quantile, e.g. 0.5 for the median or 0.99 for the 99th percentile.
+     * The returned price has a true rank within about 1.65% of the requested one.
+     *
+     * @param q quantile in [0, 1]
+     * @return estimated price rounded to 2 decimals, or empty if the warehouse is empty
+     * @throws IllegalArgumentException if q is outside [0, 1]
+     */
+    public Optional<BigDecimal> estimatePriceQuantile(double q) {
+        return quantile(sketch(), q);
+    }
+
+    //Merged copy of all shard sketches
+    InventorySketch sketch() {
+        return fanOutShards(WarehouseShard::copySketch, InventorySketch::merge);
+    }
+
+    //Reads a quantile from a sketch as a price
+    static Optional<BigDecimal> quantile(InventorySketch sketch, double q) {
+        double value = sketch.priceQuantile(q);
+        if (Double.isNaN(value)) return Optional.empty();
+        return Optional.of(BigDecimal.valueOf(value).setScale(2, RoundingMode.HALF_UP));
+    }
+}
+
+/**
+ * Weighted and plain price sums for one category.
+ * Sums are kept exact so partial results from shards or warehouses can be combined
+ * before dividing, instead of averaging averages.
+ */
+record CategoryPriceSums(BigDecimal weightedSum, BigDecimal weightSum, BigDecimal priceSum, long count) {
+
+    //Sums for a single product; only products with a positive weight contribute to the weighted part
+    static CategoryPriceSums of(Product p) {
+        BigDecimal weightedSum = BigDecimal.ZERO;
+        BigDecimal weightSum = BigDecimal.ZERO;
+        if (p instanceof Shippable s && s.weight() > 0) {
+            weightSum = BigDecimal.valueOf(s.weight());
+            weightedSum = p.price().multiply(weightSum);
+        }
+        return new CategoryPriceSums(weightedSum, weightSum, p.price(), 1);
+    }
+
+    CategoryPriceSums merge(CategoryPriceSums other) {
+        return new CategoryPriceSums(weightedSum.add(other.weightedSum), weightSum.add(other.weightSum),
+                priceSum.add(other.priceSum), count + other.count);
+    }
+
+    //Merges the right map into the left one and returns it
+    static Map<Category, CategoryPriceSums> mergeAll(Map<Category, CategoryPriceSums> left,
+                                                     Map<Category, CategoryPriceSums> right) {
+        right.forEach((cat, sums) -> left.merge(cat, sums, CategoryPriceSums::merge));
+        return left;
+    }
+
+    //Weighted average when any weight is present, otherwise the arithmetic mean, rounded to 2 decimals
+    BigDecimal average() {
+        if (weightSum.signum() > 0) {
+            return weightedSum.divide(weightSum, 2, RoundingMode.HALF_UP);
+        }
+        return priceSum.divide(BigDecimal.valueOf(count), 2, RoundingMode.HALF_UP);
+    }
+}
+
+/**
+ * Count, sum and sum of squares of product prices, kept as exact decimals.
+ * Merging adds the parts, so the merged moments do not depend on how the products were
+ * split; mean and variance are derived once from the exact totals.
+ */
+record PriceMoments(long count, BigDecimal sum, BigDecimal sumOfSquares) {
+    static PriceMoments of(List<Product> products) {
+        BigDecimal sum = BigDecimal.ZERO;
+        BigDecimal sumOfSquares = BigDecimal.ZERO;
+        for (Product p : products) {
+            BigDecimal x = p.price();
+            sum = sum.add(x);
+            sumOfSquares = sumOfSquares.add(x.multiply(x));
+        }
+        return new PriceMoments(products.size(), sum, sumOfSquares);
+    }
+
+    PriceMoments merge(PriceMoments other) {
+        return new PriceMoments(count + other.count, sum.add(other.sum), sumOfSquares.add(other.sumOfSquares));
+    }
+
+    double mean() {
+        return count == 0 ? 0.0 : sum.divide(BigDecimal.valueOf(count), MathContext.DECIMAL128).doubleValue();
+    }
+
+    //Population variance is (n * sum(x^2) - sum(x)^2) / n^2, computed exactly up to the final division
+    double populationStdDev() {
+        if (count == 0) return 0.0;
+        BigDecimal n = BigDecimal.valueOf(count);
+        BigDecimal numerator = sumOfSquares.multiply(n).subtract(sum.multiply(sum));
+        BigDecimal variance = numerator.divide(n.multiply(n), MathContext.DECIMAL128);
+        return variance.sqrt(MathContext.DECIMAL64).doubleValue();
+    }
+}
+
+/**
+ * Partial counts behind {@link InventoryValidation}.
+ */
+record ValidationCounts(int totalCount, long highValueCount, Set<Category> categories) {
+    static final BigDecimal HIGH_VALUE_THRESHOLD = new BigDecimal("1000");
+
+    //Counts for the given products, with the high-value count taken from a price column scan
+    static ValidationCounts of(List<Product> products, long highValueCount) {
+        Set<Category> categories = new HashSet<>();
+        for (Product p : products) {
+            categories.add(p.category());
+        }
+        return new ValidationCounts(products.size(), highValueCount, categories);
+    }
+
+    ValidationCounts merge(ValidationCounts other) {
+        Set<Category> union = new HashSet<>(categories);
+        union.addAll(other.categories);
+        return new ValidationCounts(totalCount + other.totalCount, highValueCount + other.highValueCount, union);
+    }
+
+    InventoryValidation toValidation() {
+        if (totalCount == 0) return new InventoryValidation(0.0, 0);
+        double percentage = (highValueCount * 100.0) / totalCount;
+        return new InventoryValidation(percentage, categories.size());
+    }
+}
+
+/**
+ * Partial totals behind {@link InventoryStatistics}.
+ * On price ties the earlier product wins, matching a sequential scan.
+ */
+record StatisticsTotals(int totalProducts, BigDecimal totalValue, int expiredCount, Set<Category> categories,
+                        Product mostExpensive, Product cheapest) {
+
+    static StatisticsTotals of(List<Product> products, LocalDate today) {
+        BigDecimal totalValue = BigDecimal.ZERO;
         int expiredCount = 0;
-        for (Product p : items) {
-            if (p instanceof Perishable per && per.expirationDate().isBefore(LocalDate.now())) {
+        Set<Category> categories = new HashSet<>();
+        Product mostExpensive = null;
+        Product cheapest = null;
+        for (Product p : products) {
+            totalValue = totalValue.add(p.price());
+            if (p instanceof Perishable per && per.expirationDate().isBefore(today)) {
                 expiredCount++;
             }
+            categories.add(p.category());
+            if (mostExpensive == null || p.price().compareTo(mostExpensive.price()) > 0) mostExpensive = p;
+            if (cheapest == null || p.price().compareTo(cheapest.price()) < 0) cheapest = p;
         }
-        int categoryCount = (int) items.stream().map(Product::category).distinct().count();
-        Product mostExpensive = items.stream().max(Comparator.comparing(Product::price)).orElse(null);
-        Product cheapest = items.stream().min(Comparator.comparing(Product::price)).orElse(null);
-        return new InventoryStatistics(totalProducts, totalValue, averagePrice, expiredCount, categoryCount, mostExpensive, cheapest);
+        return new StatisticsTotals(products.size(), totalValue, expiredCount, categories, mostExpensive, cheapest);
+    }
+
+    StatisticsTotals merge(StatisticsTotals other) {
+        Set<Category> union = new HashSet<>(categories);
+        union.addAll(other.categories);
+        Product max = mostExpensive == null || (other.mostExpensive != null
+                && other.mostExpensive.price().compareTo(mostExpensive.price()) > 0) ? other.mostExpensive : mostExpensive;
+        Product min = cheapest == null || (other.cheapest != null
+                && other.cheapest.price().compareTo(cheapest.price()) < 0) ? other.cheapest : cheapest;
+        return new StatisticsTotals(totalProducts + other.totalProducts, totalValue.add(other.totalValue),
+                expiredCount + other.expiredCount, union, max, min);
+    }
+
+    InventoryStatistics toStatistics() {
+        BigDecimal averagePrice = totalProducts == 0 ? BigDecimal.ZERO
+                : totalValue.divide(BigDecimal.valueOf(totalProducts), 2, RoundingMode.HALF_UP);
+        return new InventoryStatistics(totalProducts, totalValue, averagePrice, expiredCount, categories.size(),
+                mostExpensive, cheapest);
     }
 }
 
@@ -316,11 +989,38 @@ class ShippingGroup {
                 .reduce(BigDecimal.ZERO, BigDecimal::add);
     }
 
+    //Creates a group whose totals were kept up to date by the caller
+    ShippingGroup(List<Shippable> products, double totalWeight, BigDecimal totalShippingCost) {
+        this.products = new ArrayList<>(products);
+        this.totalWeight = totalWeight;
+        this.totalShippingCost = totalShippingCost;
+    }
+
     public List<Shippable> getProducts() { return new ArrayList<>(products); }
     public Double getTotalWeight() { return totalWeight; }
     public BigDecimal getTotalShippingCost() { return totalShippingCost; }
 }
 
+/**
+ * Number of products in one price bucket of a histogram.
+ * A null bound means the bucket is unbounded on that side; lower bounds are inclusive, upper bounds exclusive.
+ */
+class PriceBucket {
+    private final BigDecimal lowerBound;
+    private final BigDecimal upperBound;
+    private final long count;
+
+    public PriceBucket(BigDecimal lowerBound, BigDecimal upperBound, long count) {
+        this.lowerBound = lowerBound;
+        this.upperBound = upperBound;
+        this.count = count;
+    }
+
+    public BigDecimal getLowerBound() { return lowerBound; }
+    public BigDecimal getUpperBound() { return upperBound; }
+    public long getCount() { return count; }
+}
+
 /**
  * Validation result for inventory constraints
  */
@@ -0,0 +1,334 @@
+package com.example;
+
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+
+import java.io.*;
+import java.math.BigDecimal;
+import java.net.InetSocketAddress;
+import java.net.URLDecoder;
+import java.nio.charset.StandardCharsets;
+import java.util.*;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+/**
+ * Optional embedded HTTP endpoint serving a warehouse and its analyzer as JSON.
+ * Every request is handled on its own virtual thread, and responses are streamed
+ * with chunked transfer encoding instead of being buffered. Unknown ids map to 404, invalid
+ * input to 400 and any other failure to 500; a failure after the body has started drops the
+ * connection, so the client sees a cut-off response rather than a truncated 200.
+ *
+ * Routes:
+ *  - GET  /products                              all products in (price, id) order, read page by page
+ *  - GET  /products/{uuid}                       one product, 404 if unknown
+ *  - PUT  /products/{uuid}/price                 body: new price as a plain decimal, e.g. "17.00"
+ *  - GET  /analytics/price-range?min=..&max=..
+ *  - GET  /analytics/expiring?days=..
+ *  - GET  /analytics/search?q=..
+ *  - GET  /analytics/above-price?price=..
+ *  - GET  /analytics/weighted-averages
+ *  - GET  /analytics/outliers?sd=..
+ *  - GET  /analytics/shipping-groups?maxWeight=..
+ *  - GET  /analytics/discounts
+ *  - GET  /analytics/validation
+ *  - GET  /analytics/statistics
+ */
+public final class WarehouseHttpServer implements AutoCloseable {
+    //Pending connections the OS may queue before accept()
+    private static final int BACKLOG = 65_536;
+    //Size of the write buffer in front of the chunked response stream
+    private static final int RESPONSE_BUFFER_SIZE = 16 * 1024;
+
+    private final Warehouse warehouse;
+    private final WarehouseAnalyzer analyzer;
+    private final HttpServer server;
+    private final ExecutorService executor;
+
+    private WarehouseHttpServer(Warehouse warehouse, HttpServer server, ExecutorService executor) {
+        this.warehouse = warehouse;
+        this.analyzer = new WarehouseAnalyzer(warehouse);
+        this.server = server;
+        this.executor = executor;
+    }
+
+    /**
+     * Starts serving the given warehouse on localhost.
+     * @param warehouse Warehouse to expose.
+     * @param port TCP port, or 0 to pick a free one.
+     * @return The running server; close it to stop.
+     * @throws IOException if the port cannot be bound.
+     */
+    public static WarehouseHttpServer start(Warehouse warehouse, int port) throws IOException {
+        HttpServer server = HttpServer.create(new InetSocketAddress("localhost", port), BACKLOG);
+        ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor();
+        WarehouseHttpServer httpServer = new WarehouseHttpServer(warehouse, server, executor);
+        server.createContext("/", httpServer::handle);
+        server.setExecutor(executor);
+        server.start();
+        return httpServer;
+    }
+
+    //Returns the port the server is listening on.
+    public int getPort() {
+        return server.getAddress().getPort();
+    }
+
+    //Stops the server and waits for in-flight requests to finish.
+    @Override
+    public void close() {
+        server.stop(0);
+        executor.close();
+    }
+
+    /**
+     * Handles a request and maps exceptions to HTTP status codes.
+     * Once the response headers are sent the status can no longer change, so a failure while the
+     * body streams is rethrown without closing the exchange: the server then drops the connection
+     * instead of ending the chunked body as if it were complete.
+     */
+    private void handle(HttpExchange exchange) throws IOException {
+        try {
+            dispatch(exchange);
+        } catch (RuntimeException e) {
+            if (exchange.getResponseCode() != -1) {
+                throw e;
+            }
+            switch (e) {
+                case NoSuchElementException _ -> sendError(exchange, 404, e.getMessage());
+                case IllegalArgumentException _ -> sendError(exchange, 400, e.getMessage());
+                default -> {
+                    Thread current = Thread.currentThread();
+                    current.getUncaughtExceptionHandler().uncaughtException(current, e);
+                    sendError(exchange, 500, "Internal server error.");
+                }
+            }
+        }
+        exchange.close();
+    }
+
+    //Routes a request to its handler
+    private void dispatch(HttpExchange exchange) throws IOException {
+        String[] path = exchange.getRequestURI().getPath().replaceAll("^/+|/+$", "").split("/");
+        Map<String, String> query = parseQuery(exchange.getRequestURI().getRawQuery());
+        String method = exchange.getRequestMethod();
+        if (path[0].equals("products")) {
+            handleProducts(exchange, method, path);
+        } else if (path[0].equals("analytics") && path.length == 2 && method.equals("GET")) {
+            handleAnalytics(exchange, path[1], query);
+        } else {
+            sendError(exchange, 404, "Not found.");
+        }
+    }
+
+    //Routes /products, /products/{uuid} and /products/{uuid}/price
+    private void handleProducts(HttpExchange exchange, String method, String[] path) throws IOException {
+        if (path.length == 1 && method.equals("GET")) {
+            //Pages are fetched while the body is written, so the inventory is never copied in full
+            Iterable<Product> products = warehouse.stream(ProductQuery.where())::iterator;
+            respond(exchange, json -> writeArray(json, products, WarehouseHttpServer::writeProduct));
+        } else if (path.length == 2 && method.equals("GET")) {
+            UUID id = UUID.fromString(path[1]);
+            Product product = warehouse.getProductById(id)
+                    .orElseThrow(() -> new NoSuchElementException("Product not found with id: " + id));
+            respond(exchange, json -> writeProduct(json, product));
+        } else if (path.length == 3 && path[2].equals("price") && (method.equals("PUT") || method.equals("POST"))) {
+            UUID id = UUID.fromString(path[1]);
+            BigDecimal price = new BigDecimal(new String(exchange.getRequestBody().readAllBytes(),
+                    StandardCharsets.UTF_8).trim());
+            if (price.signum() < 0) {
+                throw new IllegalArgumentException("Price cannot be negative.");
+            }
+            warehouse.updateProductPrice(id, price);
+            Product product = warehouse.getProductById(id).orElseThrow();
+            respond(exchange, json -> writeProduct(json, product));
+        } else {
+            sendError(exchange, 405, "Method not allowed.");
+        }
+    }
+
+    //Runs one analyzer query and writes its result
+    private void handleAnalytics(HttpExchange exchange, String query, Map<String, String> params) throws IOException {
+        switch (query) {
+            case "price-range" -> {
+                List<Product> result = analyzer.findProductsInPriceRange(decimalParam(params, "min"), decimalParam(params, "max"));
+                respond(exchange, json -> writeArray(json, result, WarehouseHttpServer::writeProduct));
+            }
+            case "expiring" -> {
+                List<Perishable> result = analyzer.findProductsExpiringWithinDays(Integer.parseInt(param(params, "days")));
+                respond(exchange, json -> writeArray(json, result, (j, p) -> writeProduct(j, (Product) p)));
+            }
+            case "search" -> {
+                List<Product> result = analyzer.searchProductsByName(param(params, "q"));
+                respond(exchange, json -> writeArray(json, result, WarehouseHttpServer::writeProduct));
+            }
+            case "above-price" -> {
+                List<Product> result = analyzer.findProductsAbovePrice(decimalParam(params, "price"));
+                respond(exchange, json -> writeArray(json, result, WarehouseHttpServer::writeProduct));
+            }
+            case "weighted-averages" -> {
+                Map<Category, BigDecimal> result = analyzer.calculateWeightedAveragePriceByCategory();
+                respond(exchange, json -> {
+                    json.beginObject();
+                    for (Map.Entry<Category, BigDecimal> e : result.entrySet()) {
+                        json.name(e.getKey().getName()).value(e.getValue());
+                    }
+                    json.endObject();
+                });
+            }
+            case "outliers" -> {
+                List<Product> result = analyzer.findPriceOutliers(Double.parseDouble(param(params, "sd")));
+                respond(exchange, json -> writeArray(json, result, WarehouseHttpServer::writeProduct));
+            }
+            case "shipping-groups" -> {
+                List<ShippingGroup> result = analyzer.optimizeShippingGroups(decimalParam(params, "maxWeight"));
+                respond(exchange, json -> writeArray(json, result, WarehouseHttpServer::writeShippingGroup));
+            }
+            case "discounts" -> {
+                Map<Product, BigDecimal> result = analyzer.calculateExpirationBasedDiscounts();
+                respond(exchange, json -> {
+                    json.beginArray();
+                    for (Map.Entry<Product, BigDecimal> e : result.entrySet()) {
+                        json.beginObject()
+                                .name("id").value(e.getKey().uuid().toString())
+                                .name("price").value(e.getKey().price())
+                                .name("discountedPrice").value(e.getValue())
+                                .endObject();
+                    }
+                    json.endArray();
+                });
+            }
+            case "validation" -> {
+                InventoryValidation v = analyzer.validateInventoryConstraints();
+                respond(exchange, json -> json.beginObject()
+                        .name("highValuePercentage").value(v.getHighValuePercentage())
+                        .name("categoryDiversity").value(v.getCategoryDiversity())
+                        .name("highValueWarning").value(v.isHighValueWarning())
+                        .name("minimumDiversity").value(v.hasMinimumDiversity())
+                        .endObject());
+            }
+            case "statistics" -> {
+                InventoryStatistics s = analyzer.getInventoryStatistics();
+                respond(exchange, json -> {
+                    json.beginObject()
+                            .name("totalProducts").value(s.getTotalProducts())
+                            .name("totalValue").value(s.getTotalValue())
+                            .name("averagePrice").value(s.getAveragePrice())
+                            .name("expiredCount").value(s.getExpiredCount())
+                            .name("categoryCount").value(s.getCategoryCount())
+                            .name("mostExpensiveProduct");
+                    writeProduct(json, s.getMostExpensiveProduct());
+                    json.name("cheapestProduct");
+                    writeProduct(json, s.getCheapestProduct());
+                    json.endObject();
+                });
+            }
+            default -> sendError(exchange, 404, "Unknown query: " + query);
+        }
+    }
+
+    //Writes a product as a JSON object, or null
+    static void writeProduct(JsonWriter json, Product p) throws IOException {
+        if (p == null) {
+            json.nullValue();
+            return;
+        }
+        json.beginObject()
+                .name("id").value(p.uuid().toString())
+                .name("name").value(p.name())
+                .name("category").value(p.category().getName())
+                .name("price").value(p.price());
+        if (p instanceof FoodProduct food) {
+            json.name("type").value("food")
+                    .name("expirationDate").value(food.expirationDate().toString())
+                    .name("weight").value(food.weight());
+        } else if (p instanceof ElectronicsProduct electronics) {
+            json.name("type").value("electronics")
+                    .name("warrantyMonths").value(electronics.getWarrantyMonths())
+                    .name("weight").value(electronics.weight());
+        }
+        json.endObject();
+    }
+
+    //Writes a shipping group with its totals and the weights of its items
+    private static void writeShippingGroup(JsonWriter json, ShippingGroup group) throws IOException {
+        json.beginObject()
+                .name("totalWeight").value(group.getTotalWeight())
+                .name("totalShippingCost").value(group.getTotalShippingCost())
+                .name("products").beginArray();
+        for (Shippable s : group.getProducts()) {
+            if (s instanceof Product p) {
+                json.value(p.uuid().toString());
+            }
+        }
+        json.endArray().endObject();
+    }
+
+    //Writes each element with the given element writer
+    private static <T> void writeArray(JsonWriter json, Iterable<T> items, ElementWriter<T> element) throws IOException {
+        json.beginArray();
+        for (T item : items) {
+            element.write(json, item);
+        }
+        json.endArray();
+    }
+
+    //Writes one element of a JSON array
+    @FunctionalInterface
+    private interface ElementWriter<T> {
+        void write(JsonWriter json, T item) throws IOException;
+    }
+
+    //Writes a complete JSON body
+    @FunctionalInterface
+    private interface Body {
+        void write(JsonWriter json) throws IOException;
+    }
+
+    //Sends a 200 response whose body is streamed in chunks while it is being written
+    private static void respond(HttpExchange exchange, Body body) throws IOException {
+        exchange.getResponseHeaders().set("Content-Type", "application/json; charset=utf-8");
+        exchange.sendResponseHeaders(200, 0);
+        Writer writer = new BufferedWriter(new OutputStreamWriter(exchange.getResponseBody(), StandardCharsets.UTF_8),
+                RESPONSE_BUFFER_SIZE);
+        body.write(new JsonWriter(writer));
+        writer.flush();
+    }
+
+    //Sends an error status with a small JSON body
+    private static void sendError(HttpExchange exchange, int status, String message) throws IOException {
+        StringWriter body = new StringWriter();
+        new JsonWriter(body).beginObject().name("error").value(message).endObject();
+        byte[] bytes = body.toString().getBytes(StandardCharsets.UTF_8);
+        exchange.getResponseHeaders().set("Content-Type", "application/json; charset=utf-8");
+        exchange.sendResponseHeaders(status, bytes.length);
+        exchange.getResponseBody().write(bytes);
+    }
+
+    //Parses a raw query string into decoded key/value pairs
+    private static Map<String, String> parseQuery(String rawQuery) {
+        Map<String, String> params = new HashMap<>();
+        if (rawQuery == null || rawQuery.isEmpty()) return params;
+        for (String pair : rawQuery.split("&")) {
+            int eq = pair.indexOf('=');
+            String key = eq < 0 ? pair : pair.substring(0, eq);
+            String value = eq < 0 ? "" : pair.substring(eq + 1);
+            params.put(URLDecoder.decode(key, StandardCharsets.UTF_8), URLDecoder.decode(value, StandardCharsets.UTF_8));
+        }
+        return params;
+    }
+
+    //Returns a required query parameter
+    private static String param(Map<String, String> params, String name) {
+        String value = params.get(name);
+        if (value == null) {
+            throw new IllegalArgumentException("Missing query parameter: " + name);
+        }
+        return value;
+    }
+
+    //Returns a required decimal query parameter
+    private static BigDecimal decimalParam(Map<String, String> params, String name) {
+        return new BigDecimal(param(params, name));
+    }
+}
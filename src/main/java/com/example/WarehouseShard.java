@@ -0,0 +1,511 @@
+package com.example;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.*;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.function.Function;
+import java.util.function.Supplier;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+/**
+ * One hash partition of a warehouse's products.
+ * Every shard is guarded by its own read/write lock, so point operations on
+ * different shards never contend and scans can run on all shards in parallel.
+ */
+class WarehouseShard {
+    //Lock guarding all state in this shard
+    private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+    //Primary storage for this shard's products
+    private final ProductStore store;
+    //The store's heap rows, or null if it has none
+    private final ProductRows rows;
+    //Secondary indexes used by the query planner
+    private final ProductIndexes indexes = new ProductIndexes();
+    //Products stored in this shard, in no particular order (live view of the rows or the price index)
+    private final List<Product> products;
+    //Approximate summary maintained on insert for approximate analytics
+    private final InventorySketch sketch = new InventorySketch();
+    //Discounted prices for the current day; replaced as a whole at day rollover
+    private volatile PriceBook priceBook = new PriceBook(LocalDate.now(), DiscountTiers.standard());
+
+    //Creates a shard over a heap store
+    WarehouseShard() {
+        this(new InMemoryProductStore());
+    }
+
+    /**
+     * Creates a shard over the given store. Stores with {@link ProductRows} are scanned by row;
+     * over other stores, scans walk the price index and products are never seen as idle.
+     * @param store Empty, thread-safe store owned by this shard.
+     */
+    WarehouseShard(ProductStore store) {
+        this.store = store;
+        this.rows = store instanceof ProductRows heapRows ? heapRows : null;
+        this.products = rows != null ? rows.asList() : indexes.priceRanks().asList();
+    }
+
+    /**
+     * Returns the shard index a product id belongs to.
+     * @param id Product id.
+     * @param shardCount Total number of shards (must be >= 1).
+     * @return Index in the range [0, shardCount).
+     */
+    static int indexFor(UUID id, int shardCount) {
+        return indexFor(id.getMostSignificantBits(), id.getLeastSignificantBits(), shardCount);
+    }
+
+    //Returns the shard index for a product id given as its two halves; see indexFor(UUID, int)
+    static int indexFor(long msb, long lsb, int shardCount) {
+        long bits = msb ^ lsb;
+        int hash = (int) (bits ^ (bits >>> 32));
+        //Spread the high bits down, like HashMap does
+        hash ^= hash >>> 16;
+        return Math.floorMod(hash, shardCount);
+    }
+
+    /**
+     * Adds a product unless one with the same id is already stored.
+     * @param product Product to add.
+     * @return true if added, false if the id already exists.
+     */
+    boolean add(Product product) {
+        lock.writeLock().lock();
+        try {
+            if (!store.add(product)) {
+                return false;
+            }
+            indexes.add(product);
+            sketch.add(product);
+            priceBook.put(product);
+            return true;
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Adds products under a single write lock, skipping ids that are already stored.
+     * @param batch Products to add.
+     * @return The products that were added, in batch order.
+     */
+    List<Product> addAll(List<Product> batch) {
+        lock.writeLock().lock();
+        try {
+            List<Product> added = new ArrayList<>(batch.size());
+            for (Product product : batch) {
+                if (add(product)) {
+                    added.add(product);
+                }
+            }
+            return added;
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    //Removes the product with the given id and returns it, or null if absent.
+    Product remove(UUID id) {
+        lock.writeLock().lock();
+        try {
+            Product removed = indexed(store.remove(id));
+            if (removed == null) {
+                return null;
+            }
+            indexes.remove(removed);
+            priceBook.remove(id);
+            return removed;
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Removes the products with the given ids under a single write lock.
+     * @param ids Ids to remove; ids not stored in this shard are ignored.
+     * @return The removed products.
+     */
+    List<Product> removeAll(Collection<UUID> ids) {
+        lock.writeLock().lock();
+        try {
+            List<Product> removed = new ArrayList<>();
+            for (UUID id : ids) {
+                Product product = remove(id);
+                if (product != null) {
+                    removed.add(product);
+                }
+            }
+            compactIfShrunk(removed.size());
+            return removed;
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Removes all products matching the query under a single write lock.
+     * Candidates come from the access path's index, so the cost is proportional to the
+     * candidates and the removed products rather than the shard size; each removal fills its
+     * row from the tail of the product list, so no rows are shifted.
+     * @param query Conditions to match.
+     * @param path Access path chosen by the planner.
+     * @return The removed products.
+     */
+    List<Product> removeAll(ProductQuery query, QueryPlan.AccessPath path) {
+        lock.writeLock().lock();
+        try {
+            //Collect first: the candidate stream reads the indexes the removals change
+            List<Product> removed = find(query, path);
+            for (Product product : removed) {
+                remove(product.uuid());
+            }
+            compactIfShrunk(removed.size());
+            return removed;
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    //Releases the product list's spare capacity once a bulk removal has taken away most of it
+    private void compactIfShrunk(int removedCount) {
+        if (rows != null && removedCount > products.size()) {
+            rows.trimToSize();
+        }
+    }
+
+    //Removes the given product instance, unless it is no longer the one stored under its id.
+    boolean remove(Product product) {
+        lock.writeLock().lock();
+        try {
+            if (peekLocked(product.uuid()) != product) {
+                return false;
+            }
+            remove(product.uuid());
+            return true;
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    //Sets a new price on the product with the given id and returns it, or null if absent.
+    Product updatePrice(UUID id, BigDecimal newPrice) {
+        lock.writeLock().lock();
+        try {
+            Product product = indexed(store.get(id));
+            if (product != null) {
+                reprice(product, newPrice);
+            }
+            return product;
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Applies this shard's part of a price batch. Must be called while holding this shard's
+     * write lock (see {@link #writeAll}).
+     * @param updates The whole batch.
+     * @param positions Positions in the batch of the updates belonging to this shard, in batch order.
+     * @param outcomes Outcome per batch position, filled in for the given positions.
+     * @param repriced Receives the products whose price was changed.
+     */
+    void updatePrices(List<PriceUpdate> updates, List<Integer> positions, PriceUpdate.Outcome[] outcomes,
+                      List<Product> repriced) {
+        for (int position : positions) {
+            PriceUpdate update = updates.get(position);
+            Product product = indexed(store.get(update.id()));
+            if (product == null) {
+                outcomes[position] = PriceUpdate.Outcome.NOT_FOUND;
+            } else if (product.price() != null && product.price().compareTo(update.newPrice()) == 0) {
+                outcomes[position] = PriceUpdate.Outcome.UNCHANGED;
+            } else {
+                reprice(product, update.newPrice());
+                outcomes[position] = PriceUpdate.Outcome.UPDATED;
+                repriced.add(product);
+            }
+        }
+    }
+
+    //Moves a product to its new price in every index and summary; callers hold the write lock
+    private void reprice(Product product, BigDecimal newPrice) {
+        indexes.removePrice(product);
+        product.price(newPrice);
+        store.update(product);
+        indexes.addPrice(product);
+        sketch.addPrice(newPrice);
+        priceBook.put(product);
+    }
+
+    //Returns the product with the given id, or null if absent.
+    Product get(UUID id) {
+        lock.readLock().lock();
+        try {
+            return indexed(store.get(id));
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    //Returns the product with the given id, or null if absent, without counting it as a lookup.
+    Product peek(UUID id) {
+        lock.readLock().lock();
+        try {
+            return peekLocked(id);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    //Returns the product whose id has the given halves, or null if absent; allocates no UUID.
+    Product get(long msb, long lsb) {
+        lock.readLock().lock();
+        try {
+            return rows != null ? rows.get(msb, lsb) : indexed(store.get(new UUID(msb, lsb)));
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    //Returns the products not added or looked up by id since the given epoch milliseconds; none without heap rows.
+    List<Product> untouchedSince(long cutoffMillis) {
+        lock.readLock().lock();
+        try {
+            return rows != null ? rows.untouchedSince(cutoffMillis) : List.of();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    //Returns the product with the given id, or null if absent, without recording a lookup where the store tracks them
+    private Product peekLocked(UUID id) {
+        return rows != null ? rows.peek(id) : indexed(store.get(id));
+    }
+
+    //Maps a product loaded from the store to its indexed instance; heap rows hold that instance already
+    private Product indexed(Product stored) {
+        return stored == null || rows != null ? stored : indexes.get(stored);
+    }
+
+    //Returns the number of products in this shard.
+    int size() {
+        lock.readLock().lock();
+        try {
+            return products.size();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    //Removes all products from this shard.
+    void clear() {
+        lock.writeLock().lock();
+        try {
+            store.clear();
+            indexes.clear();
+            sketch.clear();
+            priceBook.clear();
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    //Returns a copy of the shard's sketch, safe to merge without holding the lock.
+    InventorySketch copySketch() {
+        lock.readLock().lock();
+        try {
+            return sketch.copy();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    //Rebuilds the shard's sketch from the current products, dropping removed products and old prices.
+    void rebuildSketch() {
+        lock.writeLock().lock();
+        try {
+            sketch.clear();
+            products.forEach(sketch::add);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    //Returns the discounted price of the product with the given id, or null if absent.
+    BigDecimal discountedPrice(UUID id) {
+        lock.readLock().lock();
+        try {
+            Product product = indexed(store.get(id));
+            return product == null ? null : priceBook.priceOf(product);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    //Returns the discounted price of every product in this shard.
+    Map<Product, BigDecimal> discountedPrices() {
+        lock.readLock().lock();
+        try {
+            PriceBook book = priceBook;
+            Map<Product, BigDecimal> result = new HashMap<>();
+            for (Product p : products) {
+                result.put(p, book.priceOf(p));
+            }
+            return result;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Builds a price book for the given day and swaps it in.
+     * Must be called while holding this shard's read lock (see {@link #readAll}), which keeps
+     * writers out during the build; concurrent readers keep using the previous book until the swap.
+     */
+    void swapPriceBook(LocalDate day, DiscountTiers tiers) {
+        priceBook = PriceBook.build(products, day, tiers);
+    }
+
+    /**
+     * Runs a query using the given access path and applies all of its conditions.
+     * @param query Query to run.
+     * @param path Access path chosen by the planner.
+     * @return Matching products.
+     */
+    List<Product> find(ProductQuery query, QueryPlan.AccessPath path) {
+        lock.readLock().lock();
+        try {
+            Stream<Product> candidates = path == QueryPlan.AccessPath.FULL_SCAN
+                    ? products.stream()
+                    : indexes.candidates(query, path);
+            return candidates.filter(query::matches).collect(Collectors.toCollection(ArrayList::new));
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Returns up to {@code limit} matching products in (price, id) order after the cursor.
+     * Walks the price index, or sorts the candidates of a selective index when that reads fewer
+     * rows (see {@link ProductIndexes#pageCandidates}).
+     * @param query Conditions to match.
+     * @param after Cursor to continue after, or null for the first page.
+     * @param limit Maximum number of products to return.
+     * @return Matching products in keyset order.
+     */
+    List<Product> page(ProductQuery query, Page.Cursor after, int limit) {
+        lock.readLock().lock();
+        try {
+            Stream<Product> selective = indexes.pageCandidates(query, limit);
+            Stream<Product> rows = selective == null
+                    ? indexes.inPriceOrder(query, after).filter(query::matches)
+                    : selective.filter(query::matches)
+                            .filter(p -> after == null || after.isBefore(p))
+                            .sorted(Page.KEYSET_ORDER);
+            return rows.limit(limit).collect(Collectors.toCollection(ArrayList::new));
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Runs a read-only computation over the shard's secondary indexes while holding the read lock.
+     * Streams obtained from the indexes must be fully consumed inside the call.
+     * @param reader Function computing a (partial) result from the indexes.
+     * @return The reader's result.
+     */
+    <T> T readIndexes(Function<ProductIndexes, T> reader) {
+        lock.readLock().lock();
+        try {
+            return reader.apply(indexes);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Runs a read-only computation over the indexes of several shards at once, holding all of
+     * their read locks so the computation sees one consistent state. Locks are taken in list
+     * order; writers hold either a single shard's lock or, via writeAll, several locks taken in
+     * the same order, so this cannot deadlock.
+     * @param shards Shards to read, always passed in the same order.
+     * @param reader Function computing a result from the shards' indexes, in shard order.
+     * @return The reader's result.
+     */
+    static <T> T readAllIndexes(List<WarehouseShard> shards, Function<List<ProductIndexes>, T> reader) {
+        return readAll(shards, () -> reader.apply(shards.stream().map(shard -> shard.indexes).toList()));
+    }
+
+    //Like readAllIndexes, but the reader gets the shards' product lists
+    static <T> T readAllProducts(List<WarehouseShard> shards, Function<List<List<Product>>, T> reader) {
+        return readAll(shards, () -> reader.apply(shards.stream().map(shard -> shard.products).toList()));
+    }
+
+    /**
+     * Returns the price column aligned with the shard's products (see {@link PriceFilter}).
+     * Stores without heap rows have no column, so one is built from the products per call.
+     * Must be called while holding this shard's read lock (see {@link #readAll}).
+     */
+    double[] priceColumn() {
+        if (rows != null) {
+            return rows.priceColumn();
+        }
+        double[] prices = new double[products.size()];
+        for (int i = 0; i < prices.length; i++) {
+            prices[i] = products.get(i).priceAsDouble();
+        }
+        return prices;
+    }
+
+    //Live view of the shard's products; must be called while holding this shard's read lock (see readAll)
+    List<Product> products() {
+        return products;
+    }
+
+    //Runs an action while holding the read locks of all given shards; see readAllIndexes
+    static <T> T readAll(List<WarehouseShard> shards, Supplier<T> reader) {
+        int locked = 0;
+        try {
+            for (WarehouseShard shard : shards) {
+                shard.lock.readLock().lock();
+                locked++;
+            }
+            return reader.get();
+        } finally {
+            for (int i = locked - 1; i >= 0; i--) {
+                shards.get(i).lock.readLock().unlock();
+            }
+        }
+    }
+
+    //Runs an action while holding the write locks of all given shards, taken in list order
+    static <T> T writeAll(List<WarehouseShard> shards, Supplier<T> writer) {
+        int locked = 0;
+        try {
+            for (WarehouseShard shard : shards) {
+                shard.lock.writeLock().lock();
+                locked++;
+            }
+            return writer.get();
+        } finally {
+            for (int i = locked - 1; i >= 0; i--) {
+                shards.get(i).lock.writeLock().unlock();
+            }
+        }
+    }
+
+    /**
+     * Runs a read-only computation over the shard's products while holding the read lock.
+     * The list passed to the reader must not escape the call.
+     * @param reader Function computing a (partial) result from the products.
+     * @return The reader's result.
+     */
+    <T> T read(Function<List<Product>, T> reader) {
+        lock.readLock().lock();
+        try {
+            return reader.apply(products);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+}
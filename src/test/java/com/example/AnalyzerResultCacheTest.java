@@ -0,0 +1,100 @@
+package com.example;
+
+import org.junit.jupiter.api.*;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.*;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Tests for the analyzer's result cache and the warehouse version it is keyed by.
+ */
+@DisplayName("Analyzer Result Cache")
+class AnalyzerResultCacheTest {
+
+    private Warehouse warehouse;
+    private WarehouseAnalyzer analyzer;
+    private FoodProduct milk;
+
+    @BeforeEach
+    void setUp() {
+        warehouse = Warehouse.getInstance("AnalyzerResultCacheTestWarehouse", 4);
+        warehouse.clearProducts();
+        milk = new FoodProduct(UUID.randomUUID(), "Milk", Category.of("Dairy"),
+                new BigDecimal("10.00"), LocalDate.now().minusDays(1), BigDecimal.ONE);
+        warehouse.addProduct(milk);
+        warehouse.addProduct(new ElectronicsProduct(UUID.randomUUID(), "Laptop", Category.of("Electronics"),
+                new BigDecimal("2000.00"), 24, BigDecimal.TWO));
+        analyzer = new WarehouseAnalyzer(warehouse);
+    }
+
+    @Test
+    @DisplayName("⚡ should reuse results between writes")
+    void should_reuseResults_betweenWrites() {
+        // Arrange
+        long version = warehouse.getVersion();
+        Map<Category, BigDecimal> averages = analyzer.calculateWeightedAveragePriceByCategory();
+        InventoryValidation validation = analyzer.validateInventoryConstraints();
+        InventoryStatistics statistics = analyzer.getInventoryStatistics();
+
+        // Act & Assert
+        assertThat(analyzer.calculateWeightedAveragePriceByCategory()).isSameAs(averages);
+        assertThat(analyzer.validateInventoryConstraints()).isSameAs(validation);
+        assertThat(analyzer.getInventoryStatistics()).isSameAs(statistics);
+        assertThat(analyzer.cachedResultCount()).isEqualTo(3);
+        assertThat(warehouse.getVersion()).isEqualTo(version);
+        assertThat(statistics.getExpiredCount()).isEqualTo(1);
+    }
+
+    @Test
+    @DisplayName("⏪ should not move the cache back for a reader that sampled an older version")
+    void should_keepNewerResults_whenStaleReaderArrives() {
+        // Arrange - a reader samples the version, then a write lands and another reader caches the new result
+        long staleVersion = warehouse.getVersion();
+        warehouse.updateProductPrice(milk.uuid(), new BigDecimal("12.00"));
+        InventoryStatistics current = analyzer.getInventoryStatistics();
+        InventoryStatistics stale = analyzer.getInventoryStatistics();
+
+        // Act - the stale reader now enters the cache
+        Object staleResult = analyzer.cachedAt(staleVersion, "getInventoryStatistics", List.of(), () -> "stale");
+
+        // Assert
+        assertThat(staleResult).isEqualTo("stale");
+        assertThat(stale).isSameAs(current);
+        assertThat(analyzer.getInventoryStatistics()).isSameAs(current);
+        assertThat(analyzer.cachedResultCount()).isEqualTo(1);
+    }
+
+    @Test
+    @DisplayName("🔄 should recompute after every kind of write")
+    void should_recompute_afterWrites() {
+        // Arrange
+        InventoryStatistics before = analyzer.getInventoryStatistics();
+        Product bread = new FoodProduct(UUID.randomUUID(), "Bread", Category.of("Bakery"),
+                new BigDecimal("3.00"), LocalDate.now().plusDays(2), BigDecimal.ONE);
+
+        // Act & Assert
+        warehouse.addProduct(bread);
+        InventoryStatistics added = analyzer.getInventoryStatistics();
+        assertThat(added).isNotSameAs(before);
+        assertThat(added.getTotalProducts()).isEqualTo(3);
+
+        warehouse.updateProductPrice(milk.uuid(), new BigDecimal("20.00"));
+        assertThat(analyzer.calculateWeightedAveragePriceByCategory().get(Category.of("Dairy")))
+                .isEqualByComparingTo("20.00");
+
+        long version = warehouse.getVersion();
+        warehouse.updateProductPrices(List.of(new PriceUpdate(UUID.randomUUID(), BigDecimal.ONE)));
+        warehouse.remove(UUID.randomUUID());
+        assertThat(warehouse.getVersion()).as("writes that change nothing").isEqualTo(version);
+
+        warehouse.removeProducts(List.of(bread.uuid()));
+        assertThat(analyzer.getInventoryStatistics().getTotalProducts()).isEqualTo(2);
+
+        warehouse.clearProducts();
+        assertThat(analyzer.validateInventoryConstraints().getCategoryDiversity()).isZero();
+        assertThat(analyzer.cachedResultCount()).isEqualTo(1);
+    }
+}
@@ -0,0 +1,104 @@
+package com.example;
+
+import org.junit.jupiter.api.*;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.*;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+/**
+ * Tests for applying many price changes in one batch.
+ */
+@DisplayName("Batch Price Update")
+class BatchPriceUpdateTest {
+
+    private Warehouse warehouse;
+    private List<Product> products;
+
+    @BeforeEach
+    void setUp() {
+        warehouse = Warehouse.getInstance("BatchPriceTestWarehouse", 4);
+        warehouse.clearProducts();
+        products = new ArrayList<>();
+        for (int i = 0; i < 200; i++) {
+            Product p = i % 2 == 0
+                    ? new FoodProduct(UUID.randomUUID(), "Food" + i, Category.of("Dairy"),
+                            BigDecimal.valueOf(i), LocalDate.now().plusDays(5), BigDecimal.ONE)
+                    : new ElectronicsProduct(UUID.randomUUID(), "Gadget" + i, Category.of("Electronics"),
+                            BigDecimal.valueOf(i), 12, BigDecimal.ONE);
+            products.add(p);
+        }
+        warehouse.addProducts(products);
+    }
+
+    @Test
+    @DisplayName("💸 should report an outcome per update and keep indexes in step")
+    void should_applyBatch_andReportOutcomes() {
+        // Arrange
+        AtomicInteger repriceEvents = new AtomicInteger();
+        ProductListener listener = new ProductListener() {
+            @Override
+            public void productRepriced(Product product) {
+                repriceEvents.incrementAndGet();
+            }
+        };
+        warehouse.addListener(listener);
+        List<PriceUpdate> updates = new ArrayList<>();
+        for (int i = 0; i < 100; i++) {
+            updates.add(new PriceUpdate(products.get(i).uuid(), BigDecimal.valueOf(1_000 + i)));
+        }
+        updates.add(new PriceUpdate(UUID.randomUUID(), BigDecimal.ONE));
+        updates.add(new PriceUpdate(products.get(150).uuid(), new BigDecimal("150.00")));
+
+        // Act
+        List<PriceUpdate.Outcome> outcomes;
+        try {
+            outcomes = warehouse.updateProductPrices(updates);
+        } finally {
+            warehouse.removeListener(listener);
+        }
+
+        // Assert
+        assertThat(outcomes).hasSize(102);
+        assertThat(outcomes.subList(0, 100)).containsOnly(PriceUpdate.Outcome.UPDATED);
+        assertThat(outcomes.subList(100, 102)).containsExactly(PriceUpdate.Outcome.NOT_FOUND, PriceUpdate.Outcome.UNCHANGED);
+        assertThat(repriceEvents).hasValue(100);
+        assertThat(warehouse.getChangedProducts()).hasSize(100);
+        assertThat(warehouse.getProductById(products.get(7).uuid()).orElseThrow().price()).isEqualTo(BigDecimal.valueOf(1_007));
+        assertThat(warehouse.find(ProductQuery.where().priceBetween(BigDecimal.valueOf(1_000), null))).hasSize(100);
+        assertThat(warehouse.find(ProductQuery.where().priceBetween(null, BigDecimal.valueOf(99)))).isEmpty();
+        assertThat(new WarehouseAnalyzer(warehouse).findMostExpensiveProducts(1)).containsExactly(products.get(99));
+    }
+
+    @Test
+    @DisplayName("🔁 should let the last update win for repeated ids")
+    void should_applyRepeatedIds_inOrder() {
+        UUID id = products.getFirst().uuid();
+        List<PriceUpdate.Outcome> outcomes = warehouse.updateProductPrices(List.of(
+                new PriceUpdate(id, BigDecimal.TEN), new PriceUpdate(id, BigDecimal.TEN), new PriceUpdate(id, BigDecimal.TWO)));
+
+        assertThat(outcomes).containsExactly(PriceUpdate.Outcome.UPDATED, PriceUpdate.Outcome.UNCHANGED, PriceUpdate.Outcome.UPDATED);
+        assertThat(warehouse.getProductById(id).orElseThrow().price()).isEqualTo(BigDecimal.TWO);
+    }
+
+    @Test
+    @DisplayName("🚫 should reject invalid updates without changing anything")
+    void should_rejectInvalidUpdates() {
+        // Arrange
+        List<PriceUpdate> updates = new ArrayList<>();
+        updates.add(new PriceUpdate(products.getFirst().uuid(), BigDecimal.TEN));
+        updates.add(null);
+
+        // Act & Assert
+        assertThatThrownBy(() -> warehouse.updateProductPrices(updates))
+                .isInstanceOf(IllegalArgumentException.class);
+        assertThat(products.getFirst().price()).isEqualTo(BigDecimal.ZERO);
+        assertThatThrownBy(() -> new PriceUpdate(UUID.randomUUID(), new BigDecimal("-1")))
+                .isInstanceOf(IllegalArgumentException.class)
+                .hasMessage("Price cannot be negative.");
+    }
+}
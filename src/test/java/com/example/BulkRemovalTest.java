@@ -0,0 +1,100 @@
+package com.example;
+
+import org.junit.jupiter.api.*;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.*;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+/**
+ * Tests for removing many products at once, by id and by query.
+ */
+@DisplayName("Bulk Removal")
+class BulkRemovalTest {
+
+    private Warehouse warehouse;
+    private List<Product> products;
+
+    @BeforeEach
+    void setUp() {
+        warehouse = Warehouse.getInstance("BulkRemovalTestWarehouse", 4);
+        warehouse.clearProducts();
+        products = new ArrayList<>();
+        LocalDate today = LocalDate.now();
+        for (int i = 0; i < 1_000; i++) {
+            products.add(switch (i % 3) {
+                case 0 -> new FoodProduct(UUID.randomUUID(), "Milk" + i, Category.of("Dairy"),
+                        BigDecimal.valueOf(i), today.plusDays(i % 20 - 10), BigDecimal.ONE);
+                case 1 -> new FoodProduct(UUID.randomUUID(), "Bread" + i, Category.of("Bakery"),
+                        BigDecimal.valueOf(i), today.plusDays(i % 20 - 10), BigDecimal.ONE);
+                default -> new ElectronicsProduct(UUID.randomUUID(), "Gadget" + i, Category.of("Electronics"),
+                        BigDecimal.valueOf(i), 12, BigDecimal.TWO);
+            });
+        }
+        warehouse.addProducts(products);
+    }
+
+    @Test
+    @DisplayName("🧹 should purge all expired dairy products in one call")
+    void should_removeByQuery() {
+        // Arrange
+        ProductQuery expiredDairy = ProductQuery.where().inCategory(Category.of("Dairy"))
+                .expiringBetween(null, LocalDate.now().minusDays(1));
+        List<Product> expected = products.stream().filter(expiredDairy::matches).toList();
+
+        // Act
+        List<Product> removed = warehouse.removeProducts(expiredDairy);
+
+        // Assert
+        assertThat(removed).containsExactlyInAnyOrderElementsOf(expected).isNotEmpty();
+        assertThat(warehouse.find(expiredDairy)).isEmpty();
+        assertThat(warehouse.getProducts()).hasSize(1_000 - expected.size());
+        assertThat(warehouse.find(ProductQuery.where().inCategory(Category.of("Dairy"))))
+                .hasSize(334 - expected.size())
+                .allSatisfy(p -> assertThat(((Perishable) p).isExpired()).isFalse());
+        for (Product p : expected) {
+            assertThat(warehouse.getProductById(p.uuid())).isEmpty();
+        }
+    }
+
+    @Test
+    @DisplayName("💰 should remove a price range and keep every index consistent")
+    void should_removePriceRange() {
+        // Act
+        List<Product> removed = warehouse.removeProducts(ProductQuery.where().priceBetween(BigDecimal.valueOf(100), BigDecimal.valueOf(899)));
+
+        // Assert
+        assertThat(removed).hasSize(800);
+        assertThat(warehouse.getProducts()).hasSize(200);
+        assertThat(new WarehouseAnalyzer(warehouse).findMostExpensiveProducts(1)).containsExactly(products.get(999));
+        assertThat(new WarehouseAnalyzer(warehouse).findPricePercentile(50).orElseThrow())
+                .isEqualTo(BigDecimal.valueOf(99));
+        assertThat(warehouse.find(ProductQuery.where().inCategory(Category.of("Electronics")))).hasSize(66);
+        for (Product p : products) {
+            assertThat(warehouse.getProductById(p.uuid()).isPresent()).isEqualTo(p.price().intValue() < 100 || p.price().intValue() > 899);
+        }
+    }
+
+    @Test
+    @DisplayName("🆔 should remove by id set, ignoring unknown ids")
+    void should_removeByIds() {
+        // Arrange
+        Set<UUID> ids = new HashSet<>();
+        for (int i = 0; i < 1_000; i += 2) {
+            ids.add(products.get(i).uuid());
+        }
+        ids.add(UUID.randomUUID());
+
+        // Act
+        List<Product> removed = warehouse.removeProducts(ids);
+
+        // Assert
+        assertThat(removed).hasSize(500);
+        assertThat(warehouse.getProducts()).hasSize(500).noneMatch(p -> ids.contains(p.uuid()));
+        assertThatThrownBy(() -> warehouse.removeProducts(Arrays.asList(UUID.randomUUID(), null)))
+                .isInstanceOf(IllegalArgumentException.class);
+    }
+}
@@ -0,0 +1,203 @@
+package com.example;
+
+import org.junit.jupiter.api.*;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.util.*;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+/**
+ * Tests for offloading expired and idle products to a cold tier and bringing them back.
+ */
+@DisplayName("Cold Tier")
+class ColdTierTest {
+
+    @TempDir
+    Path dir;
+
+    private Warehouse warehouse;
+    private FileProductStore store;
+    private ColdTier tier;
+    private List<Product> expired;
+    private List<Product> fresh;
+
+    @BeforeEach
+    void setUp() throws IOException {
+        warehouse = Warehouse.getInstance("ColdTierTestWarehouse", 4);
+        warehouse.clearProducts();
+        LocalDate today = LocalDate.now();
+        expired = new ArrayList<>();
+        fresh = new ArrayList<>();
+        for (int i = 0; i < 100; i++) {
+            expired.add(new FoodProduct(UUID.randomUUID(), "Old milk " + i, Category.of("Dairy"),
+                    BigDecimal.valueOf(i), today.minusDays(1 + i % 5), BigDecimal.ONE));
+            fresh.add(new ElectronicsProduct(UUID.randomUUID(), "Phone " + i, Category.of("Electronics"),
+                    BigDecimal.valueOf(100 + i), 12, BigDecimal.ONE));
+        }
+        warehouse.addProducts(expired);
+        warehouse.addProducts(fresh);
+        store = FileProductStore.open(dir.resolve("cold.db"));
+        tier = ColdTier.attach(warehouse, store, Duration.ofHours(1));
+    }
+
+    @AfterEach
+    void tearDown() throws IOException {
+        tier.close();
+        warehouse.clearProducts();
+        store.close();
+    }
+
+    @Test
+    @DisplayName("🧊 should offload expired products and keep them out of hot queries")
+    void should_offloadExpired() {
+        // Act
+        int moved = tier.offloadAt(Instant.now());
+
+        // Assert
+        assertThat(moved).isEqualTo(100);
+        assertThat(tier.getColdCount()).isEqualTo(100);
+        assertThat(store.getFileSize()).isPositive();
+        assertThat(warehouse.getProducts()).containsExactlyInAnyOrderElementsOf(fresh);
+        assertThat(warehouse.find(ProductQuery.where().inCategory(Category.of("Dairy")))).isEmpty();
+        assertThat(warehouse.getProducts(true)).hasSize(200)
+                .extracting(Product::uuid)
+                .containsAll(expired.stream().map(Product::uuid).toList());
+        //Nothing is idle yet, so a second pass moves nothing
+        assertThat(tier.offloadAt(Instant.now())).isZero();
+    }
+
+    @Test
+    @DisplayName("⏳ should offload products left untouched for the idle time")
+    void should_offloadIdle() {
+        // Arrange
+        tier.offloadAt(Instant.now());
+
+        // Act
+        int moved = tier.offloadAt(Instant.now().plus(Duration.ofHours(2)));
+
+        // Assert
+        assertThat(moved).isEqualTo(100);
+        assertThat(warehouse.getProducts()).isEmpty();
+        assertThat(tier.getColdCount()).isEqualTo(200);
+        assertThat(tier.getOffloadedCount()).isEqualTo(200);
+    }
+
+    @Test
+    @DisplayName("🔥 should bring an offloaded product back on lookup or reprice")
+    void should_rehydrate() {
+        // Arrange
+        tier.offloadAt(Instant.now().plus(Duration.ofHours(2)));
+        Product phone = fresh.getFirst();
+        Product milk = expired.getFirst();
+        List<Product> added = new ArrayList<>();
+        ProductListener listener = new ProductListener() {
+            @Override
+            public void productAdded(Product product) {
+                added.add(product);
+            }
+        };
+        warehouse.addListener(listener);
+
+        // Act
+        Optional<Product> found = warehouse.getProductById(phone.uuid());
+        warehouse.updateProductPrice(milk.uuid(), new BigDecimal("0.50"));
+        warehouse.removeListener(listener);
+
+        // Assert
+        assertThat(found).get().extracting(Product::name).isEqualTo("Phone 0");
+        assertThat(found.get().price()).isEqualByComparingTo("100");
+        assertThat(warehouse.getProducts()).hasSize(2);
+        assertThat(warehouse.getProductById(milk.uuid())).get()
+                .extracting(Product::price).isEqualTo(new BigDecimal("0.50"));
+        assertThat(warehouse.getProductById(phone.uuid().getMostSignificantBits(),
+                phone.uuid().getLeastSignificantBits())).isPresent();
+        assertThat(tier.getColdCount()).isEqualTo(198);
+        assertThat(tier.getRehydratedCount()).isEqualTo(2);
+        assertThat(added).extracting(Product::uuid).containsExactly(phone.uuid(), milk.uuid());
+    }
+
+    @Test
+    @DisplayName("🗄️ should serve cold lookups through a caching store without moving products back")
+    void should_serveLookupsThroughCache() throws IOException {
+        // Arrange
+        tier.close();
+        CachingProductStore cache = new CachingProductStore(store, 100);
+        tier = ColdTier.attach(warehouse, cache, Duration.ofHours(1), false);
+        tier.offloadAt(Instant.now());
+        Product milk = expired.getFirst();
+
+        // Act
+        for (int i = 0; i < 5; i++) {
+            assertThat(warehouse.getProductById(milk.uuid())).get().extracting(Product::uuid).isEqualTo(milk.uuid());
+        }
+        Optional<Product> byHalves = warehouse.getProductById(milk.uuid().getMostSignificantBits(),
+                milk.uuid().getLeastSignificantBits());
+
+        // Assert
+        assertThat(byHalves).get().extracting(Product::name).isEqualTo(milk.name());
+        assertThat(cache.getMissCount()).isEqualTo(1);
+        assertThat(cache.getHitCount()).isEqualTo(5);
+        assertThat(tier.getServedCount()).isEqualTo(6);
+        assertThat(tier.getRehydratedCount()).isZero();
+        assertThat(warehouse.getProducts()).extracting(Product::uuid).doesNotContain(milk.uuid());
+        //A price update still moves the product back
+        warehouse.updateProductPrice(milk.uuid(), new BigDecimal("0.50"));
+        assertThat(warehouse.getProducts()).extracting(Product::uuid).contains(milk.uuid());
+        assertThat(tier.getRehydratedCount()).isEqualTo(1);
+    }
+
+    @Test
+    @DisplayName("🗜️ should keep the store file bounded while products cycle between tiers")
+    void should_compactStore() {
+        // Arrange
+        tier.offloadAt(Instant.now());
+        long offloadedSize = store.getFileSize();
+
+        // Act
+        for (int round = 0; round < 20; round++) {
+            BigDecimal price = BigDecimal.valueOf(round);
+            expired.forEach(p -> warehouse.updateProductPrice(p.uuid(), price));
+            assertThat(tier.getColdCount()).isZero();
+            tier.offloadAt(Instant.now());
+        }
+
+        // Assert
+        assertThat(tier.getCompactionCount()).isPositive();
+        assertThat(tier.getColdCount()).isEqualTo(100);
+        assertThat(store.getFileSize())
+                .isLessThanOrEqualTo((long) (store.getLiveBytes() * ColdTier.MAX_STORE_OVERHEAD))
+                .isLessThan(3 * offloadedSize);
+    }
+
+    @Test
+    @DisplayName("🚫 should treat offloaded ids as present for adds and removals")
+    void should_respectColdIds() throws IOException {
+        // Arrange
+        tier.offloadAt(Instant.now());
+        Product milk = expired.get(1);
+
+        // Act & Assert
+        assertThatThrownBy(() -> warehouse.addProduct(milk))
+                .isInstanceOf(IllegalArgumentException.class);
+        assertThat(warehouse.addProducts(List.of(milk))).containsExactly(milk);
+        warehouse.remove(milk.uuid());
+        assertThat(tier.getColdCount()).isEqualTo(99);
+        assertThat(warehouse.getProductById(milk.uuid())).isEmpty();
+        warehouse.removeProducts(List.of(expired.get(2).uuid()));
+        assertThat(tier.getColdCount()).isEqualTo(98);
+
+        assertThatThrownBy(() -> ColdTier.attach(warehouse, store, Duration.ofHours(1)))
+                .isInstanceOf(IllegalStateException.class);
+        tier.close();
+        assertThat(warehouse.getProductById(expired.get(3).uuid())).isEmpty();
+        assertThat(warehouse.getProducts(true)).hasSize(100);
+    }
+}
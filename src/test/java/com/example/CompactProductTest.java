@@ -0,0 +1,205 @@
+package com.example;
+
+import org.junit.jupiter.api.*;
+
+import java.lang.reflect.Field;
+import java.lang.reflect.Modifier;
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.*;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Tests for the compact product representation: packed prices and weights, shared names and
+ * dates, and the resulting heap footprint.
+ */
+@DisplayName("Compact Product Footprint")
+class CompactProductTest {
+
+    @Test
+    @DisplayName("🔢 should keep prices and weights exact, packed or not")
+    void should_keepDecimalsExact() {
+        // Arrange
+        BigDecimal huge = new BigDecimal("123456789012345678901234.5");
+        BigDecimal precise = new BigDecimal("0.0000000000000000001");
+        FoodProduct cheese = new FoodProduct(UUID.randomUUID(), "Cheese", Category.of("Dairy"),
+                new BigDecimal("10.50"), LocalDate.now(), new BigDecimal("0.125"));
+        ElectronicsProduct server = new ElectronicsProduct(UUID.randomUUID(), "Server", Category.of("Electronics"),
+                huge, 36, precise);
+
+        // Act
+        cheese.price(new BigDecimal("1E+3"));
+        FoodProduct repriced = new FoodProduct(UUID.randomUUID(), "Cheese", Category.of("Dairy"),
+                huge, LocalDate.now(), new BigDecimal("12"));
+        repriced.price(new BigDecimal("9.99"));
+
+        // Assert
+        assertThat(cheese.price()).isEqualTo(new BigDecimal("1E+3"));
+        assertThat(cheese.weight()).isEqualTo(0.125);
+        assertThat(cheese.exactWeight()).isEqualTo(new BigDecimal("0.125"));
+        assertThat(server.price()).isEqualTo(huge);
+        assertThat(server.exactWeight()).isEqualTo(precise);
+        assertThat(server.weight()).isEqualTo(precise.doubleValue());
+        assertThat(repriced.price()).isEqualTo(new BigDecimal("9.99"));
+        assertThat(repriced.calculateShippingCost()).isEqualTo(new BigDecimal("600.00"));
+        assertThat(server.comparePrice(repriced)).isPositive();
+        assertThat(repriced.comparePrice(cheese)).isNegative();
+        assertThat(new BigDecimal("0.1").doubleValue()).isEqualTo(CompactDecimal.toDouble(CompactDecimal.pack(new BigDecimal("0.1"))));
+    }
+
+    @Test
+    @DisplayName("🪶 should share names and dates between products")
+    void should_shareNamesAndDates() {
+        FoodProduct first = new FoodProduct(UUID.randomUUID(), new String("Milk 1L"), Category.of("Dairy"),
+                BigDecimal.ONE, LocalDate.of(2026, 5, 1), BigDecimal.ONE);
+        FoodProduct second = new FoodProduct(UUID.randomUUID(), new String("Milk 1L"), Category.of("Dairy"),
+                BigDecimal.TEN, LocalDate.parse("2026-05-01"), BigDecimal.ONE);
+
+        assertThat(second.name()).isSameAs(first.name());
+        assertThat(second.expirationDate()).isSameAs(first.expirationDate());
+    }
+
+    @Test
+    @DisplayName("📅 should keep the shared date cache bounded")
+    void should_boundDateCache() {
+        // Arrange
+        LocalDate date = LocalDate.of(2026, 5, 1);
+        LocalDate clash = date.plusDays(FoodProduct.DATE_SLOTS);
+
+        // Act
+        FoodProduct first = new FoodProduct(UUID.randomUUID(), "Milk", Category.of("Dairy"),
+                BigDecimal.ONE, date, BigDecimal.ONE);
+        FoodProduct displacing = new FoodProduct(UUID.randomUUID(), "Milk", Category.of("Dairy"),
+                BigDecimal.ONE, LocalDate.parse(clash.toString()), BigDecimal.ONE);
+        FoodProduct later = new FoodProduct(UUID.randomUUID(), "Milk", Category.of("Dairy"),
+                BigDecimal.ONE, LocalDate.parse(date.toString()), BigDecimal.ONE);
+
+        // Assert
+        //Dates a slot count apart share a slot, so the newer one replaces the older one
+        assertThat(displacing.expirationDate()).isEqualTo(clash);
+        assertThat(later.expirationDate()).isEqualTo(date).isNotSameAs(first.expirationDate());
+        assertThat(first.expirationDate()).isEqualTo(date);
+    }
+
+    @Test
+    @DisplayName("📏 should at least halve the heap footprint per product")
+    void should_reduceFootprint() {
+        // Arrange
+        int count = 50_000;
+        List<Object> legacy = new ArrayList<>(count);
+        List<Object> compact = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            //Fresh instances per row, as a parser produces them
+            UUID id = UUID.randomUUID();
+            String name = "Milk 1L batch " + (i % 100);
+            BigDecimal price = new BigDecimal((i % 500) + ".95");
+            LocalDate expiration = LocalDate.of(2026, 1, 1).plusDays(i % 365);
+            BigDecimal weight = new BigDecimal("1.030");
+            legacy.add(new LegacyFoodProduct(id, new String(name), Category.of("Dairy"), price, expiration, weight));
+            compact.add(new FoodProduct(id, new String(name), Category.of("Dairy"), price,
+                    LocalDate.of(2026, 1, 1).plusDays(i % 365), weight));
+        }
+
+        // Act
+        double before = (double) FootprintEstimator.retainedSize(legacy, UUID.class) / count;
+        double after = (double) FootprintEstimator.retainedSize(compact, UUID.class) / count;
+
+        // Assert
+        //The estimate follows from the layouts, so it is the same on every run: 200 and about 56 bytes
+        assertThat(before).isBetween(190.0, 210.0);
+        assertThat(after).isLessThan(64).isLessThan(before / 2);
+    }
+
+    //The product layout before compaction, kept to measure against
+    @SuppressWarnings("unused")
+    private static final class LegacyFoodProduct {
+        private final UUID id;
+        private final String name;
+        private final Category category;
+        private final BigDecimal price;
+        private final LocalDate expirationDate;
+        private final BigDecimal weight;
+
+        LegacyFoodProduct(UUID id, String name, Category category, BigDecimal price, LocalDate expirationDate, BigDecimal weight) {
+            this.id = id;
+            this.name = name;
+            this.category = category;
+            this.price = price;
+            this.expirationDate = expirationDate;
+            this.weight = weight;
+        }
+    }
+
+    /**
+     * Estimates the heap retained by a set of objects, counting every shared object once, for a
+     * 64-bit JVM with compressed references (12-byte headers, 4-byte references, 8-byte alignment).
+     * Classes of this project are measured field by field through reflection; the JDK value types
+     * products hold are sized from their known layouts, as their internals are not accessible.
+     */
+    static final class FootprintEstimator {
+        private final Set<Object> seen = Collections.newSetFromMap(new IdentityHashMap<>());
+        private final Set<Class<?>> excluded;
+
+        private FootprintEstimator(Set<Class<?>> excluded) {
+            this.excluded = excluded;
+        }
+
+        //Returns the bytes retained by the objects, leaving out the list itself and excluded types
+        static long retainedSize(List<Object> roots, Class<?>... excluded) {
+            FootprintEstimator estimator = new FootprintEstimator(Set.of(excluded));
+            long total = 0;
+            for (Object root : roots) {
+                total += estimator.sizeOf(root);
+            }
+            return total;
+        }
+
+        private long sizeOf(Object o) {
+            if (o == null || excluded.contains(o.getClass()) || !seen.add(o)) {
+                return 0;
+            }
+            return switch (o) {
+                case String s -> align(24) + align(16 + s.length() * (s.chars().allMatch(c -> c < 256) ? 1 : 2));
+                //Compact decimals only; larger ones add a BigInteger
+                case BigDecimal d -> align(40) + (d.unscaledValue().bitLength() > 63 ? align(40) + align(16 + 4 * (d.unscaledValue().bitLength() / 32 + 1)) : 0);
+                case UUID _ -> align(12 + 16);
+                case LocalDate _ -> align(12 + 8);
+                default -> reflect(o);
+            };
+        }
+
+        private long reflect(Object o) {
+            long shallow = 12;
+            long deep = 0;
+            for (Class<?> c = o.getClass(); c != Object.class; c = c.getSuperclass()) {
+                for (Field f : c.getDeclaredFields()) {
+                    if (Modifier.isStatic(f.getModifiers())) continue;
+                    Class<?> type = f.getType();
+                    if (!type.isPrimitive()) {
+                        shallow += 4;
+                        f.setAccessible(true);
+                        try {
+                            deep += sizeOf(f.get(o));
+                        } catch (IllegalAccessException e) {
+                            throw new IllegalStateException(e);
+                        }
+                    } else if (type == long.class || type == double.class) {
+                        shallow += 8;
+                    } else if (type == int.class || type == float.class) {
+                        shallow += 4;
+                    } else if (type == short.class || type == char.class) {
+                        shallow += 2;
+                    } else {
+                        shallow += 1;
+                    }
+                }
+            }
+            return align(shallow) + deep;
+        }
+
+        private static long align(long size) {
+            return (size + 7) & ~7L;
+        }
+    }
+}
@@ -0,0 +1,110 @@
+package com.example;
+
+import org.junit.jupiter.api.*;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDate;
+import java.util.*;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Tests for the memory-mapped parallel CSV importer.
+ */
+@DisplayName("CSV Inventory Importer")
+class CsvInventoryImporterTest {
+
+    @TempDir
+    Path dir;
+
+    private Warehouse warehouse;
+
+    @BeforeEach
+    void setUp() {
+        warehouse = Warehouse.getInstance("CsvImportTestWarehouse", 4);
+        warehouse.clearProducts();
+    }
+
+    private Path write(String content) throws IOException {
+        Path file = dir.resolve("inventory.csv");
+        Files.writeString(file, content, StandardCharsets.UTF_8);
+        return file;
+    }
+
+    @Test
+    @DisplayName("📥 should import a large file across many chunks and batches")
+    void should_importAllRows_acrossChunks() throws IOException {
+        // Arrange
+        StringBuilder csv = new StringBuilder("type,id,name,category,price,weight,expiration,warranty\n");
+        List<UUID> ids = new ArrayList<>();
+        for (int i = 0; i < 20_000; i++) {
+            UUID id = UUID.randomUUID();
+            ids.add(id);
+            if (i % 2 == 0) {
+                csv.append("food,").append(id).append(",Milk ").append(i).append(",dairy,")
+                        .append(i % 1000).append(".50,1.250,").append(LocalDate.of(2026, 1, 1).plusDays(i % 365)).append(",\r\n");
+            } else {
+                csv.append("electronics,").append(id).append(",\"Laptop, ").append(i).append(" \"\"pro\"\"\",Electronics,")
+                        .append(i).append(",2.2,,").append(i % 36).append('\n');
+            }
+        }
+
+        // Act
+        ImportReport report = new CsvInventoryImporter(warehouse, 64, 4_096).importFile(write(csv.toString()));
+
+        // Assert
+        assertThat(report.getImportedRows()).isEqualTo(20_000);
+        assertThat(report.getMalformedRows()).isZero();
+        FoodProduct milk = (FoodProduct) warehouse.getProductById(ids.get(10)).orElseThrow();
+        assertThat(milk.name()).isEqualTo("Milk 10");
+        assertThat(milk.category()).isSameAs(Category.of("Dairy"));
+        assertThat(milk.price()).isEqualTo(new BigDecimal("10.50"));
+        assertThat(milk.expirationDate()).isEqualTo(LocalDate.of(2026, 1, 11));
+        ElectronicsProduct laptop = (ElectronicsProduct) warehouse.getProductById(ids.get(11)).orElseThrow();
+        assertThat(laptop.name()).isEqualTo("Laptop, 11 \"pro\"");
+        assertThat(laptop.getWarrantyMonths()).isEqualTo(11);
+    }
+
+    @Test
+    @DisplayName("🧾 should report malformed and duplicate rows by offset and keep going")
+    void should_reportMalformedRows() throws IOException {
+        // Arrange
+        UUID existing = UUID.randomUUID();
+        warehouse.addProduct(new ElectronicsProduct(existing, "Old", Category.of("Electronics"), BigDecimal.ONE, 1, BigDecimal.ONE));
+        String good = "food," + UUID.randomUUID() + ",Cheese,Dairy,20,1,2026-05-01,\n";
+        String badType = "toy," + UUID.randomUUID() + ",Ball,Toys,5,1,,1\n";
+        String badPrice = "food," + UUID.randomUUID() + ",Bread,Bakery,abc,1,2026-05-01,\n";
+        String badDate = "food," + UUID.randomUUID() + ",Bread,Bakery,3,1,2026-02-30,\n";
+        String fewFields = "electronics," + UUID.randomUUID() + ",Phone\n";
+        String negative = "food," + UUID.randomUUID() + ",Bread,Bakery,-3,1,2026-05-01,\n";
+        String duplicate = "electronics," + existing + ",Again,Electronics,1,1,,1\n";
+        String content = good + badType + badPrice + "\n" + badDate + fewFields + negative + duplicate;
+
+        // Act
+        ImportReport report = new CsvInventoryImporter(warehouse).importFile(write(content));
+
+        // Assert
+        assertThat(report.getImportedRows()).isEqualTo(1);
+        assertThat(report.getMalformedRows()).isEqualTo(6);
+        assertThat(report.getMalformedSamples()).extracting(ImportReport.MalformedRow::offset)
+                .containsExactly((long) good.length(), (long) content.indexOf(badPrice), (long) content.indexOf(badDate),
+                        (long) content.indexOf(fewFields), (long) content.indexOf(negative), (long) content.indexOf(duplicate));
+        assertThat(report.getMalformedSamples()).extracting(ImportReport.MalformedRow::reason)
+                .contains("Unknown product type.", "Invalid price.", "Price cannot be negative.")
+                .anyMatch(reason -> reason.startsWith("Duplicate product id"));
+        assertThat(warehouse.getProductById(existing).orElseThrow().name()).isEqualTo("Old");
+    }
+
+    @Test
+    @DisplayName("📭 should handle an empty file")
+    void should_handleEmptyFile() throws IOException {
+        ImportReport report = new CsvInventoryImporter(warehouse).importFile(write(""));
+        assertThat(report.getImportedRows()).isZero();
+        assertThat(report.getMalformedSamples()).isEmpty();
+    }
+}
@@ -0,0 +1,137 @@
+package com.example;
+
+import org.junit.jupiter.api.*;
+
+import java.math.BigDecimal;
+import java.time.Duration;
+import java.time.LocalDate;
+import java.util.*;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+/**
+ * Tests for the concurrent dashboard refresh.
+ */
+@DisplayName("Dashboard")
+class DashboardTest {
+
+    private Warehouse warehouse;
+    private WarehouseAnalyzer analyzer;
+    private FaultyMilk faulty;
+
+    //Milk whose expiration date can be made to fail or hang once it is in the warehouse
+    private static class FaultyMilk extends FoodProduct {
+        volatile boolean failing;
+        volatile boolean hanging;
+
+        FaultyMilk() {
+            super(UUID.randomUUID(), "Faulty milk", Category.of("Dairy"), BigDecimal.ONE,
+                    LocalDate.now().plusDays(3), BigDecimal.ONE);
+        }
+
+        @Override
+        public LocalDate expirationDate() {
+            if (failing) {
+                throw new UnsupportedOperationException("broken sensor");
+            }
+            if (hanging) {
+                try {
+                    Thread.sleep(Duration.ofSeconds(30));
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+            }
+            return super.expirationDate();
+        }
+    }
+
+    @BeforeEach
+    void setUp() {
+        warehouse = Warehouse.getInstance("DashboardTestWarehouse", 4);
+        warehouse.clearProducts();
+        LocalDate today = LocalDate.now();
+        for (int i = 0; i < 200; i++) {
+            warehouse.addProduct(new FoodProduct(UUID.randomUUID(), "Milk " + i, Category.of("Dairy"),
+                    BigDecimal.valueOf(10 + i % 5), today.plusDays(i % 20 - 5), BigDecimal.ONE));
+            warehouse.addProduct(new ElectronicsProduct(UUID.randomUUID(), "Laptop " + i, Category.of("Electronics"),
+                    BigDecimal.valueOf(1000 + i), 24, BigDecimal.TWO));
+        }
+        warehouse.addProduct(new ElectronicsProduct(UUID.randomUUID(), "Server", Category.of("Electronics"),
+                new BigDecimal("100000"), 36, BigDecimal.TEN));
+        faulty = new FaultyMilk();
+        warehouse.addProduct(faulty);
+        analyzer = new WarehouseAnalyzer(warehouse);
+    }
+
+    @AfterEach
+    void tearDown() {
+        faulty.failing = false;
+        faulty.hanging = false;
+        warehouse.clearProducts();
+    }
+
+    @Test
+    @DisplayName("📊 should match the individual analyses at one version")
+    void should_matchIndividualAnalyses() throws InterruptedException {
+        // Act
+        InventoryDashboard dashboard = analyzer.getDashboard(Duration.ofSeconds(30));
+
+        // Assert
+        assertThat(dashboard.version()).isEqualTo(warehouse.getVersion());
+        assertThat(dashboard.statistics().getTotalProducts()).isEqualTo(402);
+        assertThat(dashboard.validation().getCategoryDiversity()).isEqualTo(2);
+        assertThat(dashboard.weightedAveragePrices())
+                .isEqualTo(analyzer.calculateWeightedAveragePriceByCategory());
+        assertThat(dashboard.expiringSoon())
+                .containsExactlyInAnyOrderElementsOf(analyzer.findProductsExpiringWithinDays(7));
+        assertThat(dashboard.expirationDiscounts()).isEqualTo(analyzer.calculateExpirationBasedDiscounts());
+        assertThat(dashboard.priceOutliers()).extracting(Product::name).containsExactly("Server");
+        assertThat(dashboard.mostExpensive()).hasSize(10)
+                .containsExactlyElementsOf(analyzer.findMostExpensiveProducts(10));
+    }
+
+    @Test
+    @DisplayName("💥 should fail fast when one analysis fails")
+    void should_failFast() {
+        // Arrange
+        faulty.failing = true;
+
+        // Act & Assert
+        assertThatThrownBy(() -> analyzer.getDashboard(Duration.ofSeconds(30)))
+                .isInstanceOf(RuntimeException.class)
+                .hasRootCauseInstanceOf(UnsupportedOperationException.class)
+                .hasRootCauseMessage("broken sensor");
+    }
+
+    @Test
+    @DisplayName("⏱️ should cancel the analyses when the deadline passes")
+    void should_timeOut() {
+        // Arrange
+        faulty.hanging = true;
+        long start = System.nanoTime();
+
+        // Act & Assert
+        assertThatThrownBy(() -> analyzer.getDashboard(Duration.ofMillis(100)))
+                .isInstanceOf(RuntimeException.class);
+        assertThat(Duration.ofNanos(System.nanoTime() - start)).isLessThan(Duration.ofSeconds(10));
+        assertThatThrownBy(() -> analyzer.getDashboard(Duration.ZERO))
+                .isInstanceOf(IllegalArgumentException.class);
+    }
+
+    @Test
+    @DisplayName("🛑 should stop when the caller is interrupted")
+    void should_stop_whenInterrupted() {
+        // Arrange
+        faulty.hanging = true;
+        Thread.currentThread().interrupt();
+
+        // Act & Assert
+        try {
+            assertThatThrownBy(() -> analyzer.getDashboard(Duration.ofSeconds(30)))
+                    .isInstanceOf(InterruptedException.class);
+        } finally {
+            Thread.interrupted();
+        }
+    }
+}
@@ -0,0 +1,114 @@
+package com.example;
+
+import org.junit.jupiter.api.*;
+
+import java.math.BigDecimal;
+import java.time.Duration;
+import java.time.LocalDate;
+import java.util.*;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Tests for the timing-wheel based expiration sweeper.
+ */
+@DisplayName("Expiration Sweeper")
+class ExpirationSweeperTest {
+
+    private Warehouse warehouse;
+    private final List<ExpirationSweeper.ExpirationEvent> events = new CopyOnWriteArrayList<>();
+
+    @BeforeEach
+    void setUp() {
+        warehouse = Warehouse.getInstance("SweeperTestWarehouse", 2);
+        warehouse.clearProducts();
+        events.clear();
+    }
+
+    private FoodProduct food(String name, LocalDate expiration) {
+        FoodProduct product = new FoodProduct(UUID.randomUUID(), name, Category.of("Dairy"), new BigDecimal("10"),
+                expiration, BigDecimal.ONE);
+        warehouse.addProduct(product);
+        return product;
+    }
+
+    @Test
+    @DisplayName("⏱️ should hand out every item exactly on its deadline")
+    void should_fireOnDeadline_acrossLevels() {
+        // Arrange
+        TimingWheel<Integer> wheel = new TimingWheel<>(1_000);
+        Random random = new Random(5);
+        Map<Integer, Long> deadlines = new HashMap<>();
+        for (int i = 0; i < 5_000; i++) {
+            long deadline = 1_001 + random.nextInt(300_000);
+            deadlines.put(i, deadline);
+            wheel.schedule(i, deadline);
+        }
+        wheel.cancel(0);
+        deadlines.remove(0);
+
+        // Act
+        Map<Integer, Long> fired = new HashMap<>();
+        for (long tick = 1_001; tick <= 301_000; tick++) {
+            long now = tick;
+            wheel.advanceTo(tick, item -> fired.put(item, now));
+        }
+
+        // Assert
+        assertThat(fired).isEqualTo(deadlines);
+        assertThat(wheel.size()).isZero();
+    }
+
+    @Test
+    @DisplayName("🗑️ should move expired products out of live stock as days pass")
+    void should_moveExpiredProducts() {
+        // Arrange
+        LocalDate today = LocalDate.now();
+        FoodProduct stale = food("Stale", today.minusDays(2));
+        FoodProduct milk = food("Milk", today);
+        FoodProduct cheese = food("Cheese", today.plusDays(100));
+        FoodProduct removed = food("Removed", today);
+        warehouse.addProduct(new ElectronicsProduct(UUID.randomUUID(), "Laptop", Category.of("Electronics"),
+                new BigDecimal("999"), 12, BigDecimal.ONE));
+
+        try (ExpirationSweeper sweeper = ExpirationSweeper.attach(warehouse, ExpirationSweeper.Mode.MOVE_TO_EXPIRED, events::add)) {
+            warehouse.remove(removed.uuid());
+
+            // Act & Assert
+            assertThat(sweeper.sweep()).isEqualTo(1);
+            assertThat(sweeper.getExpiredProducts()).containsExactly(stale);
+            assertThat(sweeper.sweepUpTo(today.plusDays(1))).isEqualTo(1);
+            assertThat(warehouse.getProductById(milk.uuid())).isEmpty();
+            assertThat(sweeper.sweepUpTo(today.plusDays(101))).isEqualTo(1);
+            assertThat(sweeper.getExpiredProducts()).containsExactly(stale, milk, cheese);
+            assertThat(sweeper.getSweptValue()).isEqualByComparingTo("30");
+            assertThat(sweeper.getScheduledCount()).isZero();
+            assertThat(events).extracting(ExpirationSweeper.ExpirationEvent::product).containsExactly(stale, milk, cheese);
+            assertThat(warehouse.getProducts()).hasSize(1);
+            assertThat(warehouse.find(ProductQuery.where().inCategory(Category.of("Dairy")))).isEmpty();
+        }
+    }
+
+    @Test
+    @DisplayName("🧵 should purge expired products on a background thread")
+    void should_purgeInBackground() throws InterruptedException {
+        // Arrange
+        FoodProduct stale = food("Stale", LocalDate.now().minusDays(1));
+
+        // Act
+        try (ExpirationSweeper sweeper = ExpirationSweeper.start(warehouse, ExpirationSweeper.Mode.PURGE,
+                Duration.ofMillis(10), events::add)) {
+            long deadline = System.nanoTime() + Duration.ofSeconds(5).toNanos();
+            while (events.isEmpty() && System.nanoTime() < deadline) {
+                Thread.sleep(10);
+            }
+
+            // Assert
+            assertThat(events).extracting(ExpirationSweeper.ExpirationEvent::mode).containsExactly(ExpirationSweeper.Mode.PURGE);
+            assertThat(warehouse.getProductById(stale.uuid())).isEmpty();
+            assertThat(sweeper.getExpiredProducts()).isEmpty();
+            assertThat(sweeper.getSweptCount()).isEqualTo(1);
+        }
+    }
+}
@@ -0,0 +1,95 @@
+package com.example;
+
+import org.junit.jupiter.api.*;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.*;
+import java.util.stream.IntStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Tests for analytics federated across several named warehouses.
+ */
+@DisplayName("Federated Analytics")
+class FederatedAnalyzerTest {
+
+    private Warehouse north;
+    private Warehouse south;
+    private FederatedAnalyzer federated;
+
+    @BeforeEach
+    void setUp() {
+        north = Warehouse.getInstance("FederatedNorth");
+        south = Warehouse.getInstance("FederatedSouth", 4);
+        north.clearProducts();
+        south.clearProducts();
+        federated = FederatedAnalyzer.of("FederatedNorth", "FederatedSouth");
+    }
+
+    @Test
+    @DisplayName("📊 should combine weighted sums instead of averaging the per-site averages")
+    void should_combineWeightedSums_acrossWarehouses() {
+        // Arrange - North: 10 * 2kg, South: 30 * 0.5kg + 5 * 1kg => (20 + 15 + 5) / 3.5 = 11.43
+        Category dairy = Category.of("Dairy");
+        north.addProduct(new FoodProduct(UUID.randomUUID(), "Milk", dairy,
+                new BigDecimal("10.00"), LocalDate.now().plusDays(5), new BigDecimal("2.0")));
+        south.addProduct(new FoodProduct(UUID.randomUUID(), "Cheese", dairy,
+                new BigDecimal("30.00"), LocalDate.now().plusDays(10), new BigDecimal("0.5")));
+        south.addProduct(new FoodProduct(UUID.randomUUID(), "Yogurt", dairy,
+                new BigDecimal("5.00"), LocalDate.now().plusDays(3), new BigDecimal("1.0")));
+
+        // Act
+        FederatedResult<Map<Category, BigDecimal>> result = federated.calculateWeightedAveragePriceByCategory();
+
+        // Assert
+        assertThat(result.getValue().get(dairy))
+                .as("Weighted average must be computed from pooled weighted sums")
+                .isEqualByComparingTo(new BigDecimal("11.43"));
+        assertThat(result.getTimings())
+                .as("Should report timing for every warehouse")
+                .containsOnlyKeys("FederatedNorth", "FederatedSouth");
+    }
+
+    @Test
+    @DisplayName("📊 should detect outliers against the pooled mean and variance")
+    void should_detectOutliers_usingPooledVariance() {
+        // Arrange - Each site alone looks uniform; only the pooled view reveals the outlier
+        IntStream.rangeClosed(1, 10).forEach(i -> north.addProduct(new FoodProduct(UUID.randomUUID(),
+                "Normal" + i, Category.of("Test"), new BigDecimal("15.00").add(new BigDecimal(i % 3)),
+                LocalDate.now().plusDays(5), BigDecimal.ONE)));
+        Product expensive = new ElectronicsProduct(UUID.randomUUID(), "Expensive", Category.of("Test"),
+                new BigDecimal("35.00"), 12, BigDecimal.ONE);
+        south.addProduct(expensive);
+
+        // Act
+        List<Product> outliers = federated.findPriceOutliers(2.0).getValue();
+
+        // Assert
+        assertThat(outliers).containsExactly(expensive);
+    }
+
+    @Test
+    @DisplayName("📊 should merge statistics and validation over all warehouses")
+    void should_mergeStatisticsAndValidation() {
+        // Arrange
+        north.addProduct(new FoodProduct(UUID.randomUUID(), "Milk", Category.of("Dairy"),
+                new BigDecimal("15.50"), LocalDate.now().minusDays(1), new BigDecimal("1.0")));
+        south.addProduct(new ElectronicsProduct(UUID.randomUUID(), "Laptop", Category.of("Electronics"),
+                new BigDecimal("1500.00"), 24, new BigDecimal("2.5")));
+
+        // Act
+        InventoryStatistics stats = federated.getInventoryStatistics().getValue();
+        InventoryValidation validation = federated.validateInventoryConstraints().getValue();
+
+        // Assert
+        assertThat(stats.getTotalProducts()).isEqualTo(2);
+        assertThat(stats.getTotalValue()).isEqualByComparingTo("1515.50");
+        assertThat(stats.getExpiredCount()).isEqualTo(1);
+        assertThat(stats.getMostExpensiveProduct().name()).isEqualTo("Laptop");
+        assertThat(stats.getCheapestProduct().name()).isEqualTo("Milk");
+        assertThat(validation.getHighValuePercentage()).isEqualTo(50.0);
+        assertThat(validation.getCategoryDiversity()).isEqualTo(2);
+    }
+}
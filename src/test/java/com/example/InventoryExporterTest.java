@@ -0,0 +1,129 @@
+package com.example;
+
+import org.junit.jupiter.api.*;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDate;
+import java.util.*;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Tests for the streaming CSV and JSON Lines exporter.
+ */
+@DisplayName("Inventory Exporter")
+class InventoryExporterTest {
+
+    @TempDir
+    Path dir;
+
+    private Warehouse warehouse;
+
+    @BeforeEach
+    void setUp() {
+        warehouse = Warehouse.getInstance("ExportTestWarehouse", 4);
+        warehouse.clearProducts();
+    }
+
+    @Test
+    @DisplayName("🔁 should export CSV that imports back into an identical inventory")
+    void should_roundTripCsvThroughImporter() throws IOException {
+        // Arrange
+        for (int i = 0; i < 5_000; i++) {
+            if (i % 2 == 0) {
+                warehouse.addProduct(new FoodProduct(UUID.randomUUID(), "Milk " + i, Category.of("Dairy"),
+                        new BigDecimal(i % 700 + ".05"), LocalDate.of(2026, 1, 1).plusDays(i % 90), new BigDecimal("1.125")));
+            } else {
+                warehouse.addProduct(new ElectronicsProduct(UUID.randomUUID(), "Laptop, \"" + i + "\"", Category.of("Electronics"),
+                        BigDecimal.valueOf(i), i % 36, new BigDecimal("2.2")));
+            }
+        }
+        Path file = dir.resolve("inventory.csv");
+        Warehouse copy = Warehouse.getInstance("ExportTestCopy", 2);
+        copy.clearProducts();
+
+        // Act
+        long rows = new InventoryExporter(warehouse, InventoryExporter.Format.CSV).exportProducts(file);
+        ImportReport report = new CsvInventoryImporter(copy).importFile(file);
+
+        // Assert
+        assertThat(rows).isEqualTo(5_000);
+        assertThat(Files.size(file)).isGreaterThan(InventoryExporter.BUFFER_SIZE);
+        assertThat(report.getImportedRows()).isEqualTo(5_000);
+        assertThat(report.getMalformedRows()).isZero();
+        for (Product p : warehouse.getProducts()) {
+            Product imported = copy.getProductById(p.uuid()).orElseThrow();
+            assertThat(imported.name()).isEqualTo(p.name());
+            assertThat(imported.category()).isSameAs(p.category());
+            assertThat(imported.price()).isEqualTo(p.price());
+            assertThat(((Shippable) imported).weight()).isEqualTo(((Shippable) p).weight());
+            if (p instanceof FoodProduct food) {
+                assertThat(((FoodProduct) imported).expirationDate()).isEqualTo(food.expirationDate());
+            } else {
+                assertThat(((ElectronicsProduct) imported).getWarrantyMonths()).isEqualTo(((ElectronicsProduct) p).getWarrantyMonths());
+            }
+        }
+    }
+
+    @Test
+    @DisplayName("🧾 should write one escaped JSON object per line")
+    void should_writeJsonLines() throws IOException {
+        // Arrange
+        UUID id = UUID.randomUUID();
+        warehouse.addProduct(new ElectronicsProduct(id, "Tab\t\"Pro\"\\ \u0001 Caf\u00e9", Category.of("Electronics"),
+                new BigDecimal("1E+3"), 12, new BigDecimal("0.5")));
+        UUID breadId = UUID.randomUUID();
+        warehouse.addProduct(new FoodProduct(breadId, "Bread", Category.of("Bakery"),
+                new BigDecimal("0.05"), LocalDate.of(2026, 3, 9), BigDecimal.ONE));
+        Path file = dir.resolve("inventory.jsonl");
+
+        // Act
+        new InventoryExporter(warehouse, InventoryExporter.Format.JSON_LINES).exportProducts(file);
+        List<String> lines = Files.readAllLines(file, StandardCharsets.UTF_8);
+
+        // Assert
+        assertThat(lines).containsExactly(
+                "{\"type\":\"food\",\"id\":\"" + breadId + "\",\"name\":\"Bread\",\"category\":\"Bakery\","
+                        + "\"price\":0.05,\"weight\":1,\"expiration\":\"2026-03-09\"}",
+                "{\"type\":\"electronics\",\"id\":\"" + id + "\",\"name\":\"Tab\\t\\\"Pro\\\"\\\\ \\u0001 Caf\u00e9\","
+                        + "\"category\":\"Electronics\",\"price\":1000,\"weight\":0.5,\"warranty\":12}");
+    }
+
+    @Test
+    @DisplayName("📊 should export statistics, discounts and shipping groups")
+    void should_exportAnalyzerResults() throws IOException {
+        // Arrange
+        LocalDate today = LocalDate.now();
+        FoodProduct milk = new FoodProduct(UUID.randomUUID(), "Milk", Category.of("Dairy"),
+                new BigDecimal("10.00"), today, new BigDecimal("4"));
+        ElectronicsProduct tv = new ElectronicsProduct(UUID.randomUUID(), "TV", Category.of("Electronics"),
+                new BigDecimal("500.00"), 24, new BigDecimal("8"));
+        warehouse.addProduct(milk);
+        warehouse.addProduct(tv);
+        InventoryExporter exporter = new InventoryExporter(warehouse, InventoryExporter.Format.CSV);
+
+        // Act
+        exporter.exportStatistics(dir.resolve("stats.csv"));
+        long discountRows = exporter.exportDiscounts(dir.resolve("discounts.csv"));
+        long shippingRows = exporter.exportShippingGroups(dir.resolve("shipping.csv"), new BigDecimal("10"));
+
+        // Assert
+        assertThat(Files.readAllLines(dir.resolve("stats.csv"))).containsExactly(
+                "totalProducts,totalValue,averagePrice,expiredCount,categoryCount,mostExpensiveId,cheapestId",
+                "2,510.00,255.00,0,2," + tv.uuid() + "," + milk.uuid());
+        assertThat(discountRows).isEqualTo(2);
+        assertThat(Files.readAllLines(dir.resolve("discounts.csv"))).containsExactly(
+                "id,name,price,discountedPrice",
+                milk.uuid() + ",Milk,10.00,5.00",
+                tv.uuid() + ",TV,500.00,500.00");
+        assertThat(shippingRows).isEqualTo(2);
+        assertThat(Files.readAllLines(dir.resolve("shipping.csv")))
+                .hasSize(3)
+                .contains("0," + tv.uuid() + ",TV,8.0,8.0," + tv.calculateShippingCost());
+    }
+}
@@ -0,0 +1,185 @@
+package com.example;
+
+import org.junit.jupiter.api.*;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.*;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.assertj.core.api.Assertions.offset;
+
+/**
+ * Tests for the live shipping plan kept by the online planner.
+ */
+@DisplayName("Online Shipping Planner")
+class OnlineShippingPlannerTest {
+
+    private Warehouse warehouse;
+    private OnlineShippingPlanner planner;
+
+    @BeforeEach
+    void setUp() {
+        warehouse = Warehouse.getInstance("OnlineShippingPlannerTestWarehouse", 4);
+        warehouse.clearProducts();
+    }
+
+    @AfterEach
+    void tearDown() {
+        if (planner != null) {
+            planner.close();
+        }
+        warehouse.clearProducts();
+    }
+
+    private static Product box(String weight) {
+        return new ElectronicsProduct(UUID.randomUUID(), "Box " + weight, Category.of("Electronics"),
+                BigDecimal.TEN, 12, new BigDecimal(weight));
+    }
+
+    @Test
+    @DisplayName("📦 should place each arrival into the fullest group it fits in")
+    void should_placeBestFit() {
+        // Arrange
+        planner = OnlineShippingPlanner.attach(warehouse, new BigDecimal("10"));
+        Product six = box("6");
+        Product seven = box("7");
+        Product three = box("3");
+        Product four = box("4");
+        Product five = box("5");
+
+        // Act & Assert
+        warehouse.addProduct(six);
+        warehouse.addProduct(seven);
+        warehouse.addProduct(three);
+        assertThat(planner.getGroupOf(three.uuid())).get()
+                .extracting(ShippingGroup::getTotalWeight).isEqualTo(10.0);
+        warehouse.addProduct(four);
+        assertThat(planner.getGroupOf(four.uuid()).orElseThrow().getProducts()).containsExactly(
+                (Shippable) six, (Shippable) four);
+
+        //Removing the 7 leaves room for the 5 next to the 3
+        warehouse.remove(seven.uuid());
+        warehouse.addProduct(five);
+        ShippingGroup group = planner.getGroupOf(five.uuid()).orElseThrow();
+        assertThat(group.getProducts()).containsExactly((Shippable) three, (Shippable) five);
+        assertThat(group.getTotalWeight()).isEqualTo(8.0);
+        assertThat(planner.getGroupCount()).isEqualTo(2);
+        assertThat(planner.getGroupOf(seven.uuid())).isEmpty();
+    }
+
+    @Test
+    @DisplayName("🧾 should keep running totals that match the items")
+    void should_keepRunningTotals() {
+        // Arrange
+        Random random = new Random(11);
+        List<Product> products = new ArrayList<>();
+        for (int i = 0; i < 2_000; i++) {
+            products.add(i % 2 == 0
+                    ? box(BigDecimal.valueOf(random.nextInt(1, 800), 2).toPlainString())
+                    : new FoodProduct(UUID.randomUUID(), "Flour " + i, Category.of("Bakery"), BigDecimal.ONE,
+                            LocalDate.now().plusDays(30), BigDecimal.valueOf(random.nextInt(1, 900), 2)));
+        }
+        //Half arrive before attaching, half after
+        warehouse.addProducts(products.subList(0, 1_000));
+        planner = OnlineShippingPlanner.attach(warehouse, new BigDecimal("10"));
+        products.subList(1_000, 2_000).forEach(warehouse::addProduct);
+        warehouse.removeProducts(products.subList(0, 500).stream().map(Product::uuid).toList());
+
+        // Act
+        int groupsBefore = planner.getGroupCount();
+        int saved = planner.compact();
+
+        // Assert
+        List<ShippingGroup> groups = planner.getGroups();
+        assertThat(groups).hasSize(groupsBefore - saved).allSatisfy(g -> {
+            assertThat(g.getTotalWeight()).isLessThanOrEqualTo(10.0);
+            assertThat(g.getTotalWeight()).isCloseTo(
+                    g.getProducts().stream().mapToDouble(Shippable::weight).sum(), offset(1e-9));
+            assertThat(g.getTotalShippingCost()).isEqualByComparingTo(g.getProducts().stream()
+                    .map(Shippable::calculateShippingCost).reduce(BigDecimal.ZERO, BigDecimal::add));
+        });
+        assertThat(saved).isGreaterThanOrEqualTo(0);
+        assertThat(groups.stream().flatMap(g -> g.getProducts().stream()))
+                .hasSize(1_500)
+                .containsExactlyInAnyOrderElementsOf(warehouse.shippableProducts());
+        assertThat(planner.getTotalShippingCost()).isEqualByComparingTo(groups.stream()
+                .map(ShippingGroup::getTotalShippingCost).reduce(BigDecimal.ZERO, BigDecimal::add));
+        double totalWeight = groups.stream().mapToDouble(ShippingGroup::getTotalWeight).sum();
+        assertThat(groups.size()).isGreaterThanOrEqualTo((int) Math.ceil(totalWeight / 10.0));
+        assertThat(planner.getCompactionCount()).isEqualTo(1);
+    }
+
+    @Test
+    @DisplayName("🎯 should not let removals drift a group's load")
+    void should_keepExactLoad_afterRemoval() {
+        // Arrange
+        planner = OnlineShippingPlanner.attach(warehouse, BigDecimal.ONE);
+        Product tenth = box("0.1");
+        Product half = box("0.5");
+        warehouse.addProduct(tenth);
+        warehouse.addProduct(box("0.2"));
+        warehouse.addProduct(box("0.3"));
+
+        // Act
+        //Subtracting 0.1 from 0.1 + 0.2 + 0.3 leaves 0.5000000000000001
+        warehouse.remove(tenth.uuid());
+        warehouse.addProduct(half);
+
+        // Assert
+        assertThat(planner.getGroupCount()).isEqualTo(1);
+        assertThat(planner.getGroupOf(half.uuid())).get()
+                .extracting(ShippingGroup::getTotalWeight).isEqualTo(1.0);
+    }
+
+    @Test
+    @DisplayName("👻 should not keep a product whose removal was reported before its addition")
+    void should_followWarehouse_whenEventsArriveOutOfOrder() {
+        // Arrange
+        Product ghost = box("3");
+        //Removes the product from inside its add event, so the removal reaches the planner first
+        ProductListener remover = new ProductListener() {
+            @Override
+            public void productAdded(Product product) {
+                if (product == ghost) {
+                    warehouse.remove(ghost.uuid());
+                }
+            }
+        };
+        warehouse.addListener(remover);
+        planner = OnlineShippingPlanner.attach(warehouse, BigDecimal.TEN);
+
+        // Act
+        warehouse.addProduct(ghost);
+        warehouse.addProduct(box("4"));
+        warehouse.removeListener(remover);
+
+        // Assert
+        assertThat(planner.getGroupOf(ghost.uuid())).isEmpty();
+        assertThat(planner.getGroups()).extracting(ShippingGroup::getTotalWeight).containsExactly(4.0);
+        assertThat(planner.compact()).isZero();
+        assertThat(planner.getTotalShippingCost()).isEqualByComparingTo(
+                ((Shippable) warehouse.getProducts().getFirst()).calculateShippingCost());
+    }
+
+    @Test
+    @DisplayName("🚪 should stop following the warehouse once closed")
+    void should_detach_onClose() {
+        // Arrange
+        planner = OnlineShippingPlanner.attach(warehouse, new BigDecimal("5"));
+        warehouse.addProduct(box("12"));
+        warehouse.addProduct(box("1"));
+
+        // Act
+        planner.close();
+        warehouse.addProduct(box("2"));
+
+        // Assert
+        assertThat(planner.getGroups()).extracting(ShippingGroup::getTotalWeight).containsExactly(12.0, 1.0);
+        warehouse.clearProducts();
+        assertThat(planner.getGroupCount()).isEqualTo(2);
+        assertThatThrownBy(() -> OnlineShippingPlanner.attach(warehouse, BigDecimal.ZERO))
+                .isInstanceOf(IllegalArgumentException.class);
+    }
+}
@@ -0,0 +1,118 @@
+package com.example;
+
+import org.junit.jupiter.api.*;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.*;
+import java.util.stream.IntStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Tests for lazy result streams and keyset pagination.
+ */
+@DisplayName("Lazy and Paginated Queries")
+class PaginationTest {
+
+    private Warehouse warehouse;
+    private WarehouseAnalyzer analyzer;
+
+    @BeforeEach
+    void setUp() {
+        warehouse = Warehouse.getInstance("PaginationTestWarehouse", 4);
+        warehouse.clearProducts();
+        analyzer = new WarehouseAnalyzer(warehouse);
+        // 300 products, three per price point so ties are broken by id
+        IntStream.range(0, 300).forEach(i -> warehouse.addProduct(i % 2 == 0
+                ? new FoodProduct(UUID.randomUUID(), "Milk " + i, Category.of("Dairy"),
+                        BigDecimal.valueOf(i / 3), LocalDate.now().plusDays(i % 5 - 2), BigDecimal.ONE)
+                : new ElectronicsProduct(UUID.randomUUID(), "Cable " + i, Category.of("Electronics"),
+                        BigDecimal.valueOf(i / 3), 12, BigDecimal.ONE)));
+    }
+
+    @Test
+    @DisplayName("📄 should page through a price range in (price, id) order without gaps or duplicates")
+    void should_pageThroughPriceRange() {
+        // Arrange
+        List<Product> expected = analyzer.findProductsInPriceRange(new BigDecimal("10"), new BigDecimal("60"));
+        expected = new ArrayList<>(expected);
+        expected.sort(Page.KEYSET_ORDER);
+
+        // Act
+        List<Product> paged = new ArrayList<>();
+        Page<Product> page = analyzer.findProductsInPriceRange(new BigDecimal("10"), new BigDecimal("60"), null, 50);
+        paged.addAll(page.getItems());
+        while (page.hasNext()) {
+            assertThat(page.getItems()).hasSize(50);
+            page = analyzer.findProductsInPriceRange(new BigDecimal("10"), new BigDecimal("60"), page.getNext(), 50);
+            paged.addAll(page.getItems());
+        }
+
+        // Assert
+        assertThat(paged).containsExactlyElementsOf(expected);
+    }
+
+    @Test
+    @DisplayName("📄 should continue after a given price and id")
+    void should_continueAfterCursor() {
+        // Arrange
+        Product tenth = warehouse.stream(ProductQuery.where()).skip(9).findFirst().orElseThrow();
+
+        // Act
+        Page<Product> page = warehouse.findPage(ProductQuery.where(), Page.Cursor.after(tenth), 5);
+
+        // Assert
+        assertThat(page.getItems())
+                .hasSize(5)
+                .allSatisfy(p -> assertThat(Page.KEYSET_ORDER.compare(p, tenth)).isPositive());
+        assertThat(page.getItems())
+                .containsExactlyElementsOf(warehouse.stream(ProductQuery.where()).skip(10).limit(5).toList());
+    }
+
+    @Test
+    @DisplayName("🗂️ should page selective queries from their index in the same keyset order")
+    void should_pageSelectiveQueries() {
+        // Arrange
+        IntStream.range(0, 5_000).forEach(i -> warehouse.addProduct(new ElectronicsProduct(UUID.randomUUID(),
+                "Bulk " + i, Category.of("Bulk"), BigDecimal.valueOf(i % 100), 12, BigDecimal.ONE)));
+        List<ProductQuery> queries = List.of(
+                ProductQuery.where().expiringBetween(null, LocalDate.now().minusDays(1)),
+                ProductQuery.where().ofType(Perishable.class),
+                ProductQuery.where().ofType(FoodProduct.class).priceAtMost(new BigDecimal("50")),
+                ProductQuery.where().inCategory(Category.of("Dairy")).nameContains("1"),
+                ProductQuery.where().ofType(Shippable.class));
+
+        for (ProductQuery query : queries) {
+            List<Product> expected = new ArrayList<>(warehouse.find(query));
+            expected.sort(Page.KEYSET_ORDER);
+
+            // Act
+            List<Product> paged = new ArrayList<>();
+            Page<Product> page = warehouse.findPage(query, null, 7);
+            paged.addAll(page.getItems());
+            while (page.hasNext()) {
+                page = warehouse.findPage(query, page.getNext(), 7);
+                paged.addAll(page.getItems());
+            }
+
+            // Assert
+            assertThat(paged).as(query.toString()).isNotEmpty().containsExactlyElementsOf(expected);
+        }
+        assertThat(warehouse.expiredProducts(null, 500).getItems())
+                .containsExactlyInAnyOrderElementsOf(warehouse.expiredProducts());
+    }
+
+    @Test
+    @DisplayName("🌊 should stream filtered results lazily and match the list-returning queries")
+    void should_streamLazily() {
+        // Assert
+        assertThat(analyzer.streamProductsByName("milk").toList())
+                .containsExactlyInAnyOrderElementsOf(analyzer.searchProductsByName("milk"));
+        assertThat(warehouse.streamExpiredProducts().toList())
+                .containsExactlyInAnyOrderElementsOf(warehouse.expiredProducts());
+        assertThat(warehouse.streamShippableProducts().count()).isEqualTo(300);
+        assertThat(warehouse.shippableProducts(null, 50).getItems()).hasSize(50);
+        assertThat(analyzer.searchProductsByName("cable", null, 500).hasNext()).isFalse();
+    }
+}
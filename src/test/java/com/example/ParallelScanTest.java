@@ -0,0 +1,123 @@
+package com.example;
+
+import org.junit.jupiter.api.*;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinWorkerThread;
+import java.util.stream.IntStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+/**
+ * Tests for splitting analyzer scans over a configurable fork-join pool.
+ */
+@DisplayName("Parallel Scans")
+class ParallelScanTest {
+
+    private static Warehouse warehouse;
+
+    @BeforeAll
+    static void setUp() {
+        warehouse = Warehouse.getInstance("ParallelScanTestWarehouse", 3);
+        warehouse.clearProducts();
+        Random random = new Random(7);
+        LocalDate today = LocalDate.now();
+        List<Product> products = new ArrayList<>();
+        for (int i = 0; i < 20_000; i++) {
+            //Prices with many digits, so any difference in summation order would show
+            BigDecimal price = BigDecimal.valueOf(random.nextLong(1, 10_000_000), random.nextInt(1, 5));
+            products.add(i % 2 == 0
+                    ? new FoodProduct(UUID.randomUUID(), "Cheese " + i, Category.of("Dairy"), price,
+                            today.plusDays(i % 30 - 10), BigDecimal.valueOf(random.nextInt(1, 5_000), 3))
+                    : new ElectronicsProduct(UUID.randomUUID(), "Cable " + i, Category.of("Electronics"), price,
+                            12, BigDecimal.valueOf(random.nextInt(1, 5_000), 3)));
+        }
+        warehouse.addProducts(products);
+    }
+
+    @AfterAll
+    static void tearDown() {
+        warehouse.clearProducts();
+    }
+
+    @Test
+    @DisplayName("🎯 should give identical results for any parallelism and threshold")
+    void should_beDeterministic() {
+        // Arrange
+        WarehouseAnalyzer sequential = new WarehouseAnalyzer(warehouse, ForkJoinPool.commonPool(), Integer.MAX_VALUE);
+        InventoryStatistics expected = sequential.getInventoryStatistics();
+
+        for (int parallelism : new int[]{1, 3, 8}) {
+            try (ForkJoinPool pool = new ForkJoinPool(parallelism)) {
+                for (int threshold : new int[]{1, 97, 4_096}) {
+                    // Act
+                    WarehouseAnalyzer parallel = new WarehouseAnalyzer(warehouse, pool, threshold);
+                    InventoryStatistics statistics = parallel.getInventoryStatistics();
+
+                    // Assert
+                    assertThat(statistics.getTotalValue()).isEqualTo(expected.getTotalValue());
+                    assertThat(statistics.getAveragePrice()).isEqualTo(expected.getAveragePrice());
+                    assertThat(statistics.getExpiredCount()).isEqualTo(expected.getExpiredCount());
+                    assertThat(statistics.getMostExpensiveProduct()).isSameAs(expected.getMostExpensiveProduct());
+                    assertThat(statistics.getCheapestProduct()).isSameAs(expected.getCheapestProduct());
+                    assertThat(parallel.priceMoments()).isEqualTo(sequential.priceMoments());
+                    assertThat(parallel.findPriceOutliers(1.5)).containsExactlyElementsOf(sequential.findPriceOutliers(1.5));
+                    assertThat(parallel.calculateWeightedAveragePriceByCategory())
+                            .isEqualTo(sequential.calculateWeightedAveragePriceByCategory());
+                    assertThat(parallel.findProductsAbovePrice(new BigDecimal("50000")))
+                            .containsExactlyElementsOf(sequential.findProductsAbovePrice(new BigDecimal("50000")));
+                    assertThat(parallel.validateInventoryConstraints().getHighValuePercentage())
+                            .isEqualTo(sequential.validateInventoryConstraints().getHighValuePercentage());
+                }
+            }
+        }
+    }
+
+    @Test
+    @DisplayName("🧵 should split large inputs on the given pool and keep small ones in the caller")
+    void should_adaptToSize() {
+        // Arrange
+        Set<String> threads = ConcurrentHashMap.newKeySet();
+        ForkJoinPool.ForkJoinWorkerThreadFactory factory = pool -> {
+            ForkJoinWorkerThread thread = ForkJoinPool.defaultForkJoinWorkerThreadFactory.newThread(pool);
+            thread.setName("scan-" + thread.getPoolIndex());
+            return thread;
+        };
+        List<List<Integer>> large = List.of(IntStream.range(0, 10_000).boxed().toList(), List.of(), List.of(7));
+        List<List<Integer>> small = List.of(List.of(1, 2), List.of(3));
+
+        try (ForkJoinPool pool = new ForkJoinPool(4, factory, null, false)) {
+            ParallelScan scan = new ParallelScan(pool, 100);
+
+            // Act
+            long largeSum = scan.reduce(large, range -> {
+                threads.add(Thread.currentThread().getName());
+                return range.stream().mapToLong(Integer::longValue).sum();
+            }, Long::sum);
+            List<Integer> concatenated = scan.reduce(large, ArrayList::new, (a, b) -> {
+                a.addAll(b);
+                return a;
+            });
+            String caller = Thread.currentThread().getName();
+            Set<String> smallThreads = ConcurrentHashMap.newKeySet();
+            int smallSum = scan.reduce(small, range -> {
+                smallThreads.add(Thread.currentThread().getName());
+                return range.stream().mapToInt(Integer::intValue).sum();
+            }, Integer::sum);
+
+            // Assert
+            assertThat(largeSum).isEqualTo(49_995_000L + 7);
+            assertThat(threads).isNotEmpty().allMatch(name -> name.startsWith("scan-"));
+            assertThat(concatenated).containsExactlyElementsOf(large.stream().flatMap(List::stream).toList());
+            assertThat(smallSum).isEqualTo(6);
+            assertThat(smallThreads).containsExactly(caller);
+        }
+        assertThatThrownBy(() -> new WarehouseAnalyzer(warehouse, ForkJoinPool.commonPool(), 0))
+                .isInstanceOf(IllegalArgumentException.class);
+    }
+}
@@ -0,0 +1,122 @@
+package com.example;
+
+import org.junit.jupiter.api.*;
+
+import java.math.BigDecimal;
+import java.util.*;
+import java.util.stream.IntStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+/**
+ * Tests for exact price percentiles and histograms backed by order-statistic trees.
+ */
+@DisplayName("Price Percentiles and Histograms")
+class PercentileTest {
+
+    private Warehouse warehouse;
+    private WarehouseAnalyzer analyzer;
+
+    @BeforeEach
+    void setUp() {
+        warehouse = Warehouse.getInstance("PercentileTestWarehouse", 4);
+        warehouse.clearProducts();
+        analyzer = new WarehouseAnalyzer(warehouse);
+        Random random = new Random(3);
+        IntStream.range(0, 2_000).forEach(i -> warehouse.addProduct(new ElectronicsProduct(UUID.randomUUID(),
+                "Gadget" + i, Category.of(i % 3 == 0 ? "Audio" : "Video"),
+                BigDecimal.valueOf(random.nextInt(50_000), 2), 12, BigDecimal.ONE)));
+    }
+
+    //Nearest-rank percentile computed by sorting, as the reference
+    private static BigDecimal expectedPercentile(List<Product> products, double percentile) {
+        List<BigDecimal> sorted = products.stream().map(Product::price).sorted().toList();
+        return sorted.get((int) WarehouseAnalyzer.nearestRank(percentile, sorted.size()) - 1);
+    }
+
+    @Test
+    @DisplayName("📊 should return exact percentiles overall and per category")
+    void should_returnExactPercentiles() {
+        // Arrange
+        List<Product> all = warehouse.getProducts();
+        List<Product> audio = all.stream().filter(p -> p.category().equals(Category.of("Audio"))).toList();
+
+        // Act & Assert
+        for (double percentile : new double[]{0, 1, 50, 90, 99, 100}) {
+            assertThat(analyzer.findPricePercentile(percentile)).contains(expectedPercentile(all, percentile));
+            assertThat(analyzer.findPricePercentile(Category.of("Audio"), percentile))
+                    .contains(expectedPercentile(audio, percentile));
+        }
+        assertThat(analyzer.findPricePercentileByCategory(90))
+                .containsOnlyKeys(Category.of("Audio"), Category.of("Video"))
+                .containsEntry(Category.of("Audio"), expectedPercentile(audio, 90));
+        assertThat(analyzer.findPricePercentile(Category.of("Unknown"), 50)).isEmpty();
+        assertThatThrownBy(() -> analyzer.findPricePercentile(101)).isInstanceOf(IllegalArgumentException.class);
+    }
+
+    @Test
+    @DisplayName("🎯 should not round the rank up when the percentile times the count is whole")
+    void should_useExactRank() {
+        // Arrange
+        warehouse.clearProducts();
+        IntStream.rangeClosed(1, 100).forEach(i -> warehouse.addProduct(new ElectronicsProduct(UUID.randomUUID(),
+                "Gadget" + i, Category.of("Audio"), BigDecimal.valueOf(i), 12, BigDecimal.ONE)));
+
+        // Act & Assert
+        //7 / 100.0 * 100 is 7.000000000000001 in doubles
+        assertThat(analyzer.findPricePercentile(7)).contains(BigDecimal.valueOf(7));
+        assertThat(WarehouseAnalyzer.nearestRank(28, 25)).isEqualTo(7);
+        assertThat(WarehouseAnalyzer.nearestRank(28, 50)).isEqualTo(14);
+        assertThat(WarehouseAnalyzer.nearestRank(28, 100)).isEqualTo(28);
+        assertThat(WarehouseAnalyzer.nearestRank(0, 100)).isEqualTo(1);
+        assertThat(WarehouseAnalyzer.nearestRank(99.5, 100)).isEqualTo(100);
+
+        warehouse.getProducts().stream().filter(p -> p.price().intValue() > 25).forEach(warehouse::remove);
+        assertThat(analyzer.findPricePercentile(28)).contains(BigDecimal.valueOf(7));
+    }
+
+    @Test
+    @DisplayName("🔄 should stay exact after price updates and removals")
+    void should_stayExact_underUpdates() {
+        // Arrange
+        List<Product> products = warehouse.getProducts();
+        for (int i = 0; i < 200; i++) {
+            warehouse.updateProductPrice(products.get(i).uuid(), BigDecimal.valueOf(1_000 + i));
+        }
+        products.subList(200, 400).forEach(p -> warehouse.remove(p.uuid()));
+
+        // Act & Assert
+        List<Product> remaining = warehouse.getProducts();
+        for (double percentile : new double[]{10, 50, 90, 95}) {
+            assertThat(analyzer.findPricePercentile(percentile)).contains(expectedPercentile(remaining, percentile));
+        }
+        warehouse.clearProducts();
+        assertThat(analyzer.findPricePercentile(50)).isEmpty();
+    }
+
+    @Test
+    @DisplayName("📊 should count products per price bucket")
+    void should_countPerBucket() {
+        // Arrange
+        BigDecimal[] boundaries = {new BigDecimal("100"), new BigDecimal("250"), new BigDecimal("400")};
+        List<Product> all = warehouse.getProducts();
+
+        // Act
+        List<PriceBucket> histogram = analyzer.getPriceHistogram(boundaries);
+
+        // Assert
+        assertThat(histogram).hasSize(4);
+        assertThat(histogram.getFirst().getLowerBound()).isNull();
+        assertThat(histogram.getLast().getUpperBound()).isNull();
+        assertThat(histogram).extracting(PriceBucket::getCount).containsExactly(
+                all.stream().filter(p -> p.price().compareTo(boundaries[0]) < 0).count(),
+                all.stream().filter(p -> p.price().compareTo(boundaries[0]) >= 0 && p.price().compareTo(boundaries[1]) < 0).count(),
+                all.stream().filter(p -> p.price().compareTo(boundaries[1]) >= 0 && p.price().compareTo(boundaries[2]) < 0).count(),
+                all.stream().filter(p -> p.price().compareTo(boundaries[2]) >= 0).count());
+        assertThat(analyzer.getPriceHistogram(Category.of("Audio")).getFirst().getCount())
+                .isEqualTo(all.stream().filter(p -> p.category().equals(Category.of("Audio"))).count());
+        assertThatThrownBy(() -> analyzer.getPriceHistogram(new BigDecimal("5"), new BigDecimal("5")))
+                .isInstanceOf(IllegalArgumentException.class);
+    }
+}
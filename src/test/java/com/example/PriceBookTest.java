@@ -0,0 +1,92 @@
+package com.example;
+
+import org.junit.jupiter.api.*;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+/**
+ * Tests for the daily discount price book and configurable discount tiers.
+ */
+@DisplayName("Daily Price Book")
+class PriceBookTest {
+
+    private Warehouse warehouse;
+    private FoodProduct milk;
+    private FoodProduct cheese;
+    private ElectronicsProduct laptop;
+
+    @BeforeEach
+    void setUp() {
+        warehouse = Warehouse.getInstance("PriceBookTestWarehouse", 2);
+        warehouse.clearProducts();
+        warehouse.setDiscountTiers(DiscountTiers.standard());
+        milk = new FoodProduct(UUID.randomUUID(), "Milk", Category.of("Dairy"), new BigDecimal("10.00"),
+                LocalDate.now(), BigDecimal.ONE);
+        cheese = new FoodProduct(UUID.randomUUID(), "Cheese", Category.of("Dairy"), new BigDecimal("20.00"),
+                LocalDate.now().plusDays(2), BigDecimal.ONE);
+        laptop = new ElectronicsProduct(UUID.randomUUID(), "Laptop", Category.of("Electronics"),
+                new BigDecimal("999.99"), 24, BigDecimal.ONE);
+        warehouse.addProduct(milk);
+        warehouse.addProduct(cheese);
+        warehouse.addProduct(laptop);
+    }
+
+    @Test
+    @DisplayName("💸 should look up discounted prices by id using the standard tiers")
+    void should_lookUpDiscountedPrices() {
+        // Act & Assert
+        assertThat(warehouse.getDiscountedPrice(milk.uuid())).contains(new BigDecimal("5.00"));
+        assertThat(warehouse.getDiscountedPrice(cheese.uuid())).contains(new BigDecimal("17.00"));
+        assertThat(warehouse.getDiscountedPrice(laptop.uuid())).contains(new BigDecimal("999.99"));
+        assertThat(warehouse.getDiscountedPrice(UUID.randomUUID())).isEmpty();
+    }
+
+    @Test
+    @DisplayName("🔄 should keep the book current on reprice and removal")
+    void should_updateIncrementally() {
+        // Act
+        warehouse.updateProductPrice(milk.uuid(), new BigDecimal("30.00"));
+        warehouse.remove(cheese.uuid());
+
+        // Assert
+        assertThat(warehouse.getDiscountedPrice(milk.uuid())).contains(new BigDecimal("15.00"));
+        assertThat(warehouse.getDiscountedPrice(cheese.uuid())).isEmpty();
+        assertThat(new WarehouseAnalyzer(warehouse).calculateExpirationBasedDiscounts())
+                .containsOnlyKeys(milk, laptop)
+                .containsEntry(milk, new BigDecimal("15.00"));
+    }
+
+    @Test
+    @DisplayName("📅 should rebuild a stale book on the first lookup of a new day")
+    void should_rollOver_toNewDay() {
+        // Arrange
+        synchronized (warehouse) {
+            warehouse.swapPriceBooks(LocalDate.now().minusDays(1));
+        }
+
+        // Act & Assert
+        assertThat(warehouse.getDiscountedPrice(milk.uuid())).contains(new BigDecimal("5.00"));
+        assertThat(warehouse.getDiscountedPrice(cheese.uuid())).contains(new BigDecimal("17.00"));
+    }
+
+    @Test
+    @DisplayName("⚙️ should apply a custom tier table")
+    void should_applyCustomTiers() {
+        // Act
+        warehouse.setDiscountTiers(DiscountTiers.none().withTier(5, new BigDecimal("0.90")));
+
+        // Assert
+        assertThat(warehouse.getDiscountedPrice(milk.uuid())).contains(new BigDecimal("9.00"));
+        assertThat(warehouse.getDiscountedPrice(cheese.uuid())).contains(new BigDecimal("18.00"));
+        assertThat(warehouse.getDiscountTiers().getTiers()).containsOnlyKeys(5);
+        assertThatThrownBy(() -> DiscountTiers.none().withTier(-1, BigDecimal.ONE))
+                .isInstanceOf(IllegalArgumentException.class);
+        assertThatThrownBy(() -> DiscountTiers.none().withTier(1, new BigDecimal("1.5")))
+                .isInstanceOf(IllegalArgumentException.class);
+    }
+}
@@ -0,0 +1,175 @@
+package com.example;
+
+import org.junit.jupiter.api.*;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+
+import java.lang.foreign.Arena;
+import java.lang.foreign.MemorySegment;
+import java.math.BigDecimal;
+import java.nio.BufferOverflowException;
+import java.nio.ByteBuffer;
+import java.time.LocalDate;
+import java.util.*;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.IntStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+/**
+ * Tests for the binary product codec.
+ * The throughput benchmark is skipped by default; run it with
+ * ./mvnw test -Dtest=ProductCodecTest -Dwarehouse.benchmark=true
+ * The encoded size per product is checked on every build.
+ */
+@DisplayName("Product Codec")
+class ProductCodecTest {
+
+    //Products compare field by field, since Product has identity equality
+    private static void assertSameProducts(List<Product> actual, List<? extends Product> expected) {
+        assertThat(actual).hasSameSizeAs(expected);
+        for (int i = 0; i < expected.size(); i++) {
+            Product a = actual.get(i);
+            Product e = expected.get(i);
+            assertThat(a).hasSameClassAs(e);
+            assertThat(a.uuid()).isEqualTo(e.uuid());
+            assertThat(a.name()).isEqualTo(e.name());
+            assertThat(a.category()).isSameAs(e.category());
+            assertThat(a.price()).isEqualTo(e.price());
+            assertThat(((Shippable) a).weight()).isEqualTo(((Shippable) e).weight());
+            if (e instanceof FoodProduct food) {
+                assertThat(((FoodProduct) a).expirationDate()).isEqualTo(food.expirationDate());
+            } else {
+                assertThat(((ElectronicsProduct) a).getWarrantyMonths()).isEqualTo(((ElectronicsProduct) e).getWarrantyMonths());
+            }
+        }
+    }
+
+    private static List<Product> sampleProducts(int count) {
+        Random random = new Random(17);
+        return IntStream.range(0, count).<Product>mapToObj(i -> i % 2 == 0
+                ? new FoodProduct(UUID.randomUUID(), "Food" + (i % 500), Category.of("Dairy"),
+                        BigDecimal.valueOf(random.nextInt(100_000), 2), LocalDate.now().plusDays(random.nextInt(60) - 30),
+                        BigDecimal.valueOf(random.nextInt(5_000), 3))
+                : new ElectronicsProduct(UUID.randomUUID(), "Gadget" + i, Category.of("Electronics"),
+                        BigDecimal.valueOf(random.nextInt(1_000_000), 2), random.nextInt(48),
+                        BigDecimal.valueOf(random.nextInt(100), 1)))
+                .toList();
+    }
+
+    @Test
+    @DisplayName("🔁 should round-trip every field, including unusual values")
+    void should_roundTrip_allFields() {
+        // Arrange
+        List<Product> products = List.of(
+                new FoodProduct(UUID.randomUUID(), "Smörgåstårta 🎂", Category.of("Bakery"), new BigDecimal("349.90"),
+                        LocalDate.of(1969, 7, 20), new BigDecimal("2.500")),
+                new ElectronicsProduct(UUID.randomUUID(), "Mainframe", Category.of("Electronics"),
+                        new BigDecimal("123456789012345678901234567890.12"), 0, new BigDecimal("1E+3")),
+                new FoodProduct(UUID.randomUUID(), "Smörgåstårta 🎂", Category.of("Bakery"), BigDecimal.ZERO,
+                        LocalDate.now(), BigDecimal.ZERO));
+
+        // Act
+        List<Product> decoded = ProductCodec.decode(ProductCodec.encode(products));
+
+        // Assert
+        assertSameProducts(decoded, products);
+        assertThat(decoded.get(2).name()).isSameAs(decoded.get(0).name());
+    }
+
+    @Test
+    @DisplayName("🧱 should encode to and decode from off-heap memory segments")
+    void should_roundTrip_throughMemorySegment() {
+        // Arrange
+        List<Product> products = sampleProducts(1_000);
+
+        try (Arena arena = Arena.ofConfined()) {
+            MemorySegment segment = arena.allocate(64 * 1024);
+
+            // Act
+            long written = ProductCodec.encode(products, segment);
+            List<Product> decoded = ProductCodec.decode(segment.asSlice(0, written));
+
+            // Assert
+            assertSameProducts(decoded, products);
+            assertThatThrownBy(() -> ProductCodec.encode(products, segment.asSlice(0, 100)))
+                    .isInstanceOf(BufferOverflowException.class);
+        }
+    }
+
+    @Test
+    @DisplayName("🚰 should let callers drain a full buffer and continue the same stream")
+    void should_rollBack_onOverflow() {
+        // Arrange
+        List<Product> products = sampleProducts(50);
+        ByteBuffer small = ByteBuffer.allocate(256);
+        ByteBuffer sink = ByteBuffer.allocate(64 * 1024);
+        ProductCodec.Encoder encoder = ProductCodec.encoder(small);
+
+        // Act
+        for (Product product : products) {
+            try {
+                encoder.write(product);
+            } catch (BufferOverflowException e) {
+                sink.put(small.flip());
+                small.clear();
+                encoder.write(product);
+            }
+        }
+        sink.put(small.flip());
+
+        // Assert
+        assertSameProducts(ProductCodec.decode(sink.flip()), products);
+    }
+
+    @Test
+    @DisplayName("🚫 should reject foreign data and unknown versions")
+    void should_rejectInvalidStreams() {
+        assertThatThrownBy(() -> ProductCodec.decode(ByteBuffer.wrap("{}".getBytes())))
+                .isInstanceOf(IllegalArgumentException.class);
+        assertThatThrownBy(() -> ProductCodec.decode(ByteBuffer.wrap(new byte[]{'W', 'P', 99})))
+                .isInstanceOf(IllegalArgumentException.class)
+                .hasMessageContaining("version");
+    }
+
+    @Test
+    @Timeout(value = 20, unit = TimeUnit.SECONDS)
+    @DisplayName("📦 should encode 200k products in under 40 bytes each")
+    void should_beCompact() {
+        // Arrange
+        List<Product> products = sampleProducts(200_000);
+
+        // Act
+        ByteBuffer encoded = ProductCodec.encode(products);
+        List<Product> decoded = ProductCodec.decode(encoded.duplicate());
+
+        // Assert
+        assertThat(decoded).hasSize(products.size());
+        assertThat((double) encoded.remaining() / products.size()).isLessThan(40);
+    }
+
+    @Test
+    @Tag("benchmark")
+    @EnabledIfSystemProperty(named = "warehouse.benchmark", matches = "true")
+    @DisplayName("⚡ should round-trip at least 200k products per second")
+    void should_beFast(TestReporter reporter) {
+        // Arrange
+        List<Product> products = sampleProducts(200_000);
+        //Warm up so the JIT has compiled the codec
+        for (int run = 0; run < 5; run++) {
+            ProductCodec.decode(ProductCodec.encode(products));
+        }
+
+        // Act
+        long start = System.nanoTime();
+        ByteBuffer encoded = ProductCodec.encode(products);
+        List<Product> decoded = ProductCodec.decode(encoded.duplicate());
+        double seconds = (System.nanoTime() - start) / 1e9;
+
+        // Assert
+        assertThat(decoded).hasSize(products.size());
+        reporter.publishEntry("codec", String.format("Codec round trip: %,d products, %,d bytes, %.0f products/s",
+                products.size(), encoded.remaining(), products.size() / seconds));
+        assertThat(products.size() / seconds).isGreaterThan(200_000);
+    }
+}
@@ -0,0 +1,124 @@
+package com.example;
+
+import org.junit.jupiter.api.*;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.*;
+import java.util.stream.IntStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Tests for composable product queries and the index-aware planner.
+ */
+@DisplayName("Product Query API")
+class ProductQueryTest {
+
+    private Warehouse warehouse;
+
+    @BeforeEach
+    void setUp() {
+        warehouse = Warehouse.getInstance("QueryTestWarehouse", 4);
+        warehouse.clearProducts();
+    }
+
+    @Test
+    @DisplayName("🔍 should combine category, price, expiration and name conditions in one query")
+    void should_combineConditions() {
+        // Arrange
+        LocalDate today = LocalDate.now();
+        Category dairy = Category.of("Dairy");
+        warehouse.addProduct(new FoodProduct(UUID.randomUUID(), "Organic Milk", dairy,
+                new BigDecimal("15.00"), today.plusDays(1), BigDecimal.ONE));
+        warehouse.addProduct(new FoodProduct(UUID.randomUUID(), "Milk Expensive", dairy,
+                new BigDecimal("25.00"), today.plusDays(1), BigDecimal.ONE));
+        warehouse.addProduct(new FoodProduct(UUID.randomUUID(), "Milk Later", dairy,
+                new BigDecimal("15.00"), today.plusDays(9), BigDecimal.ONE));
+        warehouse.addProduct(new FoodProduct(UUID.randomUUID(), "Cheese", dairy,
+                new BigDecimal("15.00"), today, BigDecimal.ONE));
+        warehouse.addProduct(new FoodProduct(UUID.randomUUID(), "Milk Chocolate", Category.of("Sweets"),
+                new BigDecimal("15.00"), today, BigDecimal.ONE));
+
+        // Act
+        List<Product> result = warehouse.find(ProductQuery.where()
+                .inCategory(dairy)
+                .priceAtMost(new BigDecimal("20"))
+                .expiringWithinDays(2)
+                .nameContains("MILK"));
+
+        // Assert
+        assertThat(result).extracting(Product::name).containsExactly("Organic Milk");
+    }
+
+    @Test
+    @DisplayName("🧭 should choose the most selective index and explain the plan")
+    void should_chooseMostSelectiveIndex() {
+        // Arrange - 100 dairy products, only two of them priced above 500
+        Category dairy = Category.of("Dairy");
+        IntStream.range(0, 100).forEach(i -> warehouse.addProduct(new FoodProduct(UUID.randomUUID(), "Item" + i,
+                dairy, new BigDecimal(i < 98 ? "10" : "900"), LocalDate.now().plusDays(5), BigDecimal.ONE)));
+        ProductQuery query = ProductQuery.where().inCategory(dairy).priceAtLeast(new BigDecimal("500"));
+
+        // Act
+        QueryPlan plan = warehouse.explain(query);
+
+        // Assert
+        assertThat(plan.getAccessPath()).isEqualTo(QueryPlan.AccessPath.PRICE_INDEX);
+        assertThat(plan.getEstimatedRows()).isEqualTo(2);
+        assertThat(plan.explain())
+                .startsWith("PRICE_INDEX [price in [500, +inf]] (est. 2 rows)")
+                .contains("-> filter: category = Dairy");
+        assertThat(warehouse.find(query)).hasSize(2);
+    }
+
+    @Test
+    @DisplayName("🧭 should compare index estimates over all shards, not shard by shard")
+    void should_estimateAcrossShards() {
+        // Arrange - 300 dairy products in one shard, 400 pricier gadgets at distinct prices in another
+        Category dairy = Category.of("Dairy");
+        IntStream.range(0, 300).forEach(i -> warehouse.addProduct(new FoodProduct(idInShard(1), "Milk" + i,
+                dairy, new BigDecimal("10"), LocalDate.now().plusDays(5), BigDecimal.ONE)));
+        IntStream.range(0, 400).forEach(i -> warehouse.addProduct(new ElectronicsProduct(idInShard(0), "Gadget" + i,
+                Category.of("Electronics"), new BigDecimal(900 + i), 12, BigDecimal.ONE)));
+        ProductQuery query = ProductQuery.where().inCategory(dairy).priceAtLeast(new BigDecimal("500"));
+
+        // Act
+        QueryPlan plan = warehouse.explain(query);
+
+        // Assert - the price range matches more rows than the category, so it must not look cheaper
+        assertThat(plan.getAccessPath()).isEqualTo(QueryPlan.AccessPath.CATEGORY_INDEX);
+        assertThat(plan.getEstimatedRows()).isEqualTo(300);
+        assertThat(warehouse.find(query)).isEmpty();
+    }
+
+    //Generates ids until one routes to the given shard of the 4-shard test warehouse
+    private static UUID idInShard(int shard) {
+        UUID id;
+        do {
+            id = UUID.randomUUID();
+        } while (WarehouseShard.indexFor(id, 4) != shard);
+        return id;
+    }
+
+    @Test
+    @DisplayName("🧭 should fall back to a full scan when no index applies and keep indexes current")
+    void should_fallBackToScan_andTrackUpdates() {
+        // Arrange
+        Product laptop = new ElectronicsProduct(UUID.randomUUID(), "Laptop", Category.of("Electronics"),
+                new BigDecimal("1500"), 24, BigDecimal.ONE);
+        warehouse.addProduct(laptop);
+        ProductQuery byName = ProductQuery.where().nameContains("lap").ofType(Shippable.class);
+        ProductQuery cheap = ProductQuery.where().priceBetween(BigDecimal.ZERO, new BigDecimal("100"));
+
+        // Act
+        warehouse.updateProductPrice(laptop.uuid(), new BigDecimal("99"));
+
+        // Assert
+        assertThat(warehouse.explain(byName).getAccessPath()).isEqualTo(QueryPlan.AccessPath.FULL_SCAN);
+        assertThat(warehouse.find(byName)).containsExactly(laptop);
+        assertThat(warehouse.find(cheap)).containsExactly(laptop);
+        warehouse.remove(laptop.uuid());
+        assertThat(warehouse.find(cheap)).isEmpty();
+    }
+}
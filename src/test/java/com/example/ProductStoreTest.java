@@ -0,0 +1,230 @@
+package com.example;
+
+import org.junit.jupiter.api.*;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.math.BigDecimal;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.LocalDate;
+import java.util.*;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+/**
+ * Tests for the product store implementations and the W-TinyLFU cache.
+ */
+@DisplayName("Product Stores")
+class ProductStoreTest {
+
+    @TempDir
+    Path dir;
+
+    private static Product product(int i) {
+        return i % 2 == 0
+                ? new FoodProduct(UUID.randomUUID(), "Milk " + i, Category.of("Dairy"),
+                        BigDecimal.valueOf(i, 2), LocalDate.of(2026, 1, 1).plusDays(i % 30), new BigDecimal("1.5"))
+                : new ElectronicsProduct(UUID.randomUUID(), "Laptop " + i, Category.of("Electronics"),
+                        BigDecimal.valueOf(i), i % 24, BigDecimal.TWO);
+    }
+
+    @Test
+    @DisplayName("💾 should persist adds, updates and removals across reopening")
+    void should_persistAcrossReopen() throws IOException {
+        // Arrange
+        Path file = dir.resolve("products.db");
+        List<Product> products = new ArrayList<>();
+        try (FileProductStore store = FileProductStore.open(file)) {
+            for (int i = 0; i < 1_000; i++) {
+                products.add(product(i));
+                assertThat(store.add(products.getLast())).isTrue();
+            }
+            assertThat(store.add(products.getFirst())).isFalse();
+            products.get(1).price(new BigDecimal("999.99"));
+            assertThat(store.update(products.get(1))).isTrue();
+            for (int i = 0; i < 1_000; i += 10) {
+                assertThat(store.remove(products.get(i).uuid())).isNotNull();
+            }
+            assertThat(store.remove(UUID.randomUUID())).isNull();
+        }
+        //Simulate a crash in the middle of appending a record
+        Files.write(file, new byte[]{0, 0, 0, 42, 1, 7}, StandardOpenOption.APPEND);
+
+        // Act
+        try (FileProductStore reopened = FileProductStore.open(file)) {
+
+            // Assert
+            assertThat(reopened.size()).isEqualTo(900);
+            Product laptop = reopened.get(products.get(1).uuid());
+            assertThat(laptop).isInstanceOf(ElectronicsProduct.class);
+            assertThat(laptop.price()).isEqualTo(new BigDecimal("999.99"));
+            assertThat(reopened.get(products.get(10).uuid())).isNull();
+            FoodProduct milk = (FoodProduct) reopened.get(products.get(2).uuid());
+            assertThat(milk.name()).isEqualTo("Milk 2");
+            assertThat(milk.expirationDate()).isEqualTo(LocalDate.of(2026, 1, 3));
+            List<UUID> all = new ArrayList<>();
+            reopened.forEach(p -> all.add(p.uuid()));
+            assertThat(all).hasSize(900).doesNotHaveDuplicates();
+            assertThat(reopened.add(product(5))).isTrue();
+            reopened.clear();
+            assertThat(reopened.size()).isZero();
+            assertThat(reopened.getFileSize()).isZero();
+        }
+    }
+
+    @Test
+    @DisplayName("🗜️ should drop superseded records when compacting")
+    void should_compact() throws IOException {
+        // Arrange
+        Path file = dir.resolve("compact.db");
+        List<Product> kept = new ArrayList<>();
+        try (FileProductStore store = FileProductStore.open(file)) {
+            for (int i = 0; i < 200; i++) {
+                Product product = product(i);
+                store.add(product);
+                if (i % 4 == 0) {
+                    kept.add(product);
+                } else {
+                    store.remove(product.uuid());
+                }
+            }
+            long before = store.getFileSize();
+
+            // Act
+            boolean tooSmall = store.compact(100);
+            boolean compacted = store.compact(1.5);
+
+            // Assert
+            assertThat(tooSmall).isFalse();
+            assertThat(compacted).isTrue();
+            assertThat(store.getFileSize()).isEqualTo(store.getLiveBytes()).isLessThan(before / 3)
+                    .isEqualTo(Files.size(file));
+            assertThat(store.compact(1)).isFalse();
+            assertThat(store.get(kept.getFirst().uuid())).extracting(Product::name).isEqualTo(kept.getFirst().name());
+            Product late = product(201);
+            store.add(late);
+            store.remove(kept.get(1).uuid());
+            assertThatThrownBy(() -> store.compact(0.5)).isInstanceOf(IllegalArgumentException.class);
+            kept.remove(1);
+            kept.add(late);
+        }
+        try (FileProductStore reopened = FileProductStore.open(file)) {
+            List<UUID> ids = new ArrayList<>();
+            reopened.forEach(p -> ids.add(p.uuid()));
+            assertThat(ids).containsExactlyInAnyOrderElementsOf(kept.stream().map(Product::uuid).toList());
+            assertThat(reopened.getLiveBytes()).isLessThan(reopened.getFileSize());
+            assertThat(reopened.compact(1)).isTrue();
+            assertThat(reopened.getFileSize()).isEqualTo(reopened.getLiveBytes());
+            assertThat(reopened.size()).isEqualTo(kept.size());
+        }
+    }
+
+    @Test
+    @DisplayName("🔥 should keep hot products in memory despite a cold scan")
+    void should_keepHotProducts_cached() throws IOException {
+        // Arrange
+        List<Product> products = new ArrayList<>();
+        try (CachingProductStore cache = new CachingProductStore(FileProductStore.open(dir.resolve("cache.db")), 200)) {
+            for (int i = 0; i < 5_000; i++) {
+                products.add(product(i));
+                cache.add(products.getLast());
+            }
+            List<Product> hot = products.subList(0, 100);
+            Random random = new Random(1);
+
+            // Act
+            for (int round = 0; round < 20; round++) {
+                hot.forEach(p -> cache.get(p.uuid()));
+                //A scan over cold products, each read once
+                for (int i = 0; i < 200; i++) {
+                    cache.get(products.get(100 + random.nextInt(4_900)).uuid());
+                }
+            }
+            long hitsBefore = cache.getHitCount();
+            hot.forEach(p -> cache.get(p.uuid()));
+
+            // Assert
+            assertThat(cache.getHitCount() - hitsBefore).isGreaterThanOrEqualTo(95);
+            assertThat(cache.getCachedCount()).isLessThanOrEqualTo(200);
+            assertThat(cache.getHitCount() + cache.getMissCount()).isEqualTo(20 * 300 + 100);
+            assertThat(cache.getHitRatio()).isBetween(0.0, 1.0);
+            assertThat(cache.getEvictionCount()).isPositive();
+        }
+    }
+
+    @Test
+    @DisplayName("🔄 should never serve stale or removed products from the cache")
+    void should_writeThrough() throws IOException {
+        try (CachingProductStore cache = new CachingProductStore(FileProductStore.open(dir.resolve("stale.db")), 10)) {
+            Product laptop = product(1);
+            cache.add(laptop);
+            cache.get(laptop.uuid());
+
+            Product repriced = cache.get(laptop.uuid());
+            repriced.price(BigDecimal.TEN);
+            cache.update(repriced);
+            cache.invalidate(laptop.uuid());
+            assertThat(cache.get(laptop.uuid()).price()).isEqualTo(BigDecimal.TEN);
+
+            assertThat(cache.remove(laptop.uuid())).isNotNull();
+            assertThat(cache.get(laptop.uuid())).isNull();
+            assertThat(cache.size()).isZero();
+        }
+        assertThatThrownBy(() -> new CachingProductStore(new InMemoryProductStore(), 0))
+                .isInstanceOf(IllegalArgumentException.class);
+    }
+
+    @Test
+    @DisplayName("🏬 should serve a warehouse's lookups by id through a cache over a file")
+    void should_backWarehouseShards() throws IOException {
+        // Arrange - every shard keeps its products in a cached file store
+        List<FileProductStore> files = new ArrayList<>();
+        List<CachingProductStore> caches = new ArrayList<>();
+        Warehouse warehouse = Warehouse.getInstance("FileBackedStoreTestWarehouse", 2, () -> {
+            try {
+                files.add(FileProductStore.open(dir.resolve("shard" + files.size() + ".db")));
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+            caches.add(new CachingProductStore(files.getLast(), 100));
+            return caches.getLast();
+        });
+        warehouse.clearProducts();
+        Product milk = product(2);
+        Product laptop = product(3);
+        warehouse.addProducts(List.of(milk, laptop));
+
+        try {
+            // Act
+            List<Product> lookups = new ArrayList<>();
+            for (int i = 0; i < 6; i++) {
+                lookups.add(warehouse.getProductById(milk.uuid()).orElseThrow());
+            }
+
+            // Assert - one load from the file, then the cache; the warehouse still hands out its own instance
+            assertThat(caches).hasSize(2);
+            assertThat(caches.stream().mapToLong(CachingProductStore::getMissCount).sum()).isEqualTo(1);
+            assertThat(caches.stream().mapToLong(CachingProductStore::getHitCount).sum()).isEqualTo(5);
+            assertThat(lookups).allSatisfy(p -> assertThat(p).isSameAs(milk));
+            assertThat(files.stream().mapToInt(FileProductStore::size).sum()).isEqualTo(2);
+
+            //Writes reach the file and keep the indexes in step with the store
+            warehouse.updateProductPrice(laptop.uuid(), new BigDecimal("1234.50"));
+            assertThat(files.stream().map(f -> f.get(laptop.uuid())).filter(Objects::nonNull).findFirst().orElseThrow()
+                    .price()).isEqualByComparingTo("1234.50");
+            assertThat(warehouse.find(ProductQuery.where().priceAtLeast(new BigDecimal("1000")))).containsExactly(laptop);
+            warehouse.remove(milk.uuid());
+            assertThat(warehouse.getProducts()).containsExactly(laptop);
+            assertThat(warehouse.getProductById(milk.uuid())).isEmpty();
+        } finally {
+            warehouse.clearProducts();
+            for (CachingProductStore cache : caches) {
+                cache.close();
+            }
+        }
+    }
+}
@@ -0,0 +1,153 @@
+package com.example;
+
+import org.junit.jupiter.api.*;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.*;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.IntStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+/**
+ * Tests for hash-sharded warehouses and the analyzer's parallel fan-out over shards.
+ * Every analyzer result on a sharded warehouse must equal the result on an unsharded one.
+ */
+@DisplayName("Sharded Warehouse")
+class ShardedWarehouseTest {
+
+    private Warehouse sharded;
+    private Warehouse single;
+
+    @BeforeEach
+    void setUp() {
+        sharded = Warehouse.getInstance("ShardedTestWarehouse", 8);
+        single = Warehouse.getInstance("UnshardedTestWarehouse");
+        sharded.clearProducts();
+        single.clearProducts();
+    }
+
+    //Adds the same randomized inventory to both warehouses
+    private void addToBoth(int count) {
+        Random random = new Random(42);
+        Category[] categories = {Category.of("Dairy"), Category.of("Fruit"), Category.of("Electronics")};
+        for (int i = 0; i < count; i++) {
+            Category category = categories[i % categories.length];
+            BigDecimal price = BigDecimal.valueOf(random.nextInt(300_000), 2);
+            Product product = category.getName().equals("Electronics")
+                    ? new ElectronicsProduct(UUID.randomUUID(), "Gadget" + i, category, price, 12,
+                            BigDecimal.valueOf(random.nextInt(100), 1))
+                    : new FoodProduct(UUID.randomUUID(), "Food" + i, category, price,
+                            LocalDate.now().plusDays(random.nextInt(10) - 3), BigDecimal.valueOf(random.nextInt(50), 1));
+            sharded.addProduct(product);
+            single.addProduct(product);
+        }
+    }
+
+    @Nested
+    @DisplayName("Point Operations")
+    class PointOperationTests {
+
+        @Test
+        @DisplayName("✅ should route add, lookup, update and remove to the owning shard")
+        void should_routePointOperations() {
+            // Arrange
+            Product milk = new FoodProduct(UUID.randomUUID(), "Milk", Category.of("Dairy"),
+                    new BigDecimal("15.50"), LocalDate.now().plusDays(7), new BigDecimal("1.0"));
+
+            // Act
+            sharded.addProduct(milk);
+            sharded.updateProductPrice(milk.uuid(), new BigDecimal("17.00"));
+
+            // Assert
+            assertThat(sharded.getProductById(milk.uuid()))
+                    .hasValueSatisfying(p -> assertThat(p.price()).isEqualByComparingTo("17.00"));
+            assertThatThrownBy(() -> sharded.addProduct(milk))
+                    .isInstanceOf(IllegalArgumentException.class)
+                    .hasMessage("Product with that id already exists, use updateProduct for updates.");
+            sharded.remove(milk.uuid());
+            assertThat(sharded.isEmpty()).isTrue();
+        }
+
+        @Test
+        @DisplayName("❌ should reject a different shard count for an existing name")
+        void should_rejectConflictingShardCount() {
+            assertThat(Warehouse.getInstance("ShardedTestWarehouse", 8)).isSameAs(sharded);
+            assertThatThrownBy(() -> Warehouse.getInstance("ShardedTestWarehouse", 4))
+                    .isInstanceOf(IllegalStateException.class);
+            assertThatThrownBy(() -> Warehouse.getInstance("NoShards", 0))
+                    .isInstanceOf(IllegalArgumentException.class);
+        }
+
+        @Test
+        @DisplayName("🔒 should not lose products under concurrent adds")
+        void should_keepAllProducts_when_addedConcurrently() throws InterruptedException {
+            // Act
+            try (ExecutorService pool = Executors.newFixedThreadPool(8)) {
+                IntStream.range(0, 8_000).forEach(i -> pool.submit(() -> sharded.addProduct(
+                        new ElectronicsProduct(UUID.randomUUID(), "Item" + i, Category.of("Electronics"),
+                                BigDecimal.TEN, 12, BigDecimal.ONE))));
+                pool.shutdown();
+                assertThat(pool.awaitTermination(30, TimeUnit.SECONDS)).isTrue();
+            }
+
+            // Assert
+            assertThat(sharded.getProducts()).hasSize(8_000);
+        }
+    }
+
+    @Nested
+    @DisplayName("Parallel Analyzer Fan-out")
+    class FanOutTests {
+
+        @Test
+        @DisplayName("📊 should merge sums, extremes and grouped maps exactly like a single shard")
+        void should_mergeAggregates_acrossShards() {
+            // Arrange
+            addToBoth(2_000);
+            WarehouseAnalyzer shardedAnalyzer = new WarehouseAnalyzer(sharded);
+            WarehouseAnalyzer singleAnalyzer = new WarehouseAnalyzer(single);
+
+            // Act
+            InventoryStatistics shardedStats = shardedAnalyzer.getInventoryStatistics();
+            InventoryStatistics singleStats = singleAnalyzer.getInventoryStatistics();
+
+            // Assert
+            assertThat(shardedStats.getTotalProducts()).isEqualTo(singleStats.getTotalProducts());
+            assertThat(shardedStats.getTotalValue()).isEqualByComparingTo(singleStats.getTotalValue());
+            assertThat(shardedStats.getExpiredCount()).isEqualTo(singleStats.getExpiredCount());
+            assertThat(shardedStats.getMostExpensiveProduct().price())
+                    .isEqualByComparingTo(singleStats.getMostExpensiveProduct().price());
+            assertThat(shardedStats.getCheapestProduct().price())
+                    .isEqualByComparingTo(singleStats.getCheapestProduct().price());
+            assertThat(shardedAnalyzer.calculateWeightedAveragePriceByCategory())
+                    .isEqualTo(singleAnalyzer.calculateWeightedAveragePriceByCategory());
+            assertThat(shardedAnalyzer.validateInventoryConstraints().getHighValuePercentage())
+                    .isEqualTo(singleAnalyzer.validateInventoryConstraints().getHighValuePercentage());
+        }
+
+        @Test
+        @DisplayName("📊 should find the same outliers and filtered products as a single shard")
+        void should_findSameOutliersAndMatches_acrossShards() {
+            // Arrange
+            addToBoth(2_000);
+            WarehouseAnalyzer shardedAnalyzer = new WarehouseAnalyzer(sharded);
+            WarehouseAnalyzer singleAnalyzer = new WarehouseAnalyzer(single);
+
+            // Act & Assert
+            assertThat(shardedAnalyzer.findPriceOutliers(1.5))
+                    .containsExactlyInAnyOrderElementsOf(singleAnalyzer.findPriceOutliers(1.5));
+            assertThat(shardedAnalyzer.findProductsInPriceRange(new BigDecimal("100"), new BigDecimal("900")))
+                    .containsExactlyInAnyOrderElementsOf(
+                            singleAnalyzer.findProductsInPriceRange(new BigDecimal("100"), new BigDecimal("900")));
+            assertThat(shardedAnalyzer.findProductsExpiringWithinDays(2))
+                    .containsExactlyInAnyOrderElementsOf(singleAnalyzer.findProductsExpiringWithinDays(2));
+            assertThat(shardedAnalyzer.calculateExpirationBasedDiscounts())
+                    .isEqualTo(singleAnalyzer.calculateExpirationBasedDiscounts());
+        }
+    }
+}
@@ -0,0 +1,166 @@
+package com.example;
+
+import org.junit.jupiter.api.*;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.*;
+import java.util.concurrent.ForkJoinPool;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+/**
+ * Tests for comparing shipping plans across several weight limits.
+ */
+@DisplayName("Shipping Scenarios")
+class ShippingScenarioTest {
+
+    private static final List<BigDecimal> LIMITS = List.of(
+            new BigDecimal("10"), new BigDecimal("20"), new BigDecimal("30"), new BigDecimal("7.5"));
+
+    private Warehouse warehouse;
+
+    @BeforeEach
+    void setUp() {
+        warehouse = Warehouse.getInstance("ShippingScenarioTestWarehouse", 4);
+        warehouse.clearProducts();
+    }
+
+    @AfterEach
+    void tearDown() {
+        warehouse.clearProducts();
+    }
+
+    private void stock(int count, long seed) {
+        Random random = new Random(seed);
+        for (int i = 0; i < count; i++) {
+            BigDecimal weight = BigDecimal.valueOf(1 + random.nextInt(1200), 2);
+            if (random.nextBoolean()) {
+                warehouse.addProduct(new ElectronicsProduct(UUID.randomUUID(), "Device " + i,
+                        Category.of("Electronics"), BigDecimal.TEN, 12, weight));
+            } else {
+                warehouse.addProduct(new FoodProduct(UUID.randomUUID(), "Food " + i, Category.of("Food"),
+                        BigDecimal.TEN, LocalDate.now().plusDays(30), weight));
+            }
+        }
+    }
+
+    private static List<Double> weights(List<ShippingGroup> groups) {
+        return groups.stream().map(ShippingGroup::getTotalWeight).toList();
+    }
+
+    private static List<List<Shippable>> contents(List<ShippingGroup> groups) {
+        return groups.stream().map(ShippingGroup::getProducts).toList();
+    }
+
+    @Test
+    @DisplayName("📊 should report the same counts and costs as packing each limit on its own")
+    void should_matchSingleLimitPacking() {
+        // Arrange
+        stock(500, 42);
+        WarehouseAnalyzer analyzer = new WarehouseAnalyzer(warehouse);
+
+        // Act
+        List<ShippingScenario> scenarios = analyzer.compareShippingScenarios(LIMITS, false);
+
+        // Assert
+        assertThat(scenarios).extracting(ShippingScenario::maxWeightPerGroup).containsExactlyElementsOf(LIMITS);
+        for (ShippingScenario scenario : scenarios) {
+            List<ShippingGroup> expected = analyzer.optimizeShippingGroups(scenario.maxWeightPerGroup());
+            assertThat(scenario.groupCount()).isEqualTo(expected.size());
+            assertThat(scenario.totalShippingCost()).isEqualByComparingTo(expected.stream()
+                    .map(ShippingGroup::getTotalShippingCost).reduce(BigDecimal.ZERO, BigDecimal::add));
+            assertThat(scenario.groups()).isEmpty();
+        }
+        assertThat(scenarios.get(0).groupCount()).isGreaterThan(scenarios.get(1).groupCount());
+        assertThat(scenarios.get(3).groupCount()).isGreaterThan(scenarios.get(0).groupCount());
+    }
+
+    @Test
+    @DisplayName("🧾 should build the same plans as a linear first-fit scan when asked")
+    void should_buildPlansOnRequest() {
+        // Arrange
+        stock(300, 7);
+        WarehouseAnalyzer analyzer = new WarehouseAnalyzer(warehouse);
+
+        // Act
+        List<ShippingScenario> scenarios = analyzer.compareShippingScenarios(LIMITS, true);
+
+        // Assert
+        for (ShippingScenario scenario : scenarios) {
+            List<ShippingGroup> expected = firstFitDecreasing(scenario.maxWeightPerGroup().doubleValue());
+            assertThat(scenario.groups()).hasSize(scenario.groupCount());
+            assertThat(contents(scenario.groups())).isEqualTo(contents(expected));
+            assertThat(weights(scenario.groups())).isEqualTo(weights(expected));
+            //Only a product heavier than the limit may exceed it, alone in its group
+            assertThat(scenario.groups()).filteredOn(g -> g.getProducts().size() > 1)
+                    .allMatch(g -> g.getTotalWeight() <= scenario.maxWeightPerGroup().doubleValue());
+        }
+    }
+
+    @Test
+    @DisplayName("⚡ should give the same scenarios on a parallel pool as sequentially")
+    void should_matchOnParallelPool() {
+        // Arrange
+        stock(2_000, 3);
+        List<BigDecimal> limits = new ArrayList<>();
+        for (int kg = 5; kg <= 60; kg += 5) limits.add(BigDecimal.valueOf(kg));
+
+        // Act
+        List<ShippingScenario> parallel;
+        try (ForkJoinPool pool = new ForkJoinPool(4)) {
+            parallel = new WarehouseAnalyzer(warehouse, pool, 1).compareShippingScenarios(limits, true);
+        }
+        List<ShippingScenario> sequential = new ArrayList<>();
+        WarehouseAnalyzer analyzer = new WarehouseAnalyzer(warehouse);
+        for (BigDecimal limit : limits) sequential.addAll(analyzer.compareShippingScenarios(List.of(limit), true));
+
+        // Assert
+        assertThat(parallel).extracting(ShippingScenario::groupCount)
+                .containsExactlyElementsOf(sequential.stream().map(ShippingScenario::groupCount).toList());
+        for (int i = 0; i < limits.size(); i++) {
+            assertThat(contents(parallel.get(i).groups())).isEqualTo(contents(sequential.get(i).groups()));
+        }
+    }
+
+    @Test
+    @DisplayName("🪶 should give every too-heavy product its own group and handle an empty warehouse")
+    void should_handleEdgeCases() {
+        // Arrange
+        WarehouseAnalyzer analyzer = new WarehouseAnalyzer(warehouse);
+
+        // Act & Assert
+        assertThat(analyzer.compareShippingScenarios(List.of(BigDecimal.ONE), true)).singleElement()
+                .satisfies(s -> assertThat(s.groupCount()).isZero())
+                .satisfies(s -> assertThat(s.totalShippingCost()).isEqualByComparingTo("0"));
+        assertThat(analyzer.compareShippingScenarios(List.of(), true)).isEmpty();
+
+        stock(20, 11);
+        assertThat(analyzer.compareShippingScenarios(List.of(new BigDecimal("0.001")), false))
+                .singleElement().extracting(ShippingScenario::groupCount).isEqualTo(20);
+        assertThatThrownBy(() -> analyzer.compareShippingScenarios(null, false))
+                .isInstanceOf(IllegalArgumentException.class);
+        assertThatThrownBy(() -> analyzer.compareShippingScenarios(Arrays.asList(BigDecimal.TEN, null), false))
+                .isInstanceOf(IllegalArgumentException.class);
+    }
+
+    //Reference first-fit decreasing: each item goes into the first group with room, found by a linear scan
+    private List<ShippingGroup> firstFitDecreasing(double maxWeight) {
+        List<Shippable> items = warehouse.shippableProducts();
+        items.sort((a, b) -> Double.compare(b.weight(), a.weight()));
+        List<List<Shippable>> bins = new ArrayList<>();
+        List<Double> loads = new ArrayList<>();
+        for (Shippable item : items) {
+            int bin = 0;
+            while (bin < bins.size() && !(loads.get(bin) + item.weight() <= maxWeight)) bin++;
+            if (bin == bins.size()) {
+                bins.add(new ArrayList<>());
+                loads.add(0.0);
+            }
+            bins.get(bin).add(item);
+            loads.set(bin, loads.get(bin) + item.weight());
+        }
+        return bins.stream().map(ShippingGroup::new).toList();
+    }
+}
@@ -0,0 +1,103 @@
+package com.example;
+
+import org.junit.jupiter.api.*;
+
+import java.math.BigDecimal;
+import java.util.*;
+import java.util.stream.IntStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.assertj.core.api.Assertions.within;
+
+/**
+ * Tests for approximate analytics backed by HyperLogLog and KLL sketches.
+ */
+@DisplayName("Approximate Analytics")
+class SketchAnalyticsTest {
+
+    private Warehouse warehouse;
+    private WarehouseAnalyzer analyzer;
+
+    @BeforeEach
+    void setUp() {
+        warehouse = Warehouse.getInstance("SketchTestWarehouse", 4);
+        warehouse.clearProducts();
+        analyzer = new WarehouseAnalyzer(warehouse);
+        Random random = new Random(11);
+        IntStream.range(0, 20_000).forEach(i -> warehouse.addProduct(new ElectronicsProduct(UUID.randomUUID(),
+                "Gadget" + i, Category.of("Cat" + (i % 37)), BigDecimal.valueOf(random.nextInt(200_000), 2), 12,
+                BigDecimal.ONE)));
+    }
+
+    @Test
+    @DisplayName("📐 should estimate validation metrics within the documented error bounds")
+    void should_estimateValidation_closeToExact() {
+        // Act
+        InventoryValidation exact = analyzer.validateInventoryConstraints();
+        InventoryValidation estimate = analyzer.estimateInventoryConstraints();
+
+        // Assert
+        assertThat(estimate.getCategoryDiversity()).isEqualTo(exact.getCategoryDiversity());
+        assertThat(estimate.getHighValuePercentage()).isCloseTo(exact.getHighValuePercentage(), within(1.65));
+        assertThat(analyzer.estimateDistinctCategories()).isEqualTo(37);
+    }
+
+    @Test
+    @DisplayName("📐 should estimate price quantiles within 1.65% rank error")
+    void should_estimateQuantiles_withinRankError() {
+        // Arrange
+        List<BigDecimal> sorted = warehouse.getProducts().stream().map(Product::price).sorted().toList();
+
+        // Act & Assert
+        for (double q : new double[]{0.01, 0.25, 0.5, 0.9, 0.99}) {
+            BigDecimal estimate = analyzer.estimatePriceQuantile(q).orElseThrow();
+            long rank = sorted.stream().filter(p -> p.compareTo(estimate) < 0).count();
+            assertThat((double) rank / sorted.size()).isCloseTo(q, within(0.0165));
+        }
+        assertThat(analyzer.estimatePriceQuantile(0)).contains(sorted.getFirst());
+        assertThat(analyzer.estimatePriceQuantile(1)).contains(sorted.getLast());
+        assertThatThrownBy(() -> analyzer.estimatePriceQuantile(1.5)).isInstanceOf(IllegalArgumentException.class);
+    }
+
+    @Test
+    @DisplayName("🔗 should merge sketches across named warehouses")
+    void should_mergeSketches_acrossWarehouses() {
+        // Arrange
+        Warehouse other = Warehouse.getInstance("SketchTestWarehouseB", 2);
+        other.clearProducts();
+        IntStream.range(0, 100).forEach(i -> other.addProduct(new ElectronicsProduct(UUID.randomUUID(),
+                "Other" + i, Category.of(i % 2 == 0 ? "Cat0" : "Extra"), new BigDecimal("5000"), 12, BigDecimal.ONE)));
+        FederatedAnalyzer federated = FederatedAnalyzer.of("SketchTestWarehouse", "SketchTestWarehouseB");
+
+        // Act
+        InventoryValidation estimate = federated.estimateInventoryConstraints().getValue();
+
+        // Assert
+        assertThat(estimate.getCategoryDiversity()).isEqualTo(38);
+        assertThat(estimate.getHighValuePercentage())
+                .isCloseTo(federated.validateInventoryConstraints().getValue().getHighValuePercentage(), within(1.65));
+        assertThat(federated.estimatePriceQuantile(1).getValue()).contains(new BigDecimal("5000.00"));
+    }
+
+    @Test
+    @DisplayName("🔄 should keep removed products until the sketches are rebuilt")
+    void should_resync_onRebuild() {
+        // Arrange
+        warehouse.getProducts().forEach(p -> warehouse.remove(p.uuid()));
+        warehouse.addProduct(new ElectronicsProduct(UUID.randomUUID(), "Only", Category.of("Solo"),
+                new BigDecimal("10"), 12, BigDecimal.ONE));
+
+        // Act
+        long before = analyzer.estimateDistinctCategories();
+        warehouse.rebuildSketches();
+
+        // Assert
+        assertThat(before).isEqualTo(38);
+        assertThat(analyzer.estimateDistinctCategories()).isEqualTo(1);
+        assertThat(analyzer.estimatePriceQuantile(0.5)).contains(new BigDecimal("10.00"));
+        warehouse.clearProducts();
+        assertThat(analyzer.estimatePriceQuantile(0.5)).isEmpty();
+        assertThat(analyzer.estimateInventoryConstraints().getCategoryDiversity()).isZero();
+    }
+}
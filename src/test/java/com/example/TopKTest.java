@@ -0,0 +1,88 @@
+package com.example;
+
+import org.junit.jupiter.api.*;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.*;
+import java.util.stream.IntStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+/**
+ * Tests for top-K and bottom-K queries by price and weight.
+ */
+@DisplayName("Top-K Queries")
+class TopKTest {
+
+    private Warehouse warehouse;
+    private WarehouseAnalyzer analyzer;
+
+    @BeforeEach
+    void setUp() {
+        warehouse = Warehouse.getInstance("TopKTestWarehouse", 4);
+        warehouse.clearProducts();
+        analyzer = new WarehouseAnalyzer(warehouse);
+        Random random = new Random(7);
+        IntStream.range(0, 500).forEach(i -> warehouse.addProduct(i % 2 == 0
+                ? new FoodProduct(UUID.randomUUID(), "Food" + i, Category.of("Dairy"),
+                        BigDecimal.valueOf(random.nextInt(10_000), 2), LocalDate.now().plusDays(3),
+                        BigDecimal.valueOf(random.nextInt(100), 1))
+                : new ElectronicsProduct(UUID.randomUUID(), "Gadget" + i, Category.of("Electronics"),
+                        BigDecimal.valueOf(random.nextInt(10_000), 2), 12, BigDecimal.valueOf(random.nextInt(100), 1))));
+    }
+
+    @Test
+    @DisplayName("🏆 should return the k most expensive and cheapest products in rank order")
+    void should_returnTopAndBottomByPrice() {
+        // Arrange
+        List<Product> sorted = new ArrayList<>(warehouse.getProducts());
+        sorted.sort(Page.KEYSET_ORDER);
+
+        // Act & Assert
+        assertThat(analyzer.findCheapestProducts(10)).containsExactlyElementsOf(sorted.subList(0, 10));
+        assertThat(analyzer.findMostExpensiveProducts(10))
+                .containsExactlyElementsOf(sorted.reversed().subList(0, 10));
+        assertThat(analyzer.findMostExpensiveProducts(0)).isEmpty();
+        assertThat(analyzer.findMostExpensiveProducts(1_000)).hasSize(500);
+    }
+
+    @Test
+    @DisplayName("🏆 should rank by weight overall and per category")
+    void should_rankByWeight_overallAndPerCategory() {
+        // Act
+        List<Shippable> heaviest = analyzer.findHeaviestProducts(5);
+        Map<Category, List<Shippable>> lightestPerCategory = analyzer.findLightestProductsByCategory(3);
+
+        // Assert
+        double maxWeight = warehouse.getProducts().stream().mapToDouble(p -> ((Shippable) p).weight()).max().orElseThrow();
+        assertThat(heaviest).hasSize(5);
+        assertThat(heaviest.getFirst().weight()).isEqualTo(maxWeight);
+        assertThat(heaviest).extracting(Shippable::weight).isSortedAccordingTo(Comparator.reverseOrder());
+        assertThat(lightestPerCategory).containsOnlyKeys(Category.of("Dairy"), Category.of("Electronics"));
+        lightestPerCategory.forEach((category, items) -> {
+            double minWeight = warehouse.getProducts().stream().filter(p -> p.category().equals(category))
+                    .mapToDouble(p -> ((Shippable) p).weight()).min().orElseThrow();
+            assertThat(items).hasSize(3);
+            assertThat(items.getFirst().weight()).isEqualTo(minWeight);
+        });
+    }
+
+    @Test
+    @DisplayName("🔄 should reflect price updates and removals immediately")
+    void should_stayLive_underUpdates() {
+        // Arrange
+        Product target = warehouse.getProducts().getFirst();
+
+        // Act
+        warehouse.updateProductPrice(target.uuid(), new BigDecimal("999999"));
+
+        // Assert
+        assertThat(analyzer.findMostExpensiveProducts(1)).containsExactly(target);
+        assertThat(analyzer.findMostExpensiveProductsByCategory(1).get(target.category())).containsExactly(target);
+        warehouse.remove(target.uuid());
+        assertThat(analyzer.findMostExpensiveProducts(1)).doesNotContain(target);
+        assertThatThrownBy(() -> analyzer.findCheapestProducts(-1)).isInstanceOf(IllegalArgumentException.class);
+    }
+}
@@ -0,0 +1,101 @@
+package com.example;
+
+import org.junit.jupiter.api.*;
+
+import java.math.BigDecimal;
+import java.util.*;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Tests for the primitive open-addressing UUID index and the id lookups built on it.
+ */
+@DisplayName("UUID Index")
+class UuidIndexTest {
+
+    @Test
+    @DisplayName("🎲 should agree with a HashMap under random inserts and removals")
+    void should_matchHashMap_underChurn() {
+        // Arrange
+        UuidIndex index = new UuidIndex();
+        Map<UUID, Integer> expected = new HashMap<>();
+        List<UUID> ids = new ArrayList<>();
+        Random random = new Random(42);
+        //Ids sharing most bits so probe chains collide and wrap around
+        for (int i = 0; i < 5_000; i++) {
+            ids.add(new UUID(random.nextInt(64), random.nextInt(64)));
+        }
+
+        // Act
+        for (int step = 0; step < 200_000; step++) {
+            UUID id = ids.get(random.nextInt(ids.size()));
+            int row = random.nextInt(1_000_000);
+            switch (random.nextInt(3)) {
+                case 0 -> assertThat(index.putIfAbsent(id, row))
+                        .isEqualTo(Objects.requireNonNullElse(expected.putIfAbsent(id, row), UuidIndex.ABSENT));
+                case 1 -> {
+                    index.put(id, row);
+                    expected.put(id, row);
+                }
+                default -> assertThat(index.remove(id))
+                        .isEqualTo(Objects.requireNonNullElse(expected.remove(id), UuidIndex.ABSENT));
+            }
+        }
+
+        // Assert
+        assertThat(index.size()).isEqualTo(expected.size());
+        for (UUID id : ids) {
+            int row = Objects.requireNonNullElse(expected.get(id), UuidIndex.ABSENT);
+            assertThat(index.get(id)).isEqualTo(row);
+            assertThat(index.get(id.getMostSignificantBits(), id.getLeastSignificantBits())).isEqualTo(row);
+        }
+    }
+
+    @Test
+    @DisplayName("🧹 should be empty and reusable after clear")
+    void should_beReusable_afterClear() {
+        UuidIndex index = new UuidIndex();
+        for (int i = 0; i < 1_000; i++) {
+            index.put(UUID.randomUUID(), i);
+        }
+        index.clear();
+        UUID id = UUID.randomUUID();
+        index.put(id, 7);
+        assertThat(index.size()).isEqualTo(1);
+        assertThat(index.get(id)).isEqualTo(7);
+    }
+
+    @Test
+    @DisplayName("🔍 should find products by raw id halves after removals move rows")
+    void should_findProductsByIdHalves() {
+        // Arrange
+        Warehouse warehouse = Warehouse.getInstance("UuidIndexTestWarehouse", 2);
+        warehouse.clearProducts();
+        List<Product> products = new ArrayList<>();
+        for (int i = 0; i < 1_000; i++) {
+            Product p = new ElectronicsProduct(UUID.randomUUID(), "Item " + i, Category.of("Electronics"),
+                    BigDecimal.valueOf(i), 12, BigDecimal.ONE);
+            products.add(p);
+            warehouse.addProduct(p);
+        }
+
+        // Act
+        for (int i = 0; i < products.size(); i += 3) {
+            warehouse.remove(products.get(i).uuid());
+        }
+
+        // Assert
+        for (int i = 0; i < products.size(); i++) {
+            UUID id = products.get(i).uuid();
+            Optional<Product> found = warehouse.getProductById(id.getMostSignificantBits(), id.getLeastSignificantBits());
+            if (i % 3 == 0) {
+                assertThat(found).isEmpty();
+                assertThat(warehouse.getProductById(id)).isEmpty();
+            } else {
+                assertThat(found).containsSame(products.get(i));
+                assertThat(warehouse.getProductById(id)).containsSame(products.get(i));
+            }
+        }
+        assertThat(warehouse.getProducts()).hasSize(666);
+    }
+}
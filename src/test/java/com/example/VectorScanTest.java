@@ -0,0 +1,144 @@
+package com.example;
+
+import org.junit.jupiter.api.*;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+
+import java.math.BigDecimal;
+import java.util.*;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Tests for the vectorized price filters and the analyzer queries built on them.
+ * The scan benchmark is skipped by default; run it with
+ * ./mvnw test -Dtest=VectorScanTest -Dwarehouse.benchmark=true
+ * and it requires at least a 2x speedup over the scalar loop when the vector species has
+ * 4 or more double lanes.
+ */
+@DisplayName("Vectorized Price Scans")
+class VectorScanTest {
+
+    private static final PriceFilter SCALAR = new PriceFilter.Scalar();
+    private static final PriceFilter VECTOR = new VectorPriceFilter();
+
+    @Test
+    @DisplayName("🧮 should mark the same rows as the scalar loop")
+    void should_matchScalar() {
+        // Arrange
+        Random random = new Random(3);
+        double[] prices = new double[1_037];
+        for (int i = 0; i < prices.length; i++) {
+            prices[i] = switch (i % 11) {
+                case 0 -> 100.0;
+                case 1 -> 500.0;
+                case 2 -> Double.NaN;
+                default -> random.nextInt(60_000) / 100.0;
+            };
+        }
+
+        for (int[] range : new int[][]{{0, 1_037}, {3, 1_000}, {64, 65}, {5, 5}, {17, 130}}) {
+            int from = range[0];
+            int to = range[1];
+            long[] scalarInside = PriceFilter.bitmap(to - from);
+            long[] scalarOnBound = PriceFilter.bitmap(to - from);
+            long[] vectorInside = PriceFilter.bitmap(to - from);
+            long[] vectorOnBound = PriceFilter.bitmap(to - from);
+            long[] scalarDeviating = PriceFilter.bitmap(to - from);
+            long[] vectorDeviating = PriceFilter.bitmap(to - from);
+
+            // Act
+            SCALAR.select(prices, from, to, 100.0, 500.0, scalarInside, scalarOnBound);
+            VECTOR.select(prices, from, to, 100.0, 500.0, vectorInside, vectorOnBound);
+            SCALAR.selectDeviating(prices, from, to, 300.0, 150.0, scalarDeviating);
+            VECTOR.selectDeviating(prices, from, to, 300.0, 150.0, vectorDeviating);
+
+            // Assert
+            assertThat(vectorInside).isEqualTo(scalarInside);
+            assertThat(vectorOnBound).isEqualTo(scalarOnBound);
+            assertThat(vectorDeviating).isEqualTo(scalarDeviating);
+        }
+        assertThat(PriceFilter.INSTANCE.describe()).isNotBlank();
+    }
+
+    @Test
+    @DisplayName("🎯 should stay exact for prices that round to a bound")
+    void should_stayExact_atBounds() {
+        // Arrange
+        Warehouse warehouse = Warehouse.getInstance("VectorScanTestWarehouse", 2);
+        warehouse.clearProducts();
+        //Both round to the double 1000.0, but only one is at least 1000
+        Product justAbove = laptop("1000.00000000000000001");
+        Product justBelow = laptop("999.999999999999999999");
+        Product exact = laptop("1000");
+        List<Product> products = new ArrayList<>(List.of(justAbove, justBelow, exact));
+        for (int i = 0; i < 500; i++) {
+            products.add(laptop(BigDecimal.valueOf(i * 7, 1).toPlainString()));
+        }
+        warehouse.addProducts(products);
+        warehouse.updateProductPrice(products.get(10).uuid(), new BigDecimal("1000"));
+        WarehouseAnalyzer analyzer = new WarehouseAnalyzer(warehouse);
+        BigDecimal thousand = new BigDecimal("1000");
+
+        // Act
+        List<Product> above = analyzer.findProductsAbovePrice(thousand);
+        List<Product> inRange = analyzer.findProductsInPriceRange(new BigDecimal("10.5"), thousand);
+        InventoryValidation validation = analyzer.validateInventoryConstraints();
+
+        // Assert
+        assertThat(above).containsExactlyInAnyOrder(justAbove);
+        assertThat(inRange).containsExactlyInAnyOrderElementsOf(warehouse.getProducts().stream()
+                .filter(p -> p.price().compareTo(new BigDecimal("10.5")) >= 0 && p.price().compareTo(thousand) <= 0)
+                .toList());
+        assertThat(inRange).contains(justBelow, exact, products.get(10)).doesNotContain(justAbove);
+        assertThat(validation.getHighValuePercentage()).isEqualTo(3 * 100.0 / 503);
+        warehouse.clearProducts();
+    }
+
+    @Test
+    @Tag("benchmark")
+    @EnabledIfSystemProperty(named = "warehouse.benchmark", matches = "true")
+    @DisplayName("🏎️ should scan at least twice as fast with vectors as with the scalar loop")
+    void should_reportSpeedup(TestReporter reporter) {
+        // Arrange
+        Random random = new Random(5);
+        double[] prices = new double[1 << 20];
+        for (int i = 0; i < prices.length; i++) {
+            prices[i] = random.nextInt(1_000_000) / 100.0;
+        }
+        long[] inside = PriceFilter.bitmap(prices.length);
+        long[] onBound = PriceFilter.bitmap(prices.length);
+
+        // Act
+        long scalarNanos = time(SCALAR, prices, inside, onBound);
+        long scalarCount = Arrays.stream(inside).map(Long::bitCount).sum();
+        Arrays.fill(inside, 0);
+        long vectorNanos = time(VECTOR, prices, inside, onBound);
+        long vectorCount = Arrays.stream(inside).map(Long::bitCount).sum();
+
+        // Assert
+        assertThat(vectorCount).isEqualTo(scalarCount).isPositive();
+        reporter.publishEntry("scan", String.format("Price scan over %,d rows: scalar %.2f ms, %s %.2f ms (%.1fx)",
+                prices.length, scalarNanos / 1e6, VECTOR.describe(), vectorNanos / 1e6, (double) scalarNanos / vectorNanos));
+        if (PriceFilter.INSTANCE instanceof VectorPriceFilter vector && vector.lanes() >= 4) {
+            assertThat((double) scalarNanos / vectorNanos).as("speedup with %d lanes", vector.lanes())
+                    .isGreaterThanOrEqualTo(2.0);
+        }
+    }
+
+    //Best of several runs after warm-up, to let the JIT compile the loop
+    private static long time(PriceFilter filter, double[] prices, long[] inside, long[] onBound) {
+        long best = Long.MAX_VALUE;
+        for (int run = 0; run < 30; run++) {
+            Arrays.fill(inside, 0);
+            long start = System.nanoTime();
+            filter.select(prices, 0, prices.length, 2_500.0, 7_500.0, inside, onBound);
+            best = Math.min(best, System.nanoTime() - start);
+        }
+        return best;
+    }
+
+    private static Product laptop(String price) {
+        return new ElectronicsProduct(UUID.randomUUID(), "Laptop", Category.of("Electronics"),
+                new BigDecimal(price), 12, BigDecimal.ONE);
+    }
+}
@@ -0,0 +1,207 @@
+package com.example;
+
+import com.sun.management.UnixOperatingSystemMXBean;
+import org.junit.jupiter.api.*;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+
+import java.io.*;
+import java.lang.management.ManagementFactory;
+import java.math.BigDecimal;
+import java.net.Socket;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
+import java.util.*;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.junit.jupiter.api.Assumptions.assumeTrue;
+
+/**
+ * Tests for the embedded HTTP query service.
+ * The load test is skipped by default; run it with
+ * ./mvnw test -Dtest=WarehouseHttpServerTest -Dwarehouse.loadtest=true [-Dwarehouse.loadtest.connections=8000]
+ * Client and server run in one JVM, so every connection takes two file descriptors and the open-file
+ * limit (ulimit -n) must exceed twice the connection count. The default of 8,000 connections fits the
+ * common 20,000 limit; tens of thousands need a raised limit and the connections property, and are
+ * skipped when the limit does not allow them.
+ */
+@DisplayName("Warehouse HTTP Server")
+class WarehouseHttpServerTest {
+
+    private Warehouse warehouse;
+    private WarehouseHttpServer server;
+    private HttpClient client;
+    private Product milk;
+    private SpoiledMilk spoiled;
+
+    //Milk whose expiration date fails once it is in the warehouse
+    private static class SpoiledMilk extends FoodProduct {
+        volatile boolean failing;
+
+        SpoiledMilk() {
+            super(UUID.randomUUID(), "Spoiled milk", Category.of("Dairy"), BigDecimal.ONE,
+                    LocalDate.now().plusDays(2), BigDecimal.ONE);
+        }
+
+        @Override
+        public LocalDate expirationDate() {
+            if (failing) {
+                throw new IllegalStateException("broken sensor");
+            }
+            return super.expirationDate();
+        }
+    }
+
+    @BeforeEach
+    void setUp() throws IOException {
+        warehouse = Warehouse.getInstance("HttpTestWarehouse", 4);
+        warehouse.clearProducts();
+        milk = new FoodProduct(UUID.randomUUID(), "Milk \"2%\"", Category.of("Dairy"),
+                new BigDecimal("15.50"), LocalDate.now().plusDays(7), new BigDecimal("1.0"));
+        warehouse.addProduct(milk);
+        warehouse.addProduct(new ElectronicsProduct(UUID.randomUUID(), "Laptop", Category.of("Electronics"),
+                new BigDecimal("1500.00"), 24, new BigDecimal("2.5")));
+        spoiled = new SpoiledMilk();
+        warehouse.addProduct(spoiled);
+        server = WarehouseHttpServer.start(warehouse, 0);
+        client = HttpClient.newHttpClient();
+    }
+
+    @AfterEach
+    void tearDown() {
+        server.close();
+        client.close();
+    }
+
+    private HttpResponse<String> get(String path) throws IOException, InterruptedException {
+        return client.send(HttpRequest.newBuilder(URI.create("http://localhost:" + server.getPort() + path)).build(),
+                HttpResponse.BodyHandlers.ofString());
+    }
+
+    @Test
+    @DisplayName("✅ should look up a product by UUID and return 404 for unknown ids")
+    void should_lookUpProductById() throws Exception {
+        // Act
+        HttpResponse<String> found = get("/products/" + milk.uuid());
+        HttpResponse<String> missing = get("/products/" + UUID.randomUUID());
+
+        // Assert
+        assertThat(found.statusCode()).isEqualTo(200);
+        assertThat(found.body())
+                .contains("\"id\":\"" + milk.uuid() + "\"")
+                .contains("\"name\":\"Milk \\\"2%\\\"\"")
+                .contains("\"price\":15.50")
+                .contains("\"type\":\"food\"");
+        assertThat(missing.statusCode()).isEqualTo(404);
+    }
+
+    @Test
+    @DisplayName("✅ should update a price via PUT and reject malformed prices")
+    void should_updatePrice() throws Exception {
+        // Act
+        HttpResponse<String> updated = client.send(HttpRequest.newBuilder(
+                        URI.create("http://localhost:" + server.getPort() + "/products/" + milk.uuid() + "/price"))
+                .PUT(HttpRequest.BodyPublishers.ofString("17.00")).build(), HttpResponse.BodyHandlers.ofString());
+        HttpResponse<String> malformed = client.send(HttpRequest.newBuilder(
+                        URI.create("http://localhost:" + server.getPort() + "/products/" + milk.uuid() + "/price"))
+                .PUT(HttpRequest.BodyPublishers.ofString("abc")).build(), HttpResponse.BodyHandlers.ofString());
+
+        // Assert
+        assertThat(updated.statusCode()).isEqualTo(200);
+        assertThat(warehouse.getProductById(milk.uuid()).orElseThrow().price()).isEqualByComparingTo("17.00");
+        assertThat(malformed.statusCode()).isEqualTo(400);
+    }
+
+    @Test
+    @DisplayName("📊 should serve analyzer queries as JSON")
+    void should_serveAnalyzerQueries() throws Exception {
+        // Act
+        HttpResponse<String> stats = get("/analytics/statistics");
+        HttpResponse<String> range = get("/analytics/price-range?min=10&max=20");
+        HttpResponse<String> search = get("/analytics/search?q=lap");
+        HttpResponse<String> missingParam = get("/analytics/price-range?min=10");
+
+        // Assert
+        assertThat(stats.body()).contains("\"totalProducts\":3", "\"totalValue\":1516.50", "\"categoryCount\":2");
+        assertThat(range.body()).contains(milk.uuid().toString()).doesNotContain("Laptop");
+        assertThat(search.body()).contains("Laptop").doesNotContain("Milk");
+        assertThat(missingParam.statusCode()).isEqualTo(400);
+    }
+
+    @Test
+    @DisplayName("💥 should answer 500 on unexpected failures and cut off a response that fails mid-stream")
+    void should_reportUnexpectedFailures() throws Exception {
+        // Arrange
+        HttpResponse<String> all = get("/products");
+        spoiled.failing = true;
+
+        // Act
+        HttpResponse<String> failed = get("/analytics/expiring?days=3");
+
+        // Assert
+        assertThat(all.statusCode()).isEqualTo(200);
+        assertThat(all.body()).startsWith("[").endsWith("]")
+                .contains(milk.uuid().toString(), spoiled.uuid().toString(), "Laptop");
+        assertThat(failed.statusCode()).isEqualTo(500);
+        assertThat(failed.body()).contains("Internal server error.").doesNotContain("broken sensor");
+        //Headers are already sent when the product is written, so the body must not look complete
+        assertThatThrownBy(() -> get("/products/" + spoiled.uuid())).isInstanceOf(IOException.class);
+        spoiled.failing = false;
+        assertThat(get("/products/" + spoiled.uuid()).statusCode()).isEqualTo(200);
+    }
+
+    @Test
+    @Tag("load")
+    @EnabledIfSystemProperty(named = "warehouse.loadtest", matches = "true")
+    @DisplayName("🚀 should serve thousands of held-open connections without growing platform threads")
+    void should_serveManyConcurrentConnections(TestReporter reporter) throws Exception {
+        // Arrange - every client holds its own socket open until all are connected
+        int connections = Integer.getInteger("warehouse.loadtest.connections", 8_000);
+        if (ManagementFactory.getOperatingSystemMXBean() instanceof UnixOperatingSystemMXBean os) {
+            assumeTrue(os.getMaxFileDescriptorCount() > 2L * connections + 1_000,
+                    "ulimit -n is too low for " + connections + " connections");
+        }
+        CountDownLatch allConnected = new CountDownLatch(connections);
+        AtomicInteger ok = new AtomicInteger();
+        String request = "GET /products/" + milk.uuid() + " HTTP/1.1\r\nHost: localhost\r\nConnection: close\r\n\r\n";
+        int platformThreadsBefore = ManagementFactory.getThreadMXBean().getThreadCount();
+
+        // Act
+        long start = System.nanoTime();
+        try (ExecutorService clients = Executors.newVirtualThreadPerTaskExecutor()) {
+            for (int i = 0; i < connections; i++) {
+                clients.submit(() -> {
+                    try (Socket socket = new Socket("localhost", server.getPort())) {
+                        allConnected.countDown();
+                        allConnected.await(60, TimeUnit.SECONDS);
+                        socket.getOutputStream().write(request.getBytes(StandardCharsets.US_ASCII));
+                        BufferedReader in = new BufferedReader(new InputStreamReader(socket.getInputStream(),
+                                StandardCharsets.US_ASCII));
+                        //A connection closed without a response has no status line and counts as failed
+                        String status = in.readLine();
+                        if (status != null && status.contains(" 200 ")) ok.incrementAndGet();
+                    } catch (IOException | InterruptedException e) {
+                        allConnected.countDown();
+                    }
+                    return null;
+                });
+            }
+        }
+        double seconds = (System.nanoTime() - start) / 1e9;
+        int peakPlatformThreads = ManagementFactory.getThreadMXBean().getPeakThreadCount();
+
+        // Assert
+        reporter.publishEntry("load", String.format("%d/%d requests OK in %.2f s (%.0f req/s), peak platform threads %d (before %d)",
+                ok.get(), connections, seconds, ok.get() / seconds, peakPlatformThreads, platformThreadsBefore));
+        assertThat(ok.get()).isEqualTo(connections);
+        assertThat(peakPlatformThreads)
+                .as("Handlers run on virtual threads, so platform threads must not grow with connections")
+                .isLessThan(platformThreadsBefore + 2 * Runtime.getRuntime().availableProcessors() + 64);
+    }
+}